@@ -0,0 +1,29 @@
+package com.crypto.trade.benchmarks;
+
+import com.crypto.trade.poloniex.storage.candles.CandlesBuffer;
+
+import java.time.Duration;
+import java.util.Random;
+
+/**
+ * Reproducible minute candles of a random walk price, shared by the benchmarks evaluating indicators and strategies.
+ */
+final class BenchmarkCandles {
+
+    private BenchmarkCandles() {
+    }
+
+    static CandlesBuffer randomWalk(int count, long seed) {
+        CandlesBuffer candles = new CandlesBuffer("benchmark", Duration.ofMinutes(1), count);
+        Random random = new Random(seed);
+        double price = 0.07;
+        for (int i = 0; i < count; i++) {
+            int index = candles.addCandle((i + 1) * 60_000L);
+            for (int trade = 0; trade < 5; trade++) {
+                price = Math.max(0.01, price + (random.nextDouble() - 0.5) * 0.001);
+                candles.addTrade(index, random.nextDouble(), price);
+            }
+        }
+        return candles;
+    }
+}
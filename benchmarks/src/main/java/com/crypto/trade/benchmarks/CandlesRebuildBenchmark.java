@@ -0,0 +1,70 @@
+package com.crypto.trade.benchmarks;
+
+import com.crypto.trade.poloniex.dto.PoloniexHistoryTrade;
+import com.crypto.trade.poloniex.services.analytics.TimeFrame;
+import com.crypto.trade.poloniex.services.backtest.HistoryTrades;
+import com.crypto.trade.poloniex.storage.candles.CandlesBuffer;
+import com.crypto.trade.poloniex.storage.candles.CandlesBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Candles of every time frame rebuilt from two weeks of trades, a trade every two seconds, by fork-join pool
+ * parallelism.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=logback-benchmarks.xml")
+public class CandlesRebuildBenchmark {
+
+    private static final int TRADES_COUNT = 14 * 24 * 60 * 30;
+
+    @Param({"1", "4"})
+    private int parallelism;
+
+    private final List<TimeFrame> timeFrames = Arrays.asList(TimeFrame.values());
+    private HistoryTrades trades;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setUp() {
+        ZonedDateTime start = ZonedDateTime.of(2018, 4, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        Random random = new Random(42);
+        double price = 0.07;
+        List<PoloniexHistoryTrade> historyTrades = new ArrayList<>(TRADES_COUNT);
+        for (long id = 0; id < TRADES_COUNT; id++) {
+            price = Math.max(0.01, price + (random.nextDouble() - 0.5) * 0.0001);
+            PoloniexHistoryTrade trade = new PoloniexHistoryTrade();
+            trade.setTradeId(id);
+            trade.setDate(start.plusSeconds(id * 2));
+            trade.setType(id % 2 == 0 ? "buy" : "sell");
+            trade.setRate(BigDecimal.valueOf(price).setScale(8, BigDecimal.ROUND_DOWN).toPlainString());
+            trade.setAmount(BigDecimal.valueOf(random.nextDouble()).setScale(8, BigDecimal.ROUND_DOWN).toPlainString());
+            historyTrades.add(trade);
+        }
+        trades = HistoryTrades.of(historyTrades);
+        pool = new ForkJoinPool(parallelism);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public List<CandlesBuffer> build() {
+        return new CandlesBuilder(trades, pool).build(timeFrames);
+    }
+}
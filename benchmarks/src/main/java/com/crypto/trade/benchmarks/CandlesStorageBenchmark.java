@@ -0,0 +1,93 @@
+package com.crypto.trade.benchmarks;
+
+import com.crypto.trade.poloniex.config.properties.PoloniexProperties;
+import com.crypto.trade.poloniex.config.properties.TradeConfig;
+import com.crypto.trade.poloniex.dto.PoloniexTrade;
+import com.crypto.trade.poloniex.services.analytics.CurrencyPair;
+import com.crypto.trade.poloniex.services.analytics.TimeFrame;
+import com.crypto.trade.poloniex.services.scheduler.StrategyScheduler;
+import com.crypto.trade.poloniex.storage.CandlesStorage;
+import com.crypto.trade.poloniex.storage.model.TimeFrameStorage;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static com.crypto.trade.poloniex.services.analytics.CurrencyPair.BTC_ETH;
+
+/**
+ * Live trade applied to the candles of every time frame, two trades a second so that candles are closed regularly.
+ * Strategies submitted on closed candles are discarded, they are measured by {@link FactoryStrategiesBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=logback-benchmarks.xml")
+public class CandlesStorageBenchmark {
+
+    private static final int TRADES_COUNT = 100_000;
+
+    private final PoloniexProperties poloniexProperties = new PoloniexProperties();
+    private PoloniexTrade[] trades;
+    private StrategyScheduler strategyScheduler;
+    private CandlesStorage candlesStorage;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        poloniexProperties.setTradeConfig(new TradeConfig());
+        strategyScheduler = new StrategyScheduler(Executors.newSingleThreadExecutor()) {
+            @Override
+            public void submit(CurrencyPair currencyPair, TimeFrame timeFrame, Runnable task) {
+            }
+        };
+
+        ZonedDateTime start = ZonedDateTime.of(2018, 4, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        Random random = new Random(42);
+        double price = 0.07;
+        trades = new PoloniexTrade[TRADES_COUNT];
+        for (int i = 0; i < TRADES_COUNT; i++) {
+            price = Math.max(0.01, price + (random.nextDouble() - 0.5) * 0.0001);
+            trades[i] = new PoloniexTrade((long) i,
+                    start.plusNanos(i * 500_000_000L),
+                    BigDecimal.valueOf(random.nextDouble()).setScale(8, BigDecimal.ROUND_DOWN).toPlainString(),
+                    BigDecimal.valueOf(price).setScale(8, BigDecimal.ROUND_DOWN).toPlainString(),
+                    "0",
+                    i % 2 == 0 ? "buy" : "sell");
+        }
+        resetStorage();
+    }
+
+    @TearDown
+    public void tearDown() {
+        strategyScheduler.shutdown();
+    }
+
+    @Benchmark
+    public void addTrade() {
+        // Trades times only grow, the candles are rebuilt once all the trades have been added
+        if (next == trades.length) {
+            resetStorage();
+        }
+        candlesStorage.addTrade(BTC_ETH, trades[next++]);
+    }
+
+    private void resetStorage() {
+        candlesStorage = new CandlesStorage();
+        ReflectionTestUtils.setField(candlesStorage, "poloniexProperties", poloniexProperties);
+        ReflectionTestUtils.setField(candlesStorage, "strategyScheduler", strategyScheduler);
+        candlesStorage.initCurrency(BTC_ETH, Arrays.stream(TimeFrame.values())
+                .map(TimeFrameStorage::new)
+                .collect(Collectors.toList()));
+        next = 0;
+    }
+}
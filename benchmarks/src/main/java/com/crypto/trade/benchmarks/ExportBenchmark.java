@@ -0,0 +1,67 @@
+package com.crypto.trade.benchmarks;
+
+import com.crypto.trade.poloniex.services.export.ExportHelper;
+import com.crypto.trade.poloniex.storage.analytics.IndicatorFactory;
+import com.crypto.trade.poloniex.storage.analytics.IndicatorType;
+import com.crypto.trade.poloniex.storage.analytics.IndicatorsStorage;
+import com.crypto.trade.utils.TestCandlesFactory;
+import eu.verdelhan.ta4j.BaseTimeSeries;
+import eu.verdelhan.ta4j.Decimal;
+import eu.verdelhan.ta4j.Indicator;
+import eu.verdelhan.ta4j.TimeSeries;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CSV conversion of candles and indicator values by {@link ExportHelper}, for the test factory candle and for the
+ * last candle of a random walk.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=logback-benchmarks.xml")
+public class ExportBenchmark {
+
+    private final ExportHelper exportHelper = new ExportHelper();
+    private TimeSeries testSeries;
+    private TimeSeries series;
+    private List<Indicator<Decimal>> indicators;
+
+    @Setup
+    public void setUp() {
+        testSeries = new BaseTimeSeries(Collections.singletonList(TestCandlesFactory.createCandle()));
+        series = BenchmarkCandles.randomWalk(600, 42).getTimeSeries();
+        IndicatorsStorage storage = new IndicatorsStorage();
+        indicators = Arrays.asList(
+                IndicatorFactory.createIndicator(IndicatorType.CLOSED_PRICE, series, storage),
+                IndicatorFactory.createIndicator(IndicatorType.EMA5, series, storage),
+                IndicatorFactory.createIndicator(IndicatorType.EMA90, series, storage),
+                IndicatorFactory.createIndicator(IndicatorType.RSI14, series, storage));
+        for (int index = series.getBeginIndex(); index <= series.getEndIndex(); index++) {
+            for (Indicator<Decimal> indicator : indicators) {
+                indicator.getValue(index);
+            }
+        }
+    }
+
+    @Benchmark
+    public String testCandle() {
+        return exportHelper.convertCandle(testSeries, 0);
+    }
+
+    @Benchmark
+    public String candle() {
+        return exportHelper.convertCandle(series, series.getEndIndex());
+    }
+
+    @Benchmark
+    public String indicators() {
+        return exportHelper.convertIndicators(series, indicators, series.getEndIndex());
+    }
+}
@@ -0,0 +1,104 @@
+package com.crypto.trade.benchmarks;
+
+import com.crypto.trade.poloniex.services.analytics.TimeFrame;
+import com.crypto.trade.poloniex.services.analytics.strategies.AnalyticsHelper;
+import com.crypto.trade.poloniex.services.analytics.strategies.ShortBuyStrategyFactory;
+import com.crypto.trade.poloniex.services.analytics.strategies.TmaStrategyFactory;
+import com.crypto.trade.poloniex.services.analytics.strategies.TrendStrategyFactory;
+import com.crypto.trade.poloniex.storage.analytics.AnalyticsStorage;
+import com.crypto.trade.utils.TestStrategiesFactory;
+import eu.verdelhan.ta4j.BaseTradingRecord;
+import eu.verdelhan.ta4j.Strategy;
+import eu.verdelhan.ta4j.TimeSeries;
+import eu.verdelhan.ta4j.TradingRecord;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static com.crypto.trade.poloniex.services.analytics.CurrencyPair.BTC_ETH;
+
+/**
+ * {@link Strategy#shouldOperate} of the factory strategies over all the closed candles, for a new and an opened
+ * trading record. The boolean test strategies give the cost of the evaluation loop itself.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=logback-benchmarks.xml")
+public class FactoryStrategiesBenchmark {
+
+    private static final int CANDLES_COUNT = 2000;
+
+    @Param({"shortBuy", "shortBuyEma540", "risingTrend", "modifiedRisingTrend", "fallingTrend",
+            "risingTripleEma", "fallingTma", "risingTma2", "testAlwaysTrading", "testNonTrading"})
+    private String strategyName;
+
+    private TimeSeries series;
+    private Strategy strategy;
+    private TradingRecord newRecord;
+    private TradingRecord openedRecord;
+
+    @Setup
+    public void setUp() {
+        series = BenchmarkCandles.randomWalk(CANDLES_COUNT, 42).getTimeSeries();
+        AnalyticsStorage analyticsStorage = new AnalyticsStorage(Collections.singleton(BTC_ETH), (currencyPair, timeFrame) -> series);
+        strategy = createStrategy(new AnalyticsHelper(analyticsStorage));
+        newRecord = new BaseTradingRecord();
+        openedRecord = new BaseTradingRecord();
+        openedRecord.enter(series.getBeginIndex(), series.getTick(series.getBeginIndex()).getClosePrice(), series.getTick(0).getVolume());
+        // Streaming indicators compute their values once
+        evaluate();
+    }
+
+    @Benchmark
+    public int shouldOperate() {
+        return evaluate();
+    }
+
+    private int evaluate() {
+        int signals = 0;
+        for (int index = series.getBeginIndex() + 1; index <= series.getEndIndex(); index++) {
+            if (strategy.shouldOperate(index, newRecord)) {
+                signals++;
+            }
+            if (strategy.shouldOperate(index, openedRecord)) {
+                signals++;
+            }
+        }
+        return signals;
+    }
+
+    private Strategy createStrategy(AnalyticsHelper analyticsHelper) {
+        ShortBuyStrategyFactory shortBuyFactory = new ShortBuyStrategyFactory(analyticsHelper);
+        TrendStrategyFactory trendFactory = new TrendStrategyFactory(analyticsHelper);
+        TmaStrategyFactory tmaFactory = new TmaStrategyFactory(analyticsHelper);
+        TimeFrame timeFrame = TimeFrame.ONE_MINUTE;
+        switch (strategyName) {
+            case "shortBuy":
+                return shortBuyFactory.createShortBuyStrategy(BTC_ETH, timeFrame);
+            case "shortBuyEma540":
+                return shortBuyFactory.createShortBuyEma540Strategy(BTC_ETH, timeFrame);
+            case "risingTrend":
+                return trendFactory.createRisingTrendStrategy(BTC_ETH, timeFrame);
+            case "modifiedRisingTrend":
+                return trendFactory.createModifiedRisingTrendStrategy(BTC_ETH, timeFrame);
+            case "fallingTrend":
+                return trendFactory.createFallingTrendStrategy(BTC_ETH, timeFrame);
+            case "risingTripleEma":
+                return tmaFactory.createRisingTripleEmaStrategyCorrected(BTC_ETH, timeFrame);
+            case "fallingTma":
+                return tmaFactory.createFallingTmaStrategy(BTC_ETH, timeFrame);
+            case "risingTma2":
+                return tmaFactory.createRisingTmaStrategy2(BTC_ETH, timeFrame);
+            case "testAlwaysTrading":
+                return TestStrategiesFactory.createAlwaysTradingStrategy();
+            case "testNonTrading":
+                return TestStrategiesFactory.createNonTradingStrategy();
+            default:
+                throw new IllegalArgumentException("Unknown strategy " + strategyName);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.crypto.trade.benchmarks;
+
+import com.crypto.trade.poloniex.storage.analytics.IndicatorFactory;
+import com.crypto.trade.poloniex.storage.analytics.IndicatorType;
+import com.crypto.trade.poloniex.storage.analytics.IndicatorsStorage;
+import eu.verdelhan.ta4j.Decimal;
+import eu.verdelhan.ta4j.Indicator;
+import eu.verdelhan.ta4j.TimeSeries;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Indicator chains built by {@link IndicatorFactory}: building a chain and computing it over all the candles, as a
+ * history rebuild does, and reading the value of a closed candle from a warmed up chain, as live trading does.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=logback-benchmarks.xml")
+public class IndicatorsBenchmark {
+
+    private static final int CANDLES_COUNT = 2000;
+
+    @Param({"CLOSED_PRICE", "RSI14", "STOCHK14", "STOCHD3", "EMA90", "EMA540", "DMA90", "TMA90"})
+    private IndicatorType indicatorType;
+
+    private TimeSeries series;
+    private Indicator<Decimal> warmedUp;
+
+    @Setup
+    public void setUp() {
+        series = BenchmarkCandles.randomWalk(CANDLES_COUNT, 42).getTimeSeries();
+        warmedUp = IndicatorFactory.createIndicator(indicatorType, series, new IndicatorsStorage());
+        evaluate(warmedUp);
+    }
+
+    @Benchmark
+    public Decimal buildChain() {
+        Indicator<Decimal> indicator = IndicatorFactory.createIndicator(indicatorType, series, new IndicatorsStorage());
+        return evaluate(indicator);
+    }
+
+    @Benchmark
+    public Decimal closedCandleValue() {
+        return warmedUp.getValue(series.getEndIndex());
+    }
+
+    private Decimal evaluate(Indicator<Decimal> indicator) {
+        Decimal value = Decimal.NaN;
+        for (int index = series.getBeginIndex(); index <= series.getEndIndex(); index++) {
+            value = indicator.getValue(index);
+        }
+        return value;
+    }
+}
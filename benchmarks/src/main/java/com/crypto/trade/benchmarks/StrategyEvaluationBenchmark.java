@@ -0,0 +1,91 @@
+package com.crypto.trade.benchmarks;
+
+import com.crypto.trade.poloniex.services.analytics.indicators.StreamingClosePriceIndicator;
+import com.crypto.trade.poloniex.services.analytics.indicators.StreamingEMAIndicator;
+import com.crypto.trade.poloniex.services.analytics.rules.DoubleLowerRule;
+import com.crypto.trade.poloniex.services.analytics.rules.DoubleModifiedStopGainRule;
+import com.crypto.trade.poloniex.services.analytics.rules.DoubleRisingUpIndicatorRule;
+import com.crypto.trade.poloniex.services.analytics.rules.DoubleUpperRule;
+import com.crypto.trade.poloniex.services.analytics.strategies.DoubleStrategy;
+import com.crypto.trade.poloniex.storage.candles.CandlesBuffer;
+import eu.verdelhan.ta4j.BaseStrategy;
+import eu.verdelhan.ta4j.BaseTradingRecord;
+import eu.verdelhan.ta4j.Decimal;
+import eu.verdelhan.ta4j.Strategy;
+import eu.verdelhan.ta4j.TimeSeries;
+import eu.verdelhan.ta4j.TradingRecord;
+import eu.verdelhan.ta4j.indicators.EMAIndicator;
+import eu.verdelhan.ta4j.indicators.helpers.ClosePriceIndicator;
+import eu.verdelhan.ta4j.indicators.helpers.PreviousValueIndicator;
+import eu.verdelhan.ta4j.trading.rules.OverIndicatorRule;
+import eu.verdelhan.ta4j.trading.rules.StopGainRule;
+import eu.verdelhan.ta4j.trading.rules.UnderIndicatorRule;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares a strategy evaluated on {@link Decimal} values (ta4j indicators and rules) with the same strategy
+ * evaluated on the double views of the streaming indicators. Indicators are warmed up, so only the rules
+ * evaluation is measured, one operation evaluates the strategy over all the closed candles.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=logback-benchmarks.xml")
+public class StrategyEvaluationBenchmark {
+
+    private static final int CANDLES_COUNT = 2000;
+
+    private TimeSeries series;
+    private Strategy decimalStrategy;
+    private Strategy doubleStrategy;
+    private TradingRecord tradingRecord;
+
+    @Setup
+    public void setUp() {
+        CandlesBuffer candles = BenchmarkCandles.randomWalk(CANDLES_COUNT, 42);
+        series = candles.getTimeSeries();
+
+        ClosePriceIndicator closePrice = new ClosePriceIndicator(series);
+        EMAIndicator ema = new EMAIndicator(closePrice, 30);
+        decimalStrategy = new BaseStrategy(
+                new OverIndicatorRule(closePrice, ema).and(new OverIndicatorRule(ema, new PreviousValueIndicator(ema))),
+                new UnderIndicatorRule(closePrice, ema).or(new StopGainRule(closePrice, Decimal.ONE)));
+
+        StreamingClosePriceIndicator streamingClosePrice = new StreamingClosePriceIndicator(series);
+        StreamingEMAIndicator streamingEma = new StreamingEMAIndicator(streamingClosePrice, 30);
+        doubleStrategy = new DoubleStrategy(
+                new DoubleUpperRule(streamingClosePrice, streamingEma).and(new DoubleRisingUpIndicatorRule(streamingEma)),
+                new DoubleLowerRule(streamingClosePrice, streamingEma).or(new DoubleModifiedStopGainRule(streamingClosePrice, Decimal.ONE)));
+
+        tradingRecord = new BaseTradingRecord();
+        tradingRecord.enter(0, closePrice.getValue(0), Decimal.ONE);
+        for (int index = 0; index < series.getEndIndex(); index++) {
+            ema.getValue(index);
+            streamingEma.getValue(index);
+        }
+    }
+
+    @Benchmark
+    public int decimal() {
+        return evaluate(decimalStrategy);
+    }
+
+    @Benchmark
+    public int primitive() {
+        return evaluate(doubleStrategy);
+    }
+
+    private int evaluate(Strategy strategy) {
+        int signals = 0;
+        for (int index = 1; index < series.getEndIndex(); index++) {
+            if (strategy.shouldEnter(index) || strategy.shouldExit(index, tradingRecord)) {
+                signals++;
+            }
+        }
+        return signals;
+    }
+}
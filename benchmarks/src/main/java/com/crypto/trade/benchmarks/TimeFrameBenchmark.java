@@ -0,0 +1,48 @@
+package com.crypto.trade.benchmarks;
+
+import com.crypto.trade.poloniex.services.analytics.TimeFrame;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Candle end time of a trade, computed for every trade and time frame by the candles storage.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=logback-benchmarks.xml")
+public class TimeFrameBenchmark {
+
+    private static final int TIMES_MASK = 1023;
+
+    @Param({"ONE_MINUTE", "FIFTEEN_MINUTES", "ONE_HOUR", "FOUR_HOURS"})
+    private TimeFrame timeFrame;
+
+    private final ZonedDateTime[] tradeTimes = new ZonedDateTime[TIMES_MASK + 1];
+    private final long[] tradeMillis = new long[TIMES_MASK + 1];
+    private int next;
+
+    @Setup
+    public void setUp() {
+        ZonedDateTime start = ZonedDateTime.of(2018, 4, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        for (int i = 0; i < tradeTimes.length; i++) {
+            tradeTimes[i] = start.plusSeconds(i * 37L);
+            tradeMillis[i] = tradeTimes[i].toInstant().toEpochMilli();
+        }
+    }
+
+    @Benchmark
+    public ZonedDateTime calculateEndTime() {
+        return timeFrame.calculateEndTime(tradeTimes[next++ & TIMES_MASK]);
+    }
+
+    @Benchmark
+    public long calculateEndMillis() {
+        return timeFrame.calculateEndMillis(tradeMillis[next++ & TIMES_MASK]);
+    }
+}
@@ -0,0 +1,66 @@
+package com.crypto.trade.benchmarks;
+
+import com.crypto.trade.poloniex.dto.ResultTrade;
+import com.crypto.trade.poloniex.services.trade.TradeCalculator;
+import com.crypto.trade.utils.TestOrdersFactory;
+import eu.verdelhan.ta4j.Decimal;
+import eu.verdelhan.ta4j.Order;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link BigDecimal} order math run for every placed order and every exit check.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=logback-benchmarks.xml")
+public class TradeCalculatorBenchmark {
+
+    private final BigDecimal volume = new BigDecimal("0.0018");
+    private final BigDecimal rate = new BigDecimal("0.07123456");
+    private final BigDecimal exitRate = new BigDecimal("0.07312000");
+    private Order buyEntry;
+    private Order sellEntry;
+    private List<ResultTrade> resultTrades;
+
+    @Setup
+    public void setUp() {
+        buyEntry = TestOrdersFactory.createEntryOrder(Decimal.valueOf("0.07123456"), Decimal.valueOf("0.02526898"));
+        sellEntry = TestOrdersFactory.createEntryOrder(Order.OrderType.SELL, Decimal.valueOf("0.07123456"), Decimal.valueOf("0.02526898"));
+        resultTrades = Arrays.asList(
+                ResultTrade.builder().amount(new BigDecimal("0.01")).rate(new BigDecimal("0.0712")).total(new BigDecimal("0.000712")).build(),
+                ResultTrade.builder().amount(new BigDecimal("0.01526898")).rate(new BigDecimal("0.0713")).total(new BigDecimal("0.00108868")).build());
+    }
+
+    @Benchmark
+    public BigDecimal entryAmount() {
+        return TradeCalculator.getEntryAmount(volume, rate, Order.OrderType.BUY);
+    }
+
+    @Benchmark
+    public BigDecimal buyExitAmount() {
+        return TradeCalculator.getExitAmount(buyEntry, exitRate);
+    }
+
+    @Benchmark
+    public BigDecimal sellExitAmount() {
+        return TradeCalculator.getExitAmount(sellEntry, exitRate);
+    }
+
+    @Benchmark
+    public boolean canExit() {
+        return TradeCalculator.canExit(buyEntry, exitRate);
+    }
+
+    @Benchmark
+    public BigDecimal resultRate() {
+        return TradeCalculator.getResultRate(resultTrades, rate);
+    }
+}
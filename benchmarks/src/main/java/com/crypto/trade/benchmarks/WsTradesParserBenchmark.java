@@ -0,0 +1,70 @@
+package com.crypto.trade.benchmarks;
+
+import com.crypto.trade.poloniex.dto.PoloniexTrade;
+import com.crypto.trade.poloniex.services.ws.WsTradeEvent;
+import com.crypto.trade.poloniex.services.ws.WsTradesParser;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the streaming {@link WsTradesParser} with the split based parsing the WS connectors used before.
+ * Run with {@code mvn -pl benchmarks exec:exec} (after {@code mvn install -DskipTests}), add {@code -prof gc}
+ * to the JMH arguments to see the allocation rate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=logback-benchmarks.xml")
+public class WsTradesParserBenchmark {
+
+    private static final String FRAME = "[148,540672082,[[\"o\",1,\"0.07313000\",\"7.21110596\"],"
+            + "[\"t\",\"42706057\",1,\"0.07313000\",\"0.00181421\",1522877119],"
+            + "[\"t\",\"42706058\",0,\"0.07312999\",\"1.25000000\",1522877119],"
+            + "[\"o\",0,\"0.07312999\",\"0.00000000\"],"
+            + "[\"t\",\"42706059\",0,\"0.07312000\",\"0.40000000\",1522877120]]]";
+
+    private final WsTradesParser parser = new WsTradesParser();
+    private long checksum;
+
+    @Benchmark
+    public long streaming() {
+        checksum = 0;
+        parser.parse(FRAME, this::consume);
+        return checksum;
+    }
+
+    @Benchmark
+    public void streamingToTrade(Blackhole blackhole) {
+        parser.parse(FRAME, event -> blackhole.consume(event.toPoloniexTrade()));
+    }
+
+    @Benchmark
+    public void split(Blackhole blackhole) {
+        String[] split = FRAME.split("\"t\"");
+        for (int i = 1; i < split.length; i++) {
+            String[] trade = split[i].split(",");
+            BigDecimal rate = new BigDecimal(trade[3].split("\"")[1]).setScale(8, BigDecimal.ROUND_HALF_UP);
+            Date tradeDate = new Date(Long.parseLong(trade[5].split("]")[0]) * 1000);
+            LocalDateTime timestamp = LocalDateTime.ofInstant(tradeDate.toInstant(), ZoneId.of("GMT-0"));
+            Long tradeId = Long.valueOf(trade[1].replace("\"", ""));
+            String type = "1".equals(trade[2]) ? "buy" : "sell";
+            blackhole.consume(rate);
+            blackhole.consume(new PoloniexTrade(tradeId, ZonedDateTime.of(timestamp, ZoneOffset.UTC),
+                    trade[4].replace("\"", ""), trade[3].replace("\"", ""), "0", type));
+        }
+    }
+
+    private void consume(WsTradeEvent event) {
+        checksum += event.getTradeId() + event.getRate() + event.getAmount() + event.getEpochSeconds();
+    }
+}
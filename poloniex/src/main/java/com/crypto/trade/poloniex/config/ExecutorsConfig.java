@@ -1,19 +1,19 @@
 package com.crypto.trade.poloniex.config;
 
+import com.crypto.trade.poloniex.config.properties.PoloniexProperties;
+import com.crypto.trade.poloniex.config.properties.SchedulerConfig;
+import com.crypto.trade.poloniex.services.scheduler.StrategyScheduler;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
 @Configuration
 public class ExecutorsConfig {
 
     @Bean
-    public ThreadPoolTaskExecutor strategyExecutor() {
-        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(25);
-        executor.setMaxPoolSize(25);
-        return executor;
+    public StrategyScheduler strategyScheduler(PoloniexProperties poloniexProperties) {
+        SchedulerConfig config = poloniexProperties.getScheduler();
+        return new StrategyScheduler(config.getExecutor().create(config.getThreads()));
     }
 
     @Bean
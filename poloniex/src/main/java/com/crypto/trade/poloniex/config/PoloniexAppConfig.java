@@ -7,20 +7,35 @@ import com.crypto.trade.poloniex.services.analytics.strategies.AnalyticsHelper;
 import com.crypto.trade.poloniex.services.analytics.strategies.ShortBuyStrategyFactory;
 import com.crypto.trade.poloniex.services.analytics.strategies.TmaStrategyFactory;
 import com.crypto.trade.poloniex.services.analytics.strategies.TrendStrategyFactory;
+import com.crypto.trade.poloniex.services.backtest.BacktestEngine;
+import com.crypto.trade.poloniex.services.backtest.StrategyOptimizer;
 import com.crypto.trade.poloniex.services.export.ExportHelper;
+import com.crypto.trade.poloniex.services.gateway.PipelinedHttpClient;
+import com.crypto.trade.poloniex.services.ingest.HistoryRebuildService;
+import com.crypto.trade.poloniex.services.ingest.TradesIngestPipeline;
+import com.crypto.trade.poloniex.services.scheduler.CandlesClock;
+import com.crypto.trade.poloniex.services.trade.OrderBookService;
 import com.crypto.trade.poloniex.services.trade.PoloniexRequestHelper;
 import com.crypto.trade.poloniex.services.trade.ProfitCalculator;
 import com.crypto.trade.poloniex.services.trade.SignatureGenerator;
 import com.crypto.trade.poloniex.services.utils.SyncUtils;
+import com.crypto.trade.poloniex.services.ws.WsChannels;
+import com.crypto.trade.poloniex.services.ws.WsFrameRecorder;
+import com.crypto.trade.poloniex.services.ws.WsOrderBooks;
 import com.crypto.trade.poloniex.storage.CandlesStorage;
 import com.crypto.trade.poloniex.storage.TradesStorage;
 import com.crypto.trade.poloniex.storage.analytics.AnalyticsStorage;
+import com.crypto.trade.poloniex.storage.book.OrderBookStorage;
+import com.crypto.trade.poloniex.storage.market.MarketDataStorage;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
+import java.util.Collections;
+import java.util.Optional;
+
 @Configuration
 @EnableAsync
 @EnableScheduling
@@ -32,11 +47,56 @@ public class PoloniexAppConfig {
         return new TradesStorage();
     }
 
+    @Bean
+    public MarketDataStorage marketDataStorage() {
+        return new MarketDataStorage();
+    }
+
+    @Bean
+    public OrderBookStorage orderBookStorage() {
+        return new OrderBookStorage();
+    }
+
+    @Bean
+    public OrderBookService orderBookService() {
+        return new OrderBookService();
+    }
+
+    @Bean
+    public WsOrderBooks wsOrderBooks() {
+        return new WsOrderBooks();
+    }
+
+    @Bean(destroyMethod = "close")
+    public WsFrameRecorder wsFrameRecorder() {
+        return new WsFrameRecorder();
+    }
+
+    @Bean
+    public WsChannels wsChannels(PoloniexProperties poloniexProperties) {
+        return new WsChannels(Optional.ofNullable(poloniexProperties.getCurrencies()).orElse(Collections.emptySet()));
+    }
+
+    @Bean
+    public TradesIngestPipeline tradesIngestPipeline() {
+        return new TradesIngestPipeline();
+    }
+
+    @Bean
+    public HistoryRebuildService historyRebuildService() {
+        return new HistoryRebuildService();
+    }
+
     @Bean
     public CandlesStorage strategiesStorage() {
         return new CandlesStorage();
     }
 
+    @Bean
+    public CandlesClock candlesClock() {
+        return new CandlesClock();
+    }
+
     @Bean
     public ShortBuyStrategyFactory shortBuyFactory() {
         return new ShortBuyStrategyFactory();
@@ -67,6 +127,11 @@ public class PoloniexAppConfig {
         return new RealTradeConfFactory();
     }
 
+    @Bean(destroyMethod = "close")
+    public PipelinedHttpClient tradingClient(PoloniexProperties poloniexProperties) {
+        return new PipelinedHttpClient(poloniexProperties.getGateway());
+    }
+
     @Bean
     public PoloniexRequestHelper poloniexRequestUtils() {
         return new PoloniexRequestHelper();
@@ -82,6 +147,16 @@ public class PoloniexAppConfig {
         return new ExportHelper();
     }
 
+    @Bean
+    public BacktestEngine backtestEngine() {
+        return new BacktestEngine();
+    }
+
+    @Bean
+    public StrategyOptimizer strategyOptimizer() {
+        return new StrategyOptimizer();
+    }
+
     @Bean
     public ProfitCalculator profitCalculator() {
         return new ProfitCalculator();
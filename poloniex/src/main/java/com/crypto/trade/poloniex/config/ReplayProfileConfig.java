@@ -0,0 +1,46 @@
+package com.crypto.trade.poloniex.config;
+
+import com.crypto.trade.poloniex.services.trade.OrderBookService;
+import com.crypto.trade.poloniex.services.trade.OrderGateway;
+import com.crypto.trade.poloniex.services.trade.ReplayOrderBookService;
+import com.crypto.trade.poloniex.services.trade.ReplayOrderGateway;
+import com.crypto.trade.poloniex.services.ws.PoloniexEndPoint;
+import com.crypto.trade.poloniex.services.ws.ReplayWsConnector;
+import com.crypto.trade.poloniex.services.ws.WsConnector;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Replaces the live ws connector by the recorded frames replay, on top of the proxy or non proxy profile. Orders are
+ * filled locally instead of being sent to the exchange and order book snapshots are not loaded, the startup history
+ * sync is disabled in the profile properties.
+ */
+@Profile("replay")
+@Configuration
+public class ReplayProfileConfig {
+
+    @Bean
+    @Primary
+    public WsConnector replayWsConnector() {
+        return new ReplayWsConnector();
+    }
+
+    @Bean
+    @Primary
+    public OrderGateway replayOrderGateway() {
+        return new ReplayOrderGateway();
+    }
+
+    @Bean
+    @Primary
+    public OrderBookService replayOrderBookService() {
+        return new ReplayOrderBookService();
+    }
+
+    @Bean
+    public PoloniexEndPoint poloniexEndPoint() {
+        return new PoloniexEndPoint();
+    }
+}
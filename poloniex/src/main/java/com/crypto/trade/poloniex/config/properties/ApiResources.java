@@ -8,5 +8,6 @@ public class ApiResources {
     private String wsApi;
     private String wsApi2;
     private String tradeHistoryUrl;
+    private String orderBookUrl;
     private String tradingApi;
 }
@@ -0,0 +1,10 @@
+package com.crypto.trade.poloniex.config.properties;
+
+import lombok.Data;
+
+@Data
+public class BacktestConfig {
+
+    // Fork-join pool parallelism used to build candles and evaluate strategies
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+}
@@ -0,0 +1,15 @@
+package com.crypto.trade.poloniex.config.properties;
+
+import lombok.Data;
+
+@Data
+public class CandlesConfig {
+
+    public static final int DEFAULT_CAPACITY = 10080;
+
+    // Maximum candles kept per time frame, one week of 1 minute candles by default
+    private int capacity = DEFAULT_CAPACITY;
+    // Candles are closed at their period end by a clock instead of the first trade of the next period
+    private boolean closeOnClock = true;
+    private long clockTickMillis = 100;
+}
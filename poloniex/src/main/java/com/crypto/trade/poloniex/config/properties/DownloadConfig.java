@@ -0,0 +1,18 @@
+package com.crypto.trade.poloniex.config.properties;
+
+import lombok.Data;
+
+@Data
+public class DownloadConfig {
+
+    // Trades history windows requested concurrently
+    private int parallelism = 6;
+    // Public API allows 6 calls per second per IP
+    private double requestsPerSecond = 6;
+    private int windowMinutes = 180;
+    // Maximum trades returned per request, a full response is split in two halves and requested again
+    private int resultCap = 50000;
+    private int maxAttempts = 8;
+    private long baseBackoffMillis = 500;
+    private long maxBackoffMillis = 30000;
+}
@@ -0,0 +1,15 @@
+package com.crypto.trade.poloniex.config.properties;
+
+import lombok.Data;
+
+@Data
+public class GatewayConfig {
+
+    // Keep-alive connections per host, trading API nonces only stay ordered over a single connection
+    private int connections = 1;
+    private int ioThreads = 1;
+    private int connectTimeoutMillis = 5000;
+    // A response not received in time closes its connection, the requests pipelined on it have an unknown outcome
+    private long requestTimeoutMillis = 10000;
+    private int maxResponseBytes = 1048576;
+}
@@ -0,0 +1,16 @@
+package com.crypto.trade.poloniex.config.properties;
+
+import lombok.Data;
+
+@Data
+public class HistoryConfig {
+
+    // Root of the per currency pair trades history files
+    private String directory = "analytics/history";
+    // Trades history loaded into candles on startup, also the first sync range of a pair without local history
+    private int warmUpHours = 6;
+    // Trades missed since the last run are downloaded from the server on startup
+    private boolean syncOnStartup = true;
+    // Fork-join pool parallelism used to rebuild the candles from the trades history
+    private int rebuildParallelism = Runtime.getRuntime().availableProcessors();
+}
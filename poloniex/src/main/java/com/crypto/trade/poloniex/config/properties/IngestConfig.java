@@ -0,0 +1,17 @@
+package com.crypto.trade.poloniex.config.properties;
+
+import com.crypto.trade.poloniex.services.ingest.OverflowPolicy;
+import com.crypto.trade.poloniex.services.ingest.WaitStrategy;
+import lombok.Data;
+
+@Data
+public class IngestConfig {
+
+    public static final int DEFAULT_BUFFER_SIZE = 65536;
+
+    // Trades buffered per currency pair between the ws thread and the pair consumer, rounded up to a power of two
+    private int bufferSize = DEFAULT_BUFFER_SIZE;
+    private int batchSize = 256;
+    private WaitStrategy waitStrategy = WaitStrategy.PARKING;
+    private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+}
@@ -14,5 +14,13 @@ public class PoloniexProperties {
     private ApiSecretProperties secret;
     private ProxyProperties proxy;
     private TradeConfig tradeConfig;
+    private CandlesConfig candles = new CandlesConfig();
+    private IngestConfig ingest = new IngestConfig();
+    private BacktestConfig backtest = new BacktestConfig();
+    private HistoryConfig history = new HistoryConfig();
+    private DownloadConfig download = new DownloadConfig();
+    private SchedulerConfig scheduler = new SchedulerConfig();
+    private GatewayConfig gateway = new GatewayConfig();
+    private ReplayConfig replay = new ReplayConfig();
     private Set<CurrencyPair> currencies;
 }
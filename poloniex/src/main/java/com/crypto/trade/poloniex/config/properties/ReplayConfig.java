@@ -0,0 +1,14 @@
+package com.crypto.trade.poloniex.config.properties;
+
+import lombok.Data;
+
+@Data
+public class ReplayConfig {
+
+    // Raw ws frames of live connections are recorded into this file when set
+    private String recordFile;
+    // Frames replayed by the replay profile connector
+    private String file;
+    // Frames are replayed with their recorded pacing, otherwise as fast as possible
+    private boolean originalPacing;
+}
@@ -0,0 +1,12 @@
+package com.crypto.trade.poloniex.config.properties;
+
+import com.crypto.trade.poloniex.services.scheduler.ExecutorBackend;
+import lombok.Data;
+
+@Data
+public class SchedulerConfig {
+
+    // Threads shared by all the (currency pair, time frame) strategy series
+    private int threads = 25;
+    private ExecutorBackend executor = ExecutorBackend.FIXED;
+}
@@ -10,4 +10,13 @@ public class TradeConfig {
     private boolean realPrice;
     private BigDecimal minBtcTradeAmount;
     private BigDecimal realBtcTradeAmount;
+    // Volume of the strategies evaluated by the optimizer
+    private BigDecimal optimizerTradeVolume = BigDecimal.valueOf(0.08);
+    // Orders are not priced when no live trade was received for longer than that, nor by an order book not updated
+    // for longer than that, 0 disables the checks
+    private long maxPriceAgeSeconds = 120;
+    // An order sent without response is looked up in the account trades and open orders every delay, it was not
+    // placed when not found within the attempts
+    private long orderReconcileDelayMillis = 2000;
+    private int orderReconcileAttempts = 5;
 }
@@ -0,0 +1,48 @@
+package com.crypto.trade.poloniex.conrollers;
+
+import com.crypto.trade.poloniex.services.analytics.CurrencyPair;
+import com.crypto.trade.poloniex.services.analytics.TimeFrame;
+import com.crypto.trade.poloniex.services.backtest.BacktestEngine;
+import com.crypto.trade.poloniex.services.backtest.BacktestResult;
+import com.crypto.trade.poloniex.services.backtest.ParameterSpace;
+import com.crypto.trade.poloniex.services.backtest.StrategyOptimizer;
+import com.crypto.trade.poloniex.services.backtest.StrategyVariant;
+import eu.verdelhan.ta4j.Order;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+import java.util.List;
+
+@RestController
+@RequestMapping("/backtest")
+public class BacktestController {
+
+    @Autowired
+    private BacktestEngine backtestEngine;
+    @Autowired
+    private StrategyOptimizer strategyOptimizer;
+
+    @GetMapping("/{currency}")
+    public List<BacktestResult> backtest(@PathVariable CurrencyPair currency,
+                                         @RequestParam(defaultValue = "30") long days) {
+        return backtestEngine.run(currency, Duration.ofDays(days));
+    }
+
+    /**
+     * Sweeps the default parameter space, the full grid unless a number of random samples is given.
+     */
+    @GetMapping("/{currency}/optimize")
+    public List<BacktestResult> optimize(@PathVariable CurrencyPair currency,
+                                         @RequestParam(defaultValue = "ONE_MINUTE") TimeFrame timeFrame,
+                                         @RequestParam(defaultValue = "30") long days,
+                                         @RequestParam(defaultValue = "BUY") Order.OrderType direction,
+                                         @RequestParam(defaultValue = "0") int samples,
+                                         @RequestParam(defaultValue = "0") long seed) {
+        ParameterSpace space = new ParameterSpace();
+        List<StrategyVariant> variants = samples > 0
+                ? space.random(direction, samples, seed)
+                : space.grid(direction);
+        return strategyOptimizer.optimize(currency, timeFrame, Duration.ofDays(days), variants);
+    }
+}
@@ -39,9 +39,8 @@ public class DataExportController {
 
     @GetMapping("/{currency}/orders/{type}")
     public void osOrders(@PathVariable CurrencyPair currency, @PathVariable OsType type) {
-        CurrencyPair currencyPair = CurrencyPair.BTC_ETH;
-        List<TimeFrameStorage> candlesData = candlesStorage.getData(currencyPair);
-        ordersExportService.exportMemoryData(currencyPair, candlesData, type);
+        List<TimeFrameStorage> candlesData = candlesStorage.getData(currency);
+        ordersExportService.exportMemoryData(currency, candlesData, type);
     }
 
     @GetMapping("/all")
@@ -0,0 +1,30 @@
+package com.crypto.trade.poloniex.conrollers;
+
+import com.crypto.trade.poloniex.services.analytics.CurrencyPair;
+import com.crypto.trade.poloniex.services.trade.HistoryFormatConverter;
+import com.crypto.trade.poloniex.services.trade.HistorySyncService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/history")
+public class HistoryController {
+
+    @Autowired
+    private HistoryFormatConverter historyFormatConverter;
+    @Autowired
+    private HistorySyncService historySyncService;
+
+    @GetMapping("/{currency}/convert")
+    public int convert(@PathVariable CurrencyPair currency) {
+        return historyFormatConverter.convert(currency);
+    }
+
+    @GetMapping("/{currency}/sync")
+    public int sync(@PathVariable CurrencyPair currency) {
+        return historySyncService.sync(currency);
+    }
+}
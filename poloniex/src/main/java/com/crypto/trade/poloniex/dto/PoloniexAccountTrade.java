@@ -0,0 +1,23 @@
+package com.crypto.trade.poloniex.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * Trade of the account returned by the trading API returnTradeHistory command.
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class PoloniexAccountTrade {
+
+    @JsonProperty("tradeID")
+    private Long tradeId;
+    private Long orderNumber;
+    private String type;
+    private BigDecimal rate;
+    private BigDecimal amount;
+    private BigDecimal total;
+}
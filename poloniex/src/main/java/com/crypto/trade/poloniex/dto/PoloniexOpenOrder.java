@@ -0,0 +1,20 @@
+package com.crypto.trade.poloniex.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * Order of the account returned by the trading API returnOpenOrders command.
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class PoloniexOpenOrder {
+
+    private Long orderNumber;
+    private String type;
+    private BigDecimal rate;
+    private BigDecimal startingAmount;
+    private BigDecimal amount;
+}
@@ -0,0 +1,18 @@
+package com.crypto.trade.poloniex.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Order book snapshot of the public API, levels are [rate, amount] pairs best first.
+ */
+@Data
+public class PoloniexOrderBook {
+
+    private List<List<String>> asks;
+    private List<List<String>> bids;
+    private String isFrozen;
+    // Sequence of the channel update the snapshot includes
+    private long seq;
+}
@@ -2,5 +2,16 @@ package com.crypto.trade.poloniex.services.analytics;
 
 public enum CurrencyPair {
 
-    BTC_ETH, BTC_LTC, BTC_XRP, BTC_XMR, BTC_NXT, BTC_NAV, BTC_DOGE, BTC_STRAT;
+    BTC_ETH(148), BTC_LTC(50), BTC_XRP(117), BTC_XMR(114), BTC_NXT(69), BTC_NAV(61), BTC_DOGE(27), BTC_STRAT(182);
+
+    // Poloniex api2 push channel id
+    private int channelId;
+
+    CurrencyPair(int channelId) {
+        this.channelId = channelId;
+    }
+
+    public int getChannelId() {
+        return channelId;
+    }
 }
@@ -24,13 +24,14 @@ public class HistoryAnalyticsService implements AnalyticsService {
         int index = tradeData.getIndex();
         Decimal price = tradeData.getTick().getClosePrice();
         TradingAction action = TradingAction.NO_ACTION;
-        BigDecimal closePrice = CalculationsUtils.toBigDecimal(price);
         boolean shouldAnalyze = index >= analyticsData.getHistoryIndex();
-        BigDecimal entryAmount = TradeCalculator.getEntryAmount(tradeData.getVolume(), closePrice, tradeData.getDirection());
         if (shouldAnalyze) {
+            // BigDecimal amounts are only calculated once an order is placed
             if (strategy.shouldEnter(index, tradingRecord)) {
                 log.trace("Strategy should ENTER on {}", index);
                 action = TradingAction.SHOULD_ENTER;
+                BigDecimal closePrice = CalculationsUtils.toBigDecimal(price);
+                BigDecimal entryAmount = TradeCalculator.getEntryAmount(tradeData.getVolume(), closePrice, tradeData.getDirection());
                 boolean entered = tradingRecord.enter(index, price, CalculationsUtils.toDecimal(entryAmount));
                 if (entered) {
                     Order entry = tradingRecord.getLastEntry();
@@ -40,9 +41,10 @@ public class HistoryAnalyticsService implements AnalyticsService {
             } else if (strategy.shouldExit(index, tradingRecord)) {
                 log.trace("Strategy should EXIT on {}", index);
                 action = TradingAction.SHOULD_EXIT;
+                BigDecimal closePrice = CalculationsUtils.toBigDecimal(price);
                 Order entry = tradingRecord.getCurrentTrade().getEntry();
                 BigDecimal exitAmount = entry == null
-                        ? entryAmount
+                        ? TradeCalculator.getEntryAmount(tradeData.getVolume(), closePrice, tradeData.getDirection())
                         : TradeCalculator.getExitAmount(entry, closePrice);
                 boolean exited = tradingRecord.exit(index, price, CalculationsUtils.toDecimal(exitAmount));
                 if (exited) {
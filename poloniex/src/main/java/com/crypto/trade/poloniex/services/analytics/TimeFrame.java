@@ -1,6 +1,7 @@
 package com.crypto.trade.poloniex.services.analytics;
 
 import java.time.Duration;
+import java.time.Instant;
 import java.time.ZonedDateTime;
 import java.time.temporal.ChronoField;
 import java.time.temporal.ChronoUnit;
@@ -41,12 +42,14 @@ public enum TimeFrame {
     private Long duration;
     private transient TemporalUnit timeUnit;
     private transient ChronoField timeField;
+    private final long durationMillis;
 
     TimeFrame(String displayName, Long duration, TemporalUnit timeUnit, ChronoField timeField) {
         this.displayName = displayName;
         this.duration = duration;
         this.timeUnit = timeUnit;
         this.timeField = timeField;
+        this.durationMillis = Duration.of(duration, timeUnit).toMillis();
     }
 
     public String getDisplayName() {
@@ -69,9 +72,26 @@ public enum TimeFrame {
         return Duration.of(duration, timeUnit);
     }
 
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    /**
+     * Periods are aligned on the epoch, so on UTC days: a period is numbered by the periods count since the epoch.
+     */
+    public long getBucket(long epochMillis) {
+        return Math.floorDiv(epochMillis, durationMillis);
+    }
+
+    public long getBucketEndMillis(long bucket) {
+        return (bucket + 1) * durationMillis;
+    }
+
+    public long calculateEndMillis(long epochMillis) {
+        return getBucketEndMillis(getBucket(epochMillis));
+    }
+
     public ZonedDateTime calculateEndTime(ZonedDateTime tickTime) {
-        ZonedDateTime truncatedTime = tickTime.truncatedTo(timeUnit);
-        Long diff = duration - truncatedTime.get(timeField) % duration;
-        return truncatedTime.plus(diff, timeUnit);
+        return ZonedDateTime.ofInstant(Instant.ofEpochMilli(calculateEndMillis(tickTime.toInstant().toEpochMilli())), tickTime.getZone());
     }
 }
@@ -1,26 +1,27 @@
 package com.crypto.trade.poloniex.services.analytics.indicators;
 
 import eu.verdelhan.ta4j.Decimal;
-import eu.verdelhan.ta4j.Indicator;
-import eu.verdelhan.ta4j.indicators.CachedIndicator;
-import eu.verdelhan.ta4j.indicators.EMAIndicator;
 
-public class CachedDoubleEMAIndicator extends CachedIndicator<Decimal> {
+public class CachedDoubleEMAIndicator extends StreamingIndicator {
 
-    private final EMAIndicator ema;
-    private final EMAIndicator emaEma;
+    private final StreamingEMAIndicator ema;
+    private final StreamingEMAIndicator emaEma;
 
-    public CachedDoubleEMAIndicator(Indicator<Decimal> indicator,
-                                    EMAIndicator ema,
-                                    EMAIndicator emaEma) {
-        super(indicator);
+    public CachedDoubleEMAIndicator(StreamingEMAIndicator ema,
+                                    StreamingEMAIndicator emaEma) {
+        super(ema.getTimeSeries());
         this.ema = ema;
         this.emaEma = emaEma;
     }
 
     @Override
-    protected Decimal calculate(int index) {
+    protected Decimal calculate(int index, boolean closed) {
         return ema.getValue(index).multipliedBy(Decimal.TWO)
                 .minus(emaEma.getValue(index));
     }
+
+    @Override
+    protected void resetState() {
+        // Values only depend on the EMAs
+    }
 }
@@ -1,31 +1,32 @@
 package com.crypto.trade.poloniex.services.analytics.indicators;
 
 import eu.verdelhan.ta4j.Decimal;
-import eu.verdelhan.ta4j.Indicator;
-import eu.verdelhan.ta4j.indicators.CachedIndicator;
-import eu.verdelhan.ta4j.indicators.EMAIndicator;
 
-public class CachedTripleEMAIndicator extends CachedIndicator<Decimal> {
+public class CachedTripleEMAIndicator extends StreamingIndicator {
 
-    private final EMAIndicator ema;
-    private final EMAIndicator emaEma;
-    private final EMAIndicator emaEmaEma;
+    private final StreamingEMAIndicator ema;
+    private final StreamingEMAIndicator emaEma;
+    private final StreamingEMAIndicator emaEmaEma;
 
-    public CachedTripleEMAIndicator(Indicator<Decimal> indicator,
-                                    EMAIndicator ema,
-                                    EMAIndicator emaEma,
-                                    EMAIndicator emaEmaEma) {
-        super(indicator);
+    public CachedTripleEMAIndicator(StreamingEMAIndicator ema,
+                                    StreamingEMAIndicator emaEma,
+                                    StreamingEMAIndicator emaEmaEma) {
+        super(ema.getTimeSeries());
         this.ema = ema;
         this.emaEma = emaEma;
         this.emaEmaEma = emaEmaEma;
     }
 
     @Override
-    protected Decimal calculate(int index) {
+    protected Decimal calculate(int index, boolean closed) {
         return Decimal.THREE
                 .multipliedBy(ema.getValue(index)
                         .minus(emaEma.getValue(index)))
                 .plus(emaEmaEma.getValue(index));
     }
+
+    @Override
+    protected void resetState() {
+        // Values only depend on the EMAs
+    }
 }
@@ -0,0 +1,36 @@
+package com.crypto.trade.poloniex.services.analytics.indicators;
+
+/**
+ * Precomputed indicator values, shared read-only by any number of strategies. Indexes before the first computed one
+ * return the first value, as ta4j does for unstable periods.
+ */
+public class DoubleArrayIndicator implements DoubleIndicator {
+
+    private final double[] values;
+    private final int beginIndex;
+
+    public DoubleArrayIndicator(double[] values, int beginIndex) {
+        this.values = values;
+        this.beginIndex = beginIndex;
+    }
+
+    /**
+     * Calculates the source indicator once for every index from {@code beginIndex} to {@code endIndex} inclusive.
+     */
+    public static DoubleArrayIndicator of(DoubleIndicator indicator, int beginIndex, int endIndex) {
+        double[] values = new double[endIndex - beginIndex + 1];
+        for (int index = beginIndex; index <= endIndex; index++) {
+            values[index - beginIndex] = indicator.getDouble(index);
+        }
+        return new DoubleArrayIndicator(values, beginIndex);
+    }
+
+    @Override
+    public double getDouble(int index) {
+        return values[Math.max(index, beginIndex) - beginIndex];
+    }
+
+    public int size() {
+        return values.length;
+    }
+}
@@ -0,0 +1,27 @@
+package com.crypto.trade.poloniex.services.analytics.indicators;
+
+import eu.verdelhan.ta4j.Decimal;
+import eu.verdelhan.ta4j.Indicator;
+
+/**
+ * Primitive view of an indicator, so rules compare values without creating {@link Decimal} instances.
+ */
+@FunctionalInterface
+public interface DoubleIndicator {
+
+    double getDouble(int index);
+
+    /**
+     * @return the indicator itself when it has a primitive view, an adapter converting its values otherwise
+     */
+    static DoubleIndicator of(Indicator<Decimal> indicator) {
+        if (indicator instanceof DoubleIndicator) {
+            return (DoubleIndicator) indicator;
+        }
+        return index -> indicator.getValue(index).toDouble();
+    }
+
+    static DoubleIndicator constant(double value) {
+        return index -> value;
+    }
+}
@@ -0,0 +1,31 @@
+package com.crypto.trade.poloniex.services.analytics.indicators;
+
+import com.crypto.trade.poloniex.storage.candles.CandlesTimeSeries;
+import eu.verdelhan.ta4j.Decimal;
+import eu.verdelhan.ta4j.TimeSeries;
+import eu.verdelhan.ta4j.indicators.helpers.ClosePriceIndicator;
+
+/**
+ * Close price read directly from the candle, so the forming candle value is never cached.
+ */
+public class StreamingClosePriceIndicator extends ClosePriceIndicator implements DoubleIndicator {
+
+    public StreamingClosePriceIndicator(TimeSeries series) {
+        super(series);
+    }
+
+    @Override
+    public Decimal getValue(int index) {
+        return calculate(Math.max(index, getTimeSeries().getBeginIndex()));
+    }
+
+    @Override
+    public double getDouble(int index) {
+        TimeSeries series = getTimeSeries();
+        int valueIndex = Math.max(index, series.getBeginIndex());
+        if (series instanceof CandlesTimeSeries) {
+            return ((CandlesTimeSeries) series).getCandles().getClose(valueIndex);
+        }
+        return series.getTick(valueIndex).getClosePrice().toDouble();
+    }
+}
@@ -0,0 +1,65 @@
+package com.crypto.trade.poloniex.services.analytics.indicators;
+
+import eu.verdelhan.ta4j.Decimal;
+import eu.verdelhan.ta4j.Indicator;
+
+/**
+ * Same values as ta4j {@link eu.verdelhan.ta4j.indicators.EMAIndicator}: the average of the values is used
+ * until the time frame is filled.
+ */
+public class StreamingEMAIndicator extends StreamingIndicator {
+
+    private final Indicator<Decimal> indicator;
+    private final int timeFrame;
+    private final Decimal multiplier;
+
+    private int count;
+    private Decimal sum;
+    private Decimal previous;
+
+    public StreamingEMAIndicator(Indicator<Decimal> indicator, int timeFrame) {
+        super(indicator.getTimeSeries());
+        this.indicator = indicator;
+        this.timeFrame = timeFrame;
+        this.multiplier = Decimal.TWO.dividedBy(Decimal.valueOf(timeFrame + 1));
+        resetState();
+    }
+
+    @Override
+    protected Decimal calculate(int index, boolean closed) {
+        Decimal value = indicator.getValue(index);
+        Decimal ema;
+        if (count + 1 < timeFrame) {
+            Decimal valuesSum = sum.plus(value);
+            ema = valuesSum.dividedBy(Decimal.valueOf(count + 1));
+            if (closed) {
+                sum = valuesSum;
+            }
+        } else if (count == 0) {
+            ema = value;
+        } else {
+            ema = value.minus(previous).multipliedBy(multiplier).plus(previous);
+        }
+        if (closed) {
+            previous = ema;
+            count++;
+        }
+        return ema;
+    }
+
+    @Override
+    protected void resetState() {
+        count = 0;
+        sum = Decimal.ZERO;
+        previous = Decimal.ZERO;
+    }
+
+    public int getTimeFrame() {
+        return timeFrame;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + " timeFrame: " + timeFrame;
+    }
+}
@@ -0,0 +1,123 @@
+package com.crypto.trade.poloniex.services.analytics.indicators;
+
+import eu.verdelhan.ta4j.Decimal;
+import eu.verdelhan.ta4j.TimeSeries;
+import eu.verdelhan.ta4j.indicators.AbstractIndicator;
+
+/**
+ * Indicator keeping a running state updated once per closed candle, so a new value costs O(1) whatever the series
+ * length is. All candles but the last one are closed: their values are committed and kept, while the value of the
+ * last (still forming) candle is calculated from the committed state without changing it. Committed values are
+ * also kept as doubles, converted once per candle.
+ */
+public abstract class StreamingIndicator extends AbstractIndicator<Decimal> implements DoubleIndicator {
+
+    private static final int INITIAL_SIZE = 128;
+
+    private Decimal[] values = new Decimal[0];
+    private double[] doubles = new double[0];
+    private int firstIndex = -1;
+    private int lastIndex = -1;
+
+    protected StreamingIndicator(TimeSeries series) {
+        super(series);
+    }
+
+    @Override
+    public synchronized Decimal getValue(int index) {
+        int valueIndex = prepare(index);
+        if (valueIndex < getTimeSeries().getEndIndex()) {
+            return values[slot(valueIndex)];
+        }
+        return calculate(valueIndex, false);
+    }
+
+    @Override
+    public synchronized double getDouble(int index) {
+        int valueIndex = prepare(index);
+        if (valueIndex < getTimeSeries().getEndIndex()) {
+            return doubles[slot(valueIndex)];
+        }
+        return calculate(valueIndex, false).toDouble();
+    }
+
+    public synchronized void reset() {
+        firstIndex = -1;
+        lastIndex = -1;
+        resetState();
+    }
+
+    /**
+     * Drops the committed values from the changed candle on, e.g. after a late trade. The running state is not kept
+     * per candle, so the values are calculated again from the series begin on the next read.
+     */
+    public synchronized void invalidate(int index) {
+        if (index <= lastIndex) {
+            reset();
+        }
+    }
+
+    /**
+     * Calculates the value at the index, the state is only updated for a closed candle. Indices are passed
+     * in increasing order, closed candles exactly once.
+     */
+    protected abstract Decimal calculate(int index, boolean closed);
+
+    protected abstract void resetState();
+
+    /**
+     * Commits the closed candles up to the index.
+     *
+     * @return the index of the value to return, shifted to the oldest value still kept
+     */
+    private int prepare(int index) {
+        TimeSeries series = getTimeSeries();
+        int endIndex = series.getEndIndex();
+        if (lastIndex > endIndex) {
+            // Candles were cleared
+            reset();
+        }
+        int valueIndex = Math.max(index, series.getBeginIndex());
+        if (valueIndex < endIndex) {
+            commit(valueIndex);
+            return Math.max(valueIndex, Math.max(firstIndex, lastIndex - values.length + 1));
+        }
+        commit(valueIndex - 1);
+        return valueIndex;
+    }
+
+    private void commit(int index) {
+        while (lastIndex < index) {
+            int nextIndex = lastIndex < 0
+                    ? Math.max(0, getTimeSeries().getBeginIndex())
+                    : Math.max(lastIndex + 1, getTimeSeries().getBeginIndex());
+            Decimal value = calculate(nextIndex, true);
+            if (firstIndex < 0) {
+                firstIndex = nextIndex;
+            }
+            ensureCapacity(nextIndex);
+            values[slot(nextIndex)] = value;
+            doubles[slot(nextIndex)] = value.toDouble();
+            lastIndex = nextIndex;
+        }
+    }
+
+    private void ensureCapacity(int index) {
+        int maxSize = getTimeSeries().getMaximumTickCount();
+        if (index - firstIndex >= values.length && values.length < maxSize) {
+            int size = (int) Math.min(maxSize, Math.max(INITIAL_SIZE, values.length * 2L));
+            Decimal[] resized = new Decimal[size];
+            double[] resizedDoubles = new double[size];
+            for (int i = Math.max(firstIndex, lastIndex - values.length + 1); i <= lastIndex; i++) {
+                resized[i % size] = values[slot(i)];
+                resizedDoubles[i % size] = doubles[slot(i)];
+            }
+            values = resized;
+            doubles = resizedDoubles;
+        }
+    }
+
+    private int slot(int index) {
+        return index % values.length;
+    }
+}
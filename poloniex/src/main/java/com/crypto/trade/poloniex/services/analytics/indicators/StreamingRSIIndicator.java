@@ -0,0 +1,88 @@
+package com.crypto.trade.poloniex.services.analytics.indicators;
+
+import eu.verdelhan.ta4j.Decimal;
+import eu.verdelhan.ta4j.Indicator;
+
+/**
+ * Wilder's RSI, same values as ta4j {@link eu.verdelhan.ta4j.indicators.SmoothedRSIIndicator}: gains and losses
+ * are averaged until the time frame is filled and smoothed afterwards.
+ */
+public class StreamingRSIIndicator extends StreamingIndicator {
+
+    private final Indicator<Decimal> indicator;
+    private final int timeFrame;
+    private final Decimal timeFrameValue;
+    private final Decimal smoothingFactor;
+
+    private int count;
+    private Decimal previousValue;
+    private Decimal averageGain;
+    private Decimal averageLoss;
+    private Decimal gainsSum;
+    private Decimal lossesSum;
+
+    public StreamingRSIIndicator(Indicator<Decimal> indicator, int timeFrame) {
+        super(indicator.getTimeSeries());
+        this.indicator = indicator;
+        this.timeFrame = timeFrame;
+        this.timeFrameValue = Decimal.valueOf(timeFrame);
+        this.smoothingFactor = Decimal.valueOf(timeFrame - 1);
+        resetState();
+    }
+
+    @Override
+    protected Decimal calculate(int index, boolean closed) {
+        Decimal value = indicator.getValue(index);
+        if (count == 0) {
+            if (closed) {
+                previousValue = value;
+                count++;
+            }
+            return Decimal.ZERO;
+        }
+        Decimal gain = value.isGreaterThan(previousValue) ? value.minus(previousValue) : Decimal.ZERO;
+        Decimal loss = value.isLessThan(previousValue) ? previousValue.minus(value) : Decimal.ZERO;
+        Decimal gains = gainsSum;
+        Decimal losses = lossesSum;
+        Decimal currentGain;
+        Decimal currentLoss;
+        if (count <= timeFrame) {
+            gains = gains.plus(gain);
+            losses = losses.plus(loss);
+            Decimal realTimeFrame = Decimal.valueOf(Math.min(timeFrame, count + 1));
+            currentGain = gains.dividedBy(realTimeFrame);
+            currentLoss = losses.dividedBy(realTimeFrame);
+        } else {
+            currentGain = averageGain.multipliedBy(smoothingFactor).plus(gain).dividedBy(timeFrameValue);
+            currentLoss = averageLoss.multipliedBy(smoothingFactor).plus(loss).dividedBy(timeFrameValue);
+        }
+        if (closed) {
+            previousValue = value;
+            gainsSum = gains;
+            lossesSum = losses;
+            averageGain = currentGain;
+            averageLoss = currentLoss;
+            count++;
+        }
+        if (currentLoss.isZero()) {
+            return Decimal.HUNDRED;
+        }
+        Decimal relativeStrength = currentGain.dividedBy(currentLoss);
+        return Decimal.HUNDRED.minus(Decimal.HUNDRED.dividedBy(Decimal.ONE.plus(relativeStrength)));
+    }
+
+    @Override
+    protected void resetState() {
+        count = 0;
+        previousValue = Decimal.ZERO;
+        averageGain = Decimal.ZERO;
+        averageLoss = Decimal.ZERO;
+        gainsSum = Decimal.ZERO;
+        lossesSum = Decimal.ZERO;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + " timeFrame: " + timeFrame;
+    }
+}
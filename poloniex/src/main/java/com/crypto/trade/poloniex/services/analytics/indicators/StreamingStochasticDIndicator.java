@@ -0,0 +1,43 @@
+package com.crypto.trade.poloniex.services.analytics.indicators;
+
+import eu.verdelhan.ta4j.Decimal;
+import eu.verdelhan.ta4j.Indicator;
+
+/**
+ * Same values as ta4j {@link eu.verdelhan.ta4j.indicators.StochasticOscillatorDIndicator}: the 3 candles simple
+ * moving average of the %K.
+ */
+public class StreamingStochasticDIndicator extends StreamingIndicator {
+
+    private static final int TIME_FRAME = 3;
+
+    private final Indicator<Decimal> stochK;
+    private final Decimal[] previous = new Decimal[TIME_FRAME - 1];
+    private int count;
+
+    public StreamingStochasticDIndicator(Indicator<Decimal> stochK) {
+        super(stochK.getTimeSeries());
+        this.stochK = stochK;
+    }
+
+    @Override
+    protected Decimal calculate(int index, boolean closed) {
+        Decimal value = stochK.getValue(index);
+        int previousCount = Math.min(count, TIME_FRAME - 1);
+        Decimal sum = Decimal.ZERO;
+        for (int i = previousCount; i > 0; i--) {
+            sum = sum.plus(previous[(count - i) % previous.length]);
+        }
+        sum = sum.plus(value);
+        if (closed) {
+            previous[count % previous.length] = value;
+            count++;
+        }
+        return sum.dividedBy(Decimal.valueOf(previousCount + 1));
+    }
+
+    @Override
+    protected void resetState() {
+        count = 0;
+    }
+}
@@ -0,0 +1,108 @@
+package com.crypto.trade.poloniex.services.analytics.indicators;
+
+import eu.verdelhan.ta4j.Decimal;
+import eu.verdelhan.ta4j.Tick;
+import eu.verdelhan.ta4j.TimeSeries;
+
+/**
+ * Same values as ta4j {@link eu.verdelhan.ta4j.indicators.StochasticOscillatorKIndicator}, the highest and the lowest
+ * prices of the time frame are kept in monotonic deques instead of scanning the time frame for every candle.
+ */
+public class StreamingStochasticKIndicator extends StreamingIndicator {
+
+    private final int timeFrame;
+    private final WindowDeque highs;
+    private final WindowDeque lows;
+
+    public StreamingStochasticKIndicator(TimeSeries series, int timeFrame) {
+        super(series);
+        this.timeFrame = timeFrame;
+        this.highs = new WindowDeque(timeFrame, true);
+        this.lows = new WindowDeque(timeFrame, false);
+    }
+
+    @Override
+    protected Decimal calculate(int index, boolean closed) {
+        Tick tick = getTimeSeries().getTick(index);
+        Decimal highestHigh;
+        Decimal lowestLow;
+        if (closed) {
+            highestHigh = highs.add(index, tick.getMaxPrice());
+            lowestLow = lows.add(index, tick.getMinPrice());
+        } else {
+            highestHigh = highs.peek(index, tick.getMaxPrice());
+            lowestLow = lows.peek(index, tick.getMinPrice());
+        }
+        return tick.getClosePrice().minus(lowestLow)
+                .dividedBy(highestHigh.minus(lowestLow))
+                .multipliedBy(Decimal.HUNDRED);
+    }
+
+    @Override
+    protected void resetState() {
+        highs.clear();
+        lows.clear();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + " timeFrame: " + timeFrame;
+    }
+
+    /**
+     * Sliding window extremum: values are kept in index order, each one better than all the following ones.
+     */
+    private static class WindowDeque {
+
+        private final int timeFrame;
+        private final boolean highest;
+        private final int[] indices;
+        private final Decimal[] values;
+        private int head;
+        private int size;
+
+        WindowDeque(int timeFrame, boolean highest) {
+            this.timeFrame = timeFrame;
+            this.highest = highest;
+            this.indices = new int[timeFrame + 1];
+            this.values = new Decimal[timeFrame + 1];
+        }
+
+        Decimal add(int index, Decimal value) {
+            while (size > 0 && !isBetter(values[slot(size - 1)], value)) {
+                size--;
+            }
+            int slot = slot(size++);
+            indices[slot] = index;
+            values[slot] = value;
+            while (indices[head] <= index - timeFrame) {
+                head = (head + 1) % indices.length;
+                size--;
+            }
+            return values[head];
+        }
+
+        Decimal peek(int index, Decimal value) {
+            for (int i = 0; i < size; i++) {
+                int slot = slot(i);
+                if (indices[slot] > index - timeFrame) {
+                    return isBetter(value, values[slot]) ? value : values[slot];
+                }
+            }
+            return value;
+        }
+
+        void clear() {
+            head = 0;
+            size = 0;
+        }
+
+        private boolean isBetter(Decimal value, Decimal other) {
+            return highest ? value.isGreaterThan(other) : value.isLessThan(other);
+        }
+
+        private int slot(int position) {
+            return (head + position) % indices.length;
+        }
+    }
+}
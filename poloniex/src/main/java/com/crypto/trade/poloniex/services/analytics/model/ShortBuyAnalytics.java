@@ -1,9 +1,9 @@
 package com.crypto.trade.poloniex.services.analytics.model;
 
-import eu.verdelhan.ta4j.indicators.EMAIndicator;
-import eu.verdelhan.ta4j.indicators.RSIIndicator;
-import eu.verdelhan.ta4j.indicators.StochasticOscillatorDIndicator;
-import eu.verdelhan.ta4j.indicators.StochasticOscillatorKIndicator;
+import com.crypto.trade.poloniex.services.analytics.indicators.StreamingEMAIndicator;
+import com.crypto.trade.poloniex.services.analytics.indicators.StreamingRSIIndicator;
+import com.crypto.trade.poloniex.services.analytics.indicators.StreamingStochasticDIndicator;
+import com.crypto.trade.poloniex.services.analytics.indicators.StreamingStochasticKIndicator;
 import eu.verdelhan.ta4j.indicators.helpers.ClosePriceIndicator;
 import lombok.Value;
 
@@ -11,9 +11,9 @@ import lombok.Value;
 public class ShortBuyAnalytics {
 
     private ClosePriceIndicator closePrice;
-    private RSIIndicator rsi;
-    private EMAIndicator ema90;
-    private EMAIndicator ema540;
-    private StochasticOscillatorKIndicator stochK;
-    private StochasticOscillatorDIndicator stochD;
+    private StreamingRSIIndicator rsi;
+    private StreamingEMAIndicator ema90;
+    private StreamingEMAIndicator ema540;
+    private StreamingStochasticKIndicator stochK;
+    private StreamingStochasticDIndicator stochD;
 }
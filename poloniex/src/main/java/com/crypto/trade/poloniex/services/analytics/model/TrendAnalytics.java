@@ -1,6 +1,6 @@
 package com.crypto.trade.poloniex.services.analytics.model;
 
-import eu.verdelhan.ta4j.indicators.EMAIndicator;
+import com.crypto.trade.poloniex.services.analytics.indicators.StreamingEMAIndicator;
 import eu.verdelhan.ta4j.indicators.helpers.ClosePriceIndicator;
 import lombok.Value;
 
@@ -8,7 +8,7 @@ import lombok.Value;
 public class TrendAnalytics {
 
     private ClosePriceIndicator closePrice;
-    private EMAIndicator ema5;
-    private EMAIndicator ema90;
-    private EMAIndicator ema100;
+    private StreamingEMAIndicator ema5;
+    private StreamingEMAIndicator ema90;
+    private StreamingEMAIndicator ema100;
 }
@@ -6,9 +6,11 @@ import com.crypto.trade.poloniex.services.analytics.TradingAction;
 import com.crypto.trade.poloniex.services.analytics.model.ExportedPoloniexOrder;
 import com.crypto.trade.poloniex.services.analytics.model.StrategyConfig;
 import com.crypto.trade.poloniex.services.analytics.model.StrategyRules;
+import com.crypto.trade.poloniex.services.analytics.strategies.AnalyticsHelper;
 import com.crypto.trade.poloniex.services.analytics.strategies.ShortBuyStrategyFactory;
 import com.crypto.trade.poloniex.services.analytics.strategies.TmaStrategyFactory;
 import com.crypto.trade.poloniex.services.analytics.strategies.TrendStrategyFactory;
+import com.crypto.trade.poloniex.storage.analytics.AnalyticsStorage;
 import com.crypto.trade.poloniex.storage.model.PoloniexOrder;
 import com.crypto.trade.poloniex.storage.model.PoloniexStrategy;
 import com.crypto.trade.poloniex.storage.model.PoloniexTradingRecord;
@@ -42,6 +44,19 @@ public class ExperimentalTradeConfigFactory {
     @Autowired
     private TmaStrategyFactory tmaFactory;
 
+    public ExperimentalTradeConfigFactory() {
+    }
+
+    /**
+     * Strategies built on the indicators of the given storage.
+     */
+    public ExperimentalTradeConfigFactory(AnalyticsStorage analyticsStorage) {
+        AnalyticsHelper analyticsHelper = new AnalyticsHelper(analyticsStorage);
+        this.shortBuyFactory = new ShortBuyStrategyFactory(analyticsHelper);
+        this.trendFactory = new TrendStrategyFactory(analyticsHelper);
+        this.tmaFactory = new TmaStrategyFactory(analyticsHelper);
+    }
+
     public PoloniexTradingRecord createTradingRecordWithOrders(int id, String shortBuyName, List<ExportedPoloniexOrder> exportedOrders) {
         PoloniexTradingRecord poloniexTradingRecord = new PoloniexTradingRecord(id, shortBuyName, BUY);
         TradingRecord tradingRecord = poloniexTradingRecord.getTradingRecord();
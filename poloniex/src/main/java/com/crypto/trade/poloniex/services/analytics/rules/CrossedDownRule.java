@@ -0,0 +1,36 @@
+package com.crypto.trade.poloniex.services.analytics.rules;
+
+import com.crypto.trade.poloniex.services.analytics.indicators.DoubleIndicator;
+import eu.verdelhan.ta4j.Decimal;
+import eu.verdelhan.ta4j.Indicator;
+import eu.verdelhan.ta4j.TradingRecord;
+
+/**
+ * The first indicator crossed down the second one. Unlike the cached ta4j cross indicator, the forming candle is
+ * evaluated on its current values.
+ */
+public class CrossedDownRule extends DoubleRule {
+
+    private DoubleIndicator first;
+    private DoubleIndicator second;
+
+    public CrossedDownRule(Indicator<Decimal> first, Indicator<Decimal> second) {
+        this(DoubleIndicator.of(first), DoubleIndicator.of(second));
+    }
+
+    private CrossedDownRule(DoubleIndicator first, DoubleIndicator second) {
+        this.first = first;
+        this.second = second;
+    }
+
+    public static CrossedDownRule of(DoubleIndicator first, DoubleIndicator second) {
+        return new CrossedDownRule(first, second);
+    }
+
+    @Override
+    public boolean isSatisfied(int index, TradingRecord tradingRecord) {
+        boolean satisfied = isCrossed(first, second, index);
+        traceIsSatisfied(index, satisfied);
+        return satisfied;
+    }
+}
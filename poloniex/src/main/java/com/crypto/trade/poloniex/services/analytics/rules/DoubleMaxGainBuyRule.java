@@ -0,0 +1,48 @@
+package com.crypto.trade.poloniex.services.analytics.rules;
+
+import com.crypto.trade.poloniex.services.analytics.indicators.DoubleIndicator;
+import eu.verdelhan.ta4j.Decimal;
+import eu.verdelhan.ta4j.Order;
+import eu.verdelhan.ta4j.TradingRecord;
+import eu.verdelhan.ta4j.indicators.helpers.ClosePriceIndicator;
+
+public class DoubleMaxGainBuyRule extends DoubleRule {
+
+    private DoubleIndicator closePrice;
+
+    private double maxRecession;
+
+    public DoubleMaxGainBuyRule(ClosePriceIndicator closePrice, Decimal maxRecession) {
+        this(DoubleIndicator.of(closePrice), maxRecession.toDouble());
+    }
+
+    public DoubleMaxGainBuyRule(DoubleIndicator closePrice, double maxRecession) {
+        this.closePrice = closePrice;
+        this.maxRecession = maxRecession / 100;
+    }
+
+    @Override
+    public boolean isSatisfied(int index, TradingRecord tradingRecord) {
+        boolean satisfied = false;
+        Order entry = getOpenedEntry(tradingRecord);
+        if (entry != null) {
+            double entryPrice = getEntryPrice(entry);
+            double currentPrice = closePrice.getDouble(index);
+
+            double maxPrice = findMaxPrice(entry.getIndex(), index);
+            double maxGain = maxPrice / entryPrice;
+            double currentGain = currentPrice / entryPrice;
+            satisfied = currentGain < maxGain - maxRecession;
+        }
+        traceIsSatisfied(index, satisfied);
+        return satisfied;
+    }
+
+    private double findMaxPrice(int entryIndex, int currentIndex) {
+        double maxPrice = Double.NEGATIVE_INFINITY;
+        for (int index = entryIndex; index <= currentIndex; index++) {
+            maxPrice = Math.max(maxPrice, closePrice.getDouble(index));
+        }
+        return entryIndex > currentIndex ? 0 : maxPrice;
+    }
+}
@@ -0,0 +1,48 @@
+package com.crypto.trade.poloniex.services.analytics.rules;
+
+import com.crypto.trade.poloniex.services.analytics.indicators.DoubleIndicator;
+import eu.verdelhan.ta4j.Decimal;
+import eu.verdelhan.ta4j.Order;
+import eu.verdelhan.ta4j.TradingRecord;
+import eu.verdelhan.ta4j.indicators.helpers.ClosePriceIndicator;
+
+public class DoubleMaxGainSellRule extends DoubleRule {
+
+    private DoubleIndicator closePrice;
+
+    private double maxRecession;
+
+    public DoubleMaxGainSellRule(ClosePriceIndicator closePrice, Decimal maxRecession) {
+        this(DoubleIndicator.of(closePrice), maxRecession.toDouble());
+    }
+
+    public DoubleMaxGainSellRule(DoubleIndicator closePrice, double maxRecession) {
+        this.closePrice = closePrice;
+        this.maxRecession = maxRecession / 100;
+    }
+
+    @Override
+    public boolean isSatisfied(int index, TradingRecord tradingRecord) {
+        boolean satisfied = false;
+        Order entry = getOpenedEntry(tradingRecord);
+        if (entry != null) {
+            double entryPrice = getEntryPrice(entry);
+            double currentPrice = closePrice.getDouble(index);
+
+            double minPrice = findMinPrice(entry.getIndex(), index);
+            double maxGain = entryPrice / minPrice;
+            double currentGain = entryPrice / currentPrice;
+            satisfied = currentGain < maxGain - maxRecession;
+        }
+        traceIsSatisfied(index, satisfied);
+        return satisfied;
+    }
+
+    private double findMinPrice(int entryIndex, int currentIndex) {
+        double minPrice = Double.POSITIVE_INFINITY;
+        for (int index = entryIndex; index <= currentIndex; index++) {
+            minPrice = Math.min(minPrice, closePrice.getDouble(index));
+        }
+        return entryIndex > currentIndex ? 0 : minPrice;
+    }
+}
@@ -0,0 +1,55 @@
+package com.crypto.trade.poloniex.services.analytics.rules;
+
+import com.crypto.trade.poloniex.services.analytics.indicators.DoubleIndicator;
+import eu.verdelhan.ta4j.Decimal;
+import eu.verdelhan.ta4j.Order;
+import eu.verdelhan.ta4j.TradingRecord;
+import eu.verdelhan.ta4j.indicators.helpers.ClosePriceIndicator;
+
+public class DoubleModifiedStopGainRule extends DoubleRule {
+
+    /**
+     * The close price indicator
+     */
+    private DoubleIndicator closePrice;
+
+    /**
+     * The gain ratio threshold (e.g. 1.03 for 3%)
+     */
+    private double buyThreshold;
+    private double sellThreshold;
+
+    /**
+     * Constructor.
+     *
+     * @param closePrice     the close price indicator
+     * @param gainPercentage the gain percentage
+     */
+    public DoubleModifiedStopGainRule(ClosePriceIndicator closePrice, Decimal gainPercentage) {
+        this(DoubleIndicator.of(closePrice), gainPercentage.toDouble());
+    }
+
+    public DoubleModifiedStopGainRule(DoubleIndicator closePrice, double gainPercentage) {
+        this.closePrice = closePrice;
+        this.buyThreshold = (100 + gainPercentage) / 100;
+        this.sellThreshold = (100 - gainPercentage) / 100;
+    }
+
+    @Override
+    public boolean isSatisfied(int index, TradingRecord tradingRecord) {
+        boolean satisfied = false;
+        // No trading history or no trade opened, no gain
+        Order entry = getOpenedEntry(tradingRecord);
+        if (entry != null) {
+            double entryPrice = getEntryPrice(entry);
+            double currentPrice = closePrice.getDouble(index);
+            if (entry.isBuy()) {
+                satisfied = currentPrice >= entryPrice * buyThreshold;
+            } else {
+                satisfied = currentPrice <= entryPrice * sellThreshold;
+            }
+        }
+        traceIsSatisfied(index, satisfied);
+        return satisfied;
+    }
+}
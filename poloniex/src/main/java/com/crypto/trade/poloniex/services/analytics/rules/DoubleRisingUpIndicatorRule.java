@@ -0,0 +1,41 @@
+package com.crypto.trade.poloniex.services.analytics.rules;
+
+import com.crypto.trade.poloniex.services.analytics.indicators.DoubleIndicator;
+import eu.verdelhan.ta4j.Decimal;
+import eu.verdelhan.ta4j.Indicator;
+import eu.verdelhan.ta4j.TradingRecord;
+
+public class DoubleRisingUpIndicatorRule extends DoubleRule {
+
+    private DoubleIndicator indicator;
+    private int depth;
+
+    public DoubleRisingUpIndicatorRule(Indicator<Decimal> indicator) {
+        this(indicator, 0);
+    }
+
+    public DoubleRisingUpIndicatorRule(Indicator<Decimal> indicator, int depth) {
+        this(DoubleIndicator.of(indicator), depth);
+    }
+
+    private DoubleRisingUpIndicatorRule(DoubleIndicator indicator, int depth) {
+        this.indicator = indicator;
+        this.depth = depth;
+    }
+
+    public static DoubleRisingUpIndicatorRule of(DoubleIndicator indicator) {
+        return new DoubleRisingUpIndicatorRule(indicator, 0);
+    }
+
+    @Override
+    public boolean isSatisfied(int index, TradingRecord tradingRecord) {
+        boolean satisfied = false;
+        int prevIndex = index - depth - 1;
+        int currIndex = index - depth;
+        if (prevIndex > -1) {
+            satisfied = indicator.getDouble(prevIndex) < indicator.getDouble(currIndex);
+        }
+        traceIsSatisfied(currIndex, satisfied);
+        return satisfied;
+    }
+}
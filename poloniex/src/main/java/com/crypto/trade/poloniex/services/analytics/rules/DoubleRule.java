@@ -0,0 +1,123 @@
+package com.crypto.trade.poloniex.services.analytics.rules;
+
+import com.crypto.trade.poloniex.services.analytics.indicators.DoubleIndicator;
+import eu.verdelhan.ta4j.Order;
+import eu.verdelhan.ta4j.Rule;
+import eu.verdelhan.ta4j.Trade;
+import eu.verdelhan.ta4j.TradingRecord;
+import eu.verdelhan.ta4j.trading.rules.AbstractRule;
+
+/**
+ * Rule evaluated on {@link DoubleIndicator} values, combined rules are traced only when enabled so evaluation
+ * allocates nothing. Double variants of the {@link eu.verdelhan.ta4j.Decimal} rules are prefixed with Double.
+ */
+public abstract class DoubleRule extends AbstractRule {
+
+    @Override
+    public Rule and(Rule rule) {
+        return new DoubleAndRule(this, rule);
+    }
+
+    @Override
+    public Rule or(Rule rule) {
+        return new DoubleOrRule(this, rule);
+    }
+
+    @Override
+    public Rule negation() {
+        return new DoubleNotRule(this);
+    }
+
+    /**
+     * @return the entry order of the opened trade, null when no trade is opened
+     */
+    protected Order getOpenedEntry(TradingRecord tradingRecord) {
+        if (tradingRecord == null) {
+            return null;
+        }
+        Trade currentTrade = tradingRecord.getCurrentTrade();
+        return currentTrade.isOpened() ? currentTrade.getEntry() : null;
+    }
+
+    // A rule is shared by the trading records of a strategy, the entry price is not cached
+    protected double getEntryPrice(Order entry) {
+        return entry.getPrice().toDouble();
+    }
+
+    @Override
+    protected void traceIsSatisfied(int index, boolean isSatisfied) {
+        if (log.isTraceEnabled()) {
+            super.traceIsSatisfied(index, isSatisfied);
+        }
+    }
+
+    /**
+     * Same as the ta4j {@link eu.verdelhan.ta4j.indicators.helpers.CrossIndicator}: the up indicator crossed down
+     * the low one at the index.
+     */
+    protected static boolean isCrossed(DoubleIndicator up, DoubleIndicator low, int index) {
+        if (index == 0 || up.getDouble(index) >= low.getDouble(index)) {
+            return false;
+        }
+        int i = index - 1;
+        if (up.getDouble(i) > low.getDouble(i)) {
+            return true;
+        }
+        while (i > 0 && up.getDouble(i) == low.getDouble(i)) {
+            i--;
+        }
+        return i != 0 && up.getDouble(i) > low.getDouble(i);
+    }
+
+    private static class DoubleAndRule extends DoubleRule {
+
+        private final Rule first;
+        private final Rule second;
+
+        private DoubleAndRule(Rule first, Rule second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public boolean isSatisfied(int index, TradingRecord tradingRecord) {
+            boolean satisfied = first.isSatisfied(index, tradingRecord) && second.isSatisfied(index, tradingRecord);
+            traceIsSatisfied(index, satisfied);
+            return satisfied;
+        }
+    }
+
+    private static class DoubleOrRule extends DoubleRule {
+
+        private final Rule first;
+        private final Rule second;
+
+        private DoubleOrRule(Rule first, Rule second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public boolean isSatisfied(int index, TradingRecord tradingRecord) {
+            boolean satisfied = first.isSatisfied(index, tradingRecord) || second.isSatisfied(index, tradingRecord);
+            traceIsSatisfied(index, satisfied);
+            return satisfied;
+        }
+    }
+
+    private static class DoubleNotRule extends DoubleRule {
+
+        private final Rule rule;
+
+        private DoubleNotRule(Rule rule) {
+            this.rule = rule;
+        }
+
+        @Override
+        public boolean isSatisfied(int index, TradingRecord tradingRecord) {
+            boolean satisfied = !rule.isSatisfied(index, tradingRecord);
+            traceIsSatisfied(index, satisfied);
+            return satisfied;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.crypto.trade.poloniex.services.analytics.rules;
+
+import com.crypto.trade.poloniex.services.analytics.indicators.DoubleIndicator;
+import eu.verdelhan.ta4j.Decimal;
+import eu.verdelhan.ta4j.Indicator;
+import eu.verdelhan.ta4j.TradingRecord;
+
+public class DoubleUpperRule extends DoubleRule {
+
+    private DoubleIndicator first;
+    private DoubleIndicator second;
+    private int depth;
+
+    public DoubleUpperRule(Indicator<Decimal> first, Indicator<Decimal> second) {
+        this(first, second, 0);
+    }
+
+    public DoubleUpperRule(Indicator<Decimal> indicator, Decimal threshold) {
+        this(DoubleIndicator.of(indicator), DoubleIndicator.constant(threshold.toDouble()), 0);
+    }
+
+    public DoubleUpperRule(Indicator<Decimal> first, Indicator<Decimal> second, int depth) {
+        this(DoubleIndicator.of(first), DoubleIndicator.of(second), depth);
+    }
+
+    private DoubleUpperRule(DoubleIndicator first, DoubleIndicator second, int depth) {
+        this.first = first;
+        this.second = second;
+        this.depth = depth;
+    }
+
+    public static DoubleUpperRule of(DoubleIndicator first, DoubleIndicator second) {
+        return new DoubleUpperRule(first, second, 0);
+    }
+
+    public static DoubleUpperRule of(DoubleIndicator indicator, double threshold) {
+        return new DoubleUpperRule(indicator, DoubleIndicator.constant(threshold), 0);
+    }
+
+    @Override
+    public boolean isSatisfied(int index, TradingRecord tradingRecord) {
+        boolean satisfied = false;
+        int currIndex = index - depth;
+        if (currIndex > -1) {
+            satisfied = first.getDouble(currIndex) > second.getDouble(currIndex);
+        }
+        traceIsSatisfied(currIndex, satisfied);
+        return satisfied;
+    }
+}
@@ -15,6 +15,13 @@ public class AnalyticsHelper {
     @Autowired
     private AnalyticsStorage analyticsStorage;
 
+    public AnalyticsHelper() {
+    }
+
+    public AnalyticsHelper(AnalyticsStorage analyticsStorage) {
+        this.analyticsStorage = analyticsStorage;
+    }
+
     public ShortBuyAnalytics getShortBuyAnalytics(CurrencyPair currencyPair, TimeFrame timeFrame) {
         return ShortBuyAnalytics.of(analyticsStorage.getIndicator(currencyPair, timeFrame, CLOSED_PRICE),
                 analyticsStorage.getIndicator(currencyPair, timeFrame, RSI14),
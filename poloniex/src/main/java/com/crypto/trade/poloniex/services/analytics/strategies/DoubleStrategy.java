@@ -0,0 +1,29 @@
+package com.crypto.trade.poloniex.services.analytics.strategies;
+
+import eu.verdelhan.ta4j.BaseStrategy;
+import eu.verdelhan.ta4j.Rule;
+
+/**
+ * Strategy tracing its decisions only when enabled, so evaluating {@link
+ * com.crypto.trade.poloniex.services.analytics.rules.DoubleRule} rules allocates nothing.
+ */
+public class DoubleStrategy extends BaseStrategy {
+
+    public DoubleStrategy(Rule entryRule, Rule exitRule) {
+        super(entryRule, exitRule);
+    }
+
+    @Override
+    protected void traceShouldEnter(int index, boolean enter) {
+        if (log.isTraceEnabled()) {
+            super.traceShouldEnter(index, enter);
+        }
+    }
+
+    @Override
+    protected void traceShouldExit(int index, boolean exit) {
+        if (log.isTraceEnabled()) {
+            super.traceShouldExit(index, exit);
+        }
+    }
+}
@@ -5,14 +5,9 @@ import com.crypto.trade.poloniex.services.analytics.TimeFrame;
 import com.crypto.trade.poloniex.services.analytics.model.ShortBuyAnalytics;
 import com.crypto.trade.poloniex.services.analytics.model.StrategyRules;
 import com.crypto.trade.poloniex.services.analytics.rules.*;
-import eu.verdelhan.ta4j.BaseStrategy;
 import eu.verdelhan.ta4j.Decimal;
 import eu.verdelhan.ta4j.Rule;
 import eu.verdelhan.ta4j.Strategy;
-import eu.verdelhan.ta4j.trading.rules.CrossedDownIndicatorRule;
-import eu.verdelhan.ta4j.trading.rules.CrossedUpIndicatorRule;
-import eu.verdelhan.ta4j.trading.rules.OverIndicatorRule;
-import eu.verdelhan.ta4j.trading.rules.UnderIndicatorRule;
 import org.springframework.beans.factory.annotation.Autowired;
 
 public class ShortBuyStrategyFactory {
@@ -20,6 +15,13 @@ public class ShortBuyStrategyFactory {
     @Autowired
     private AnalyticsHelper analyticsHelper;
 
+    public ShortBuyStrategyFactory() {
+    }
+
+    public ShortBuyStrategyFactory(AnalyticsHelper analyticsHelper) {
+        this.analyticsHelper = analyticsHelper;
+    }
+
     /**
      * RSI 14, StochasticK 14, StochasticD 3
      * Buy on RSI < 20, K intersects D, K < 20
@@ -33,9 +35,9 @@ public class ShortBuyStrategyFactory {
         Rule entryRule = createBuyEntryRule(analytics);
 
         // Exit rule
-        Rule exitRule = new ModifiedStopGainRule(analytics.getClosePrice(), Decimal.ONE)
-                .and(new MaxGainBuyRule(analytics.getClosePrice(), Decimal.TEN));
-        Strategy strategy = new BaseStrategy(entryRule, exitRule);
+        Rule exitRule = new DoubleModifiedStopGainRule(analytics.getClosePrice(), Decimal.ONE)
+                .and(new DoubleMaxGainBuyRule(analytics.getClosePrice(), Decimal.TEN));
+        Strategy strategy = new DoubleStrategy(entryRule, exitRule);
         strategy.setUnstablePeriod(14);
 
         return strategy;
@@ -46,12 +48,12 @@ public class ShortBuyStrategyFactory {
 
         // Entry rule
         Rule entryRule = createBuyEntryRule(analytics)
-                .and(new RisingUpIndicatorRule(analytics.getEma540())); // Rising trend
+                .and(new DoubleRisingUpIndicatorRule(analytics.getEma540())); // Rising trend
 
         // Exit rule
-        Rule exitRule = new ModifiedStopGainRule(analytics.getClosePrice(), Decimal.ONE)
-                .and(new MaxGainBuyRule(analytics.getClosePrice(), Decimal.valueOf(25)));
-        Strategy strategy = new BaseStrategy(entryRule, exitRule);
+        Rule exitRule = new DoubleModifiedStopGainRule(analytics.getClosePrice(), Decimal.ONE)
+                .and(new DoubleMaxGainBuyRule(analytics.getClosePrice(), Decimal.valueOf(25)));
+        Strategy strategy = new DoubleStrategy(entryRule, exitRule);
         strategy.setUnstablePeriod(540);
 
         return strategy;
@@ -62,21 +64,21 @@ public class ShortBuyStrategyFactory {
 
         // Entry rule
         Rule entryRule = createBuyEntryRule(analytics)
-                .and(new RisingUpIndicatorRule(analytics.getEma90())); // Rising trend
+                .and(new DoubleRisingUpIndicatorRule(analytics.getEma90())); // Rising trend
 
         // Exit rule
-        Rule exitRule = new ModifiedStopGainRule(analytics.getClosePrice(), strategyRules.getStopGain())
-                .and(new MaxGainBuyRule(analytics.getClosePrice(), strategyRules.getMaxGainCorridor()));
-        Strategy strategy = new BaseStrategy(entryRule, exitRule);
+        Rule exitRule = new DoubleModifiedStopGainRule(analytics.getClosePrice(), strategyRules.getStopGain())
+                .and(new DoubleMaxGainBuyRule(analytics.getClosePrice(), strategyRules.getMaxGainCorridor()));
+        Strategy strategy = new DoubleStrategy(entryRule, exitRule);
         strategy.setUnstablePeriod(90);
 
         return strategy;
     }
 
     private Rule createBuyEntryRule(ShortBuyAnalytics analytics) {
-        return new UnderIndicatorRule(analytics.getRsi(), Decimal.valueOf(20)) // RSI < 20
-                .and(new UnderIndicatorRule(analytics.getStochK(), Decimal.valueOf(20))) // StochasticK < 20
-                .and(new CrossedUpIndicatorRule(analytics.getStochK(), analytics.getStochD())); // K cross D from the bottom
+        return new DoubleLowerRule(analytics.getRsi(), Decimal.valueOf(20)) // RSI < 20
+                .and(new DoubleLowerRule(analytics.getStochK(), Decimal.valueOf(20))) // StochasticK < 20
+                .and(new CrossedUpRule(analytics.getStochK(), analytics.getStochD())); // K cross D from the bottom
     }
 
     public Strategy createShortSellEma90(CurrencyPair currencyPair, TimeFrame timeFrame, StrategyRules strategyRules) {
@@ -84,21 +86,21 @@ public class ShortBuyStrategyFactory {
 
         // Entry rule
         Rule entryRule = createSellEntryRule(analytics)
-                .and(new FallingDownIndicatorRule(analytics.getEma90()));
+                .and(new DoubleFallingDownIndicatorRule(analytics.getEma90()));
 
         // Exit rule
-        Rule exitRule = new ModifiedStopGainRule(analytics.getClosePrice(), strategyRules.getStopGain())
-                .and(new MaxGainSellRule(analytics.getClosePrice(), strategyRules.getMaxGainCorridor()));
-        Strategy strategy = new BaseStrategy(entryRule, exitRule);
+        Rule exitRule = new DoubleModifiedStopGainRule(analytics.getClosePrice(), strategyRules.getStopGain())
+                .and(new DoubleMaxGainSellRule(analytics.getClosePrice(), strategyRules.getMaxGainCorridor()));
+        Strategy strategy = new DoubleStrategy(entryRule, exitRule);
         strategy.setUnstablePeriod(90);
 
         return strategy;
     }
 
     private Rule createSellEntryRule(ShortBuyAnalytics analytics) {
-        return new OverIndicatorRule(analytics.getRsi(), Decimal.valueOf(80))
-                .and(new OverIndicatorRule(analytics.getStochK(), Decimal.valueOf(80)))
-                .and(new CrossedDownIndicatorRule(analytics.getStochK(), analytics.getStochD()));
+        return new DoubleUpperRule(analytics.getRsi(), Decimal.valueOf(80))
+                .and(new DoubleUpperRule(analytics.getStochK(), Decimal.valueOf(80)))
+                .and(new CrossedDownRule(analytics.getStochK(), analytics.getStochD()));
     }
 
 }
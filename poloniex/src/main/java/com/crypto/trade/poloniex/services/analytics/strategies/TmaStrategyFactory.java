@@ -3,16 +3,15 @@ package com.crypto.trade.poloniex.services.analytics.strategies;
 import com.crypto.trade.poloniex.services.analytics.CurrencyPair;
 import com.crypto.trade.poloniex.services.analytics.TimeFrame;
 import com.crypto.trade.poloniex.services.analytics.model.TripleEmaAnalytics;
-import com.crypto.trade.poloniex.services.analytics.rules.LowerRule;
-import com.crypto.trade.poloniex.services.analytics.rules.MaxGainBuyRule;
-import com.crypto.trade.poloniex.services.analytics.rules.ModifiedStopGainRule;
-import com.crypto.trade.poloniex.services.analytics.rules.UpperRule;
-import eu.verdelhan.ta4j.BaseStrategy;
+import com.crypto.trade.poloniex.services.analytics.rules.CrossedDownRule;
+import com.crypto.trade.poloniex.services.analytics.rules.CrossedUpRule;
+import com.crypto.trade.poloniex.services.analytics.rules.DoubleLowerRule;
+import com.crypto.trade.poloniex.services.analytics.rules.DoubleMaxGainBuyRule;
+import com.crypto.trade.poloniex.services.analytics.rules.DoubleModifiedStopGainRule;
+import com.crypto.trade.poloniex.services.analytics.rules.DoubleUpperRule;
 import eu.verdelhan.ta4j.Decimal;
 import eu.verdelhan.ta4j.Rule;
 import eu.verdelhan.ta4j.Strategy;
-import eu.verdelhan.ta4j.trading.rules.CrossedDownIndicatorRule;
-import eu.verdelhan.ta4j.trading.rules.CrossedUpIndicatorRule;
 import org.springframework.beans.factory.annotation.Autowired;
 
 public class TmaStrategyFactory {
@@ -20,18 +19,25 @@ public class TmaStrategyFactory {
     @Autowired
     private AnalyticsHelper analyticsHelper;
 
+    public TmaStrategyFactory() {
+    }
+
+    public TmaStrategyFactory(AnalyticsHelper analyticsHelper) {
+        this.analyticsHelper = analyticsHelper;
+    }
+
     public Strategy createRisingTripleEmaStrategyCorrected(CurrencyPair currencyPair, TimeFrame timeFrame) {
         TripleEmaAnalytics analytics = analyticsHelper.getTripleEmaAnalytics(currencyPair, timeFrame);
 
-        Rule entryRule = new LowerRule(analytics.getTma90(), analytics.getDma90())
-                .and(new LowerRule(analytics.getTma90(), analytics.getEma90()))
-                .and(new CrossedUpIndicatorRule(analytics.getEma5(), analytics.getTma90()));
+        Rule entryRule = new DoubleLowerRule(analytics.getTma90(), analytics.getDma90())
+                .and(new DoubleLowerRule(analytics.getTma90(), analytics.getEma90()))
+                .and(new CrossedUpRule(analytics.getEma5(), analytics.getTma90()));
 
-        Rule exitRule = new UpperRule(analytics.getTma90(), analytics.getEma90())
-                .and(new CrossedDownIndicatorRule(analytics.getEma5(), analytics.getTma90()))
-                .and(new ModifiedStopGainRule(analytics.getClosePrice(), Decimal.ONE));
+        Rule exitRule = new DoubleUpperRule(analytics.getTma90(), analytics.getEma90())
+                .and(new CrossedDownRule(analytics.getEma5(), analytics.getTma90()))
+                .and(new DoubleModifiedStopGainRule(analytics.getClosePrice(), Decimal.ONE));
 
-        Strategy strategy = new BaseStrategy(entryRule, exitRule);
+        Strategy strategy = new DoubleStrategy(entryRule, exitRule);
         strategy.setUnstablePeriod(270);
 
         return strategy;
@@ -40,15 +46,15 @@ public class TmaStrategyFactory {
     public Strategy createFallingTmaStrategy(CurrencyPair currencyPair, TimeFrame timeFrame) {
         TripleEmaAnalytics analytics = analyticsHelper.getTripleEmaAnalytics(currencyPair, timeFrame);
 
-        Rule entryRule = new LowerRule(analytics.getTma90(), analytics.getDma90())
-                .and(new LowerRule(analytics.getTma90(), analytics.getEma90()))
-                .and(new CrossedDownIndicatorRule(analytics.getEma5(), analytics.getTma90()));
+        Rule entryRule = new DoubleLowerRule(analytics.getTma90(), analytics.getDma90())
+                .and(new DoubleLowerRule(analytics.getTma90(), analytics.getEma90()))
+                .and(new CrossedDownRule(analytics.getEma5(), analytics.getTma90()));
 
-        Rule exitRule = new UpperRule(analytics.getTma90(), analytics.getEma90())
-                .and(new CrossedUpIndicatorRule(analytics.getEma5(), analytics.getTma90()))
-                .and(new ModifiedStopGainRule(analytics.getClosePrice(), Decimal.ONE));
+        Rule exitRule = new DoubleUpperRule(analytics.getTma90(), analytics.getEma90())
+                .and(new CrossedUpRule(analytics.getEma5(), analytics.getTma90()))
+                .and(new DoubleModifiedStopGainRule(analytics.getClosePrice(), Decimal.ONE));
 
-        Strategy strategy = new BaseStrategy(entryRule, exitRule);
+        Strategy strategy = new DoubleStrategy(entryRule, exitRule);
         strategy.setUnstablePeriod(270);
 
         return strategy;
@@ -57,16 +63,16 @@ public class TmaStrategyFactory {
     public Strategy createRisingTmaStrategy2(CurrencyPair currencyPair, TimeFrame timeFrame) {
         TripleEmaAnalytics analytics = analyticsHelper.getTripleEmaAnalytics(currencyPair, timeFrame);
 
-        Rule entryRule = new UpperRule(analytics.getTma90(), analytics.getEma90())
-                .and(new CrossedUpIndicatorRule(analytics.getEma5(), analytics.getTma90()));
+        Rule entryRule = new DoubleUpperRule(analytics.getTma90(), analytics.getEma90())
+                .and(new CrossedUpRule(analytics.getEma5(), analytics.getTma90()));
 
-        Rule exitRule = new LowerRule(analytics.getTma90(), analytics.getDma90())
-                .and(new LowerRule(analytics.getTma90(), analytics.getEma90()))
-                .and(new CrossedDownIndicatorRule(analytics.getEma5(), analytics.getTma90()))
-                .and(new ModifiedStopGainRule(analytics.getClosePrice(), Decimal.ONE))
-                .and(new MaxGainBuyRule(analytics.getClosePrice(), Decimal.ONE));
+        Rule exitRule = new DoubleLowerRule(analytics.getTma90(), analytics.getDma90())
+                .and(new DoubleLowerRule(analytics.getTma90(), analytics.getEma90()))
+                .and(new CrossedDownRule(analytics.getEma5(), analytics.getTma90()))
+                .and(new DoubleModifiedStopGainRule(analytics.getClosePrice(), Decimal.ONE))
+                .and(new DoubleMaxGainBuyRule(analytics.getClosePrice(), Decimal.ONE));
 
-        Strategy strategy = new BaseStrategy(entryRule, exitRule);
+        Strategy strategy = new DoubleStrategy(entryRule, exitRule);
         strategy.setUnstablePeriod(270);
 
         return strategy;
@@ -5,12 +5,9 @@ import com.crypto.trade.poloniex.services.analytics.TimeFrame;
 import com.crypto.trade.poloniex.services.analytics.model.StrategyRules;
 import com.crypto.trade.poloniex.services.analytics.model.TrendAnalytics;
 import com.crypto.trade.poloniex.services.analytics.rules.*;
-import eu.verdelhan.ta4j.BaseStrategy;
 import eu.verdelhan.ta4j.Decimal;
 import eu.verdelhan.ta4j.Rule;
 import eu.verdelhan.ta4j.Strategy;
-import eu.verdelhan.ta4j.trading.rules.NotRule;
-import eu.verdelhan.ta4j.trading.rules.OrRule;
 import org.springframework.beans.factory.annotation.Autowired;
 
 public class TrendStrategyFactory {
@@ -18,6 +15,13 @@ public class TrendStrategyFactory {
     @Autowired
     private AnalyticsHelper analyticsHelper;
 
+    public TrendStrategyFactory() {
+    }
+
+    public TrendStrategyFactory(AnalyticsHelper analyticsHelper) {
+        this.analyticsHelper = analyticsHelper;
+    }
+
     public Strategy createRisingTrendStrategy(CurrencyPair currencyPair, TimeFrame timeFrame) {
         return createRisingTrendStrategy(currencyPair, timeFrame, StrategyRules.of(Decimal.ONE, Decimal.ZERO));
     }
@@ -27,9 +31,9 @@ public class TrendStrategyFactory {
 
         Rule entryRule = createBuyEntryRule(analytics);
         Rule exitRule = createBuyExitRule(analytics)
-                .and(new ModifiedStopGainRule(analytics.getClosePrice(), strategyRules.getStopGain()));
+                .and(new DoubleModifiedStopGainRule(analytics.getClosePrice(), strategyRules.getStopGain()));
 
-        Strategy strategy = new BaseStrategy(entryRule, exitRule);
+        Strategy strategy = new DoubleStrategy(entryRule, exitRule);
         strategy.setUnstablePeriod(100);
 
         return strategy;
@@ -37,17 +41,17 @@ public class TrendStrategyFactory {
 
     private Rule createBuyEntryRule(TrendAnalytics analytics) {
         // ema90[0] >= ema90[-1] and ma05 > ma100
-        Rule trendUp = new NotRule(new FallingDownIndicatorRule(analytics.getEma90()))
-                .and(new UpperRule(analytics.getEma5(), analytics.getEma100()));
+        Rule trendUp = new DoubleFallingDownIndicatorRule(analytics.getEma90()).negation()
+                .and(new DoubleUpperRule(analytics.getEma5(), analytics.getEma100()));
         // ema90[-1] >= ema90[-2] and ema05[-1] < ma100[-1]
-        Rule buySignal1 = new NotRule(new FallingDownIndicatorRule(analytics.getEma90(), 1))
-                .and(new LowerRule(analytics.getEma5(), analytics.getEma100(), 1));
+        Rule buySignal1 = new DoubleFallingDownIndicatorRule(analytics.getEma90(), 1).negation()
+                .and(new DoubleLowerRule(analytics.getEma5(), analytics.getEma100(), 1));
         // ema90[-1] <= ema90[-2] and ema05[-1] < ema100[-1]
-        Rule buySignal2 = new NotRule(new RisingUpIndicatorRule(analytics.getEma90(), 1))
-                .and(new LowerRule(analytics.getEma5(), analytics.getEma100(), 1));
+        Rule buySignal2 = new DoubleRisingUpIndicatorRule(analytics.getEma90(), 1).negation()
+                .and(new DoubleLowerRule(analytics.getEma5(), analytics.getEma100(), 1));
 
         Rule entry1 = trendUp.and(buySignal1);
-        Rule entry2 = trendUp.and(new NotRule(buySignal1)).and(buySignal2);
+        Rule entry2 = trendUp.and(buySignal1.negation()).and(buySignal2);
 
         return entry1.or(entry2);
     }
@@ -55,16 +59,16 @@ public class TrendStrategyFactory {
     private Rule createBuyExitRule(TrendAnalytics analytics) {
         // Exit rule
         // ema90[0] <= ema90[-1] and ema05 < ema100
-        Rule trendDown = new NotRule(new RisingUpIndicatorRule(analytics.getEma90()))
-                .and(new LowerRule(analytics.getEma5(), analytics.getEma100()));
+        Rule trendDown = new DoubleRisingUpIndicatorRule(analytics.getEma90()).negation()
+                .and(new DoubleLowerRule(analytics.getEma5(), analytics.getEma100()));
         // ema90[0] < ema90[-1] and ema05 > ema100
-        Rule trendPreDown = new FallingDownIndicatorRule(analytics.getEma90())
-                .and(new UpperRule(analytics.getEma5(), analytics.getEma100()));
+        Rule trendPreDown = new DoubleFallingDownIndicatorRule(analytics.getEma90())
+                .and(new DoubleUpperRule(analytics.getEma5(), analytics.getEma100()));
         // ema90[-1] >= ema90[-2] and ema05[-1] > ema100[-1]
-        Rule exit1 = new NotRule(new FallingDownIndicatorRule(analytics.getEma90(), 1))
-                .and(new UpperRule(analytics.getEma5(), analytics.getEma100(), 1));
+        Rule exit1 = new DoubleFallingDownIndicatorRule(analytics.getEma90(), 1).negation()
+                .and(new DoubleUpperRule(analytics.getEma5(), analytics.getEma100(), 1));
 
-        return new OrRule(trendDown, trendPreDown)
+        return trendDown.or(trendPreDown)
                 .and(exit1);
     }
 
@@ -77,9 +81,9 @@ public class TrendStrategyFactory {
 
         Rule entryRule = createBuyExitRule(analytics);
         Rule exitRule = createBuyEntryRule(analytics)
-                .and(new ModifiedStopGainRule(analytics.getClosePrice(), Decimal.ONE));
+                .and(new DoubleModifiedStopGainRule(analytics.getClosePrice(), Decimal.ONE));
 
-        Strategy strategy = new BaseStrategy(entryRule, exitRule);
+        Strategy strategy = new DoubleStrategy(entryRule, exitRule);
         strategy.setUnstablePeriod(100);
 
         return strategy;
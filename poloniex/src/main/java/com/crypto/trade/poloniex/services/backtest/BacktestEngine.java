@@ -0,0 +1,89 @@
+package com.crypto.trade.poloniex.services.backtest;
+
+import com.crypto.trade.poloniex.config.properties.PoloniexProperties;
+import com.crypto.trade.poloniex.dto.PoloniexHistoryTrade;
+import com.crypto.trade.poloniex.services.analytics.AnalyticsService;
+import com.crypto.trade.poloniex.services.analytics.CurrencyPair;
+import com.crypto.trade.poloniex.services.analytics.TimeFrame;
+import com.crypto.trade.poloniex.services.analytics.poloniex.ExperimentalTradeConfigFactory;
+import com.crypto.trade.poloniex.services.trade.HistoryService;
+import com.crypto.trade.poloniex.services.trade.ProfitCalculator;
+import com.crypto.trade.poloniex.storage.analytics.AnalyticsStorage;
+import com.crypto.trade.poloniex.storage.candles.CandlesBuffer;
+import com.crypto.trade.poloniex.storage.model.TimeFrameStorage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Replays trades history through all the experimental strategies of every time frame. Candles and indicators are
+ * built apart from the live storage, time frames and strategies are evaluated in a fork-join pool, each strategy
+ * with its own trading records.
+ */
+@Slf4j
+public class BacktestEngine {
+
+    @Qualifier("mappedTradesHistoryService")
+    @Autowired
+    private HistoryService historyService;
+    @Qualifier("historyAnalyticsService")
+    @Autowired
+    private AnalyticsService analyticsService;
+    @Autowired
+    private ProfitCalculator profitCalculator;
+    @Autowired
+    private PoloniexProperties properties;
+
+    public List<BacktestResult> run(CurrencyPair currencyPair, Duration historyDuration) {
+        return run(currencyPair, HistoryTrades.of(historyService.openTradesCursor(currencyPair, historyDuration)));
+    }
+
+    /**
+     * @return results of all the strategies sorted by net profit, the most profitable first
+     */
+    public List<BacktestResult> run(CurrencyPair currencyPair, List<PoloniexHistoryTrade> trades) {
+        return run(currencyPair, HistoryTrades.of(trades));
+    }
+
+    private List<BacktestResult> run(CurrencyPair currencyPair, HistoryTrades history) {
+        long startTime = System.currentTimeMillis();
+        log.info("Backtesting {} on {} trades", currencyPair, history.size());
+        List<BacktestResult> results = StrategyEvaluator.execute(properties.getBacktest().getParallelism(),
+                "Backtest of " + currencyPair, () -> backtest(currencyPair, history));
+        log.info("Backtested {} {} strategies in {} ms", results.size(), currencyPair, System.currentTimeMillis() - startTime);
+        results.forEach(result -> log.info("Backtest {} {} {}: {} trades, net profit {} ({})", currencyPair,
+                result.getTimeFrame(), result.getStrategyName(), result.getTradeResult().getTradesCount(),
+                result.getNetProfit(), result.getNetPercent()));
+        return results;
+    }
+
+    private List<BacktestResult> backtest(CurrencyPair currencyPair, HistoryTrades history) {
+        Map<TimeFrame, CandlesBuffer> candles = new EnumMap<>(Arrays.stream(TimeFrame.values())
+                .parallel()
+                .collect(Collectors.toMap(Function.identity(), history::buildCandles)));
+        AnalyticsStorage analyticsStorage = new AnalyticsStorage(EnumSet.of(currencyPair),
+                (pair, timeFrame) -> candles.get(timeFrame).getTimeSeries());
+        List<TimeFrameStorage> storages = new ExperimentalTradeConfigFactory(analyticsStorage)
+                .allTimeFramesAndStrategies(currencyPair);
+
+        // Closed candles are committed once per time frame, strategies then share the calculated indicators
+        storages.parallelStream()
+                .map(TimeFrameStorage::getTimeFrame)
+                .filter(timeFrame -> !candles.get(timeFrame).isEmpty())
+                .forEach(timeFrame -> analyticsStorage.cacheIndex(currencyPair, timeFrame, candles.get(timeFrame).getEndIndex()));
+
+        StrategyEvaluator evaluator = new StrategyEvaluator(analyticsService, profitCalculator);
+        return storages.stream()
+                .flatMap(storage -> storage.getActiveStrategies().stream())
+                .collect(Collectors.toList())
+                .parallelStream()
+                .map(strategy -> evaluator.evaluate(strategy, candles.get(strategy.getTimeFrame())))
+                .sorted(StrategyEvaluator.NET_PROFIT_DESC)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,17 @@
+package com.crypto.trade.poloniex.services.backtest;
+
+import com.crypto.trade.poloniex.services.analytics.TimeFrame;
+import com.crypto.trade.poloniex.services.trade.TradeResult;
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+@Value(staticConstructor = "of")
+public class BacktestResult {
+
+    private TimeFrame timeFrame;
+    private String strategyName;
+    private TradeResult tradeResult;
+    private BigDecimal netProfit;
+    private BigDecimal netPercent;
+}
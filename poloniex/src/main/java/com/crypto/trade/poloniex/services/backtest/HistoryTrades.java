@@ -0,0 +1,89 @@
+package com.crypto.trade.poloniex.services.backtest;
+
+import com.crypto.trade.poloniex.dto.PoloniexHistoryTrade;
+import com.crypto.trade.poloniex.services.analytics.TimeFrame;
+import com.crypto.trade.poloniex.storage.candles.CandlesBuffer;
+import com.crypto.trade.poloniex.storage.history.TradesCursor;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Trades history parsed once into primitive columns sorted by time, candles of every time frame are built from it.
+ */
+public class HistoryTrades {
+
+    private static final int INITIAL_SIZE = 1024;
+
+    private final long[] times;
+    private final double[] rates;
+    private final double[] amounts;
+
+    private HistoryTrades(long[] times, double[] rates, double[] amounts) {
+        this.times = times;
+        this.rates = rates;
+        this.amounts = amounts;
+    }
+
+    public static HistoryTrades of(List<PoloniexHistoryTrade> trades) {
+        return of(TradesCursor.of(trades));
+    }
+
+    /**
+     * Reads the cursor trades, already in time order, straight into the columns.
+     */
+    public static HistoryTrades of(TradesCursor cursor) {
+        long[] times = new long[INITIAL_SIZE];
+        double[] rates = new double[INITIAL_SIZE];
+        double[] amounts = new double[INITIAL_SIZE];
+        int size = 0;
+        while (cursor.next()) {
+            if (size == times.length) {
+                times = Arrays.copyOf(times, size * 2);
+                rates = Arrays.copyOf(rates, size * 2);
+                amounts = Arrays.copyOf(amounts, size * 2);
+            }
+            times[size] = cursor.getTimeMillis();
+            rates[size] = cursor.getRate();
+            amounts[size] = cursor.getAmount();
+            size++;
+        }
+        return new HistoryTrades(Arrays.copyOf(times, size), Arrays.copyOf(rates, size), Arrays.copyOf(amounts, size));
+    }
+
+    public int size() {
+        return times.length;
+    }
+
+    public long getTime(int index) {
+        return times[index];
+    }
+
+    public double getRate(int index) {
+        return rates[index];
+    }
+
+    public double getAmount(int index) {
+        return amounts[index];
+    }
+
+    /**
+     * Builds the candles the same way live trades do, periods without trades have no candle.
+     */
+    public CandlesBuffer buildCandles(TimeFrame timeFrame) {
+        long periodMillis = timeFrame.getDurationMillis();
+        long span = times.length == 0 ? 0 : times[times.length - 1] - times[0];
+        int capacity = (int) Math.min(Integer.MAX_VALUE, span / periodMillis + 2);
+        CandlesBuffer candles = new CandlesBuffer(timeFrame.name(), timeFrame.getFrameDuration(), capacity);
+        long candleEnd = Long.MIN_VALUE;
+        int index = -1;
+        for (int i = 0; i < times.length; i++) {
+            if (times[i] >= candleEnd) {
+                candleEnd = timeFrame.calculateEndMillis(times[i]);
+                index = candles.addCandle(candleEnd);
+            }
+            candles.addTrade(index, amounts[i], rates[i]);
+        }
+        return candles;
+    }
+}
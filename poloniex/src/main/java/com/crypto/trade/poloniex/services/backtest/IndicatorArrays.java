@@ -0,0 +1,60 @@
+package com.crypto.trade.poloniex.services.backtest;
+
+import com.crypto.trade.poloniex.services.analytics.indicators.*;
+import com.crypto.trade.poloniex.storage.candles.CandlesBuffer;
+import eu.verdelhan.ta4j.TimeSeries;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Indicators of one candles buffer calculated once per distinct input, so strategy variants sharing an indicator
+ * read the same array instead of rebuilding it through the analytics storage.
+ */
+public class IndicatorArrays {
+
+    private final CandlesBuffer candles;
+    private final Map<String, DoubleArrayIndicator> arrays = new ConcurrentHashMap<>();
+
+    public IndicatorArrays(CandlesBuffer candles) {
+        this.candles = candles;
+    }
+
+    public DoubleArrayIndicator getClosePrice() {
+        return get("close", () -> candles::getClose);
+    }
+
+    public DoubleArrayIndicator getEma(int period) {
+        return get("ema-" + period, () -> new StreamingEMAIndicator(new StreamingClosePriceIndicator(getTimeSeries()), period));
+    }
+
+    public DoubleArrayIndicator getRsi(int period) {
+        return get("rsi-" + period, () -> new StreamingRSIIndicator(new StreamingClosePriceIndicator(getTimeSeries()), period));
+    }
+
+    public DoubleArrayIndicator getStochK(int period) {
+        return get("stochk-" + period, () -> new StreamingStochasticKIndicator(getTimeSeries(), period));
+    }
+
+    /**
+     * @param period time frame of the %K the 3 candles %D is calculated on
+     */
+    public DoubleArrayIndicator getStochD(int period) {
+        return get("stochd-" + period, () -> new StreamingStochasticDIndicator(new StreamingStochasticKIndicator(getTimeSeries(), period)));
+    }
+
+    public int size() {
+        return arrays.size();
+    }
+
+    private TimeSeries getTimeSeries() {
+        return candles.getTimeSeries();
+    }
+
+    // Streaming indicators are created per array, the calculation never reenters the map
+    private DoubleArrayIndicator get(String key, Supplier<DoubleIndicator> source) {
+        return arrays.computeIfAbsent(key,
+                k -> DoubleArrayIndicator.of(source.get(), candles.getBeginIndex(), candles.getEndIndex()));
+    }
+}
@@ -0,0 +1,72 @@
+package com.crypto.trade.poloniex.services.backtest;
+
+import com.crypto.trade.poloniex.services.analytics.model.StrategyRules;
+import eu.verdelhan.ta4j.Decimal;
+import eu.verdelhan.ta4j.Order;
+import lombok.Data;
+
+import java.util.*;
+
+/**
+ * Values of every strategy parameter to sweep, variants are either the full grid or a random sample of it.
+ */
+@Data
+public class ParameterSpace {
+
+    private List<Double> stopGains = Arrays.asList(0.5, 1.0, 2.0, 3.0);
+    private List<Double> maxGainCorridors = Arrays.asList(1.0, 5.0, 10.0, 25.0, 50.0, 100.0);
+    private List<Integer> rsiThresholds = Arrays.asList(15, 20, 25, 30);
+    private List<Integer> stochasticThresholds = Arrays.asList(15, 20, 25);
+    private List<Integer> emaPeriods = Arrays.asList(30, 60, 90, 180, 540);
+    private List<Integer> unstablePeriods = Arrays.asList(14, 90);
+
+    public long size() {
+        return (long) stopGains.size() * maxGainCorridors.size() * rsiThresholds.size()
+                * stochasticThresholds.size() * emaPeriods.size() * unstablePeriods.size();
+    }
+
+    public List<StrategyVariant> grid(Order.OrderType direction) {
+        List<StrategyVariant> variants = new ArrayList<>();
+        for (long position = 0; position < size(); position++) {
+            variants.add(variant(direction, position));
+        }
+        return variants;
+    }
+
+    /**
+     * @return {@code count} distinct variants picked at random, the full grid when it is not larger
+     */
+    public List<StrategyVariant> random(Order.OrderType direction, int count, long seed) {
+        long size = size();
+        if (count >= size) {
+            return grid(direction);
+        }
+        Random random = new Random(seed);
+        Set<Long> positions = new LinkedHashSet<>();
+        while (positions.size() < count) {
+            positions.add((long) (random.nextDouble() * size));
+        }
+        List<StrategyVariant> variants = new ArrayList<>(count);
+        positions.forEach(position -> variants.add(variant(direction, position)));
+        return variants;
+    }
+
+    // Decodes the grid position as a mixed radix number, one digit per parameter
+    private StrategyVariant variant(Order.OrderType direction, long position) {
+        long rest = position;
+        double stopGain = stopGains.get((int) (rest % stopGains.size()));
+        rest /= stopGains.size();
+        double maxGainCorridor = maxGainCorridors.get((int) (rest % maxGainCorridors.size()));
+        rest /= maxGainCorridors.size();
+        int rsiThreshold = rsiThresholds.get((int) (rest % rsiThresholds.size()));
+        rest /= rsiThresholds.size();
+        int stochasticThreshold = stochasticThresholds.get((int) (rest % stochasticThresholds.size()));
+        rest /= stochasticThresholds.size();
+        int emaPeriod = emaPeriods.get((int) (rest % emaPeriods.size()));
+        rest /= emaPeriods.size();
+        int unstablePeriod = unstablePeriods.get((int) (rest % unstablePeriods.size()));
+        return StrategyVariant.of(direction,
+                StrategyRules.of(Decimal.valueOf(stopGain), Decimal.valueOf(maxGainCorridor)),
+                rsiThreshold, stochasticThreshold, emaPeriod, unstablePeriod);
+    }
+}
@@ -0,0 +1,67 @@
+package com.crypto.trade.poloniex.services.backtest;
+
+import com.crypto.trade.poloniex.services.analytics.AnalyticsService;
+import com.crypto.trade.poloniex.services.analytics.model.AnalyticsData;
+import com.crypto.trade.poloniex.services.analytics.model.TradeData;
+import com.crypto.trade.poloniex.services.trade.ProfitCalculator;
+import com.crypto.trade.poloniex.services.trade.TradeResult;
+import com.crypto.trade.poloniex.storage.candles.CandlesBuffer;
+import com.crypto.trade.poloniex.storage.model.PoloniexStrategy;
+import com.crypto.trade.poloniex.storage.model.PoloniexTradingRecord;
+import eu.verdelhan.ta4j.TimeSeries;
+
+import java.util.Comparator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Replays candles through a strategy and its trading records, shared by the backtest and the optimizer.
+ */
+class StrategyEvaluator {
+
+    static final Comparator<BacktestResult> NET_PROFIT_DESC = Comparator.comparing(BacktestResult::getNetProfit)
+            .reversed();
+
+    private final AnalyticsService analyticsService;
+    private final ProfitCalculator profitCalculator;
+
+    StrategyEvaluator(AnalyticsService analyticsService, ProfitCalculator profitCalculator) {
+        this.analyticsService = analyticsService;
+        this.profitCalculator = profitCalculator;
+    }
+
+    BacktestResult evaluate(PoloniexStrategy strategy, CandlesBuffer candles) {
+        TimeSeries timeSeries = candles.getTimeSeries();
+        for (PoloniexTradingRecord tradingRecord : strategy.getTradingRecords()) {
+            AnalyticsData analyticsData = AnalyticsData.of(strategy.getStrategy(), tradingRecord.getTradingRecord(), 0);
+            for (int index = candles.getBeginIndex(); index <= candles.getEndIndex(); index++) {
+                analyticsService.analyzeTick(analyticsData,
+                        TradeData.of(timeSeries.getTick(index), index, strategy.getDirection(), strategy.getTradeVolume()));
+            }
+        }
+        TradeResult tradeResult = profitCalculator.getStrategyTradeResult(strategy);
+        return BacktestResult.of(strategy.getTimeFrame(),
+                strategy.getName(),
+                tradeResult,
+                profitCalculator.getNetProfit(tradeResult),
+                profitCalculator.getNetPercent(tradeResult));
+    }
+
+    /**
+     * Runs the task in a dedicated fork-join pool, so its parallel streams use the given parallelism.
+     */
+    static <T> T execute(int parallelism, String description, Callable<T> task) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return pool.submit(task).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(description + " interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(description + " failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
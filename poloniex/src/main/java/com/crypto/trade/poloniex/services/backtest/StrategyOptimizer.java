@@ -0,0 +1,114 @@
+package com.crypto.trade.poloniex.services.backtest;
+
+import com.crypto.trade.poloniex.config.properties.PoloniexProperties;
+import com.crypto.trade.poloniex.dto.PoloniexHistoryTrade;
+import com.crypto.trade.poloniex.services.analytics.AnalyticsService;
+import com.crypto.trade.poloniex.services.analytics.CurrencyPair;
+import com.crypto.trade.poloniex.services.analytics.TimeFrame;
+import com.crypto.trade.poloniex.services.analytics.indicators.DoubleIndicator;
+import com.crypto.trade.poloniex.services.analytics.model.StrategyConfig;
+import com.crypto.trade.poloniex.services.analytics.rules.*;
+import com.crypto.trade.poloniex.services.analytics.strategies.DoubleStrategy;
+import com.crypto.trade.poloniex.services.trade.HistoryService;
+import com.crypto.trade.poloniex.services.trade.ProfitCalculator;
+import com.crypto.trade.poloniex.storage.candles.CandlesBuffer;
+import com.crypto.trade.poloniex.storage.model.PoloniexStrategy;
+import eu.verdelhan.ta4j.Rule;
+import eu.verdelhan.ta4j.Strategy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static eu.verdelhan.ta4j.Order.OrderType.BUY;
+
+/**
+ * Parameter sweep of the short buy / short sell EMA strategies over trades history. Every distinct indicator is
+ * calculated once into an array shared by all the variants reading it, variants are evaluated in a fork-join pool.
+ */
+@Slf4j
+public class StrategyOptimizer {
+
+    @Qualifier("mappedTradesHistoryService")
+    @Autowired
+    private HistoryService historyService;
+    @Qualifier("historyAnalyticsService")
+    @Autowired
+    private AnalyticsService analyticsService;
+    @Autowired
+    private ProfitCalculator profitCalculator;
+    @Autowired
+    private PoloniexProperties properties;
+
+    public List<BacktestResult> optimize(CurrencyPair currencyPair, TimeFrame timeFrame, Duration historyDuration,
+                                         List<StrategyVariant> variants) {
+        return optimize(timeFrame, HistoryTrades.of(historyService.openTradesCursor(currencyPair, historyDuration)), variants);
+    }
+
+    /**
+     * @return results of all the variants sorted by net profit, the most profitable first
+     */
+    public List<BacktestResult> optimize(TimeFrame timeFrame, List<PoloniexHistoryTrade> trades, List<StrategyVariant> variants) {
+        return optimize(timeFrame, HistoryTrades.of(trades), variants);
+    }
+
+    private List<BacktestResult> optimize(TimeFrame timeFrame, HistoryTrades history, List<StrategyVariant> variants) {
+        long startTime = System.currentTimeMillis();
+        CandlesBuffer candles = history.buildCandles(timeFrame);
+        List<BacktestResult> results = optimize(candles, timeFrame, variants);
+        log.info("Evaluated {} {} variants on {} candles in {} ms", results.size(), timeFrame, candles.size(),
+                System.currentTimeMillis() - startTime);
+        return results;
+    }
+
+    List<BacktestResult> optimize(CandlesBuffer candles, TimeFrame timeFrame, List<StrategyVariant> variants) {
+        IndicatorArrays indicators = new IndicatorArrays(candles);
+        StrategyEvaluator evaluator = new StrategyEvaluator(analyticsService, profitCalculator);
+        return StrategyEvaluator.execute(properties.getBacktest().getParallelism(), "Optimization on " + timeFrame,
+                () -> variants.parallelStream()
+                        .map(variant -> evaluator.evaluate(createStrategy(variant, timeFrame, indicators), candles))
+                        .sorted(StrategyEvaluator.NET_PROFIT_DESC)
+                        .collect(Collectors.toList()));
+    }
+
+    /**
+     * Same rules as {@link com.crypto.trade.poloniex.services.analytics.strategies.ShortBuyStrategyFactory#createShortBuyEma90}
+     * and its short sell counterpart, with the variant parameters.
+     */
+    PoloniexStrategy createStrategy(StrategyVariant variant, TimeFrame timeFrame, IndicatorArrays indicators) {
+        DoubleIndicator closePrice = indicators.getClosePrice();
+        DoubleIndicator rsi = indicators.getRsi(StrategyVariant.RSI_PERIOD);
+        DoubleIndicator stochK = indicators.getStochK(StrategyVariant.STOCHASTIC_PERIOD);
+        DoubleIndicator stochD = indicators.getStochD(StrategyVariant.STOCHASTIC_PERIOD);
+        DoubleIndicator ema = indicators.getEma(variant.getEmaPeriod());
+        double stopGain = variant.getRules().getStopGain().toDouble();
+        double maxGainCorridor = variant.getRules().getMaxGainCorridor().toDouble();
+
+        Rule entryRule;
+        Rule exitRule;
+        if (variant.getDirection() == BUY) {
+            entryRule = DoubleLowerRule.of(rsi, variant.getRsiThreshold())
+                    .and(DoubleLowerRule.of(stochK, variant.getStochasticThreshold()))
+                    .and(CrossedUpRule.of(stochK, stochD))
+                    .and(DoubleRisingUpIndicatorRule.of(ema));
+            exitRule = new DoubleModifiedStopGainRule(closePrice, stopGain)
+                    .and(new DoubleMaxGainBuyRule(closePrice, maxGainCorridor));
+        } else {
+            entryRule = DoubleUpperRule.of(rsi, 100 - variant.getRsiThreshold())
+                    .and(DoubleUpperRule.of(stochK, 100 - variant.getStochasticThreshold()))
+                    .and(CrossedDownRule.of(stochK, stochD))
+                    .and(DoubleFallingDownIndicatorRule.of(ema));
+            exitRule = new DoubleModifiedStopGainRule(closePrice, stopGain)
+                    .and(new DoubleMaxGainSellRule(closePrice, maxGainCorridor));
+        }
+        Strategy strategy = new DoubleStrategy(entryRule, exitRule);
+        strategy.setUnstablePeriod(variant.getUnstablePeriod());
+
+        StrategyConfig config = StrategyConfig.of(timeFrame, properties.getTradeConfig().getOptimizerTradeVolume(),
+                variant.getDirection(), 1);
+        return new PoloniexStrategy(variant.getName(), config, strategy);
+    }
+}
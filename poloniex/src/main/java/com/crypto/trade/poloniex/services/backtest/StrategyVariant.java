@@ -0,0 +1,33 @@
+package com.crypto.trade.poloniex.services.backtest;
+
+import com.crypto.trade.poloniex.services.analytics.model.StrategyRules;
+import eu.verdelhan.ta4j.Order;
+import lombok.Value;
+
+/**
+ * Parameters of one short buy (or short sell) EMA strategy. Thresholds are given for the buy side, the sell side
+ * mirrors them (RSI &lt; 20 becomes RSI &gt; 80).
+ */
+@Value(staticConstructor = "of")
+public class StrategyVariant {
+
+    public static final int RSI_PERIOD = 14;
+    public static final int STOCHASTIC_PERIOD = 14;
+
+    private Order.OrderType direction;
+    private StrategyRules rules;
+    private int rsiThreshold;
+    private int stochasticThreshold;
+    private int emaPeriod;
+    private int unstablePeriod;
+
+    public String getName() {
+        return (direction == Order.OrderType.BUY ? "short-buy" : "short-sell")
+                + "-ema" + emaPeriod
+                + "-rsi" + rsiThreshold
+                + "-stoch" + stochasticThreshold
+                + "-u" + unstablePeriod
+                + "-sg" + rules.getStopGain()
+                + "-mg" + rules.getMaxGainCorridor();
+    }
+}
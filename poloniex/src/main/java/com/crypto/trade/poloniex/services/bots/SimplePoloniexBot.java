@@ -1,12 +1,17 @@
 package com.crypto.trade.poloniex.services.bots;
 
+import com.crypto.trade.poloniex.config.properties.PoloniexProperties;
 import com.crypto.trade.poloniex.services.analytics.CurrencyPair;
 import com.crypto.trade.poloniex.services.analytics.poloniex.ExperimentalTradeConfigFactory;
 import com.crypto.trade.poloniex.services.analytics.poloniex.RealTradeConfFactory;
+import com.crypto.trade.poloniex.services.ingest.HistoryRebuildService;
 import com.crypto.trade.poloniex.services.trade.HistoryService;
+import com.crypto.trade.poloniex.services.trade.HistorySyncService;
+import com.crypto.trade.poloniex.services.ws.WsChannels;
 import com.crypto.trade.poloniex.services.ws.WsConnector;
 import com.crypto.trade.poloniex.storage.CandlesStorage;
 import com.crypto.trade.poloniex.storage.TradesStorage;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
@@ -15,17 +20,27 @@ import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import javax.websocket.DeploymentException;
 import java.io.IOException;
-import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.Set;
 
+@Slf4j
 @Service
 public class SimplePoloniexBot {
 
     //    @Qualifier("fileTradesHistoryService")
     //    @Qualifier("copyTradesHistoryService")
-    @Qualifier("serverTradesHistoryService")
+    //    @Qualifier("serverTradesHistoryService")
+    @Qualifier("mappedTradesHistoryService")
     @Autowired
     private HistoryService historyService;
     @Autowired
+    private HistorySyncService historySyncService;
+    @Autowired
+    private PoloniexProperties properties;
+    @Autowired
     private TradesStorage tradesStorage;
     @Autowired
     private WsConnector wsConnector;
@@ -35,14 +50,34 @@ public class SimplePoloniexBot {
     private ExperimentalTradeConfigFactory experimentalTradeConfigFactory;
     @Autowired
     private CandlesStorage candlesStorage;
+    @Autowired
+    private HistoryRebuildService historyRebuildService;
+    @Autowired
+    private WsChannels wsChannels;
 
     @PostConstruct
     public void postConstruct() throws IOException, DeploymentException {
-        CurrencyPair btcEth = CurrencyPair.BTC_ETH;
-        tradesStorage.initCurrency(btcEth);
-        candlesStorage.initCurrency(btcEth, experimentalTradeConfigFactory.createTopPerformingStrategies(btcEth));
+        Set<CurrencyPair> currencies = wsChannels.getCurrencies();
+        currencies.forEach(currencyPair -> {
+            tradesStorage.initCurrency(currencyPair);
+            candlesStorage.initCurrency(currencyPair, experimentalTradeConfigFactory.createTopPerformingStrategies(currencyPair));
+        });
         wsConnector.connect();
-        tradesStorage.addTradesHistory(btcEth, historyService.loadTradesHistory(btcEth, Duration.ofHours(6)));
+        // Only the trades missed since the last run are requested, candles are warmed from the local history
+        LocalDateTime start = LocalDateTime.now(ZoneOffset.UTC).minusHours(properties.getHistory().getWarmUpHours());
+        LocalDateTime end = LocalDateTime.of(LocalDate.now(ZoneOffset.UTC).plusDays(1), LocalTime.MIN);
+        boolean sync = properties.getHistory().isSyncOnStartup();
+        currencies.forEach(currencyPair -> {
+            if (sync) {
+                try {
+                    historySyncService.sync(currencyPair);
+                } catch (RuntimeException e) {
+                    log.error("Failed to sync " + currencyPair + " history, warming up from the local one", e);
+                }
+            }
+            // Live trades keep flowing into the candles while the history ones are built from the mapped files
+            historyRebuildService.rebuild(currencyPair, () -> historyService.openTradesCursor(currencyPair, start, end));
+        });
     }
 
     @PreDestroy
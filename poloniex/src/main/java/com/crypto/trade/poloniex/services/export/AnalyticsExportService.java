@@ -6,10 +6,10 @@ import com.crypto.trade.poloniex.services.utils.CsvFileWriter;
 import com.crypto.trade.poloniex.storage.CandlesStorage;
 import com.crypto.trade.poloniex.storage.analytics.AnalyticsStorage;
 import com.crypto.trade.poloniex.storage.analytics.IndicatorType;
+import com.crypto.trade.poloniex.storage.candles.CandlesBuffer;
 import com.crypto.trade.poloniex.storage.model.PoloniexStrategy;
 import com.crypto.trade.poloniex.storage.model.PoloniexTradingRecord;
 import com.crypto.trade.poloniex.storage.model.TimeFrameStorage;
-import eu.verdelhan.ta4j.BaseTimeSeries;
 import eu.verdelhan.ta4j.Decimal;
 import eu.verdelhan.ta4j.Indicator;
 import eu.verdelhan.ta4j.TimeSeries;
@@ -67,10 +67,10 @@ public class AnalyticsExportService implements MemoryExportService<TimeFrameStor
                 .append(exportHelper.createStrategiesHeaders(tradingRecords, "real"))
                 .append("\n");
 
-        int count = timeFrameStorage.getCandles().size();
-        TimeSeries timeSeries = new BaseTimeSeries(timeFrame.name(), timeFrameStorage.getCandles());
+        CandlesBuffer candles = timeFrameStorage.getCandles();
+        TimeSeries timeSeries = candles.getTimeSeries();
         List<Indicator<Decimal>> indicators = createIndicators(currencyPair, timeFrame);
-        IntStream.range(0, count).forEach(index -> sb.append(exportHelper.convertIndicators(timeSeries, indicators, index))
+        IntStream.rangeClosed(candles.getBeginIndex(), candles.getEndIndex()).forEach(index -> sb.append(exportHelper.convertIndicators(timeSeries, indicators, index))
                 .append(",")
                 .append(exportHelper.createHistoryTradesAnalytics(strategiesCopy, timeSeries, index, timeFrameStorage.getHistoryIndex()))
                 .append(",")
@@ -118,7 +118,6 @@ public class AnalyticsExportService implements MemoryExportService<TimeFrameStor
 
     @PreDestroy
     public void preDestroy() {
-        List<TimeFrameStorage> btcEth = candlesStorage.getData(CurrencyPair.BTC_ETH);
-        exportMemoryData(CurrencyPair.BTC_ETH, btcEth);
+        candlesStorage.getCurrencies().forEach(currencyPair -> exportMemoryData(currencyPair, candlesStorage.getData(currencyPair)));
     }
 }
@@ -4,10 +4,10 @@ import com.crypto.trade.poloniex.services.analytics.CurrencyPair;
 import com.crypto.trade.poloniex.services.analytics.TimeFrame;
 import com.crypto.trade.poloniex.services.utils.CsvFileWriter;
 import com.crypto.trade.poloniex.storage.CandlesStorage;
+import com.crypto.trade.poloniex.storage.candles.CandlesBuffer;
 import com.crypto.trade.poloniex.storage.model.PoloniexStrategy;
 import com.crypto.trade.poloniex.storage.model.PoloniexTradingRecord;
 import com.crypto.trade.poloniex.storage.model.TimeFrameStorage;
-import eu.verdelhan.ta4j.BaseTimeSeries;
 import eu.verdelhan.ta4j.TimeSeries;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -48,7 +48,6 @@ public class CandlesExportService implements MemoryExportService<TimeFrameStorag
     }
 
     private StringBuilder convert(TimeFrameStorage timeFrameStorage) {
-        TimeFrame timeFrame = timeFrameStorage.getTimeFrame();
         List<PoloniexStrategy> poloniexStrategies = timeFrameStorage.getActiveStrategies();
         List<PoloniexStrategy> strategiesCopy = exportHelper.createTradingRecordsCopy(poloniexStrategies);
         List<PoloniexTradingRecord> tradingRecords = timeFrameStorage.getAllTradingRecords();
@@ -59,9 +58,9 @@ public class CandlesExportService implements MemoryExportService<TimeFrameStorag
                 .append(exportHelper.createStrategiesHeaders(tradingRecords, "real"))
                 .append("\n");
 
-        int count = timeFrameStorage.getCandles().size();
-        TimeSeries timeSeries = new BaseTimeSeries(timeFrame.name(), timeFrameStorage.getCandles());
-        IntStream.range(0, count).forEach(index -> sb.append(exportHelper.convertCandle(timeSeries, index))
+        CandlesBuffer candles = timeFrameStorage.getCandles();
+        TimeSeries timeSeries = candles.getTimeSeries();
+        IntStream.rangeClosed(candles.getBeginIndex(), candles.getEndIndex()).forEach(index -> sb.append(exportHelper.convertCandle(timeSeries, index))
                 .append(",")
                 .append(exportHelper.createHistoryTradesAnalytics(strategiesCopy, timeSeries, index, timeFrameStorage.getHistoryIndex()))
                 .append(",")
@@ -85,7 +84,6 @@ public class CandlesExportService implements MemoryExportService<TimeFrameStorag
 
     @PreDestroy
     public void preDestroy() {
-        List<TimeFrameStorage> btcEth = candlesStorage.getData(CurrencyPair.BTC_ETH);
-        exportMemoryData(CurrencyPair.BTC_ETH, btcEth);
+        candlesStorage.getCurrencies().forEach(currencyPair -> exportMemoryData(currencyPair, candlesStorage.getData(currencyPair)));
     }
 }
@@ -13,7 +13,6 @@ import org.springframework.stereotype.Service;
 import javax.annotation.PreDestroy;
 import java.lang.management.ManagementFactory;
 import java.util.Collection;
-import java.util.List;
 
 @Slf4j
 @Service
@@ -64,7 +63,6 @@ public class OrdersExportService implements MemoryExportService<TimeFrameStorage
 
     @PreDestroy
     public void preDestroy() {
-        List<TimeFrameStorage> btcEth = candlesStorage.getData(CurrencyPair.BTC_ETH);
-        exportMemoryData(CurrencyPair.BTC_ETH, btcEth);
+        candlesStorage.getCurrencies().forEach(currencyPair -> exportMemoryData(currencyPair, candlesStorage.getData(currencyPair)));
     }
 }
@@ -0,0 +1,13 @@
+package com.crypto.trade.poloniex.services.gateway;
+
+import java.io.IOException;
+
+/**
+ * The request has been written but its response was not received, the server may have processed it.
+ */
+public class NoResponseException extends IOException {
+
+    public NoResponseException(String message) {
+        super(message);
+    }
+}
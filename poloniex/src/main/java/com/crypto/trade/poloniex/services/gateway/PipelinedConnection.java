@@ -0,0 +1,166 @@
+package com.crypto.trade.poloniex.services.gateway;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keep-alive connection with pipelined requests, responses come back in the requests order and complete the
+ * oldest pending future. Requests sent while connecting are queued and written in order once connected. Requests
+ * failing before they are written complete with an {@link IOException}, written ones without a response with a
+ * {@link NoResponseException}.
+ */
+@Slf4j
+class PipelinedConnection extends SimpleChannelInboundHandler<FullHttpResponse> {
+
+    private final Queue<CompletableFuture<ResponseEntity<String>>> pending = new ArrayDeque<>();
+    // Requests sent while connecting, written in order once connected
+    private final Queue<Unsent> unsent = new ArrayDeque<>();
+    private volatile Channel channel;
+    private volatile boolean closed;
+
+    synchronized void connected(Channel channel) {
+        this.channel = channel;
+        if (closed) {
+            channel.close();
+        }
+        unsent.forEach(request -> write(request.request, request.response, request.timeoutMillis));
+        unsent.clear();
+    }
+
+    synchronized void connectFailed(Throwable cause) {
+        closed = true;
+        IOException failed = new IOException("Failed to connect", cause);
+        unsent.forEach(request -> fail(request.request, request.response, failed));
+        unsent.clear();
+    }
+
+    /**
+     * @return false once the connection is closed or failed to connect
+     */
+    boolean isActive() {
+        Channel current = channel;
+        return !closed && (current == null || current.isActive());
+    }
+
+    synchronized CompletableFuture<ResponseEntity<String>> send(FullHttpRequest request, long timeoutMillis) {
+        CompletableFuture<ResponseEntity<String>> response = new CompletableFuture<>();
+        if (channel == null && !closed) {
+            unsent.add(new Unsent(request, response, timeoutMillis));
+        } else {
+            write(request, response, timeoutMillis);
+        }
+        return response;
+    }
+
+    private void write(FullHttpRequest request, CompletableFuture<ResponseEntity<String>> response, long timeoutMillis) {
+        if (channel == null || !channel.isActive()) {
+            fail(request, response, new IOException("Connection to " + (channel != null ? channel.remoteAddress() : null) + " closed"));
+            return;
+        }
+        pending.add(response);
+        channel.writeAndFlush(request).addListener(write -> {
+            if (!write.isSuccess()) {
+                log.warn("Failed to send request to {}: {}", channel.remoteAddress(), write.cause().getMessage());
+                response.completeExceptionally(new IOException("Failed to send request to " + channel.remoteAddress(), write.cause()));
+                channel.close();
+            }
+        });
+        channel.eventLoop().schedule(() -> {
+            if (response.completeExceptionally(new NoResponseException("No response from " + channel.remoteAddress()
+                    + " in " + timeoutMillis + " ms"))) {
+                log.warn("No response from {} in {} ms, closing connection", channel.remoteAddress(), timeoutMillis);
+                channel.close();
+            }
+        }, timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    void close() {
+        Channel current;
+        synchronized (this) {
+            closed = true;
+            current = channel;
+            IOException failed = new IOException("Connection closed");
+            unsent.forEach(request -> fail(request.request, request.response, failed));
+            unsent.clear();
+        }
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    private static void fail(FullHttpRequest request, CompletableFuture<ResponseEntity<String>> response, Throwable cause) {
+        request.release();
+        response.completeExceptionally(cause);
+    }
+
+    @Override
+    protected void channelRead0(ChannelHandlerContext ctx, FullHttpResponse message) {
+        CompletableFuture<ResponseEntity<String>> response;
+        synchronized (this) {
+            response = pending.poll();
+        }
+        if (response == null) {
+            log.warn("Unexpected response from {}", ctx.channel().remoteAddress());
+            return;
+        }
+        String body = message.content().toString(StandardCharsets.UTF_8);
+        HttpStatus status = HttpStatus.valueOf(message.status().code());
+        if (status.is4xxClientError()) {
+            response.completeExceptionally(new HttpClientErrorException(status, message.status().reasonPhrase(),
+                    body.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8));
+        } else if (status.is5xxServerError()) {
+            response.completeExceptionally(new HttpServerErrorException(status, message.status().reasonPhrase(),
+                    body.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8));
+        } else {
+            response.complete(new ResponseEntity<>(body, status));
+        }
+        if (!HttpUtil.isKeepAlive(message)) {
+            ctx.close();
+        }
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        NoResponseException failed = new NoResponseException("Connection to " + ctx.channel().remoteAddress() + " closed before response");
+        synchronized (this) {
+            pending.forEach(response -> response.completeExceptionally(failed));
+            pending.clear();
+        }
+        super.channelInactive(ctx);
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+        log.warn("Connection to {} failed: {}", ctx.channel().remoteAddress(), cause.getMessage());
+        ctx.close();
+    }
+
+    private static class Unsent {
+
+        private final FullHttpRequest request;
+        private final CompletableFuture<ResponseEntity<String>> response;
+        private final long timeoutMillis;
+
+        Unsent(FullHttpRequest request, CompletableFuture<ResponseEntity<String>> response, long timeoutMillis) {
+            this.request = request;
+            this.response = response;
+            this.timeoutMillis = timeoutMillis;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.crypto.trade.poloniex.services.gateway;
+
+import com.crypto.trade.poloniex.config.properties.GatewayConfig;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.*;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.codec.http.*;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslContextBuilder;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.ResponseEntity;
+
+import javax.net.ssl.SSLException;
+import java.io.Closeable;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Non-blocking HTTP/1.1 client over a few keep-alive connections per host. Requests are pipelined: they are written
+ * without waiting for previous responses, and requests sent in order through one connection reach the server in
+ * that order.
+ */
+@Slf4j
+public class PipelinedHttpClient implements Closeable {
+
+    private final GatewayConfig config;
+    private final EventLoopGroup group;
+    private final SslContext sslContext;
+    private final ConcurrentMap<String, PipelinedConnection[]> connections = new ConcurrentHashMap<>();
+    private final AtomicInteger counter = new AtomicInteger();
+
+    public PipelinedHttpClient(GatewayConfig config) {
+        this.config = config;
+        this.group = new NioEventLoopGroup(config.getIoThreads(), new DefaultThreadFactory("gateway-io", true));
+        try {
+            this.sslContext = SslContextBuilder.forClient().build();
+        } catch (SSLException e) {
+            throw new IllegalStateException("Failed to create SSL context", e);
+        }
+    }
+
+    public CompletableFuture<ResponseEntity<String>> post(String url, HttpEntity<String> entity) {
+        URI uri = URI.create(url);
+        try {
+            return getConnection(uri).send(createRequest(uri, entity), config.getRequestTimeoutMillis());
+        } catch (RuntimeException e) {
+            CompletableFuture<ResponseEntity<String>> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+    }
+
+    @Override
+    public void close() {
+        connections.values().forEach(hostConnections -> {
+            for (PipelinedConnection connection : hostConnections) {
+                if (connection != null) {
+                    connection.close();
+                }
+            }
+        });
+        group.shutdownGracefully();
+    }
+
+    private PipelinedConnection getConnection(URI uri) {
+        boolean secure = "https".equalsIgnoreCase(uri.getScheme());
+        int port = uri.getPort() > 0 ? uri.getPort() : secure ? 443 : 80;
+        PipelinedConnection[] hostConnections = connections.computeIfAbsent(uri.getScheme() + "://" + uri.getHost() + ":" + port,
+                key -> new PipelinedConnection[config.getConnections()]);
+        int slot = Math.floorMod(counter.getAndIncrement(), hostConnections.length);
+        PipelinedConnection connection = hostConnections[slot];
+        if (connection != null && connection.isActive()) {
+            return connection;
+        }
+        synchronized (hostConnections) {
+            if (hostConnections[slot] == null || !hostConnections[slot].isActive()) {
+                hostConnections[slot] = connect(uri.getHost(), port, secure);
+            }
+            return hostConnections[slot];
+        }
+    }
+
+    private PipelinedConnection connect(String host, int port, boolean secure) {
+        PipelinedConnection connection = new PipelinedConnection();
+        Bootstrap bootstrap = new Bootstrap()
+                .group(group)
+                .channel(NioSocketChannel.class)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, config.getConnectTimeoutMillis())
+                .option(ChannelOption.TCP_NODELAY, true)
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .handler(new ChannelInitializer<SocketChannel>() {
+                    @Override
+                    protected void initChannel(SocketChannel channel) {
+                        if (secure) {
+                            channel.pipeline().addLast(sslContext.newHandler(channel.alloc(), host, port));
+                        }
+                        channel.pipeline().addLast(new HttpClientCodec(),
+                                new HttpObjectAggregator(config.getMaxResponseBytes()),
+                                connection);
+                    }
+                });
+        bootstrap.connect(host, port).addListener((ChannelFuture connected) -> {
+            if (connected.isSuccess()) {
+                log.info("Connected to {}:{}", host, port);
+                connection.connected(connected.channel());
+            } else {
+                log.warn("Failed to connect to {}:{}: {}", host, port, connected.cause().getMessage());
+                connection.connectFailed(connected.cause());
+            }
+        });
+        return connection;
+    }
+
+    private static FullHttpRequest createRequest(URI uri, HttpEntity<String> entity) {
+        String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+        if (uri.getRawQuery() != null) {
+            path += "?" + uri.getRawQuery();
+        }
+        byte[] body = entity.getBody() == null ? new byte[0] : entity.getBody().getBytes(StandardCharsets.UTF_8);
+        FullHttpRequest request = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, path, Unpooled.wrappedBuffer(body));
+        entity.getHeaders().forEach((name, values) -> request.headers().add(name, values));
+        request.headers().set(HttpHeaderNames.HOST, uri.getPort() > 0 ? uri.getHost() + ":" + uri.getPort() : uri.getHost());
+        request.headers().set(HttpHeaderNames.CONTENT_LENGTH, body.length);
+        request.headers().set(HttpHeaderNames.CONNECTION, HttpHeaderValues.KEEP_ALIVE);
+        return request;
+    }
+}
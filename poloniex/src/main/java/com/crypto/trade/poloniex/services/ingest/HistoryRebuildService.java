@@ -0,0 +1,93 @@
+package com.crypto.trade.poloniex.services.ingest;
+
+import com.crypto.trade.poloniex.config.properties.PoloniexProperties;
+import com.crypto.trade.poloniex.services.analytics.CurrencyPair;
+import com.crypto.trade.poloniex.storage.CandlesStorage;
+import com.crypto.trade.poloniex.storage.TradesStorage;
+import com.crypto.trade.poloniex.storage.candles.CandlesBuffer;
+import com.crypto.trade.poloniex.storage.history.TradesCursor;
+import com.crypto.trade.poloniex.storage.trades.TradesLog;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/**
+ * Rebuilds the candles of a currency pair from its trades history without stalling the live feed. The pair ingest
+ * worker only copies the stored trades at the start and installs the built candles and the recent history trades at
+ * the end, trades received in between are logged aside and applied on install.
+ */
+@Slf4j
+public class HistoryRebuildService {
+
+    @Autowired
+    private PoloniexProperties poloniexProperties;
+    @Autowired
+    private TradesIngestPipeline tradesIngestPipeline;
+    @Autowired
+    private TradesStorage tradesStorage;
+    @Autowired
+    private CandlesStorage candlesStorage;
+
+    private ForkJoinPool pool;
+
+    @PostConstruct
+    public void start() {
+        pool = new ForkJoinPool(poloniexProperties.getHistory().getRebuildParallelism());
+    }
+
+    @PreDestroy
+    public void stop() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * @param history opens a new cursor over the history trades in time order on every call
+     * @return completed once the history candles are installed, the live candles are kept on failure
+     */
+    public CompletableFuture<Void> rebuild(CurrencyPair currencyPair, Supplier<TradesCursor> history) {
+        CompletableFuture<Void> rebuild = onWorker(currencyPair, () -> tradesStorage.startHistoryRebuild(currencyPair))
+                .thenApplyAsync(trades -> build(currencyPair, history, trades), pool)
+                .thenCompose(built -> onWorker(currencyPair, () -> {
+                    tradesStorage.finishHistoryRebuild(currencyPair, built.getRecentTrades().cursor(), built.getCandles());
+                    return null;
+                }));
+        rebuild.whenComplete((result, ex) -> {
+            if (ex != null) {
+                log.error("Failed to rebuild " + currencyPair + " candles with history", ex);
+                tradesIngestPipeline.execute(currencyPair, () -> tradesStorage.cancelHistoryRebuild(currencyPair));
+            }
+        });
+        return rebuild;
+    }
+
+    private BuiltHistory build(CurrencyPair currencyPair, Supplier<TradesCursor> history, TradesLog trades) {
+        List<CandlesBuffer> candles = candlesStorage.buildCandles(currencyPair, TradesCursor.merge(history.get(), trades.cursor()), pool);
+        // The worker only adds the history trades its ring keeps
+        return new BuiltHistory(candles, TradesStorage.getRecentTrades(history.get()));
+    }
+
+    private <T> CompletableFuture<T> onWorker(CurrencyPair currencyPair, Supplier<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        tradesIngestPipeline.execute(currencyPair, () -> {
+            try {
+                future.complete(task.get());
+            } catch (RuntimeException ex) {
+                future.completeExceptionally(ex);
+            }
+        });
+        return future;
+    }
+
+    @Value
+    private static class BuiltHistory {
+        private List<CandlesBuffer> candles;
+        private TradesLog recentTrades;
+    }
+}
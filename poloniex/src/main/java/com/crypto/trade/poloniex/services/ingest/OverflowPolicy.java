@@ -0,0 +1,12 @@
+package com.crypto.trade.poloniex.services.ingest;
+
+/**
+ * What the ws thread does when a pair consumer falls behind and its buffer is full.
+ */
+public enum OverflowPolicy {
+
+    // Wait for the consumer, counted as a producer stall
+    BLOCK,
+    // Drop the trade, counted as an overflow
+    DROP
+}
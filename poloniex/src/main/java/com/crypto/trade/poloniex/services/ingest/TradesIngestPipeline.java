@@ -0,0 +1,100 @@
+package com.crypto.trade.poloniex.services.ingest;
+
+import com.crypto.trade.poloniex.config.properties.PoloniexProperties;
+import com.crypto.trade.poloniex.services.analytics.CurrencyPair;
+import com.crypto.trade.poloniex.services.ws.WsTradeEvent;
+import com.crypto.trade.poloniex.storage.TradesStorage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Hands trades off the ws thread to one {@link TradesIngestWorker} per currency pair. Trades and candles storages
+ * of a pair must only be updated through {@link #publish} and {@link #execute}.
+ */
+@Slf4j
+public class TradesIngestPipeline implements PublicMetrics {
+
+    @Autowired
+    private PoloniexProperties poloniexProperties;
+    @Autowired
+    private TradesStorage tradesStorage;
+
+    private final ConcurrentMap<CurrencyPair, TradesIngestWorker> workers = new ConcurrentHashMap<>();
+    private volatile LatencyHistogram latencies;
+
+    public boolean publish(CurrencyPair currencyPair, WsTradeEvent event) {
+        return getWorker(currencyPair).publish(event);
+    }
+
+    public void execute(CurrencyPair currencyPair, Runnable task) {
+        getWorker(currencyPair).execute(task);
+    }
+
+    /**
+     * @param latencies records the time from the frame reception to the trade applied to the candles, including
+     *                  the strategies submitted on a candle close, null stops recording
+     */
+    public void setLatencies(LatencyHistogram latencies) {
+        this.latencies = latencies;
+    }
+
+    /**
+     * @return trades published to the pair consumers and not consumed yet
+     */
+    public long getBacklog() {
+        return workers.values().stream().mapToLong(TradesIngestWorker::getBacklog).sum();
+    }
+
+    private TradesIngestWorker getWorker(CurrencyPair currencyPair) {
+        TradesIngestWorker worker = workers.get(currencyPair);
+        return worker != null ? worker : workers.computeIfAbsent(currencyPair, this::startWorker);
+    }
+
+    private TradesIngestWorker startWorker(CurrencyPair currencyPair) {
+        TradesIngestWorker worker = new TradesIngestWorker(currencyPair, poloniexProperties.getIngest(),
+                event -> addTrade(currencyPair, event));
+        worker.start();
+        return worker;
+    }
+
+    private void addTrade(CurrencyPair currencyPair, WsTradeEvent event) {
+        tradesStorage.addTrade(currencyPair, event.getTimeMillis(), event.getTradeId(),
+                event.getRateAsDouble(), event.getAmountAsDouble(), event.isBuy());
+        LatencyHistogram histogram = latencies;
+        if (histogram != null && event.getReceivedNanos() != 0) {
+            histogram.recordNanos(System.nanoTime() - event.getReceivedNanos());
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        for (TradesIngestWorker worker : workers.values()) {
+            worker.stop();
+        }
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        List<Metric<?>> metrics = new ArrayList<>();
+        workers.values().forEach(worker -> {
+            String prefix = "ingest." + worker.getCurrencyPair() + ".";
+            metrics.add(new Metric<>(prefix + "published", worker.getPublished()));
+            metrics.add(new Metric<>(prefix + "consumed", worker.getConsumed()));
+            metrics.add(new Metric<>(prefix + "backlog", worker.getBacklog()));
+            metrics.add(new Metric<>(prefix + "backlog.max", worker.getMaxBacklog()));
+            metrics.add(new Metric<>(prefix + "overflows", worker.getOverflows()));
+            metrics.add(new Metric<>(prefix + "stalls", worker.getStalls()));
+            metrics.add(new Metric<>(prefix + "failures", worker.getFailures()));
+        });
+        return metrics;
+    }
+}
@@ -0,0 +1,173 @@
+package com.crypto.trade.poloniex.services.ingest;
+
+import com.crypto.trade.poloniex.config.properties.IngestConfig;
+import com.crypto.trade.poloniex.services.analytics.CurrencyPair;
+import com.crypto.trade.poloniex.services.ws.WsTradeEvent;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Owner thread of a currency pair: the only thread applying trades and tasks to the pair storages,
+ * so they are updated without locks.
+ */
+@Slf4j
+public class TradesIngestWorker implements Runnable {
+
+    private static final long STALL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(10);
+
+    private final CurrencyPair currencyPair;
+    private final TradesRingBuffer trades;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final WaitStrategy waitStrategy;
+    private final OverflowPolicy overflowPolicy;
+    private final int batchSize;
+    private final Consumer<WsTradeEvent> tradesConsumer;
+    private final WsTradeEvent holder = new WsTradeEvent();
+    private final Thread thread;
+
+    private final AtomicLong overflows = new AtomicLong();
+    private final AtomicLong stalls = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private volatile int maxBacklog;
+    private volatile boolean running = true;
+
+    /**
+     * @param tradesConsumer called with a reused event, its fields must be read before returning
+     */
+    public TradesIngestWorker(CurrencyPair currencyPair, IngestConfig config, Consumer<WsTradeEvent> tradesConsumer) {
+        this.currencyPair = currencyPair;
+        this.trades = new TradesRingBuffer(config.getBufferSize());
+        this.waitStrategy = config.getWaitStrategy();
+        this.overflowPolicy = config.getOverflowPolicy();
+        this.batchSize = config.getBatchSize();
+        this.tradesConsumer = tradesConsumer;
+        this.thread = new Thread(this, "trades-ingest-" + currencyPair);
+        this.thread.setDaemon(true);
+    }
+
+    public void start() {
+        thread.start();
+    }
+
+    /**
+     * Must be called from a single producer thread.
+     *
+     * @return false when the trade was dropped
+     */
+    public boolean publish(WsTradeEvent event) {
+        if (!trades.offer(event)) {
+            if (overflowPolicy == OverflowPolicy.DROP) {
+                overflows.incrementAndGet();
+                return false;
+            }
+            stalls.incrementAndGet();
+            while (!trades.offer(event)) {
+                if (!running) {
+                    overflows.incrementAndGet();
+                    return false;
+                }
+                LockSupport.parkNanos(STALL_PARK_NANOS);
+            }
+        }
+        signal();
+        return true;
+    }
+
+    public void execute(Runnable task) {
+        tasks.add(task);
+        signal();
+    }
+
+    @Override
+    public void run() {
+        log.info("Started {} trades consumer.", currencyPair);
+        int idleCount = 0;
+        while (running) {
+            if (processTasks() + processTrades() > 0) {
+                idleCount = 0;
+            } else {
+                waitStrategy.idle(idleCount++);
+            }
+        }
+        log.info("Stopped {} trades consumer.", currencyPair);
+    }
+
+    public void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(thread);
+        thread.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    private int processTasks() {
+        int count = 0;
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            try {
+                task.run();
+            } catch (RuntimeException ex) {
+                failures.incrementAndGet();
+                log.error("Failed to execute " + currencyPair + " task.", ex);
+            }
+            count++;
+        }
+        return count;
+    }
+
+    private int processTrades() {
+        int backlog = trades.getBacklog();
+        if (backlog > maxBacklog) {
+            maxBacklog = backlog;
+        }
+        try {
+            return trades.drain(holder, tradesConsumer, batchSize);
+        } catch (RuntimeException ex) {
+            failures.incrementAndGet();
+            log.error("Failed to process " + currencyPair + " trade " + holder.getTradeId(), ex);
+            return 1;
+        }
+    }
+
+    private void signal() {
+        if (waitStrategy.isSignalRequired()) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    public CurrencyPair getCurrencyPair() {
+        return currencyPair;
+    }
+
+    public long getPublished() {
+        return trades.getPublished();
+    }
+
+    public long getConsumed() {
+        return trades.getConsumed();
+    }
+
+    public int getBacklog() {
+        return trades.getBacklog();
+    }
+
+    public int getMaxBacklog() {
+        return maxBacklog;
+    }
+
+    public long getOverflows() {
+        return overflows.get();
+    }
+
+    public long getStalls() {
+        return stalls.get();
+    }
+
+    public long getFailures() {
+        return failures.get();
+    }
+}
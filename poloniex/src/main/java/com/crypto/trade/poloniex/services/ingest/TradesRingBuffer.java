@@ -0,0 +1,109 @@
+package com.crypto.trade.poloniex.services.ingest;
+
+import com.crypto.trade.poloniex.services.ws.WsTradeEvent;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Bounded single producer / single consumer trades queue kept in preallocated primitive columns.
+ * Offering never allocates, the producer only publishes its sequence after the slot is written.
+ */
+public class TradesRingBuffer {
+
+    private final int mask;
+    private final long[] tradeIds;
+    private final long[] rates;
+    private final long[] amounts;
+    private final long[] epochSeconds;
+    private final boolean[] buys;
+    private final long[] receivedNanos;
+
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong consumed = new AtomicLong();
+    // Producer side copy of the consumer sequence, refreshed only when the buffer looks full
+    private long consumedCache;
+
+    public TradesRingBuffer(int requestedSize) {
+        if (requestedSize <= 0 || requestedSize > 1 << 30) {
+            throw new IllegalArgumentException("Buffer size must be in (0, 2^30]: " + requestedSize);
+        }
+        int size = Integer.highestOneBit(requestedSize);
+        if (size < requestedSize) {
+            size <<= 1;
+        }
+        this.mask = size - 1;
+        this.tradeIds = new long[size];
+        this.rates = new long[size];
+        this.amounts = new long[size];
+        this.epochSeconds = new long[size];
+        this.buys = new boolean[size];
+        this.receivedNanos = new long[size];
+    }
+
+    public int getSize() {
+        return mask + 1;
+    }
+
+    /**
+     * Must be called from a single producer thread.
+     *
+     * @return false when the buffer is full
+     */
+    public boolean offer(WsTradeEvent event) {
+        long sequence = published.get();
+        if (sequence - consumedCache > mask) {
+            consumedCache = consumed.get();
+            if (sequence - consumedCache > mask) {
+                return false;
+            }
+        }
+        int slot = (int) sequence & mask;
+        tradeIds[slot] = event.getTradeId();
+        rates[slot] = event.getRate();
+        amounts[slot] = event.getAmount();
+        epochSeconds[slot] = event.getEpochSeconds();
+        buys[slot] = event.isBuy();
+        receivedNanos[slot] = event.getReceivedNanos();
+        published.lazySet(sequence + 1);
+        return true;
+    }
+
+    /**
+     * Must be called from a single consumer thread. Every trade is passed through the reused holder.
+     *
+     * @return drained trades count
+     */
+    public int drain(WsTradeEvent holder, Consumer<WsTradeEvent> consumer, int limit) {
+        long sequence = consumed.get();
+        long available = Math.min(published.get(), sequence + limit);
+        long next = sequence;
+        try {
+            for (; next < available; next++) {
+                int slot = (int) next & mask;
+                holder.setTradeId(tradeIds[slot]);
+                holder.setRate(rates[slot]);
+                holder.setAmount(amounts[slot]);
+                holder.setEpochSeconds(epochSeconds[slot]);
+                holder.setBuy(buys[slot]);
+                holder.setReceivedNanos(receivedNanos[slot]);
+                consumer.accept(holder);
+            }
+        } finally {
+            consumed.lazySet(next == available ? next : next + 1);
+        }
+        return (int) (available - sequence);
+    }
+
+    public long getPublished() {
+        return published.get();
+    }
+
+    public long getConsumed() {
+        return consumed.get();
+    }
+
+    public int getBacklog() {
+        return (int) (published.get() - consumed.get());
+    }
+}
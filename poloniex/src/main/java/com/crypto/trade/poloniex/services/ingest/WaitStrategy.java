@@ -0,0 +1,59 @@
+package com.crypto.trade.poloniex.services.ingest;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * How an idle pair consumer waits for new trades, from the lowest latency to the lowest CPU usage.
+ */
+public enum WaitStrategy {
+
+    BUSY_SPIN {
+        @Override
+        public void idle(int idleCount) {
+            // Keeps the core busy
+        }
+    },
+    YIELDING {
+        @Override
+        public void idle(int idleCount) {
+            Thread.yield();
+        }
+    },
+    SLEEPING {
+        @Override
+        public void idle(int idleCount) {
+            if (idleCount < SPIN_TRIES) {
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(SLEEP_NANOS);
+            }
+        }
+    },
+    // Parks until the producer signals, the timeout only bounds a missed signal
+    PARKING {
+        @Override
+        public void idle(int idleCount) {
+            if (idleCount < SPIN_TRIES) {
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(this, PARK_NANOS);
+            }
+        }
+
+        @Override
+        public boolean isSignalRequired() {
+            return true;
+        }
+    };
+
+    private static final int SPIN_TRIES = 100;
+    private static final long SLEEP_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final long PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    public abstract void idle(int idleCount);
+
+    public boolean isSignalRequired() {
+        return false;
+    }
+}
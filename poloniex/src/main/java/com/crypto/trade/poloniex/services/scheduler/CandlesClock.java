@@ -0,0 +1,106 @@
+package com.crypto.trade.poloniex.services.scheduler;
+
+import com.crypto.trade.poloniex.config.properties.CandlesConfig;
+import com.crypto.trade.poloniex.config.properties.PoloniexProperties;
+import com.crypto.trade.poloniex.services.analytics.CurrencyPair;
+import com.crypto.trade.poloniex.services.analytics.TimeFrame;
+import com.crypto.trade.poloniex.services.ingest.TradesIngestPipeline;
+import com.crypto.trade.poloniex.services.ws.WsChannels;
+import com.crypto.trade.poloniex.storage.CandlesStorage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Closes the candles of every currency pair at their period end, whether trades came or not, so strategies are run
+ * on a candle as soon as it is built. The close is handed to the pair ingest worker, the only thread updating the
+ * pair candles.
+ */
+@Slf4j
+public class CandlesClock implements PublicMetrics {
+
+    private static final TimeFrame CLOSE_PERIOD = TimeFrame.ONE_MINUTE;
+
+    @Autowired
+    private PoloniexProperties poloniexProperties;
+    @Autowired
+    private WsChannels wsChannels;
+    @Autowired
+    private TradesIngestPipeline tradesIngestPipeline;
+    @Autowired
+    private CandlesStorage candlesStorage;
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "candles-clock");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicLong closes = new AtomicLong();
+    private final LongAccumulator maxLagMillis = new LongAccumulator(Math::max, 0);
+    private volatile long lastLagMillis;
+    // Only used by the clock thread
+    private TimingWheel timingWheel;
+
+    @PostConstruct
+    public void start() {
+        CandlesConfig config = poloniexProperties.getCandles();
+        if (!config.isCloseOnClock()) {
+            log.info("Candles are closed by trades only.");
+            return;
+        }
+        long tickMillis = config.getClockTickMillis();
+        executor.execute(() -> {
+            long now = System.currentTimeMillis();
+            timingWheel = new TimingWheel(tickMillis, now);
+            // Longer time frames periods end on a shortest time frame period end, they are closed along
+            long endMillis = CLOSE_PERIOD.calculateEndMillis(now);
+            wsChannels.getCurrencies().forEach(currencyPair -> scheduleClose(currencyPair, endMillis));
+            log.info("Candles clock started with {} closes scheduled.", timingWheel.size());
+        });
+        executor.scheduleAtFixedRate(this::advance, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    private void advance() {
+        try {
+            timingWheel.advance(System.currentTimeMillis());
+        } catch (RuntimeException ex) {
+            // A periodic task throwing is never run again
+            log.error("Failed to advance candles clock", ex);
+        }
+    }
+
+    private void scheduleClose(CurrencyPair currencyPair, long endMillis) {
+        timingWheel.schedule(endMillis, () -> {
+            long lagMillis = System.currentTimeMillis() - endMillis;
+            lastLagMillis = lagMillis;
+            maxLagMillis.accumulate(lagMillis);
+            closes.incrementAndGet();
+            tradesIngestPipeline.execute(currencyPair, () -> candlesStorage.closeCandles(currencyPair, endMillis));
+            scheduleClose(currencyPair, endMillis + CLOSE_PERIOD.getDurationMillis());
+        });
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        return Arrays.asList(
+                new Metric<>("candles.clock.closes", closes.get()),
+                new Metric<>("candles.clock.lag", lastLagMillis),
+                new Metric<>("candles.clock.lag.max", maxLagMillis.get()));
+    }
+}
@@ -0,0 +1,51 @@
+package com.crypto.trade.poloniex.services.scheduler;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Threads running the strategy series of {@link StrategyScheduler}.
+ */
+@Slf4j
+public enum ExecutorBackend {
+
+    FIXED {
+        @Override
+        public ExecutorService create(int threads) {
+            return Executors.newFixedThreadPool(threads, namedThreads());
+        }
+    },
+    WORK_STEALING {
+        @Override
+        public ExecutorService create(int threads) {
+            return Executors.newWorkStealingPool(threads);
+        }
+    },
+    // A virtual thread per task on JDK 21+, a fixed pool on older runtimes
+    VIRTUAL {
+        @Override
+        public ExecutorService create(int threads) {
+            try {
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException e) {
+                log.warn("Virtual threads are not supported by Java {}, using {} threads", System.getProperty("java.version"), threads);
+                return FIXED.create(threads);
+            }
+        }
+    };
+
+    public abstract ExecutorService create(int threads);
+
+    private static ThreadFactory namedThreads() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "strategy-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,63 @@
+package com.crypto.trade.poloniex.services.scheduler;
+
+import com.crypto.trade.poloniex.services.analytics.CurrencyPair;
+import com.crypto.trade.poloniex.services.analytics.TimeFrame;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Runs strategy evaluations of the same (currency pair, time frame) one after another, so two candle closes never
+ * trade on the same trading records concurrently, while different series run in parallel on the shared executor.
+ */
+public class StrategyScheduler implements PublicMetrics {
+
+    private final ExecutorService executor;
+    private final ConcurrentMap<CurrencyPair, Map<TimeFrame, StrategySeries>> series = new ConcurrentHashMap<>();
+
+    public StrategyScheduler(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    public void submit(CurrencyPair currencyPair, TimeFrame timeFrame, Runnable task) {
+        getSeries(currencyPair, timeFrame).submit(task);
+    }
+
+    /**
+     * @return tasks waiting in the series queue
+     */
+    public int getQueueDepth(CurrencyPair currencyPair, TimeFrame timeFrame) {
+        return getSeries(currencyPair, timeFrame).getDepth();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        List<Metric<?>> metrics = new ArrayList<>();
+        series.values().forEach(timeFrames -> timeFrames.values().forEach(strategySeries -> {
+            String prefix = "strategy." + strategySeries.getCurrencyPair() + "." + strategySeries.getTimeFrame().getDisplayName() + ".";
+            metrics.add(new Metric<>(prefix + "queue", strategySeries.getDepth()));
+            metrics.add(new Metric<>(prefix + "queue.max", strategySeries.getMaxDepth()));
+            metrics.add(new Metric<>(prefix + "lag", strategySeries.getLastLagMillis()));
+            metrics.add(new Metric<>(prefix + "lag.max", strategySeries.getMaxLagMillis()));
+            metrics.add(new Metric<>(prefix + "executed", strategySeries.getExecuted()));
+            metrics.add(new Metric<>(prefix + "failures", strategySeries.getFailures()));
+            metrics.add(new Metric<>(prefix + "rejected", strategySeries.getRejected()));
+        }));
+        return metrics;
+    }
+
+    private StrategySeries getSeries(CurrencyPair currencyPair, TimeFrame timeFrame) {
+        return series.computeIfAbsent(currencyPair, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(timeFrame, key -> new StrategySeries(currencyPair, timeFrame, executor));
+    }
+}
@@ -0,0 +1,141 @@
+package com.crypto.trade.poloniex.services.scheduler;
+
+import com.crypto.trade.poloniex.services.analytics.CurrencyPair;
+import com.crypto.trade.poloniex.services.analytics.TimeFrame;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Tasks of one (currency pair, time frame) series, run one at a time and in submission order. A single task is
+ * run per executor turn, so a busy series does not hold a thread other series wait for.
+ */
+@Slf4j
+class StrategySeries implements Runnable {
+
+    private final CurrencyPair currencyPair;
+    private final TimeFrame timeFrame;
+    private final Executor executor;
+    private final Queue<Task> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final AtomicInteger depth = new AtomicInteger();
+    private final LongAccumulator maxDepth = new LongAccumulator(Math::max, 0);
+    private final AtomicLong executed = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final LongAccumulator maxLagMillis = new LongAccumulator(Math::max, 0);
+    private volatile long lastLagMillis;
+
+    StrategySeries(CurrencyPair currencyPair, TimeFrame timeFrame, Executor executor) {
+        this.currencyPair = currencyPair;
+        this.timeFrame = timeFrame;
+        this.executor = executor;
+    }
+
+    void submit(Runnable task) {
+        queue.add(new Task(task, System.nanoTime()));
+        maxDepth.accumulate(depth.incrementAndGet());
+        schedule();
+    }
+
+    @Override
+    public void run() {
+        try {
+            Task task = queue.poll();
+            if (task != null) {
+                depth.decrementAndGet();
+                long lagMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - task.submitNanos);
+                lastLagMillis = lagMillis;
+                maxLagMillis.accumulate(lagMillis);
+                try {
+                    task.runnable.run();
+                } catch (RuntimeException ex) {
+                    failures.incrementAndGet();
+                    log.error("Failed to run " + currencyPair + " " + timeFrame + " task", ex);
+                }
+                executed.incrementAndGet();
+            }
+        } finally {
+            scheduled.set(false);
+            schedule();
+        }
+    }
+
+    private void schedule() {
+        if (!queue.isEmpty() && scheduled.compareAndSet(false, true)) {
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException ex) {
+                // The executor is shut down or saturated, queued tasks would otherwise wait for the next submit
+                int dropped = drop();
+                scheduled.set(false);
+                log.error("{} {} tasks rejected, {} tasks dropped", currencyPair, timeFrame, dropped);
+            }
+        }
+    }
+
+    private int drop() {
+        int dropped = 0;
+        while (queue.poll() != null) {
+            depth.decrementAndGet();
+            dropped++;
+        }
+        rejected.addAndGet(dropped);
+        return dropped;
+    }
+
+    CurrencyPair getCurrencyPair() {
+        return currencyPair;
+    }
+
+    TimeFrame getTimeFrame() {
+        return timeFrame;
+    }
+
+    int getDepth() {
+        return depth.get();
+    }
+
+    long getMaxDepth() {
+        return maxDepth.get();
+    }
+
+    long getExecuted() {
+        return executed.get();
+    }
+
+    long getFailures() {
+        return failures.get();
+    }
+
+    long getRejected() {
+        return rejected.get();
+    }
+
+    long getLastLagMillis() {
+        return lastLagMillis;
+    }
+
+    long getMaxLagMillis() {
+        return maxLagMillis.get();
+    }
+
+    private static class Task {
+
+        private final Runnable runnable;
+        private final long submitNanos;
+
+        Task(Runnable runnable, long submitNanos) {
+            this.runnable = runnable;
+            this.submitNanos = submitNanos;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.crypto.trade.poloniex.services.scheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel: a timer is kept on the level whose span covers its deadline and moved down a level
+ * when that level turns, so scheduling and expiring cost O(1) whatever the deadline. Not thread safe, the wheel is
+ * driven by a single thread.
+ */
+class TimingWheel {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    // Later deadlines are parked on the last slot of the top level and placed again when cascaded
+    private static final long MAX_TICKS = (1L << (SLOT_BITS * LEVELS)) - 1;
+
+    private final long tickMillis;
+    private final List<List<Timer>> slots = new ArrayList<>(LEVELS * SLOTS);
+    private List<Timer> expired = new ArrayList<>();
+    private long currentTick;
+    private int size;
+
+    TimingWheel(long tickMillis, long startMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("Tick must be strictly positive");
+        }
+        this.tickMillis = tickMillis;
+        this.currentTick = startMillis / tickMillis;
+        for (int i = 0; i < LEVELS * SLOTS; i++) {
+            slots.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * The task is never run before its deadline, past deadlines are run by the next {@link #advance}.
+     */
+    void schedule(long deadlineMillis, Runnable task) {
+        add(new Timer((deadlineMillis + tickMillis - 1) / tickMillis, task));
+        size++;
+    }
+
+    /**
+     * Runs the tasks which deadline is reached at the time, in deadline order.
+     *
+     * @return run tasks count
+     */
+    int advance(long nowMillis) {
+        int count = runExpired();
+        long targetTick = nowMillis / tickMillis;
+        while (currentTick < targetTick) {
+            currentTick++;
+            // Upper levels first, so timers moved down to the current slot of a lower level are moved again
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                    for (Timer timer : take(level, slotIndex(currentTick, level))) {
+                        add(timer);
+                    }
+                }
+            }
+            for (Timer timer : take(0, slotIndex(currentTick, 0))) {
+                run(timer);
+                count++;
+            }
+            count += runExpired();
+        }
+        return count;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void add(Timer timer) {
+        long delta = timer.tick - currentTick;
+        if (delta <= 0) {
+            expired.add(timer);
+            return;
+        }
+        long tick = delta > MAX_TICKS ? currentTick + MAX_TICKS : timer.tick;
+        int level = 0;
+        while (level < LEVELS - 1 && tick - currentTick >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        slots.get(level * SLOTS + slotIndex(tick, level)).add(timer);
+    }
+
+    private List<Timer> take(int level, int index) {
+        List<Timer> slot = slots.get(level * SLOTS + index);
+        if (slot.isEmpty()) {
+            return slot;
+        }
+        slots.set(level * SLOTS + index, new ArrayList<>());
+        return slot;
+    }
+
+    // Tasks scheduled by the run tasks for a past deadline are run in the same turn
+    private int runExpired() {
+        int count = 0;
+        while (!expired.isEmpty()) {
+            List<Timer> timers = expired;
+            expired = new ArrayList<>();
+            for (Timer timer : timers) {
+                run(timer);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void run(Timer timer) {
+        size--;
+        timer.task.run();
+    }
+
+    private static int slotIndex(long tick, int level) {
+        return (int) (tick >>> (SLOT_BITS * level)) & MASK;
+    }
+
+    private static final class Timer {
+
+        private final long tick;
+        private final Runnable task;
+
+        private Timer(long tick, Runnable task) {
+            this.tick = tick;
+            this.task = task;
+        }
+    }
+}
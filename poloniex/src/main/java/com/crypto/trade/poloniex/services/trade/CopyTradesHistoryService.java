@@ -3,40 +3,28 @@ package com.crypto.trade.poloniex.services.trade;
 import com.crypto.trade.poloniex.config.properties.PoloniexProperties;
 import com.crypto.trade.poloniex.dto.PoloniexHistoryTrade;
 import com.crypto.trade.poloniex.services.analytics.CurrencyPair;
-import com.crypto.trade.poloniex.services.utils.SyncUtils;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.crypto.trade.poloniex.storage.history.TradesHistoryFormat;
+import com.crypto.trade.poloniex.storage.history.TradesHistoryWriter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.ParameterizedTypeReference;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.time.*;
-import java.util.*;
-import java.util.concurrent.TimeUnit;
-
-import static com.crypto.trade.poloniex.services.trade.PoloniexRequestConstants.CURRENCY_PAIR;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
 
 @Slf4j
 @Service
 public class CopyTradesHistoryService implements HistoryService {
 
-    public static final Duration MAXIMUM_PER_REQUEST = Duration.ofHours(3);
-
     @Autowired
     private PoloniexProperties properties;
     @Autowired
-    private RestTemplate restTemplate;
-    @Autowired
-    private SyncUtils syncUtils;
-    @Autowired
-    private ObjectMapper objectMapper;
+    private HistoryDownloader historyDownloader;
 
     @Override
     public List<PoloniexHistoryTrade> loadTradesHistory(CurrencyPair currencyPair, Duration historyDuration) {
@@ -46,43 +34,49 @@ public class CopyTradesHistoryService implements HistoryService {
 
     @Override
     public List<PoloniexHistoryTrade> loadTradesHistory(CurrencyPair currencyPair, LocalDateTime start, LocalDateTime end) {
-        List<PoloniexHistoryTrade> trades = new ArrayList<>();
-        Instant now = end.toInstant(ZoneOffset.UTC);
-        Instant from = start.toInstant(ZoneOffset.UTC);
-        SortedSet<PoloniexHistoryTrade> history = new TreeSet<>(Comparator.comparing(PoloniexHistoryTrade::getDate)
-                .thenComparing(PoloniexHistoryTrade::getGlobalTradeId));
-        log.info("Loading trades history from {} to {}", ZonedDateTime.ofInstant(from, ZoneOffset.UTC).toLocalDateTime(), ZonedDateTime.ofInstant(now, ZoneOffset.UTC).toLocalDateTime());
-        while (from.compareTo(now) < 0) {
-            Map<String, Object> parameters = new HashMap<>();
-            parameters.put(CURRENCY_PAIR, currencyPair);
-            parameters.put("startTime", from.getEpochSecond());
-            Instant to = from.plus(MAXIMUM_PER_REQUEST).minusSeconds(1);
-            parameters.put("endTime", to.getEpochSecond());
+        log.info("Copying trades history from {} to {}", start, end);
+        DayFilesWriter writer = new DayFilesWriter(properties.getHistory().getDirectory(), currencyPair);
+        historyDownloader.download(currencyPair, start.toInstant(ZoneOffset.UTC), end.toInstant(ZoneOffset.UTC), writer);
+        writer.flush();
+        log.info("Finished to copy data");
+        return new ArrayList<>();
+    }
+
+    // Ordered trades are buffered for a single day and written once the next day starts
+    private static class DayFilesWriter implements Consumer<PoloniexHistoryTrade> {
+
+        private final String directory;
+        private final CurrencyPair currencyPair;
+        private final List<PoloniexHistoryTrade> dayTrades = new ArrayList<>();
+        private LocalDate day;
+
+        DayFilesWriter(String directory, CurrencyPair currencyPair) {
+            this.directory = directory;
+            this.currencyPair = currencyPair;
+        }
+
+        @Override
+        public void accept(PoloniexHistoryTrade trade) {
+            LocalDate tradeDay = trade.getDate().withZoneSameInstant(ZoneOffset.UTC).toLocalDate();
+            if (!tradeDay.equals(day)) {
+                flush();
+                day = tradeDay;
+            }
+            dayTrades.add(trade);
+        }
+
+        void flush() {
+            if (dayTrades.isEmpty()) {
+                return;
+            }
+            Path pathToFile = TradesHistoryFormat.getPath(directory, currencyPair, day);
             try {
-                log.info("Requesting time: {} - {}", from, to);
-                ResponseEntity<List<PoloniexHistoryTrade>> response = restTemplate.exchange(properties.getApi().getTradeHistoryUrl(),
-                        HttpMethod.GET, null, new ParameterizedTypeReference<List<PoloniexHistoryTrade>>() {
-                        }, parameters);
-                history.addAll(response.getBody());
-                LocalDate currentPeriodDay = LocalDateTime.ofInstant(from, ZoneOffset.UTC).toLocalDate();
-                LocalDate nextPeriodDay = LocalDateTime.ofInstant(from.plus(MAXIMUM_PER_REQUEST), ZoneOffset.UTC).toLocalDate();
-                if (currentPeriodDay.isBefore(nextPeriodDay)) {
-                    Path pathToFile = Paths.get("analytics/history/" + currencyPair + "/poloniex-" + currentPeriodDay + ".json");
-                    try {
-                        Files.createDirectories(pathToFile.getParent());
-                        objectMapper.writeValue(pathToFile.toFile(), history);
-                    } catch (IOException e) {
-                        log.error("Failed to write " + currentPeriodDay, e);
-                    }
-                    history.clear();
-                }
-                from = from.plus(MAXIMUM_PER_REQUEST);
-            } catch (RuntimeException ex) {
-                syncUtils.sleep(TimeUnit.SECONDS.toMillis(5));
-                log.error("Failed to request data.", ex);
+                Files.deleteIfExists(pathToFile);
+                TradesHistoryWriter.append(pathToFile, dayTrades);
+            } catch (IOException e) {
+                log.error("Failed to write " + day, e);
             }
+            dayTrades.clear();
         }
-        log.info("Finished to copy data");
-        return trades;
     }
 }
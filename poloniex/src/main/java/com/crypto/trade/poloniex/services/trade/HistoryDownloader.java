@@ -0,0 +1,227 @@
+package com.crypto.trade.poloniex.services.trade;
+
+import com.crypto.trade.poloniex.config.properties.DownloadConfig;
+import com.crypto.trade.poloniex.config.properties.PoloniexProperties;
+import com.crypto.trade.poloniex.dto.PoloniexHistoryTrade;
+import com.crypto.trade.poloniex.services.analytics.CurrencyPair;
+import com.crypto.trade.poloniex.services.utils.RateLimiter;
+import com.crypto.trade.poloniex.services.utils.SyncUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static com.crypto.trade.poloniex.services.trade.PoloniexRequestConstants.CURRENCY_PAIR;
+
+/**
+ * Downloads trades history in parallel time windows under a shared requests rate limit. Windows returning the
+ * API result cap are split in halves, failed requests are retried with jittered exponential backoff and the
+ * windows are merged back into a single stream ordered by date and global trade id.
+ */
+@Slf4j
+@Service
+public class HistoryDownloader {
+
+    public static final Comparator<PoloniexHistoryTrade> TRADES_ORDER = Comparator.comparing(PoloniexHistoryTrade::getDate)
+            .thenComparing(PoloniexHistoryTrade::getGlobalTradeId);
+
+    // Windows in flight per worker, bounds the memory held by downloaded but not yet merged windows
+    private static final int WINDOWS_PER_WORKER = 4;
+
+    @Autowired
+    private PoloniexProperties properties;
+    @Autowired
+    private RestTemplate restTemplate;
+    @Autowired
+    private SyncUtils syncUtils;
+
+    public List<PoloniexHistoryTrade> download(CurrencyPair currencyPair, Instant start, Instant end) {
+        List<PoloniexHistoryTrade> trades = new ArrayList<>();
+        download(currencyPair, start, end, trades::add);
+        return trades;
+    }
+
+    /**
+     * Passes trades of [start, end) to the consumer in order, while the next windows are still downloading.
+     */
+    public void download(CurrencyPair currencyPair, Instant start, Instant end, Consumer<PoloniexHistoryTrade> consumer) {
+        DownloadConfig config = properties.getDownload();
+        List<long[]> windows = splitWindows(start.getEpochSecond(), end.getEpochSecond(), TimeUnit.MINUTES.toSeconds(config.getWindowMinutes()));
+        log.info("Downloading {} trades history from {} to {} in {} windows", currencyPair, start, end, windows.size());
+        RateLimiter rateLimiter = new RateLimiter(config.getRequestsPerSecond(), syncUtils);
+        DistinctConsumer distinctConsumer = new DistinctConsumer(consumer);
+        int batchSize = config.getParallelism() * WINDOWS_PER_WORKER;
+        ForkJoinPool pool = new ForkJoinPool(config.getParallelism());
+        try {
+            List<ForkJoinTask<List<PoloniexHistoryTrade>>> batch = submit(pool, currencyPair, windows, 0, batchSize, rateLimiter);
+            for (int from = batchSize; !batch.isEmpty(); from += batchSize) {
+                List<ForkJoinTask<List<PoloniexHistoryTrade>>> nextBatch = submit(pool, currencyPair, windows, from, batchSize, rateLimiter);
+                List<List<PoloniexHistoryTrade>> results = new ArrayList<>(batch.size());
+                for (ForkJoinTask<List<PoloniexHistoryTrade>> task : batch) {
+                    results.add(task.join());
+                }
+                merge(results, distinctConsumer);
+                batch = nextBatch;
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        log.info("Downloaded {} {} trades", distinctConsumer.count, currencyPair);
+    }
+
+    /**
+     * Streaming k-way merge of sorted trades lists.
+     */
+    static void merge(List<List<PoloniexHistoryTrade>> sources, Consumer<PoloniexHistoryTrade> consumer) {
+        PriorityQueue<ListCursor> queue = new PriorityQueue<>(Math.max(1, sources.size()),
+                (first, second) -> TRADES_ORDER.compare(first.head(), second.head()));
+        for (List<PoloniexHistoryTrade> source : sources) {
+            if (!source.isEmpty()) {
+                queue.add(new ListCursor(source));
+            }
+        }
+        while (!queue.isEmpty()) {
+            ListCursor cursor = queue.poll();
+            consumer.accept(cursor.head());
+            if (cursor.next()) {
+                queue.add(cursor);
+            }
+        }
+    }
+
+    // Inclusive [start, end] seconds windows as requested from the API
+    static List<long[]> splitWindows(long startSec, long endSecExclusive, long windowSec) {
+        List<long[]> windows = new ArrayList<>();
+        for (long from = startSec; from < endSecExclusive; from += windowSec) {
+            windows.add(new long[]{from, Math.min(from + windowSec, endSecExclusive) - 1});
+        }
+        return windows;
+    }
+
+    private List<ForkJoinTask<List<PoloniexHistoryTrade>>> submit(ForkJoinPool pool, CurrencyPair currencyPair, List<long[]> windows,
+                                                                  int from, int count, RateLimiter rateLimiter) {
+        List<ForkJoinTask<List<PoloniexHistoryTrade>>> tasks = new ArrayList<>();
+        for (int i = from; i < Math.min(windows.size(), from + count); i++) {
+            long[] window = windows.get(i);
+            tasks.add(pool.submit(new WindowTask(currencyPair, window[0], window[1], rateLimiter)));
+        }
+        return tasks;
+    }
+
+    private List<PoloniexHistoryTrade> request(CurrencyPair currencyPair, long startSec, long endSec, RateLimiter rateLimiter) {
+        DownloadConfig config = properties.getDownload();
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put(CURRENCY_PAIR, currencyPair);
+        parameters.put("startTime", startSec);
+        parameters.put("endTime", endSec);
+        for (int attempt = 1; ; attempt++) {
+            rateLimiter.acquire();
+            try {
+                ResponseEntity<List<PoloniexHistoryTrade>> response = restTemplate.exchange(properties.getApi().getTradeHistoryUrl(),
+                        HttpMethod.GET, null, new ParameterizedTypeReference<List<PoloniexHistoryTrade>>() {
+                        }, parameters);
+                return response.getBody() == null ? new ArrayList<>() : new ArrayList<>(response.getBody());
+            } catch (RuntimeException ex) {
+                if (attempt >= config.getMaxAttempts()) {
+                    throw new IllegalStateException("Failed to request trades " + Instant.ofEpochSecond(startSec) + " - "
+                            + Instant.ofEpochSecond(endSec) + " after " + attempt + " attempts", ex);
+                }
+                long backoff = backoff(config, attempt);
+                log.warn("Failed to request trades {} - {}, retrying in {} ms: {}", Instant.ofEpochSecond(startSec),
+                        Instant.ofEpochSecond(endSec), backoff, ex.getMessage());
+                syncUtils.sleep(backoff);
+            }
+        }
+    }
+
+    // Exponential backoff with "equal jitter": a random delay in the upper half of the current ceiling
+    private static long backoff(DownloadConfig config, int attempt) {
+        long ceiling = Math.min(config.getMaxBackoffMillis(), config.getBaseBackoffMillis() << Math.min(attempt - 1, 20));
+        return ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1);
+    }
+
+    private class WindowTask extends RecursiveTask<List<PoloniexHistoryTrade>> {
+
+        private final CurrencyPair currencyPair;
+        private final long startSec;
+        private final long endSec;
+        private final RateLimiter rateLimiter;
+
+        WindowTask(CurrencyPair currencyPair, long startSec, long endSec, RateLimiter rateLimiter) {
+            this.currencyPair = currencyPair;
+            this.startSec = startSec;
+            this.endSec = endSec;
+            this.rateLimiter = rateLimiter;
+        }
+
+        @Override
+        protected List<PoloniexHistoryTrade> compute() {
+            List<PoloniexHistoryTrade> trades = request(currencyPair, startSec, endSec, rateLimiter);
+            if (trades.size() >= properties.getDownload().getResultCap()) {
+                if (endSec > startSec) {
+                    long middle = startSec + (endSec - startSec) / 2;
+                    WindowTask first = new WindowTask(currencyPair, startSec, middle, rateLimiter);
+                    WindowTask second = new WindowTask(currencyPair, middle + 1, endSec, rateLimiter);
+                    invokeAll(first, second);
+                    List<PoloniexHistoryTrade> result = first.join();
+                    result.addAll(second.join());
+                    return result;
+                }
+                log.warn("Trades {} at {} may be truncated to {} trades", currencyPair, Instant.ofEpochSecond(startSec), trades.size());
+            }
+            trades.sort(TRADES_ORDER);
+            return trades;
+        }
+    }
+
+    private static class ListCursor {
+
+        private final List<PoloniexHistoryTrade> trades;
+        private int position;
+
+        ListCursor(List<PoloniexHistoryTrade> trades) {
+            this.trades = trades;
+        }
+
+        PoloniexHistoryTrade head() {
+            return trades.get(position);
+        }
+
+        boolean next() {
+            return ++position < trades.size();
+        }
+    }
+
+    // Skips trades already passed on, adjacent windows may both return trades of their boundary second
+    private static class DistinctConsumer implements Consumer<PoloniexHistoryTrade> {
+
+        private final Consumer<PoloniexHistoryTrade> consumer;
+        private PoloniexHistoryTrade last;
+        private long count;
+
+        DistinctConsumer(Consumer<PoloniexHistoryTrade> consumer) {
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void accept(PoloniexHistoryTrade trade) {
+            if (last == null || TRADES_ORDER.compare(trade, last) > 0) {
+                consumer.accept(trade);
+                last = trade;
+                count++;
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.crypto.trade.poloniex.services.trade;
+
+import com.crypto.trade.poloniex.config.properties.PoloniexProperties;
+import com.crypto.trade.poloniex.dto.PoloniexHistoryTrade;
+import com.crypto.trade.poloniex.services.analytics.CurrencyPair;
+import com.crypto.trade.poloniex.storage.history.TradesHistoryFormat;
+import com.crypto.trade.poloniex.storage.history.TradesHistoryWriter;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One-time conversion of the legacy JSON daily history files into the binary format. JSON files are kept, days
+ * already converted are skipped.
+ */
+@Slf4j
+@Service
+public class HistoryFormatConverter {
+
+    @Autowired
+    private PoloniexProperties properties;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * @return number of converted days
+     */
+    public int convert(CurrencyPair currencyPair) {
+        Path directory = Paths.get(properties.getHistory().getDirectory(), currencyPair.toString());
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+        List<Path> jsonFiles = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "poloniex-*" + TradesHistoryFormat.JSON_EXTENSION)) {
+            files.forEach(jsonFiles::add);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to list " + directory, e);
+        }
+        jsonFiles.sort(null);
+
+        int converted = 0;
+        for (Path jsonFile : jsonFiles) {
+            String fileName = jsonFile.getFileName().toString();
+            Path binaryFile = jsonFile.resolveSibling(fileName.substring(0, fileName.length() - TradesHistoryFormat.JSON_EXTENSION.length())
+                    + TradesHistoryFormat.BINARY_EXTENSION);
+            if (Files.exists(binaryFile)) {
+                continue;
+            }
+            try {
+                List<PoloniexHistoryTrade> trades = objectMapper.readValue(jsonFile.toFile(), new TypeReference<List<PoloniexHistoryTrade>>() {
+                });
+                // Written aside and moved, an interrupted conversion leaves no partial day behind
+                Path tempFile = binaryFile.resolveSibling(binaryFile.getFileName() + ".tmp");
+                Files.deleteIfExists(tempFile);
+                TradesHistoryWriter.append(tempFile, trades);
+                Files.move(tempFile, binaryFile);
+                converted++;
+                log.info("Converted {} trades of {}", trades.size(), jsonFile);
+            } catch (IOException e) {
+                log.error("Failed to convert " + jsonFile, e);
+            }
+        }
+        return converted;
+    }
+}
@@ -2,9 +2,13 @@ package com.crypto.trade.poloniex.services.trade;
 
 import com.crypto.trade.poloniex.dto.PoloniexHistoryTrade;
 import com.crypto.trade.poloniex.services.analytics.CurrencyPair;
+import com.crypto.trade.poloniex.storage.history.TradesCursor;
 
 import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
 import java.util.List;
 
 public interface HistoryService {
@@ -12,4 +16,16 @@ public interface HistoryService {
     List<PoloniexHistoryTrade> loadTradesHistory(CurrencyPair currencyPair, Duration historyDuration);
 
     List<PoloniexHistoryTrade> loadTradesHistory(CurrencyPair currencyPair, LocalDateTime start, LocalDateTime end);
+
+    default TradesCursor openTradesCursor(CurrencyPair currencyPair, Duration historyDuration) {
+        LocalDateTime end = LocalDateTime.of(LocalDate.now(ZoneOffset.UTC).plusDays(1), LocalTime.MIN);
+        return openTradesCursor(currencyPair, end.minus(historyDuration), end);
+    }
+
+    /**
+     * Trades of the range in time order, loaded at once unless the service can read them lazily.
+     */
+    default TradesCursor openTradesCursor(CurrencyPair currencyPair, LocalDateTime start, LocalDateTime end) {
+        return TradesCursor.of(loadTradesHistory(currencyPair, start, end));
+    }
 }
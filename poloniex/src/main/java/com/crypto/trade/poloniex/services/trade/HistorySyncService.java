@@ -0,0 +1,144 @@
+package com.crypto.trade.poloniex.services.trade;
+
+import com.crypto.trade.poloniex.config.properties.PoloniexProperties;
+import com.crypto.trade.poloniex.dto.PoloniexHistoryTrade;
+import com.crypto.trade.poloniex.services.analytics.CurrencyPair;
+import com.crypto.trade.poloniex.storage.history.HistoryCheckpoint;
+import com.crypto.trade.poloniex.storage.history.TradesHistoryFile;
+import com.crypto.trade.poloniex.storage.history.TradesHistoryFormat;
+import com.crypto.trade.poloniex.storage.history.TradesHistoryWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Appends the trades since the pair checkpoint to the local binary history and moves the checkpoint after every
+ * written block, so an interrupted sync resumes where it stopped.
+ */
+@Slf4j
+@Service
+public class HistorySyncService {
+
+    // Trades appended as one block at most, bounds the memory of a long first sync
+    private static final int FLUSH_SIZE = 100000;
+
+    @Autowired
+    private PoloniexProperties properties;
+    @Autowired
+    private HistoryDownloader historyDownloader;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * @return number of appended trades
+     */
+    public int sync(CurrencyPair currencyPair) {
+        HistoryCheckpoint checkpoint = getCheckpoint(currencyPair);
+        Instant end = Instant.now();
+        Instant start = checkpoint != null ? Instant.ofEpochSecond(checkpoint.getLastTradeTime())
+                : end.minus(Duration.ofHours(properties.getHistory().getWarmUpHours()));
+        log.info("Syncing {} trades history from {}", currencyPair, start);
+        DeltaWriter writer = new DeltaWriter(currencyPair, checkpoint);
+        historyDownloader.download(currencyPair, start, end, writer);
+        writer.flush();
+        log.info("Appended {} {} trades", writer.count, currencyPair);
+        return writer.count;
+    }
+
+    /**
+     * @return the later of the saved checkpoint and the last trade of the latest history file, null without history.
+     * A block appended without its checkpoint saved is not downloaded again.
+     */
+    public HistoryCheckpoint getCheckpoint(CurrencyPair currencyPair) {
+        String directory = properties.getHistory().getDirectory();
+        Path checkpointPath = TradesHistoryFormat.getCheckpointPath(directory, currencyPair);
+        try {
+            HistoryCheckpoint saved = Files.exists(checkpointPath)
+                    ? objectMapper.readValue(checkpointPath.toFile(), HistoryCheckpoint.class) : null;
+            HistoryCheckpoint stored = getLastStoredTrade(checkpointPath.getParent());
+            return stored != null && (saved == null || saved.isBefore(stored)) ? stored : saved;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read " + currencyPair + " checkpoint", e);
+        }
+    }
+
+    private static HistoryCheckpoint getLastStoredTrade(Path pairDirectory) throws IOException {
+        if (!Files.isDirectory(pairDirectory)) {
+            return null;
+        }
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(pairDirectory, "poloniex-*" + TradesHistoryFormat.BINARY_EXTENSION)) {
+            stream.forEach(files::add);
+        }
+        // ISO dates in the names keep the files in time order
+        files.sort(null);
+        for (int i = files.size() - 1; i >= 0; i--) {
+            TradesHistoryFile file = TradesHistoryFile.open(files.get(i));
+            if (file.size() > 0) {
+                return HistoryCheckpoint.of(file);
+            }
+        }
+        return null;
+    }
+
+    private void saveCheckpoint(CurrencyPair currencyPair, HistoryCheckpoint checkpoint) throws IOException {
+        Path checkpointPath = TradesHistoryFormat.getCheckpointPath(properties.getHistory().getDirectory(), currencyPair);
+        Path tmpPath = checkpointPath.resolveSibling(checkpointPath.getFileName() + ".tmp");
+        objectMapper.writeValue(tmpPath.toFile(), checkpoint);
+        Files.move(tmpPath, checkpointPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Ordered trades newer than the checkpoint are buffered and appended to their day file
+    private class DeltaWriter implements Consumer<PoloniexHistoryTrade> {
+
+        private final CurrencyPair currencyPair;
+        private final HistoryCheckpoint checkpoint;
+        private final List<PoloniexHistoryTrade> trades = new ArrayList<>();
+        private LocalDate day;
+        private int count;
+
+        DeltaWriter(CurrencyPair currencyPair, HistoryCheckpoint checkpoint) {
+            this.currencyPair = currencyPair;
+            this.checkpoint = checkpoint;
+        }
+
+        @Override
+        public void accept(PoloniexHistoryTrade trade) {
+            if (checkpoint != null && checkpoint.contains(trade)) {
+                return;
+            }
+            LocalDate tradeDay = trade.getDate().withZoneSameInstant(ZoneOffset.UTC).toLocalDate();
+            if (!tradeDay.equals(day) || trades.size() >= FLUSH_SIZE) {
+                flush();
+                day = tradeDay;
+            }
+            trades.add(trade);
+        }
+
+        void flush() {
+            if (trades.isEmpty()) {
+                return;
+            }
+            Path pathToFile = TradesHistoryFormat.getPath(properties.getHistory().getDirectory(), currencyPair, day);
+            try {
+                count += TradesHistoryWriter.append(pathToFile, trades);
+                saveCheckpoint(currencyPair, HistoryCheckpoint.of(trades.get(trades.size() - 1)));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to append " + currencyPair + " history of " + day, e);
+            }
+            trades.clear();
+        }
+    }
+}
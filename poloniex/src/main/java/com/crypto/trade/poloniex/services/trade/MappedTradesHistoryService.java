@@ -0,0 +1,68 @@
+package com.crypto.trade.poloniex.services.trade;
+
+import com.crypto.trade.poloniex.config.properties.PoloniexProperties;
+import com.crypto.trade.poloniex.dto.PoloniexHistoryTrade;
+import com.crypto.trade.poloniex.services.analytics.CurrencyPair;
+import com.crypto.trade.poloniex.storage.history.MappedTradesCursor;
+import com.crypto.trade.poloniex.storage.history.TradesCursor;
+import com.crypto.trade.poloniex.storage.history.TradesHistoryFile;
+import com.crypto.trade.poloniex.storage.history.TradesHistoryFormat;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Loads trades history from the memory-mapped binary daily files, only the trades of the requested range are read.
+ * The cursor reads them without materializing the trades.
+ */
+@Slf4j
+@Service
+public class MappedTradesHistoryService implements HistoryService {
+
+    @Autowired
+    private PoloniexProperties properties;
+
+    @Override
+    public List<PoloniexHistoryTrade> loadTradesHistory(CurrencyPair currencyPair, Duration historyDuration) {
+        LocalDateTime end = LocalDateTime.of(LocalDate.now(ZoneOffset.UTC).plusDays(1), LocalTime.MIN);
+        return loadTradesHistory(currencyPair, end.minus(historyDuration), end);
+    }
+
+    @Override
+    public List<PoloniexHistoryTrade> loadTradesHistory(CurrencyPair currencyPair, LocalDateTime start, LocalDateTime end) {
+        long startTime = start.toEpochSecond(ZoneOffset.UTC);
+        long endTime = end.toEpochSecond(ZoneOffset.UTC);
+        List<PoloniexHistoryTrade> trades = new ArrayList<>();
+        for (LocalDate day = start.toLocalDate(); day.atStartOfDay().isBefore(end); day = day.plusDays(1)) {
+            Path historyPath = TradesHistoryFormat.getPath(properties.getHistory().getDirectory(), currencyPair, day);
+            if (!Files.exists(historyPath)) {
+                log.debug("No {} history for {}", currencyPair, day);
+                continue;
+            }
+            try {
+                TradesHistoryFile file = TradesHistoryFile.open(historyPath);
+                int endIndex = file.findIndex(endTime);
+                for (int index = file.findIndex(startTime); index < endIndex; index++) {
+                    trades.add(file.getTrade(index));
+                }
+            } catch (IOException e) {
+                log.error("Failed to read history " + historyPath, e);
+            }
+        }
+        log.info("Loaded {} {} trades from {} to {}", trades.size(), currencyPair, start, end);
+        return trades;
+    }
+
+    @Override
+    public TradesCursor openTradesCursor(CurrencyPair currencyPair, LocalDateTime start, LocalDateTime end) {
+        return new MappedTradesCursor(properties.getHistory().getDirectory(), currencyPair,
+                start.toEpochSecond(ZoneOffset.UTC), end.toEpochSecond(ZoneOffset.UTC));
+    }
+}
@@ -0,0 +1,176 @@
+package com.crypto.trade.poloniex.services.trade;
+
+import com.crypto.trade.poloniex.dto.PoloniexOrderResponse;
+import com.crypto.trade.poloniex.services.analytics.CurrencyPair;
+import com.crypto.trade.poloniex.services.analytics.TradingAction;
+import com.crypto.trade.poloniex.services.gateway.NoResponseException;
+import com.crypto.trade.poloniex.services.utils.CalculationsUtils;
+import com.crypto.trade.poloniex.storage.model.PoloniexOrder;
+import eu.verdelhan.ta4j.Order;
+import eu.verdelhan.ta4j.TradingRecord;
+import lombok.extern.slf4j.Slf4j;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * Orders of the trading records evaluated on one candle of a currency pair. Buys are netted against sells at the
+ * same rate, only the remainder is sent to the exchange, and the fill is allocated back to the records in proportion
+ * to their amounts. A batch order is all or nothing: when it fails, every record of its rate fails. A batch order
+ * sent without response has an unknown outcome for every record of its rate until it is reconciled.
+ */
+@Slf4j
+public class OrderBatch {
+
+    private final OrderGateway orderGateway;
+    private final CurrencyPair currencyPair;
+    private final Executor callbackExecutor;
+    private final List<OrderIntent> intents = new ArrayList<>();
+    private BigDecimal lastTrade;
+
+    OrderBatch(OrderGateway orderGateway, CurrencyPair currencyPair, Executor callbackExecutor) {
+        this.orderGateway = orderGateway;
+        this.currencyPair = currencyPair;
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    /**
+     * @return placed order, completed once the batch is submitted and its order response received
+     */
+    public CompletableFuture<PoloniexOrder> add(TradingRecord tradingRecord, int index, Order.OrderType direction, BigDecimal volume, boolean real) {
+        try {
+            // All the records of the batch are priced by the same last trade, so that their orders can be netted
+            if (lastTrade == null) {
+                lastTrade = orderGateway.getLastTrade(currencyPair);
+            }
+            OrderIntent intent = orderGateway.createIntent(currencyPair, tradingRecord, index, direction, volume, real, lastTrade);
+            intents.add(intent);
+            return intent.getResult();
+        } catch (RuntimeException e) {
+            return OrderGateway.failed(e);
+        }
+    }
+
+    /**
+     * @return number of orders sent to the exchange
+     */
+    public int submit() {
+        Map<String, List<OrderIntent>> groups = new LinkedHashMap<>();
+        for (OrderIntent intent : intents) {
+            String key = intent.getRate().stripTrailingZeros().toPlainString() + (intent.isReal() ? "/real" : "");
+            groups.computeIfAbsent(key, k -> new ArrayList<>()).add(intent);
+        }
+        intents.clear();
+        int sent = 0;
+        for (List<OrderIntent> group : groups.values()) {
+            sent += submit(group);
+        }
+        return sent;
+    }
+
+    private int submit(List<OrderIntent> group) {
+        OrderIntent first = group.get(0);
+        BigDecimal rate = first.getRate();
+        List<OrderIntent> buys = new ArrayList<>();
+        List<OrderIntent> sells = new ArrayList<>();
+        group.forEach(intent -> (intent.isBuy() ? buys : sells).add(intent));
+        BigDecimal buyAmount = getTotalAmount(buys);
+        BigDecimal sellAmount = getTotalAmount(sells);
+        boolean buyExceeds = buyAmount.compareTo(sellAmount) >= 0;
+        List<OrderIntent> exceeding = buyExceeds ? buys : sells;
+        List<OrderIntent> crossed = buyExceeds ? sells : buys;
+        BigDecimal exceedingAmount = buyExceeds ? buyAmount : sellAmount;
+        BigDecimal crossedAmount = buyExceeds ? sellAmount : buyAmount;
+        BigDecimal netAmount = exceedingAmount.subtract(crossedAmount);
+
+        if (netAmount.signum() == 0) {
+            log.info("{} buy {} and sell {} crossed at {} without exchange order", currencyPair, buyAmount, sellAmount, rate);
+            CompletableFuture.runAsync(() -> allocate(group, exceedingAmount, exceedingAmount, rate, BigDecimal.ZERO, rate, null), callbackExecutor)
+                    .whenComplete((result, ex) -> failAll(group, ex));
+            return 0;
+        }
+        String command = buyExceeds ? "buy" : "sell";
+        log.info("{} buy {} and sell {} at {} netted into {} {} order for {} records",
+                currencyPair, buyAmount, sellAmount, rate, command, netAmount, group.size());
+        // Crossed records are filled at the last trade, the exchange order is priced by the order book liquidity
+        BigDecimal orderRate = first.isReal() ? getOrderRate(exceeding, command, netAmount, rate) : rate;
+        // Buy amounts are the spent volume divided by the rate, so the volume is kept at a worse order rate
+        BigDecimal orderAmount = buyExceeds && orderRate.compareTo(rate) != 0
+                ? CalculationsUtils.divide(netAmount.multiply(rate), orderRate)
+                : netAmount;
+        long sentMillis = System.currentTimeMillis();
+        orderGateway.sendOrder(currencyPair, command, orderRate, orderAmount, first.isReal())
+                .handle((orderResponse, ex) -> {
+                    Throwable cause = ex instanceof CompletionException ? ex.getCause() : ex;
+                    if (cause instanceof NoResponseException) {
+                        log.warn("No {} {} order response: {}, {} records wait for the order to be reconciled",
+                                currencyPair, command, cause.getMessage(), group.size());
+                        group.forEach(intent -> intent.outcomeUnknown(cause));
+                        return orderGateway.reconcileOrder(currencyPair, command, orderRate, orderAmount, sentMillis);
+                    }
+                    return cause == null ? CompletableFuture.completedFuture(orderResponse) : OrderGateway.<PoloniexOrderResponse>failed(cause);
+                })
+                .thenCompose(Function.identity())
+                .thenAcceptAsync(orderResponse -> {
+                    BigDecimal resultRate = TradeCalculator.getResultRate(orderResponse.getResultingTrades(), orderRate);
+                    BigDecimal resultAmount = TradeCalculator.getResultAmount(orderResponse.getResultingTrades(), orderAmount);
+                    allocate(crossed, crossedAmount, crossedAmount, rate, BigDecimal.ZERO, rate, orderResponse.getOrderId());
+                    allocate(exceeding, exceedingAmount, crossedAmount, rate, resultAmount, resultRate, orderResponse.getOrderId());
+                }, callbackExecutor)
+                .whenComplete((result, ex) -> {
+                    OrderGateway.logFailure(command, ex);
+                    failAll(group, ex);
+                });
+        return 1;
+    }
+
+    /**
+     * Order book rate of the exchange order, capped at the last trade when the exits checked against the last trade
+     * would not reach the minimum profit at the order book rate.
+     */
+    private BigDecimal getOrderRate(List<OrderIntent> exceeding, String command, BigDecimal netAmount, BigDecimal rate) {
+        BigDecimal marketRate = orderGateway.getMarketRate(currencyPair, command, netAmount, rate);
+        if (marketRate.compareTo(rate) == 0) {
+            return rate;
+        }
+        for (OrderIntent intent : exceeding) {
+            if (intent.getAction() == TradingAction.EXITED
+                    && !TradeCalculator.canExit(intent.getTradingRecord().getCurrentTrade().getEntry(), marketRate)) {
+                log.warn("{} {} at order book rate {} misses the minimum profit, limited to last trade {}",
+                        currencyPair, command, marketRate, rate);
+                return rate;
+            }
+        }
+        return marketRate;
+    }
+
+    // Every record of a side gets the same blended rate of its crossed and exchange filled parts
+    private static void allocate(List<OrderIntent> side, BigDecimal sideAmount, BigDecimal crossedAmount, BigDecimal rate,
+                                 BigDecimal filledAmount, BigDecimal filledRate, Long orderId) {
+        BigDecimal totalAmount = crossedAmount.add(filledAmount);
+        BigDecimal resultRate = totalAmount.signum() == 0
+                ? rate
+                : CalculationsUtils.divide(crossedAmount.multiply(rate).add(filledAmount.multiply(filledRate)), totalAmount);
+        for (OrderIntent intent : side) {
+            BigDecimal amount = totalAmount.compareTo(sideAmount) == 0
+                    ? intent.getAmount()
+                    : CalculationsUtils.divide(totalAmount.multiply(intent.getAmount()), sideAmount);
+            intent.fill(orderId, resultRate, amount);
+        }
+    }
+
+    private static void failAll(List<OrderIntent> group, Throwable ex) {
+        if (ex != null) {
+            Throwable cause = ex instanceof CompletionException ? ex.getCause() : ex;
+            group.forEach(intent -> intent.fail(cause));
+        }
+    }
+
+    private static BigDecimal getTotalAmount(List<OrderIntent> side) {
+        return side.stream().map(OrderIntent::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+}
@@ -0,0 +1,39 @@
+package com.crypto.trade.poloniex.services.trade;
+
+import com.crypto.trade.poloniex.config.properties.PoloniexProperties;
+import com.crypto.trade.poloniex.dto.PoloniexOrderBook;
+import com.crypto.trade.poloniex.services.analytics.CurrencyPair;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.client.RestTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Loads order book snapshots from the public API off the ws thread.
+ */
+public class OrderBookService {
+
+    @Autowired
+    private PoloniexProperties properties;
+    @Autowired
+    private RestTemplate restTemplate;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "order-book-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public CompletableFuture<PoloniexOrderBook> loadOrderBook(CurrencyPair currencyPair) {
+        return CompletableFuture.supplyAsync(() -> restTemplate.getForObject(properties.getApi().getOrderBookUrl(),
+                PoloniexOrderBook.class, currencyPair), executor);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+}
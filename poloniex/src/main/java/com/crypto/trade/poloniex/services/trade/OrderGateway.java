@@ -0,0 +1,341 @@
+package com.crypto.trade.poloniex.services.trade;
+
+import com.crypto.trade.poloniex.config.properties.PoloniexProperties;
+import com.crypto.trade.poloniex.config.properties.TradeConfig;
+import com.crypto.trade.poloniex.dto.PoloniexAccountTrade;
+import com.crypto.trade.poloniex.dto.PoloniexOpenOrder;
+import com.crypto.trade.poloniex.dto.PoloniexOrderResponse;
+import com.crypto.trade.poloniex.dto.ResultTrade;
+import com.crypto.trade.poloniex.services.analytics.CurrencyPair;
+import com.crypto.trade.poloniex.services.analytics.TradingAction;
+import com.crypto.trade.poloniex.services.gateway.PipelinedHttpClient;
+import com.crypto.trade.poloniex.services.utils.CalculationsUtils;
+import com.crypto.trade.poloniex.storage.book.OrderBook;
+import com.crypto.trade.poloniex.storage.book.OrderBookStorage;
+import com.crypto.trade.poloniex.storage.market.MarketDataStorage;
+import com.crypto.trade.poloniex.storage.market.MarketQuote;
+import com.crypto.trade.poloniex.storage.market.MarketSnapshot;
+import com.crypto.trade.poloniex.storage.model.PoloniexOrder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.verdelhan.ta4j.Order;
+import eu.verdelhan.ta4j.TradingRecord;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static com.crypto.trade.poloniex.services.trade.PoloniexRequestConstants.*;
+
+/**
+ * Places orders without blocking the caller. Requests are signed and sent in nonce order over the pipelined trading
+ * API connection, the trading record is updated by the response callback on the given executor. Orders of several
+ * records placed on the same candle are netted by an {@link OrderBatch}. An order sent without response is looked up
+ * in the account trades and open orders before its records are released.
+ */
+@Slf4j
+@Service
+public class OrderGateway {
+
+    private static final int MAX_KNOWN_ORDERS = 1000;
+    // Account trades are requested from that long before the order was sent, exchange and local clocks may differ
+    private static final long RECONCILE_CLOCK_SKEW_SECONDS = 60;
+    // Trade amounts are truncated to 8 decimals by the exchange
+    private static final BigDecimal AMOUNT_TOLERANCE = new BigDecimal("0.00000001");
+
+    @Autowired
+    private MarketDataStorage marketDataStorage;
+    @Autowired
+    private OrderBookStorage orderBookStorage;
+    @Autowired
+    private PoloniexProperties poloniex;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private PoloniexRequestHelper requestHelper;
+    @Autowired
+    private PipelinedHttpClient tradingClient;
+
+    private final ScheduledExecutorService reconciler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "order-reconciler");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Order numbers of the received responses, not matched again by a reconciled order
+    private final Set<Long> knownOrders = Collections.newSetFromMap(Collections.synchronizedMap(new LinkedHashMap<Long, Boolean>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+            return size() > MAX_KNOWN_ORDERS;
+        }
+    }));
+
+    /**
+     * @param callbackExecutor runs the trading record update, the one evaluating the record keeps it single threaded
+     * @return placed order, completed exceptionally when the order was not placed
+     */
+    public CompletableFuture<PoloniexOrder> placeOrder(CurrencyPair currencyPair, TradingRecord tradingRecord, int index, Order.OrderType direction,
+                                                       BigDecimal volume, boolean real, Executor callbackExecutor) {
+        OrderBatch orderBatch = newBatch(currencyPair, callbackExecutor);
+        CompletableFuture<PoloniexOrder> order = orderBatch.add(tradingRecord, index, direction, volume, real);
+        orderBatch.submit();
+        return order;
+    }
+
+    /**
+     * @param callbackExecutor runs the trading records update, the one evaluating the records keeps them single threaded
+     */
+    public OrderBatch newBatch(CurrencyPair currencyPair, Executor callbackExecutor) {
+        return new OrderBatch(this, currencyPair, callbackExecutor);
+    }
+
+    public CompletableFuture<String> cancelOrder(PoloniexOrder poloniexOrder) {
+        Map<String, Object> params = new HashMap<>();
+        params.put(COMMAND, "cancelOrder");
+        params.put("orderNumber", poloniexOrder.getOrderId());
+        return send(params).handle((response, ex) -> {
+            if (ex == null) {
+                if (response.getBody().contains("error")) {
+                    log.warn("Failed to cancel '{}' order: {}", poloniexOrder.getOrderId(), response.getBody());
+                } else {
+                    log.info("Order '{}' has been cancelled: {}", poloniexOrder.getOrderId(), response.getBody());
+                }
+                return response.getBody();
+            }
+            Throwable cause = ex instanceof CompletionException ? ex.getCause() : ex;
+            String result = cause instanceof HttpClientErrorException ? ((HttpClientErrorException) cause).getResponseBodyAsString() : "empty";
+            log.warn("Failed to cancel '{}' order: {}", poloniexOrder.getOrderId(), cause.getMessage());
+            return result;
+        });
+    }
+
+    BigDecimal getLastTrade(CurrencyPair currencyPair) {
+        MarketQuote quote = marketDataStorage.getQuote(currencyPair);
+        long maxAgeMillis = TimeUnit.SECONDS.toMillis(poloniex.getTradeConfig().getMaxPriceAgeSeconds());
+        if (!quote.hasLastPrice()) {
+            throw new PoloniexOrderNotExecuted("No " + currencyPair + " price to place order");
+        }
+        if (maxAgeMillis > 0 && !quote.isTradeFresh(System.currentTimeMillis(), maxAgeMillis)) {
+            log.warn("No live {} trade received for longer than {} ms, last trade at {}, order is not placed", currencyPair,
+                    maxAgeMillis, Instant.ofEpochMilli(quote.getLastTradeMillis()));
+            throw new PoloniexOrderNotExecuted("Stale " + currencyPair + " last trade at " + Instant.ofEpochMilli(quote.getLastTradeMillis()));
+        }
+        return quote.getLastPriceValue();
+    }
+
+    /**
+     * Prices a fillOrKill order at the worst level the synced order book needs to fill the whole amount, the last
+     * trade is used when the book is out of sync, not updated within the max price age or not deep enough.
+     */
+    BigDecimal getMarketRate(CurrencyPair currencyPair, String command, BigDecimal amount, BigDecimal lastTrade) {
+        OrderBook orderBook = orderBookStorage.getOrderBook(currencyPair);
+        if (orderBook == null || !orderBook.isSynced()) {
+            return lastTrade;
+        }
+        long maxAgeMillis = TimeUnit.SECONDS.toMillis(poloniex.getTradeConfig().getMaxPriceAgeSeconds());
+        if (maxAgeMillis > 0 && !marketDataStorage.getQuote(currencyPair).isQuoteFresh(System.currentTimeMillis(), maxAgeMillis)) {
+            log.warn("{} order book not updated for longer than {} ms, last trade {} is used", currencyPair, maxAgeMillis, lastTrade);
+            return lastTrade;
+        }
+        boolean buy = "buy".equals(command);
+        long scaledAmount = MarketSnapshot.scale(amount);
+        long limitPrice = orderBook.getLimitPrice(!buy, scaledAmount);
+        if (limitPrice == 0) {
+            log.warn("{} order book is not deep enough to {} {}, last trade {} is used", currencyPair, command, amount, lastTrade);
+            return lastTrade;
+        }
+        BigDecimal rate = MarketSnapshot.toPrice(limitPrice);
+        log.info("{} {} {} priced at {} by order book, average {}, last trade {}", currencyPair, command, amount, rate,
+                MarketSnapshot.toPrice(Math.round(orderBook.getVwap(!buy, scaledAmount))), lastTrade);
+        return rate;
+    }
+
+    OrderIntent createIntent(CurrencyPair currencyPair, TradingRecord tradingRecord, int index, Order.OrderType direction,
+                             BigDecimal volume, boolean real, BigDecimal lastTrade) {
+        if (tradingRecord.getCurrentTrade().isNew()) {
+            log.info("Processing {} BUY request {} at index {}", currencyPair, tradingRecord.getCurrentTrade(), index);
+            BigDecimal rate = real
+                    ? lastTrade
+                    : CalculationsUtils.divide(lastTrade, BigDecimal.valueOf(2));
+            BigDecimal entryAmount = TradeCalculator.getEntryAmount(volume, rate, direction);
+            String command = direction == Order.OrderType.BUY ? "buy" : "sell";
+            return new OrderIntent(tradingRecord, index, TradingAction.ENTERED, command, rate, entryAmount, real);
+        } else if (tradingRecord.getCurrentTrade().isOpened()) {
+            log.info("Processing {} SELL request {} at index {}", currencyPair, tradingRecord.getCurrentTrade(), index);
+            Order entryOrder = tradingRecord.getCurrentTrade().getEntry();
+            BigDecimal rate = real ? lastTrade : lastTrade.multiply(BigDecimal.valueOf(2));
+            if (!TradeCalculator.canExit(entryOrder, rate)) {
+                log.warn("SELL profit didn't reach minimum value: {}", CalculationsUtils.MIN_PROFIT_PERCENT);
+                throw new PoloniexOrderNotExecuted("SELL profit didn't reach minimum value at index " + index);
+            }
+            BigDecimal exitAmount = TradeCalculator.getExitAmount(entryOrder, rate);
+            String command = entryOrder.getType() == Order.OrderType.BUY ? "sell" : "buy";
+            return new OrderIntent(tradingRecord, index, TradingAction.EXITED, command, rate, exitAmount, real);
+        }
+        log.warn("No suitable action found for trading record {} at index {}", tradingRecord, index);
+        throw new PoloniexOrderNotExecuted("No suitable action for trading record at index " + index);
+    }
+
+    CompletableFuture<PoloniexOrderResponse> sendOrder(CurrencyPair currencyPair, String command, BigDecimal rate, BigDecimal amount, boolean real) {
+        return send(createOrderParams(command, currencyPair, rate, amount, real))
+                .thenApply(response -> {
+                    log.info("{} order response: {}", command, response.getBody());
+                    return readOrderResponse(response);
+                });
+    }
+
+    /**
+     * Looks an order sent without response up in the account trades after the send time and in the open orders,
+     * matching its command, limit rate and amount on an order number without received response. Failed lookups are
+     * retried until the exchange answers.
+     *
+     * @return order response rebuilt from the matched order, completed with {@link PoloniexOrderNotExecuted} when no
+     * order matched within the configured attempts
+     */
+    CompletableFuture<PoloniexOrderResponse> reconcileOrder(CurrencyPair currencyPair, String command, BigDecimal rate, BigDecimal amount, long sentMillis) {
+        CompletableFuture<PoloniexOrderResponse> reconciled = new CompletableFuture<>();
+        scheduleReconcile(reconciled, currencyPair, command, rate, amount, sentMillis, 1);
+        return reconciled;
+    }
+
+    private void scheduleReconcile(CompletableFuture<PoloniexOrderResponse> reconciled, CurrencyPair currencyPair, String command,
+                                   BigDecimal rate, BigDecimal amount, long sentMillis, int attempt) {
+        TradeConfig tradeConfig = poloniex.getTradeConfig();
+        reconciler.schedule(() -> findOrder(currencyPair, command, rate, amount, sentMillis).whenComplete((orderResponse, ex) -> {
+            if (ex != null) {
+                Throwable cause = ex instanceof CompletionException ? ex.getCause() : ex;
+                log.warn("Failed to reconcile {} {} {} order at {}, retrying: {}", currencyPair, command, amount, rate, cause.getMessage());
+                scheduleReconcile(reconciled, currencyPair, command, rate, amount, sentMillis, attempt);
+            } else if (orderResponse != null) {
+                log.info("{} {} {} order at {} reconciled with order {}", currencyPair, command, amount, rate, orderResponse.getOrderId());
+                reconciled.complete(orderResponse);
+            } else if (attempt < tradeConfig.getOrderReconcileAttempts()) {
+                scheduleReconcile(reconciled, currencyPair, command, rate, amount, sentMillis, attempt + 1);
+            } else {
+                log.warn("No {} {} {} order at {} found in {} attempts, the order was not placed", currencyPair, command, amount, rate, attempt);
+                reconciled.completeExceptionally(new PoloniexOrderNotExecuted("No " + currencyPair + " " + command + " order of " + amount
+                        + " at " + rate + " found"));
+            }
+        }), tradeConfig.getOrderReconcileDelayMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return matched order response or null when no order matched
+     */
+    private CompletableFuture<PoloniexOrderResponse> findOrder(CurrencyPair currencyPair, String command, BigDecimal rate, BigDecimal amount, long sentMillis) {
+        Map<String, Object> tradesParams = new HashMap<>();
+        tradesParams.put(COMMAND, "returnTradeHistory");
+        tradesParams.put(CURRENCY_PAIR, currencyPair);
+        tradesParams.put("start", TimeUnit.MILLISECONDS.toSeconds(sentMillis) - RECONCILE_CLOCK_SKEW_SECONDS);
+        tradesParams.put("end", TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()) + RECONCILE_CLOCK_SKEW_SECONDS);
+        return send(tradesParams).thenCompose(tradesResponse -> {
+            Map<Long, List<ResultTrade>> orderTrades = new HashMap<>();
+            for (PoloniexAccountTrade trade : readResponse(tradesResponse, PoloniexAccountTrade[].class)) {
+                if (command.equals(trade.getType()) && isWithinLimit(command, trade.getRate(), rate) && !knownOrders.contains(trade.getOrderNumber())) {
+                    orderTrades.computeIfAbsent(trade.getOrderNumber(), orderNumber -> new ArrayList<>()).add(ResultTrade.builder()
+                            .tradeId(trade.getTradeId()).amount(trade.getAmount()).rate(trade.getRate()).total(trade.getTotal()).build());
+                }
+            }
+            // Fill or kill orders are filled at once
+            for (Map.Entry<Long, List<ResultTrade>> order : orderTrades.entrySet()) {
+                if (isSameAmount(TradeCalculator.getResultAmount(order.getValue(), BigDecimal.ZERO), amount)) {
+                    return CompletableFuture.completedFuture(orderResponse(order.getKey(), order.getValue()));
+                }
+            }
+            Map<String, Object> openOrdersParams = new HashMap<>();
+            openOrdersParams.put(COMMAND, "returnOpenOrders");
+            openOrdersParams.put(CURRENCY_PAIR, currencyPair);
+            return send(openOrdersParams).thenApply(openOrdersResponse -> {
+                for (PoloniexOpenOrder openOrder : readResponse(openOrdersResponse, PoloniexOpenOrder[].class)) {
+                    if (command.equals(openOrder.getType()) && openOrder.getRate().compareTo(rate) == 0
+                            && isSameAmount(openOrder.getStartingAmount(), amount) && !knownOrders.contains(openOrder.getOrderNumber())) {
+                        return orderResponse(openOrder.getOrderNumber(), orderTrades.getOrDefault(openOrder.getOrderNumber(), new ArrayList<>()));
+                    }
+                }
+                return null;
+            });
+        });
+    }
+
+    private PoloniexOrderResponse orderResponse(Long orderNumber, List<ResultTrade> trades) {
+        knownOrders.add(orderNumber);
+        PoloniexOrderResponse orderResponse = new PoloniexOrderResponse();
+        orderResponse.setOrderId(orderNumber);
+        orderResponse.setResultingTrades(trades);
+        return orderResponse;
+    }
+
+    private static boolean isWithinLimit(String command, BigDecimal tradeRate, BigDecimal limitRate) {
+        int compared = tradeRate.compareTo(limitRate);
+        return "buy".equals(command) ? compared <= 0 : compared >= 0;
+    }
+
+    private static boolean isSameAmount(BigDecimal amount, BigDecimal orderAmount) {
+        return amount.subtract(orderAmount).abs().compareTo(AMOUNT_TOLERANCE) <= 0;
+    }
+
+    private static Map<String, Object> createOrderParams(String command, CurrencyPair currencyPair, BigDecimal rate, BigDecimal amount, boolean real) {
+        Map<String, Object> params = new HashMap<>();
+        params.put(COMMAND, command);
+        params.put(CURRENCY_PAIR, currencyPair);
+        params.put(RATE, rate);
+        params.put(AMOUNT, amount);
+        if (real) {
+            params.put("fillOrKill", 1);
+        }
+        return params;
+    }
+
+    // Nonces are created and written under the same lock, so the requests reach the exchange in nonce order
+    private synchronized CompletableFuture<ResponseEntity<String>> send(Map<String, Object> params) {
+        HttpEntity<String> requestEntity = requestHelper.createRequest(params);
+        return tradingClient.post(poloniex.getApi().getTradingApi(), requestEntity);
+    }
+
+    private PoloniexOrderResponse readOrderResponse(ResponseEntity<String> response) {
+        PoloniexOrderResponse orderResponse = readResponse(response, PoloniexOrderResponse.class);
+        log.debug("Order response: {}", orderResponse);
+        if (orderResponse.getOrderId() != null) {
+            knownOrders.add(orderResponse.getOrderId());
+        }
+        return orderResponse;
+    }
+
+    private <T> T readResponse(ResponseEntity<String> response, Class<T> type) {
+        if (response.getBody().contains("error")) {
+            throw new PoloniexResponseException(response.getBody());
+        }
+        try {
+            return objectMapper.readValue(response.getBody(), type);
+        } catch (IOException e) {
+            throw new PoloniexResponseException("Failed to read response " + response.getBody(), e);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        reconciler.shutdownNow();
+    }
+
+    static void logFailure(String command, Throwable ex) {
+        Throwable cause = ex instanceof CompletionException ? ex.getCause() : ex;
+        if (cause instanceof HttpClientErrorException) {
+            log.warn("Failed to place {} order : {}", command, ((HttpClientErrorException) cause).getResponseBodyAsString());
+        } else if (cause != null) {
+            log.error(command + " order has not been placed.", cause);
+        }
+    }
+
+    static <T> CompletableFuture<T> failed(Throwable cause) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(cause);
+        return future;
+    }
+}
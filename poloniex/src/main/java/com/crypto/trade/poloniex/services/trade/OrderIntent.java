@@ -0,0 +1,68 @@
+package com.crypto.trade.poloniex.services.trade;
+
+import com.crypto.trade.poloniex.services.analytics.TradingAction;
+import com.crypto.trade.poloniex.services.utils.CalculationsUtils;
+import com.crypto.trade.poloniex.storage.model.PoloniexOrder;
+import eu.verdelhan.ta4j.TradingRecord;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Order a trading record wants to place, completed with the part of the batch order allocated to the record. When
+ * the batch order outcome is unknown, the result fails with a {@link PoloniexOrderOutcomeUnknown} and the order is
+ * completed by its reconciled future instead.
+ */
+@Slf4j
+@Getter
+@RequiredArgsConstructor
+class OrderIntent {
+
+    private final TradingRecord tradingRecord;
+    private final int index;
+    private final TradingAction action;
+    private final String command;
+    private final BigDecimal rate;
+    private final BigDecimal amount;
+    private final boolean real;
+    private final CompletableFuture<PoloniexOrder> result = new CompletableFuture<>();
+    private final CompletableFuture<PoloniexOrder> reconciled = new CompletableFuture<>();
+
+    boolean isBuy() {
+        return "buy".equals(command);
+    }
+
+    void fill(Long orderId, BigDecimal resultRate, BigDecimal resultAmount) {
+        log.debug("Result rate = {}, result amount = {}", resultRate, resultAmount);
+        if (action == TradingAction.ENTERED) {
+            boolean entered = tradingRecord.enter(index, CalculationsUtils.toDecimal(resultRate), CalculationsUtils.toDecimal(resultAmount));
+            if (!entered) {
+                log.warn("Trading record entering error at index={}, rate={}, amount={}, fee={}", index, rate, amount, CalculationsUtils.FEE_PERCENT);
+            }
+        } else {
+            boolean exited = tradingRecord.exit(index, CalculationsUtils.toDecimal(resultRate), CalculationsUtils.toDecimal(resultAmount));
+            if (!exited) {
+                log.warn("Trading record exiting error at index {}", index);
+            }
+        }
+        PoloniexOrder poloniexOrder = new PoloniexOrder(orderId, tradingRecord.getLastOrder(), index, action);
+        log.debug("Poloniex order: {}", poloniexOrder);
+        if (!result.complete(poloniexOrder)) {
+            reconciled.complete(poloniexOrder);
+        }
+    }
+
+    void fail(Throwable cause) {
+        if (!result.completeExceptionally(cause)) {
+            reconciled.completeExceptionally(cause);
+        }
+    }
+
+    void outcomeUnknown(Throwable cause) {
+        result.completeExceptionally(new PoloniexOrderOutcomeUnknown("Outcome of " + command + " order at index " + index
+                + " is unknown", cause, reconciled));
+    }
+}
@@ -0,0 +1,21 @@
+package com.crypto.trade.poloniex.services.trade;
+
+import com.crypto.trade.poloniex.storage.model.PoloniexOrder;
+import lombok.Getter;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The order has been sent but its response was lost, the exchange may have filled it. The trading record stays
+ * processing until the reconciled order completes, with the found order or exceptionally when none was placed.
+ */
+@Getter
+public class PoloniexOrderOutcomeUnknown extends RuntimeException {
+
+    private final transient CompletableFuture<PoloniexOrder> reconciled;
+
+    public PoloniexOrderOutcomeUnknown(String message, Throwable cause, CompletableFuture<PoloniexOrder> reconciled) {
+        super(message, cause);
+        this.reconciled = reconciled;
+    }
+}
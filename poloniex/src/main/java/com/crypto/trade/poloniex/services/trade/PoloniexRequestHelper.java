@@ -8,6 +8,7 @@ import org.springframework.http.MediaType;
 
 import java.time.Instant;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import static com.crypto.trade.poloniex.services.trade.PoloniexRequestConstants.*;
@@ -19,9 +20,12 @@ public class PoloniexRequestHelper {
     @Autowired
     private SignatureGenerator signatureGenerator;
 
+    // Nonces must strictly increase, several requests can be created within the same millisecond
+    private final AtomicLong lastNonce = new AtomicLong();
+
     public String createRequestBody(Map<String, Object> params) {
         StringBuilder body = new StringBuilder();
-        params.computeIfAbsent(NONCE, key -> Instant.now().toEpochMilli());
+        params.computeIfAbsent(NONCE, key -> lastNonce.updateAndGet(last -> Math.max(last + 1, Instant.now().toEpochMilli())));
         params.computeIfAbsent(METHOD, key -> "GET");
         String paramsStr = params.entrySet()
                 .stream()
@@ -0,0 +1,20 @@
+package com.crypto.trade.poloniex.services.trade;
+
+import com.crypto.trade.poloniex.dto.PoloniexOrderBook;
+import com.crypto.trade.poloniex.services.analytics.CurrencyPair;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Order book snapshots of replayed frames are not loaded from the exchange, a book out of sync stays so and the
+ * orders are priced by the last trade.
+ */
+public class ReplayOrderBookService extends OrderBookService {
+
+    @Override
+    public CompletableFuture<PoloniexOrderBook> loadOrderBook(CurrencyPair currencyPair) {
+        CompletableFuture<PoloniexOrderBook> result = new CompletableFuture<>();
+        result.completeExceptionally(new IllegalStateException("No " + currencyPair + " order book snapshot in replay"));
+        return result;
+    }
+}
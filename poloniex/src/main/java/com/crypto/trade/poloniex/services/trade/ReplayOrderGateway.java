@@ -0,0 +1,40 @@
+package com.crypto.trade.poloniex.services.trade;
+
+import com.crypto.trade.poloniex.dto.PoloniexOrderResponse;
+import com.crypto.trade.poloniex.services.analytics.CurrencyPair;
+import com.crypto.trade.poloniex.storage.model.PoloniexOrder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Order gateway of replayed frames, orders are filled at their limit price without reaching the exchange.
+ */
+@Slf4j
+public class ReplayOrderGateway extends OrderGateway {
+
+    private final AtomicLong orders = new AtomicLong();
+
+    @Override
+    CompletableFuture<PoloniexOrderResponse> sendOrder(CurrencyPair currencyPair, String command, BigDecimal rate, BigDecimal amount, boolean real) {
+        PoloniexOrderResponse response = new PoloniexOrderResponse();
+        response.setOrderId(orders.incrementAndGet());
+        log.info("Replay {} {} {} at {} filled locally, order {}", currencyPair, command, amount, rate, response.getOrderId());
+        return CompletableFuture.completedFuture(response);
+    }
+
+    @Override
+    public CompletableFuture<String> cancelOrder(PoloniexOrder poloniexOrder) {
+        log.info("Replay order '{}' cancelled locally", poloniexOrder.getOrderId());
+        return CompletableFuture.completedFuture("{\"success\":1}");
+    }
+
+    /**
+     * @return number of orders filled locally
+     */
+    public long getOrders() {
+        return orders.get();
+    }
+}
@@ -31,4 +31,8 @@ public class CalculationsUtils {
     public static Decimal toDecimal(BigDecimal bigDecimal) {
         return Decimal.valueOf(bigDecimal.toString());
     }
+
+    public static Decimal toDecimal(double value) {
+        return Double.isNaN(value) ? Decimal.NaN : Decimal.valueOf(Double.toString(value));
+    }
 }
@@ -0,0 +1,35 @@
+package com.crypto.trade.poloniex.services.utils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spreads calls evenly over time, every caller reserves the next free slot and sleeps until it comes.
+ */
+public class RateLimiter {
+
+    private final long intervalNanos;
+    private final SyncUtils syncUtils;
+    private long nextSlot;
+
+    public RateLimiter(double permitsPerSecond, SyncUtils syncUtils) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("Permits per second must be strictly positive");
+        }
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        this.syncUtils = syncUtils;
+        this.nextSlot = System.nanoTime();
+    }
+
+    public void acquire() {
+        long waitNanos = reserve(System.nanoTime());
+        if (waitNanos > 0) {
+            syncUtils.sleep(TimeUnit.NANOSECONDS.toMillis(waitNanos) + 1);
+        }
+    }
+
+    private synchronized long reserve(long now) {
+        long slot = Math.max(now, nextSlot);
+        nextSlot = slot + intervalNanos;
+        return slot - now;
+    }
+}
@@ -0,0 +1,64 @@
+package com.crypto.trade.poloniex.services.ws;
+
+import com.crypto.trade.poloniex.services.ingest.LatencyHistogram;
+import lombok.Value;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replay throughput and latency percentiles in microseconds: frame handling on the ws thread, and pipeline latency
+ * from the frame reception until its trades are applied to the candles by the ingest workers.
+ */
+@Value
+public class ReplayReport {
+
+    private long frames;
+    private long bytes;
+    private long elapsedMillis;
+    private long drainMillis;
+    private double framesPerSecond;
+    private long p50;
+    private long p90;
+    private long p99;
+    private long p999;
+    private long max;
+    private long pipelineTrades;
+    private long pipelineP50;
+    private long pipelineP99;
+    private long pipelineP999;
+    private long pipelineMax;
+
+    /**
+     * @param latencies frame handling latencies in nanoseconds, sorted in place
+     * @param elapsedNanos replay time until the trades pipeline was drained
+     * @param pipelineLatencies frame reception to candles update latencies of the replayed trades
+     */
+    public static ReplayReport of(long[] latencies, int count, long bytes, long elapsedNanos, long drainNanos,
+                                  LatencyHistogram pipelineLatencies) {
+        Arrays.sort(latencies, 0, count);
+        return new ReplayReport(count,
+                bytes,
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                TimeUnit.NANOSECONDS.toMillis(drainNanos),
+                elapsedNanos > 0 ? count * 1e9 / elapsedNanos : 0,
+                percentile(latencies, count, 0.5),
+                percentile(latencies, count, 0.9),
+                percentile(latencies, count, 0.99),
+                percentile(latencies, count, 0.999),
+                count > 0 ? TimeUnit.NANOSECONDS.toMicros(latencies[count - 1]) : 0,
+                pipelineLatencies.getCount(),
+                pipelineLatencies.getPercentileMicros(0.5),
+                pipelineLatencies.getPercentileMicros(0.99),
+                pipelineLatencies.getPercentileMicros(0.999),
+                pipelineLatencies.getMaxMicros());
+    }
+
+    private static long percentile(long[] sorted, int count, double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * count) - 1;
+        return TimeUnit.NANOSECONDS.toMicros(sorted[Math.max(0, index)]);
+    }
+}
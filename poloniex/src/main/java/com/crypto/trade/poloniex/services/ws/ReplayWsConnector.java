@@ -0,0 +1,107 @@
+package com.crypto.trade.poloniex.services.ws;
+
+import com.crypto.trade.poloniex.config.properties.PoloniexProperties;
+import com.crypto.trade.poloniex.config.properties.ReplayConfig;
+import com.crypto.trade.poloniex.services.ingest.LatencyHistogram;
+import com.crypto.trade.poloniex.services.ingest.TradesIngestPipeline;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Pushes the frames recorded by {@link WsFrameRecorder} through {@link PoloniexEndPoint#onMessage} on a dedicated
+ * thread instead of a live connection, so the trades pipeline down to strategies runs offline. The replay is
+ * reported once the trades pipeline has drained, with the ws thread and the whole pipeline latencies.
+ */
+@Slf4j
+public class ReplayWsConnector implements WsConnector {
+
+    private static final long DRAIN_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    @Autowired
+    private PoloniexProperties poloniexProperties;
+    @Autowired
+    private PoloniexEndPoint poloniexEndPoint;
+    @Autowired
+    private TradesIngestPipeline tradesIngestPipeline;
+
+    private Thread replayThread;
+    private volatile ReplayReport lastReport;
+
+    @Override
+    public void connect() {
+        replayThread = new Thread(() -> {
+            try {
+                replay();
+            } catch (IOException e) {
+                log.error("Failed to replay ws frames", e);
+            }
+        }, "ws-replay");
+        replayThread.setDaemon(true);
+        replayThread.start();
+    }
+
+    public ReplayReport replay() throws IOException {
+        ReplayConfig config = poloniexProperties.getReplay();
+        log.info("Replaying ws frames of {}, original pacing: {}", config.getFile(), config.isOriginalPacing());
+        long[] latencies = new long[1024];
+        int count = 0;
+        long bytes = 0;
+        LatencyHistogram pipelineLatencies = new LatencyHistogram();
+        tradesIngestPipeline.setLatencies(pipelineLatencies);
+        long start = System.nanoTime();
+        try (WsFrameReader reader = new WsFrameReader(Paths.get(config.getFile()))) {
+            while (reader.next() && !Thread.currentThread().isInterrupted()) {
+                if (config.isOriginalPacing()) {
+                    awaitOffset(start, reader.getOffsetMicros());
+                }
+                String frame = reader.getFrame();
+                long frameStart = System.nanoTime();
+                poloniexEndPoint.onMessage(frame);
+                if (count == latencies.length) {
+                    latencies = Arrays.copyOf(latencies, count * 2);
+                }
+                latencies[count++] = System.nanoTime() - frameStart;
+                bytes += frame.length();
+            }
+        }
+        long drainStart = System.nanoTime();
+        awaitDrained();
+        long end = System.nanoTime();
+        tradesIngestPipeline.setLatencies(null);
+        lastReport = ReplayReport.of(latencies, count, bytes, end - start, end - drainStart, pipelineLatencies);
+        log.info("Replay finished: {}", lastReport);
+        return lastReport;
+    }
+
+    public ReplayReport getLastReport() {
+        return lastReport;
+    }
+
+    @Override
+    public void closeConnection() {
+        if (replayThread != null) {
+            replayThread.interrupt();
+        }
+    }
+
+    private static void awaitOffset(long start, long offsetMicros) {
+        long deadline = start + TimeUnit.MICROSECONDS.toNanos(offsetMicros);
+        for (long delay = deadline - System.nanoTime(); delay > 0 && !Thread.currentThread().isInterrupted();
+             delay = deadline - System.nanoTime()) {
+            LockSupport.parkNanos(delay);
+        }
+    }
+
+    private void awaitDrained() {
+        long deadline = System.currentTimeMillis() + DRAIN_TIMEOUT_MILLIS;
+        while (tradesIngestPipeline.getBacklog() > 0 && System.currentTimeMillis() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+}
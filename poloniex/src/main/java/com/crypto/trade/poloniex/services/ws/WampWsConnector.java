@@ -3,6 +3,7 @@ package com.crypto.trade.poloniex.services.ws;
 import com.crypto.trade.poloniex.config.properties.PoloniexProperties;
 import com.crypto.trade.poloniex.dto.PoloniexTrade;
 import com.crypto.trade.poloniex.services.analytics.CurrencyPair;
+import com.crypto.trade.poloniex.services.ingest.TradesIngestPipeline;
 import com.crypto.trade.poloniex.storage.TradesStorage;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,6 +15,7 @@ import ws.wamp.jawampa.transport.netty.NettyWampClientConnectorProvider;
 
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
+import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -24,6 +26,10 @@ public class WampWsConnector implements WsConnector {
     private PoloniexProperties poloniexProperties;
     @Autowired
     private TradesStorage tradesStorage;
+    @Autowired
+    private TradesIngestPipeline tradesIngestPipeline;
+    @Autowired
+    private WsChannels wsChannels;
 
     private Subscription eventSubscription;
     private AtomicLong counter = new AtomicLong(0);
@@ -55,28 +61,29 @@ public class WampWsConnector implements WsConnector {
                 eventSubscription = client.makeSubscription("ticker")
                         .subscribe(s -> {
                             ZonedDateTime time = ZonedDateTime.now(ZoneOffset.UTC);
-                            if (s.arguments().get(0).asText().equals(CurrencyPair.BTC_ETH.name())) {
+                            String pair = s.arguments().get(0).asText();
+                            Optional<CurrencyPair> currencyPair = wsChannels.getCurrencies().stream()
+                                    .filter(subscribed -> subscribed.name().equals(pair))
+                                    .findFirst();
+                            if (currencyPair.isPresent()) {
                                 try {
-                                    String pair = s.arguments().get(0).asText();
-                                    if (pair.equals(CurrencyPair.BTC_ETH.name())) {
-                                        log.debug("BTC_ETH ({}): {} args {}", counter.addAndGet(1), time.toLocalTime(), s.arguments().toString());
-                                    }
+                                    log.debug("{} ({}): {} args {}", pair, counter.addAndGet(1), time.toLocalTime(), s.arguments().toString());
                                     PoloniexTrade trade = new PoloniexTrade(0L,
                                             time,
                                             pair,
                                             s.arguments().get(1).asText(),
                                             "", "");
-                                    tradesStorage.addTrade(CurrencyPair.BTC_ETH, trade);
+                                    tradesIngestPipeline.execute(currencyPair.get(), () -> tradesStorage.addTrade(currencyPair.get(), trade));
                                 } catch (RuntimeException ex) {
-                                    log.error("fsdfs", ex);
+                                    log.error("Failed to process " + pair + " ticker", ex);
                                 }
                             }
                         }, th -> log.error("Failed to subscribe on 'ticker' ", th));
 
-                client.makeSubscription(CurrencyPair.BTC_ETH.name())
+                wsChannels.getCurrencies().forEach(currencyPair -> client.makeSubscription(currencyPair.name())
                         .subscribe(s -> {
-                            log.info("BTC_ETH keyword: {}, args: {}", s.keywordArguments(), s.arguments().toString());
-                        }, th -> log.error("Failed to subscribe on BTC_ETH ", th));
+                            log.info("{} keyword: {}, args: {}", currencyPair, s.keywordArguments(), s.arguments().toString());
+                        }, th -> log.error("Failed to subscribe on " + currencyPair, th)));
             }
         }, t -> System.out.println("Session ended with error " + t), () -> System.out.println("Session ended normally"));
         client.open();
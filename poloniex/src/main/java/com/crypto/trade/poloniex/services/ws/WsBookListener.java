@@ -0,0 +1,17 @@
+package com.crypto.trade.poloniex.services.ws;
+
+/**
+ * Receives order book entries of api2 channel frames, rates and amounts are scaled by {@link WsTradesParser#SCALE}.
+ */
+public interface WsBookListener {
+
+    /**
+     * Order book snapshot starts, its levels follow as updates with the same sequence.
+     */
+    void onSnapshot(int channelId, long sequence);
+
+    /**
+     * @param amount new amount of the price level, 0 removes the level
+     */
+    void onUpdate(int channelId, long sequence, boolean bid, long rate, long amount);
+}
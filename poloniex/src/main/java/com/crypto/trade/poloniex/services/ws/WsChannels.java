@@ -0,0 +1,41 @@
+package com.crypto.trade.poloniex.services.ws;
+
+import com.crypto.trade.poloniex.services.analytics.CurrencyPair;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Subscribed currency pairs indexed by api2 channel id, so frames are routed with a single array lookup.
+ */
+public class WsChannels {
+
+    private final Set<CurrencyPair> currencies;
+    private final CurrencyPair[] byChannelId;
+
+    public WsChannels(Collection<CurrencyPair> currencies) {
+        this.currencies = currencies.isEmpty()
+                ? Collections.emptySet()
+                : Collections.unmodifiableSet(EnumSet.copyOf(currencies));
+        int maxChannelId = this.currencies.stream().mapToInt(CurrencyPair::getChannelId).max().orElse(0);
+        this.byChannelId = new CurrencyPair[maxChannelId + 1];
+        this.currencies.forEach(currencyPair -> byChannelId[currencyPair.getChannelId()] = currencyPair);
+    }
+
+    public Set<CurrencyPair> getCurrencies() {
+        return currencies;
+    }
+
+    /**
+     * @return subscribed currency pair or null for heartbeats and unknown channels
+     */
+    public CurrencyPair getCurrencyPair(int channelId) {
+        return channelId >= 0 && channelId < byChannelId.length ? byChannelId[channelId] : null;
+    }
+
+    public String subscribeCommand(CurrencyPair currencyPair) {
+        return "{\"command\":\"subscribe\",\"channel\":\"" + currencyPair + "\"}";
+    }
+}
@@ -1,37 +1,45 @@
 package com.crypto.trade.poloniex.services.ws;
 
-import com.crypto.trade.poloniex.dto.PoloniexTrade;
 import com.crypto.trade.poloniex.services.analytics.CurrencyPair;
-import com.crypto.trade.poloniex.storage.TradesStorage;
+import com.crypto.trade.poloniex.services.ingest.TradesIngestPipeline;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.web.socket.*;
 
 import java.io.IOException;
-import java.math.BigDecimal;
-import java.time.LocalDateTime;
-import java.time.ZoneId;
-import java.time.ZoneOffset;
-import java.time.ZonedDateTime;
 import java.util.Date;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 @Slf4j
 public class WsConnectionHandler implements WebSocketHandler {
 
     @Autowired
-    private TradesStorage tradesStorage;
+    private TradesIngestPipeline tradesIngestPipeline;
+    @Autowired
+    private WsChannels wsChannels;
+    @Autowired
+    private WsOrderBooks wsOrderBooks;
+    @Autowired
+    private WsFrameRecorder wsFrameRecorder;
     @Autowired
     private ThreadPoolTaskScheduler connectionScheduler;
     private WebSocketSession session;
 
+    private final WsTradesParser tradesParser = new WsTradesParser();
+    private final Consumer<WsTradeEvent> tradesConsumer = this::addTrade;
+    private long frameNanos;
+    private final StringBuilder frame = new StringBuilder(1024);
+
     @Override
     public void afterConnectionEstablished(WebSocketSession webSocketSession) throws Exception {
         log.info("Session started.");
         webSocketSession.setTextMessageSizeLimit(1000000);
         webSocketSession.setBinaryMessageSizeLimit(1000000);
-        webSocketSession.sendMessage(new TextMessage("{\"command\":\"subscribe\",\"channel\":\"" + "BTC_ETH" + "\"}"));
+        for (CurrencyPair currencyPair : wsChannels.getCurrencies()) {
+            webSocketSession.sendMessage(new TextMessage(wsChannels.subscribeCommand(currencyPair)));
+        }
         session = webSocketSession;
         connectionScheduler.scheduleAtFixedRate(() -> {
                     try {
@@ -46,37 +54,29 @@ public class WsConnectionHandler implements WebSocketHandler {
 
     @Override
     public void handleMessage(WebSocketSession webSocketSession, WebSocketMessage<?> webSocketMessage) throws Exception {
-        String message = webSocketMessage.getPayload().toString();
-        if (message.startsWith("[148") && message.contains("[\"t\"")) {
-
-            log.info(message);
-            try {
-                String[] split = message.split("\"t\"");
-                for (int i = 1; i < split.length; i++) {
-                    String[] trade = split[i].split(",");
-                    BigDecimal rate = parseRate(trade);
-                    LocalDateTime timestamp = parseTimeStamp(trade);
-
-
-                    Long tradeId = Long.valueOf(trade[1].replace("\"", ""));
-                    String type = "1".equals(trade[2]) ? "buy" : "sell";
-                    PoloniexTrade pTrade = new PoloniexTrade(tradeId, ZonedDateTime.of(timestamp, ZoneOffset.UTC), trade[4].replace("\"", ""), trade[3].replace("\"", ""), "0", type);
-                    tradesStorage.addTrade(CurrencyPair.BTC_ETH, pTrade);
+        if (webSocketMessage instanceof TextMessage) {
+            frame.append(((TextMessage) webSocketMessage).getPayload());
+            if (webSocketMessage.isLast()) {
+                frameNanos = System.nanoTime();
+                log.debug("{}", frame);
+                wsFrameRecorder.record(frame);
+                try {
+                    tradesParser.parse(frame, tradesConsumer, wsOrderBooks);
+                } catch (RuntimeException ex) {
+                    log.error("Failed to process message: " + frame, ex);
+                } finally {
+                    frame.setLength(0);
                 }
-            } catch (Exception ex) {
-                log.error("dfgsd", ex);
             }
         }
     }
 
-    private LocalDateTime parseTimeStamp(String[] trade) {
-        String tradeTime = trade[5].split("]")[0];
-        Date tradeDate = new Date(Long.parseLong(tradeTime) * 1000);
-        return LocalDateTime.ofInstant(tradeDate.toInstant(), ZoneId.of("GMT-0"));
-    }
-
-    private BigDecimal parseRate(String[] trade) {
-        return new BigDecimal(trade[3].split("\"")[1]).setScale(8, BigDecimal.ROUND_HALF_UP);
+    private void addTrade(WsTradeEvent event) {
+        CurrencyPair currencyPair = wsChannels.getCurrencyPair(event.getChannelId());
+        if (currencyPair != null) {
+            event.setReceivedNanos(frameNanos);
+            tradesIngestPipeline.publish(currencyPair, event);
+        }
     }
 
     public void keepAlive() throws IOException {
@@ -0,0 +1,80 @@
+package com.crypto.trade.poloniex.services.ws;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads the frames recorded by {@link WsFrameRecorder} one by one.
+ */
+public class WsFrameReader implements Closeable {
+
+    private final DataInputStream input;
+    private final long startMillis;
+    private byte[] buffer = new byte[4096];
+    private String frame;
+    private long offsetMicros;
+
+    public WsFrameReader(Path path) throws IOException {
+        input = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(path), 65536)));
+        if (input.readInt() != WsFrameRecorder.MAGIC || input.readByte() != WsFrameRecorder.VERSION) {
+            input.close();
+            throw new IOException("Not a ws frames record: " + path);
+        }
+        startMillis = input.readLong();
+    }
+
+    /**
+     * @return false at the end of the record
+     */
+    public boolean next() throws IOException {
+        long delta;
+        try {
+            delta = readVarLong();
+        } catch (EOFException e) {
+            frame = null;
+            return false;
+        }
+        int length = (int) readVarLong();
+        if (length > buffer.length) {
+            buffer = new byte[Math.max(length, buffer.length * 2)];
+        }
+        input.readFully(buffer, 0, length);
+        frame = new String(buffer, 0, length, StandardCharsets.UTF_8);
+        offsetMicros += delta;
+        return true;
+    }
+
+    public String getFrame() {
+        return frame;
+    }
+
+    /**
+     * @return arrival time of the current frame since the recording start
+     */
+    public long getOffsetMicros() {
+        return offsetMicros;
+    }
+
+    public long getStartMillis() {
+        return startMillis;
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+
+    private long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte current = input.readByte();
+            value |= (long) (current & 0x7F) << shift;
+            if (current >= 0) {
+                return value;
+            }
+        }
+    }
+}
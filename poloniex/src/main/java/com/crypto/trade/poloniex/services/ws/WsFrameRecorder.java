@@ -0,0 +1,90 @@
+package com.crypto.trade.poloniex.services.ws;
+
+import com.crypto.trade.poloniex.config.properties.PoloniexProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Records raw ws frames with their arrival time into a gzipped file read by {@link WsFrameReader}: a header with
+ * the recording start, then per frame the microseconds since the previous frame and the UTF-8 frame as varints
+ * prefixed bytes. Does nothing unless a record file is configured.
+ */
+@Slf4j
+public class WsFrameRecorder implements Closeable {
+
+    static final int MAGIC = 0x57534652;
+    static final int VERSION = 1;
+
+    @Autowired
+    private PoloniexProperties poloniexProperties;
+
+    private DataOutputStream output;
+    private long previousNanos;
+    private boolean disabled;
+
+    public synchronized void record(CharSequence frame) {
+        if (disabled) {
+            return;
+        }
+        try {
+            long nanos = System.nanoTime();
+            if (output == null) {
+                String recordFile = poloniexProperties.getReplay().getRecordFile();
+                if (recordFile == null) {
+                    disabled = true;
+                    return;
+                }
+                open(Paths.get(recordFile), nanos);
+            }
+            writeVarLong(output, TimeUnit.NANOSECONDS.toMicros(nanos - previousNanos));
+            previousNanos = nanos;
+            byte[] bytes = frame.toString().getBytes(StandardCharsets.UTF_8);
+            writeVarLong(output, bytes.length);
+            output.write(bytes);
+        } catch (IOException e) {
+            log.error("Failed to record ws frame, recording is stopped", e);
+            disabled = true;
+            close();
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (output != null) {
+            try {
+                output.close();
+            } catch (IOException e) {
+                log.warn("Failed to close ws frames record", e);
+            }
+            output = null;
+        }
+    }
+
+    private void open(Path path, long nanos) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        log.info("Recording ws frames into {}", path);
+        output = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(path), 65536)));
+        output.writeInt(MAGIC);
+        output.writeByte(VERSION);
+        output.writeLong(System.currentTimeMillis());
+        previousNanos = nanos;
+    }
+
+    static void writeVarLong(DataOutput output, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            output.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        output.writeByte((int) value);
+    }
+}
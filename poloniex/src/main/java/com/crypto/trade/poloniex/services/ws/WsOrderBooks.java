@@ -0,0 +1,151 @@
+package com.crypto.trade.poloniex.services.ws;
+
+import com.crypto.trade.poloniex.dto.PoloniexOrderBook;
+import com.crypto.trade.poloniex.services.analytics.CurrencyPair;
+import com.crypto.trade.poloniex.services.trade.OrderBookService;
+import com.crypto.trade.poloniex.storage.book.OrderBookStorage;
+import com.crypto.trade.poloniex.storage.market.MarketSnapshot;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Applies order book entries of the subscribed channels to the {@link OrderBookStorage} on the ws thread. A book
+ * out of sync is loaded again from the public API while the channel, which also carries the trades, stays
+ * subscribed: its updates are buffered until the snapshot is applied, then replayed from the snapshot sequence on.
+ */
+@Slf4j
+public class WsOrderBooks implements WsBookListener {
+
+    // Updates buffered while a snapshot loads at most, the load is started again past that
+    private static final int MAX_BUFFERED = 100000;
+    private static final long RETRY_MILLIS = 5000;
+
+    @Autowired
+    private WsChannels wsChannels;
+    @Autowired
+    private OrderBookStorage orderBookStorage;
+    @Autowired
+    private OrderBookService orderBookService;
+
+    private final ConcurrentMap<CurrencyPair, BookRecovery> recoveries = new ConcurrentHashMap<>();
+
+    @Override
+    public void onSnapshot(int channelId, long sequence) {
+        CurrencyPair currencyPair = wsChannels.getCurrencyPair(channelId);
+        if (currencyPair != null) {
+            BookRecovery recovery = recoveries.remove(currencyPair);
+            if (recovery != null) {
+                recovery.cancel();
+            }
+            orderBookStorage.onSnapshot(currencyPair, sequence);
+        }
+    }
+
+    @Override
+    public void onUpdate(int channelId, long sequence, boolean bid, long rate, long amount) {
+        CurrencyPair currencyPair = wsChannels.getCurrencyPair(channelId);
+        if (currencyPair == null) {
+            return;
+        }
+        BookRecovery recovery = recoveries.get(currencyPair);
+        if (recovery != null && recovery.buffer(sequence, bid, rate, amount)) {
+            return;
+        }
+        if (!orderBookStorage.onUpdate(currencyPair, sequence, bid, rate, amount) && (recovery == null || recovery.canRetry())) {
+            log.warn("{} order book is out of sync at {}, loading a snapshot", currencyPair, sequence);
+            BookRecovery newRecovery = new BookRecovery(currencyPair);
+            newRecovery.buffer(sequence, bid, rate, amount);
+            recoveries.put(currencyPair, newRecovery);
+            newRecovery.load();
+        }
+    }
+
+    // Updates are buffered by the ws thread, the snapshot is applied by the loader thread
+    private class BookRecovery {
+
+        private final CurrencyPair currencyPair;
+        // sequence, bid flag, rate, amount
+        private final List<long[]> updates = new ArrayList<>();
+        private boolean loading = true;
+        private long retryMillis;
+
+        BookRecovery(CurrencyPair currencyPair) {
+            this.currencyPair = currencyPair;
+        }
+
+        void load() {
+            orderBookService.loadOrderBook(currencyPair).whenComplete(this::onLoaded);
+        }
+
+        /**
+         * @return false when no snapshot is loading, the update is applied to the book
+         */
+        synchronized boolean buffer(long sequence, boolean bid, long rate, long amount) {
+            if (!loading) {
+                return false;
+            }
+            if (updates.size() >= MAX_BUFFERED) {
+                log.warn("{} order book snapshot not loaded within {} updates, loading again", currencyPair, MAX_BUFFERED);
+                cancel();
+                return false;
+            }
+            updates.add(new long[]{sequence, bid ? 1 : 0, rate, amount});
+            return true;
+        }
+
+        synchronized boolean canRetry() {
+            return !loading && System.currentTimeMillis() >= retryMillis;
+        }
+
+        synchronized void cancel() {
+            loading = false;
+            updates.clear();
+        }
+
+        private synchronized void onLoaded(PoloniexOrderBook orderBook, Throwable ex) {
+            if (!loading) {
+                return;
+            }
+            if (ex != null) {
+                log.warn("Failed to load {} order book snapshot, retrying after {} ms: {}", currencyPair, RETRY_MILLIS, ex.getMessage());
+                cancel();
+                retryMillis = System.currentTimeMillis() + RETRY_MILLIS;
+                return;
+            }
+            long sequence = orderBook.getSeq();
+            if (!updates.isEmpty() && updates.get(0)[0] > sequence + 1) {
+                log.info("{} order book snapshot {} is older than the buffered update {}, loading again", currencyPair, sequence, updates.get(0)[0]);
+                load();
+                return;
+            }
+            orderBookStorage.onSnapshot(currencyPair, sequence);
+            applyLevels(sequence, false, orderBook.getAsks());
+            applyLevels(sequence, true, orderBook.getBids());
+            int replayed = 0;
+            for (long[] update : updates) {
+                if (update[0] > sequence) {
+                    orderBookStorage.onUpdate(currencyPair, update[0], update[1] == 1, update[2], update[3]);
+                    replayed++;
+                }
+            }
+            log.info("{} order book synced at snapshot {} with {} buffered updates", currencyPair, sequence, replayed);
+            cancel();
+            recoveries.remove(currencyPair, this);
+        }
+
+        private void applyLevels(long sequence, boolean bid, List<List<String>> levels) {
+            if (levels != null) {
+                for (List<String> level : levels) {
+                    orderBookStorage.onUpdate(currencyPair, sequence, bid, MarketSnapshot.scale(new BigDecimal(level.get(0))),
+                            MarketSnapshot.scale(new BigDecimal(level.get(1))));
+                }
+            }
+        }
+    }
+}
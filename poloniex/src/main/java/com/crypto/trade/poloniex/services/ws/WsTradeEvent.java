@@ -0,0 +1,57 @@
+package com.crypto.trade.poloniex.services.ws;
+
+import com.crypto.trade.poloniex.dto.PoloniexTrade;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+/**
+ * Reusable trade event filled by {@link WsTradesParser}, rate and amount are scaled by {@link WsTradesParser#SCALE}.
+ */
+@Data
+public class WsTradeEvent {
+
+    // Division of exact operands is rounded once, giving the same double as parsing the decimal
+    private static final double SCALE_FACTOR = 100000000d;
+
+    private int channelId;
+    private long tradeId;
+    private boolean buy;
+    private long rate;
+    private long amount;
+    private long epochSeconds;
+    // System.nanoTime() of the frame reception, 0 when not stamped
+    private long receivedNanos;
+
+    public BigDecimal getRateValue() {
+        return BigDecimal.valueOf(rate, WsTradesParser.SCALE);
+    }
+
+    public BigDecimal getAmountValue() {
+        return BigDecimal.valueOf(amount, WsTradesParser.SCALE);
+    }
+
+    public long getTimeMillis() {
+        return epochSeconds * 1000;
+    }
+
+    public double getRateAsDouble() {
+        return rate / SCALE_FACTOR;
+    }
+
+    public double getAmountAsDouble() {
+        return amount / SCALE_FACTOR;
+    }
+
+    public PoloniexTrade toPoloniexTrade() {
+        return new PoloniexTrade(tradeId,
+                ZonedDateTime.ofInstant(Instant.ofEpochSecond(epochSeconds), ZoneOffset.UTC),
+                getAmountValue().toPlainString(),
+                getRateValue().toPlainString(),
+                "0",
+                buy ? "buy" : "sell");
+    }
+}
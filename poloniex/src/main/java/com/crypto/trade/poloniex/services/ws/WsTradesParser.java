@@ -0,0 +1,249 @@
+package com.crypto.trade.poloniex.services.ws;
+
+import java.util.function.Consumer;
+
+/**
+ * Streaming parser of Poloniex api2 channel frames: {@code [148,seq,[["o",1,"rate","amount"],["t","id",1,"rate","amount",time]]]}.
+ * Trades are passed to the consumer through a single reused {@link WsTradeEvent}, so the consumer has to copy
+ * whatever it keeps. Order book snapshots and updates go to the optional {@link WsBookListener}. Not thread safe,
+ * every connection owns its own parser.
+ */
+public class WsTradesParser {
+
+    public static final int SCALE = 8;
+
+    private static final long[] SCALE_FACTORS = {100000000L, 10000000L, 1000000L, 100000L, 10000L, 1000L, 100L, 10L, 1L};
+
+    private final WsTradeEvent event = new WsTradeEvent();
+    private CharSequence message;
+    private int position;
+
+    /**
+     * @return parsed trades count
+     */
+    public int parse(CharSequence frame, Consumer<WsTradeEvent> consumer) {
+        return parse(frame, consumer, null);
+    }
+
+    /**
+     * @param bookListener order book entries are skipped when null
+     * @return parsed trades count
+     */
+    public int parse(CharSequence frame, Consumer<WsTradeEvent> consumer, WsBookListener bookListener) {
+        message = frame;
+        position = 0;
+        try {
+            expect('[');
+            int channelId = (int) readLong();
+            if (!skipIf(',')) {
+                // Heartbeat or subscription acknowledgement
+                return 0;
+            }
+            long sequence = -1;
+            if (position < message.length() && isDigit(message.charAt(position))) {
+                sequence = readLong();
+            } else {
+                skipValue();
+            }
+            if (!skipIf(',')) {
+                return 0;
+            }
+            return parseUpdates(channelId, sequence, consumer, bookListener);
+        } finally {
+            message = null;
+        }
+    }
+
+    private int parseUpdates(int channelId, long sequence, Consumer<WsTradeEvent> consumer, WsBookListener bookListener) {
+        int count = 0;
+        expect('[');
+        while (!skipIf(']')) {
+            if (!skipIf('[')) {
+                skipValue();
+            } else if (parseUpdate(channelId, sequence, bookListener)) {
+                consumer.accept(event);
+                count++;
+            }
+            skipIf(',');
+        }
+        return count;
+    }
+
+    private boolean parseUpdate(int channelId, long sequence, WsBookListener bookListener) {
+        char type = 0;
+        if (skipIf('"')) {
+            type = next();
+            while (next() != '"') {
+                // Skipping the rest of update type
+            }
+        } else {
+            skipValue();
+        }
+        if (type == 't') {
+            expect(',');
+            event.setChannelId(channelId);
+            event.setTradeId(readLong());
+            expect(',');
+            event.setBuy(readLong() == 1);
+            expect(',');
+            event.setRate(readScaled());
+            expect(',');
+            event.setAmount(readScaled());
+            expect(',');
+            event.setEpochSeconds(readLong());
+        } else if (type == 'o' && bookListener != null) {
+            expect(',');
+            boolean bid = readLong() == 1;
+            expect(',');
+            long rate = readScaled();
+            expect(',');
+            bookListener.onUpdate(channelId, sequence, bid, rate, readScaled());
+        } else if (type == 'i' && bookListener != null) {
+            expect(',');
+            parseSnapshot(channelId, sequence, bookListener);
+        }
+        skipRemaining();
+        return type == 't';
+    }
+
+    // {"currencyPair":"BTC_ETH","orderBook":[{asks},{bids}]} with price levels as {"rate":"amount",...}
+    private void parseSnapshot(int channelId, long sequence, WsBookListener bookListener) {
+        expect('{');
+        while (!skipIf('}')) {
+            boolean orderBook = readName("orderBook");
+            expect(':');
+            if (orderBook) {
+                bookListener.onSnapshot(channelId, sequence);
+                expect('[');
+                parseLevels(channelId, sequence, false, bookListener);
+                expect(',');
+                parseLevels(channelId, sequence, true, bookListener);
+                expect(']');
+            } else {
+                skipValue();
+            }
+            skipIf(',');
+        }
+    }
+
+    private void parseLevels(int channelId, long sequence, boolean bid, WsBookListener bookListener) {
+        expect('{');
+        while (!skipIf('}')) {
+            long rate = readScaled();
+            expect(':');
+            bookListener.onUpdate(channelId, sequence, bid, rate, readScaled());
+            skipIf(',');
+        }
+    }
+
+    private boolean readName(String expected) {
+        expect('"');
+        boolean matches = true;
+        int length = 0;
+        for (char current = next(); current != '"'; current = next()) {
+            matches &= length < expected.length() && expected.charAt(length) == current;
+            length++;
+        }
+        return matches && length == expected.length();
+    }
+
+    private long readLong() {
+        boolean quoted = skipIf('"');
+        boolean negative = skipIf('-');
+        long value = 0;
+        int start = position;
+        while (position < message.length() && isDigit(message.charAt(position))) {
+            value = value * 10 + (message.charAt(position++) - '0');
+        }
+        if (start == position) {
+            throw error("number expected");
+        }
+        if (quoted) {
+            expect('"');
+        }
+        return negative ? -value : value;
+    }
+
+    private long readScaled() {
+        boolean quoted = skipIf('"');
+        long integer = 0;
+        int start = position;
+        while (position < message.length() && isDigit(message.charAt(position))) {
+            integer = integer * 10 + (message.charAt(position++) - '0');
+        }
+        long fraction = 0;
+        int fractionDigits = 0;
+        if (skipIf('.')) {
+            while (position < message.length() && isDigit(message.charAt(position))) {
+                char digit = message.charAt(position++);
+                if (fractionDigits < SCALE) {
+                    fraction = fraction * 10 + (digit - '0');
+                    fractionDigits++;
+                }
+            }
+        }
+        if (start == position) {
+            throw error("decimal expected");
+        }
+        if (quoted) {
+            expect('"');
+        }
+        return integer * SCALE_FACTORS[0] + fraction * SCALE_FACTORS[fractionDigits];
+    }
+
+    private void skipRemaining() {
+        while (!skipIf(']')) {
+            expect(',');
+            skipValue();
+        }
+    }
+
+    private void skipValue() {
+        int depth = 0;
+        do {
+            char current = next();
+            if (current == '"') {
+                while (next() != '"') {
+                    // Poloniex values contain no escaped quotes
+                }
+            } else if (current == '[' || current == '{') {
+                depth++;
+            } else if (current == ']' || current == '}') {
+                depth--;
+            }
+        } while (depth > 0 || (depth == 0 && position < message.length() && !isDelimiter(message.charAt(position))));
+    }
+
+    private boolean isDelimiter(char value) {
+        return value == ',' || value == ']' || value == '}';
+    }
+
+    private boolean isDigit(char value) {
+        return value >= '0' && value <= '9';
+    }
+
+    private char next() {
+        if (position >= message.length()) {
+            throw error("unexpected end of frame");
+        }
+        return message.charAt(position++);
+    }
+
+    private boolean skipIf(char expected) {
+        if (position < message.length() && message.charAt(position) == expected) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(char expected) {
+        if (next() != expected) {
+            throw error("'" + expected + "' expected");
+        }
+    }
+
+    private IllegalArgumentException error(String reason) {
+        return new IllegalArgumentException("Malformed frame at " + position + ": " + reason);
+    }
+}
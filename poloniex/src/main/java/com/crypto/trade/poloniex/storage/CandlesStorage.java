@@ -5,30 +5,35 @@ import com.crypto.trade.poloniex.dto.PoloniexTrade;
 import com.crypto.trade.poloniex.services.analytics.AnalyticsService;
 import com.crypto.trade.poloniex.services.analytics.CurrencyPair;
 import com.crypto.trade.poloniex.services.analytics.TimeFrame;
+import com.crypto.trade.poloniex.services.backtest.HistoryTrades;
+import com.crypto.trade.poloniex.services.scheduler.StrategyScheduler;
 import com.crypto.trade.poloniex.services.trade.TradingService;
 import com.crypto.trade.poloniex.storage.analytics.AnalyticsStorage;
+import com.crypto.trade.poloniex.storage.candles.CandlesBuffer;
+import com.crypto.trade.poloniex.storage.candles.CandlesBuilder;
+import com.crypto.trade.poloniex.storage.history.TradesCursor;
 import com.crypto.trade.poloniex.storage.model.PoloniexStrategy;
 import com.crypto.trade.poloniex.storage.model.TimeFrameStorage;
-import eu.verdelhan.ta4j.Decimal;
-import eu.verdelhan.ta4j.Tick;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
-import java.time.ZonedDateTime;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.function.Function;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 
+/**
+ * Candles of a currency pair are updated only by the pair {@link com.crypto.trade.poloniex.services.ingest.TradesIngestWorker}.
+ * Trades update the shortest time frame candles, longer time frames are aggregated from the closed shorter candles.
+ */
 @Slf4j
 public class CandlesStorage {
 
     @Autowired
     private AnalyticsService realTimeAnalyticsService;
     @Autowired
-    private ThreadPoolTaskExecutor strategyExecutor;
+    private StrategyScheduler strategyScheduler;
     @Autowired
     private TradingService tradingService;
     @Autowired
@@ -37,53 +42,137 @@ public class CandlesStorage {
     private AnalyticsStorage analyticsStorage;
 
     private ConcurrentMap<CurrencyPair, Map<TimeFrame, TimeFrameStorage>> candles = new ConcurrentHashMap<>();
+    // Time frames of a pair by increasing duration, each one dividing the next
+    private ConcurrentMap<CurrencyPair, TimeFrameStorage[]> cascades = new ConcurrentHashMap<>();
 
+    // Strategies already active on the time frame are kept with their trading records
     public void initCurrency(CurrencyPair currencyPair, List<TimeFrameStorage> timeFrameData) {
-        Map<TimeFrame, TimeFrameStorage> map = timeFrameData
-                .stream()
-                .collect(Collectors.toMap(TimeFrameStorage::getTimeFrame,
-                        Function.<TimeFrameStorage>identity()));
-        candles.put(currencyPair, map);
+        timeFrameData.forEach(data -> {
+            List<PoloniexStrategy> activeStrategies = getTimeFrameStorage(currencyPair, data.getTimeFrame()).getActiveStrategies();
+            data.getActiveStrategies().stream()
+                    .filter(strategy -> !activeStrategies.contains(strategy))
+                    .forEach(activeStrategies::add);
+        });
+    }
+
+    public TimeFrameStorage getTimeFrameStorage(CurrencyPair currencyPair, TimeFrame timeFrame) {
+        Map<TimeFrame, TimeFrameStorage> timeFrameData = candles.computeIfAbsent(currencyPair, key -> new ConcurrentHashMap<>());
+        TimeFrameStorage timeFrameStorage = timeFrameData.get(timeFrame);
+        if (timeFrameStorage == null) {
+            timeFrameStorage = timeFrameData.computeIfAbsent(timeFrame, key -> new TimeFrameStorage(key, poloniexProperties.getCandles().getCapacity()));
+            cascades.compute(currencyPair, (key, cascade) -> timeFrameData.values().stream()
+                    .sorted(Comparator.comparing(TimeFrameStorage::getTimeFrame))
+                    .toArray(TimeFrameStorage[]::new));
+        }
+        return timeFrameStorage;
     }
 
     public void addTrade(CurrencyPair currency, PoloniexTrade poloniexTrade) {
-        candles.computeIfPresent(currency, (currencyPair, timeFrameData) -> {
-            timeFrameData.values().forEach(storage -> updateCandles(currencyPair, storage, poloniexTrade, false));
-            return timeFrameData;
-        });
+        addTrade(currency, poloniexTrade.getTradeTime().toInstant().toEpochMilli(),
+                Double.parseDouble(poloniexTrade.getAmount()), Double.parseDouble(poloniexTrade.getRate()));
+    }
+
+    public void addTrade(CurrencyPair currency, long tradeMillis, double amount, double rate) {
+        TimeFrameStorage[] cascade = cascades.get(currency);
+        if (cascade != null) {
+            updateCandles(currency, cascade, tradeMillis, amount, rate, false);
+        }
+    }
+
+    // Only the shortest time frame candles are updated by the trade, the others are rolled up once its candles close
+    private void updateCandles(CurrencyPair currencyPair, TimeFrameStorage[] cascade, long tradeMillis, double amount,
+                               double rate, boolean isHistoryTick) {
+        TimeFrameStorage timeFrameStorage = cascade[0];
+        CandlesBuffer candles = timeFrameStorage.getCandles();
+        int index = candles.findIndex(tradeMillis);
+        if (index >= 0) {
+            addLateTrade(currencyPair, timeFrameStorage, index, amount, rate);
+            updateRolledUpCandles(currencyPair, cascade, index, tradeMillis, amount, rate);
+        } else if (!candles.isEmpty() && tradeMillis < candles.getEndTime(candles.getEndIndex())) {
+            log.debug("{} trade at {} is older than the kept candles", currencyPair, tradeMillis);
+        } else {
+            TimeFrame timeFrame = timeFrameStorage.getTimeFrame();
+            // The clock may not have closed the candles ended before the trade period yet
+            closeCandles(currencyPair, cascade, timeFrame.calculateEndMillis(tradeMillis) - timeFrame.getDurationMillis(), isHistoryTick);
+            index = newCandleSupplier(currencyPair, timeFrameStorage, tradeMillis, isHistoryTick).getAsInt();
+            candles.addTrade(index, amount, rate);
+        }
+    }
+
+    // A late trade of a candle already rolled up is added to the longer time frames candles as well
+    private void updateRolledUpCandles(CurrencyPair currencyPair, TimeFrameStorage[] cascade, int index, long tradeMillis,
+                                       double amount, double rate) {
+        for (int level = 1; level < cascade.length && index <= cascade[level - 1].getRolledIndex(); level++) {
+            index = cascade[level].getCandles().findIndex(tradeMillis);
+            if (index < 0) {
+                return;
+            }
+            addLateTrade(currencyPair, cascade[level], index, amount, rate);
+        }
+    }
+
+    // The streaming indicators committed the closed candles values, a trade into one of them invalidates these
+    private void addLateTrade(CurrencyPair currencyPair, TimeFrameStorage timeFrameStorage, int index, double amount,
+                              double rate) {
+        CandlesBuffer candles = timeFrameStorage.getCandles();
+        candles.addTrade(index, amount, rate);
+        if (index < candles.getEndIndex()) {
+            analyticsStorage.invalidateIndicators(currencyPair, timeFrameStorage.getTimeFrame(), index);
+        }
+    }
+
+    /**
+     * Closes the candles of all the time frames ended at the time, whether their next period trade came or not. Must
+     * be run by the pair ingest worker.
+     */
+    public void closeCandles(CurrencyPair currencyPair, long timeMillis) {
+        TimeFrameStorage[] cascade = cascades.get(currencyPair);
+        if (cascade != null) {
+            closeCandles(currencyPair, cascade, timeMillis, false);
+        }
     }
 
-    private void updateCandles(CurrencyPair currencyPair, TimeFrameStorage timeFrameStorage, PoloniexTrade poloniexTrade, boolean isHistoryTick) {
-        timeFrameStorage.getUpdateLock().lock();
-        try {
-            Tick candle = findCandle(timeFrameStorage.getCandles(), poloniexTrade.getTradeTime())
-                    .orElseGet(new NewCandleSupplier(timeFrameStorage,
-                            poloniexTrade.getTradeTime(),
-                            strategyExecutor,
-                            realTimeAnalyticsService,
-                            tradingService,
-                            poloniexProperties.getTradeConfig().isRealPrice(),
-                            isHistoryTick,
-                            analyticsStorage,
-                            currencyPair));
-            candle.addTrade(Decimal.valueOf(poloniexTrade.getAmount()), Decimal.valueOf(poloniexTrade.getRate()));
-        } finally {
-            timeFrameStorage.getUpdateLock().unlock();
+    // A time frame is closed once the candles of the shorter one are closed and rolled up into it
+    private void closeCandles(CurrencyPair currencyPair, TimeFrameStorage[] cascade, long timeMillis, boolean isHistoryTick) {
+        for (int level = 0; level < cascade.length; level++) {
+            if (level > 0) {
+                rollUp(cascade[level - 1], cascade[level], timeMillis);
+            }
+            newCandleSupplier(currencyPair, cascade[level], timeMillis, isHistoryTick).closeCandles();
         }
     }
 
-    private Optional<Tick> findCandle(List<Tick> candles, ZonedDateTime tradeTime) {
-        Optional<Tick> candle = Optional.empty();
-        int size = candles.size();
-        if (!candles.isEmpty()) {
-            for (int index = Math.max(0, candles.size() - 5); index < size && !candle.isPresent(); index++) {
-                Tick currentCandle = candles.get(index);
-                if (currentCandle.inPeriod(tradeTime)) {
-                    candle = Optional.of(currentCandle);
+    private void rollUp(TimeFrameStorage lower, TimeFrameStorage upper, long timeMillis) {
+        CandlesBuffer lowerCandles = lower.getCandles();
+        CandlesBuffer upperCandles = upper.getCandles();
+        int index = Math.max(lower.getRolledIndex() + 1, lowerCandles.getBeginIndex());
+        for (; index <= lowerCandles.getEndIndex() && lowerCandles.getEndTime(index) <= timeMillis; index++) {
+            long beginTime = lowerCandles.getBeginTime(index);
+            int upperIndex = upperCandles.findIndex(beginTime);
+            if (upperIndex < 0) {
+                long endTime = upper.getTimeFrame().calculateEndMillis(beginTime);
+                if (!upperCandles.isEmpty() && upperCandles.getEndTime(upperCandles.getEndIndex()) >= endTime) {
+                    log.debug("{} candle {} is too old to be rolled up into {}", lower.getTimeFrame(), index, upper.getTimeFrame());
+                    continue;
                 }
+                upperIndex = upperCandles.addCandle(endTime);
             }
+            upperCandles.mergeCandle(upperIndex, lowerCandles, index);
         }
-        return candle;
+        lower.setRolledIndex(index - 1);
+    }
+
+    private NewCandleSupplier newCandleSupplier(CurrencyPair currencyPair, TimeFrameStorage timeFrameStorage,
+                                                long timeMillis, boolean isHistoryTick) {
+        return new NewCandleSupplier(timeFrameStorage,
+                timeMillis,
+                strategyScheduler,
+                realTimeAnalyticsService,
+                tradingService,
+                poloniexProperties.getTradeConfig().isRealPrice(),
+                isHistoryTick,
+                analyticsStorage,
+                currencyPair);
     }
 
     public List<TimeFrameStorage> getData(CurrencyPair currencyPair) {
@@ -94,22 +183,84 @@ public class CandlesStorage {
         return candles.getOrDefault(currencyPair, Collections.emptyMap());
     }
 
-    public void addTradesHistory(CurrencyPair currency, Set<PoloniexTrade> poloniexTrades) {
-        candles.computeIfPresent(currency, (currencyPair, timeFrameData) -> {
-            timeFrameData.values().forEach(timeFrameStorage -> {
-                timeFrameStorage.getUpdateLock().lock();
-                try {
-                    TimeFrame timeFrame = timeFrameStorage.getTimeFrame();
-                    log.info("Clearing {} candles with history for {}", timeFrame, currency);
-                    timeFrameStorage.getCandles().clear();
-                    log.info("Updating candles with history for {}", currency);
-                    poloniexTrades.forEach(poloniexTrade -> updateCandles(currencyPair, timeFrameStorage, poloniexTrade, true));
-                } finally {
-                    timeFrameStorage.getUpdateLock().unlock();
+    /**
+     * Builds the candles of all the pair time frames from the trades without touching the live ones, may be run by
+     * any thread.
+     *
+     * @return candles by increasing time frame duration, empty when the pair has no time frame
+     */
+    public List<CandlesBuffer> buildCandles(CurrencyPair currency, TradesCursor cursor, ForkJoinPool pool) {
+        TimeFrameStorage[] cascade = cascades.get(currency);
+        if (cascade == null) {
+            return Collections.emptyList();
+        }
+        log.info("Building {} candles with history", currency);
+        HistoryTrades trades = HistoryTrades.of(cursor);
+        List<TimeFrame> timeFrames = Arrays.stream(cascade).map(TimeFrameStorage::getTimeFrame).collect(Collectors.toList());
+        List<CandlesBuffer> builtCandles = new CandlesBuilder(trades, pool).build(timeFrames);
+        log.info("Built {} candles with {} history trades", currency, trades.size());
+        return builtCandles;
+    }
+
+    /**
+     * Replaces the live candles with the built ones, then applies the trades received since the build started. Must
+     * be run by the pair ingest worker, strategies indicators are reset to be computed again on the new candles.
+     */
+    public void installCandles(CurrencyPair currency, List<CandlesBuffer> builtCandles, TradesCursor tail) {
+        TimeFrameStorage[] cascade = cascades.get(currency);
+        if (cascade == null) {
+            return;
+        }
+        if (cascade.length != builtCandles.size()) {
+            log.warn("{} time frames changed since the candles were built, history is not installed", currency);
+            return;
+        }
+        clearCandles(currency, cascade);
+        installCandles(cascade, builtCandles);
+        int tailCount = 0;
+        // Tail trades were already traded on by the live candles
+        while (tail.next()) {
+            updateCandles(currency, cascade, tail.getTimeMillis(), tail.getAmount(), tail.getRate(), true);
+            tailCount++;
+        }
+        setHistoryIndex(cascade);
+        log.info("Installed {} history candles with {} trades received meanwhile", currency, tailCount);
+    }
+
+    // Candles closed before the last one are rolled up, as if the history trades came one by one
+    private static void installCandles(TimeFrameStorage[] cascade, List<CandlesBuffer> builtCandles) {
+        CandlesBuffer shortest = builtCandles.get(0);
+        long closeTime = shortest.isEmpty() ? Long.MIN_VALUE : shortest.getBeginTime(shortest.getEndIndex());
+        for (int level = 0; level < cascade.length; level++) {
+            CandlesBuffer candles = cascade[level].getCandles();
+            candles.copyFrom(builtCandles.get(level));
+            if (level < cascade.length - 1) {
+                int rolledIndex = candles.getEndIndex();
+                while (rolledIndex >= candles.getBeginIndex() && candles.getEndTime(rolledIndex) > closeTime) {
+                    rolledIndex--;
                 }
-            });
-            return timeFrameData;
-        });
+                cascade[level].setRolledIndex(rolledIndex);
+            }
+        }
+    }
+
+    private void clearCandles(CurrencyPair currencyPair, TimeFrameStorage[] cascade) {
+        for (TimeFrameStorage timeFrameStorage : cascade) {
+            TimeFrame timeFrame = timeFrameStorage.getTimeFrame();
+            log.info("Clearing {} candles with history for {}", timeFrame, currencyPair);
+            timeFrameStorage.getCandles().clear();
+            timeFrameStorage.setTradedIndex(-1);
+            timeFrameStorage.setRolledIndex(-1);
+            timeFrameStorage.setGeneration(timeFrameStorage.getGeneration() + 1);
+            analyticsStorage.resetIndicators(currencyPair, timeFrame);
+        }
+    }
+
+    // The last history candle is the first one strategies may trade on
+    private static void setHistoryIndex(TimeFrameStorage[] cascade) {
+        for (TimeFrameStorage timeFrameStorage : cascade) {
+            timeFrameStorage.setHistoryIndex(Math.max(0, timeFrameStorage.getCandles().getEndIndex()));
+        }
     }
 
     public List<PoloniexStrategy> getActiveStrategies(CurrencyPair currencyPair, TimeFrame timeFrame) {
@@ -3,31 +3,33 @@ package com.crypto.trade.poloniex.storage;
 import com.crypto.trade.poloniex.services.analytics.*;
 import com.crypto.trade.poloniex.services.analytics.model.AnalyticsData;
 import com.crypto.trade.poloniex.services.analytics.model.TradeData;
+import com.crypto.trade.poloniex.services.scheduler.StrategyScheduler;
+import com.crypto.trade.poloniex.services.trade.OrderBatch;
+import com.crypto.trade.poloniex.services.trade.PoloniexOrderOutcomeUnknown;
 import com.crypto.trade.poloniex.services.trade.TradingService;
 import com.crypto.trade.poloniex.storage.analytics.AnalyticsStorage;
+import com.crypto.trade.poloniex.storage.candles.CandlesBuffer;
 import com.crypto.trade.poloniex.storage.model.PoloniexOrder;
 import com.crypto.trade.poloniex.storage.model.PoloniexStrategy;
 import com.crypto.trade.poloniex.storage.model.PoloniexTradingRecord;
 import com.crypto.trade.poloniex.storage.model.TimeFrameStorage;
-import eu.verdelhan.ta4j.BaseTick;
 import eu.verdelhan.ta4j.Tick;
 import eu.verdelhan.ta4j.TradingRecord;
 import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
-import java.time.ZonedDateTime;
+import java.time.Instant;
 import java.util.List;
-import java.util.Optional;
-import java.util.function.Supplier;
+import java.util.concurrent.CompletionException;
+import java.util.function.IntSupplier;
 
 @Value
 @Slf4j
-public class NewCandleSupplier implements Supplier<Tick> {
+public class NewCandleSupplier implements IntSupplier {
 
     private TimeFrameStorage timeFrameStorage;
-    private ZonedDateTime tradeTime;
-    private ThreadPoolTaskExecutor strategyExecutor;
+    private long timeMillis;
+    private StrategyScheduler strategyScheduler;
     private AnalyticsService realTimeAnalyticsService;
     private TradingService tradingService;
     private boolean isRealPrice;
@@ -36,30 +38,56 @@ public class NewCandleSupplier implements Supplier<Tick> {
     private CurrencyPair currency;
 
     @Override
-    public Tick get() {
-        log.info("No candle found for {} {} trade.", currency, tradeTime.toLocalDateTime());
-        List<Tick> candles = timeFrameStorage.getCandles();
+    public int getAsInt() {
+        log.debug("No candle found for {} {} trade.", currency, Instant.ofEpochMilli(timeMillis));
+        CandlesBuffer candles = timeFrameStorage.getCandles();
         TimeFrame timeFrame = timeFrameStorage.getTimeFrame();
-        int lastIndex = candles.size() - 1;
+        int index = candles.addCandle(timeFrame.calculateEndMillis(timeMillis));
+        Tick newCandle = candles.getTimeSeries().getTick(index);
+        log.debug("New {} {} candle {} - {} with index {} has been created.", currency, timeFrame, newCandle.getBeginTime().toLocalDateTime(), newCandle.getEndTime().toLocalDateTime(), index);
+        return index;
+    }
 
+    /**
+     * Closes the candles ended at the time: periods without trades get flat candles at the last close price and
+     * strategies are run once on every closed candle, in order. History candles are not traded.
+     */
+    public void closeCandles() {
+        CandlesBuffer candles = timeFrameStorage.getCandles();
+        if (candles.isEmpty()) {
+            return;
+        }
+        int lastIndex = candles.getEndIndex();
+        long endTime = candles.getEndTime(lastIndex);
+        if (endTime > timeMillis) {
+            return;
+        }
+        // Older candles are history ones, never traded
+        int firstIndex = Math.max(lastIndex, timeFrameStorage.getTradedIndex() + 1);
+        long periodMillis = candles.getTimePeriod().toMillis();
+        double closePrice = candles.getClose(lastIndex);
+        for (long flatEndTime = endTime + periodMillis; flatEndTime <= timeMillis; flatEndTime += periodMillis) {
+            lastIndex = candles.addCandle(flatEndTime, closePrice, closePrice, closePrice, closePrice, 0, 0, 0);
+        }
         if (isHistoryTick) {
-            timeFrameStorage.setHistoryIndex(lastIndex + 1);
-        } else {
-            trade(timeFrameStorage, lastIndex);
+            return;
         }
-
-        Tick newCandle = new BaseTick(timeFrame.getFrameDuration(), timeFrame.calculateEndTime(tradeTime));
-        candles.add(newCandle);
-        log.info("New {} {} candle {} - {} with index {} has been created.", currency, timeFrame, newCandle.getBeginTime().toLocalDateTime(), newCandle.getEndTime().toLocalDateTime(), candles.size() - 1);
-        return newCandle;
+        for (int index = firstIndex; index <= lastIndex; index++) {
+            trade(timeFrameStorage, index);
+        }
+        timeFrameStorage.setTradedIndex(Math.max(timeFrameStorage.getTradedIndex(), lastIndex));
     }
 
     private void trade(TimeFrameStorage timeFrameStorage, int index) {
-        List<Tick> candles = timeFrameStorage.getCandles();
-        if (!candles.isEmpty()) {
+        if (!timeFrameStorage.getCandles().isEmpty()) {
             TimeFrame timeFrame = timeFrameStorage.getTimeFrame();
             log.info("Trading on built {} {} candle at index {}", currency, timeFrame, index);
-            strategyExecutor.submit(() -> {
+            int generation = timeFrameStorage.getGeneration();
+            strategyScheduler.submit(currency, timeFrame, () -> {
+                if (timeFrameStorage.getGeneration() != generation) {
+                    log.info("Candles of {} {} were replaced, candle at index {} is not traded", currency, timeFrame, index);
+                    return;
+                }
                 try {
                     onNewCandle(timeFrameStorage, index);
                 } catch (Exception ex) {
@@ -70,10 +98,12 @@ public class NewCandleSupplier implements Supplier<Tick> {
     }
 
     private void onNewCandle(TimeFrameStorage timeFrameStorage, int index) {
-        analyticsStorage.cacheIndex(index);
         TimeFrame timeFrame = timeFrameStorage.getTimeFrame();
+        analyticsStorage.cacheIndex(currency, timeFrame, index);
         log.info("Analyzing new {} {} candle at {}.", currency, timeFrame, index);
-        Tick builtCandle = timeFrameStorage.getCandles().get(index);
+        Tick builtCandle = timeFrameStorage.getCandles().getTimeSeries().getTick(index);
+        // Orders of all the records are netted and sent once every strategy has been evaluated on the candle
+        OrderBatch orderBatch = tradingService.newOrderBatch(currency, task -> strategyScheduler.submit(currency, timeFrame, task));
         for (PoloniexStrategy poloniexStrategy : timeFrameStorage.getActiveStrategies()) {
             log.debug("Executing strategy '{}' on time series {}", poloniexStrategy.getName(), timeFrame);
             List<PoloniexTradingRecord> tradingRecords = poloniexStrategy.getTradingRecords();
@@ -90,27 +120,37 @@ public class NewCandleSupplier implements Supplier<Tick> {
                                 poloniexStrategy.getTradeVolume()));
                 log.debug("Strategy {}/{} trading record {} analytics result {}, processing: {}.", timeFrame, poloniexStrategy.getName(), trIndex, action, poloniexTradingRecord.getProcessing().get());
                 if (TradingAction.shouldPlaceOrder(action)) {
-                    try {
-                        boolean canTrade = (TradingAction.SHOULD_ENTER != action || !onceEntered) && poloniexTradingRecord.getProcessing().compareAndSet(false, true);
-                        log.debug("Strategy '{}' canTrade: {}, onceEntered: {}, processing: {}", poloniexStrategy.getName(), canTrade, onceEntered, poloniexTradingRecord.getProcessing().get());
-                        Optional<PoloniexOrder> resultOrder = Optional.empty();
-                        if (canTrade) {
-                            resultOrder = tradingService.placeOrder(tradingRecord,
-                                    index,
-                                    poloniexStrategy.getDirection(),
-                                    poloniexStrategy.getTradeVolume(),
-                                    isRealPrice);
-                            poloniexTradingRecord.setProcessed();
-                        }
-                        onceEntered |= TradingAction.SHOULD_ENTER == action && resultOrder.isPresent();
+                    boolean canTrade = (TradingAction.SHOULD_ENTER != action || !onceEntered) && poloniexTradingRecord.getProcessing().compareAndSet(false, true);
+                    log.debug("Strategy '{}' canTrade: {}, onceEntered: {}, processing: {}", poloniexStrategy.getName(), canTrade, onceEntered, poloniexTradingRecord.getProcessing().get());
+                    if (canTrade) {
+                        onceEntered |= TradingAction.SHOULD_ENTER == action;
                         log.debug("Strategy '{}' onceEntered flag: {}", poloniexStrategy.getName(), onceEntered);
-                        resultOrder.ifPresent(poloniexTradingRecord::addPoloniexOrder);
-                    } finally {
-                        poloniexTradingRecord.setProcessed();
-                        log.debug("Trading record processing: {}", poloniexTradingRecord.getProcessing().get());
+                        orderBatch.add(tradingRecord,
+                                index,
+                                poloniexStrategy.getDirection(),
+                                poloniexStrategy.getTradeVolume(),
+                                isRealPrice)
+                                .whenComplete((resultOrder, ex) -> onOrderResult(poloniexTradingRecord, resultOrder, ex));
                     }
                 }
             }
         }
+        orderBatch.submit();
+    }
+
+    // A record whose order outcome is unknown stays processing until the order has been reconciled
+    private static void onOrderResult(PoloniexTradingRecord poloniexTradingRecord, PoloniexOrder resultOrder, Throwable ex) {
+        Throwable cause = ex instanceof CompletionException ? ex.getCause() : ex;
+        if (cause instanceof PoloniexOrderOutcomeUnknown) {
+            log.warn("{}, trading record is processing until the order is reconciled", cause.getMessage());
+            ((PoloniexOrderOutcomeUnknown) cause).getReconciled()
+                    .whenComplete((reconciledOrder, reconcileEx) -> onOrderResult(poloniexTradingRecord, reconciledOrder, reconcileEx));
+            return;
+        }
+        if (resultOrder != null) {
+            poloniexTradingRecord.addPoloniexOrder(resultOrder);
+        }
+        poloniexTradingRecord.setProcessed();
+        log.debug("Trading record processing: {}", poloniexTradingRecord.getProcessing().get());
     }
 }
@@ -1,23 +1,29 @@
 package com.crypto.trade.poloniex.storage;
 
-import com.crypto.trade.poloniex.dto.PoloniexHistoryTrade;
 import com.crypto.trade.poloniex.dto.PoloniexTrade;
 import com.crypto.trade.poloniex.services.analytics.CurrencyPair;
-import com.crypto.trade.poloniex.services.utils.DateTimeUtils;
+import com.crypto.trade.poloniex.storage.candles.CandlesBuffer;
+import com.crypto.trade.poloniex.storage.history.TradesCursor;
+import com.crypto.trade.poloniex.storage.market.MarketDataStorage;
+import com.crypto.trade.poloniex.storage.market.MarketSnapshot;
+import com.crypto.trade.poloniex.storage.trades.TradesLog;
+import com.crypto.trade.poloniex.storage.trades.TradesRing;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Scheduled;
 
 import java.math.BigDecimal;
 import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
-import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.ConcurrentSkipListSet;
-import java.util.stream.Collectors;
 
+/**
+ * Last hour of trades per currency pair. Trades are kept in a per minute ring, so they expire continuously as new
+ * minutes start instead of being cleaned in bulk.
+ */
 @Slf4j
 public class TradesStorage {
 
@@ -28,52 +34,112 @@ public class TradesStorage {
 
     @Autowired
     private CandlesStorage candlesStorage;
+    @Autowired
+    private MarketDataStorage marketDataStorage;
 
-    private ConcurrentMap<CurrencyPair, SortedSet<PoloniexTrade>> trades = new ConcurrentHashMap<>();
+    private ConcurrentMap<CurrencyPair, TradesRing> trades = new ConcurrentHashMap<>();
+    // Trades received while the pair candles are rebuilt from history
+    private ConcurrentMap<CurrencyPair, TradesLog> sideLogs = new ConcurrentHashMap<>();
 
     public void addTrade(CurrencyPair currency, PoloniexTrade poloniexTrade) {
+        addTrade(currency,
+                poloniexTrade.getTradeTime().toInstant().toEpochMilli(),
+                poloniexTrade.getTradeId(),
+                Double.parseDouble(poloniexTrade.getRate()),
+                Double.parseDouble(poloniexTrade.getAmount()),
+                "buy".equals(poloniexTrade.getType()));
+    }
+
+    public void addTrade(CurrencyPair currency, long timeMillis, long tradeId, double rate, double amount, boolean buy) {
         initCurrency(currency);
-        SortedSet<PoloniexTrade> instrumentTrades = trades.get(currency);
-        instrumentTrades.add(poloniexTrade);
-        candlesStorage.addTrade(currency, poloniexTrade);
+        trades.get(currency).add(timeMillis, tradeId, rate, amount, buy);
+        marketDataStorage.onTrade(currency, timeMillis, MarketSnapshot.scale(rate));
+        TradesLog sideLog = sideLogs.get(currency);
+        if (sideLog != null) {
+            sideLog.add(timeMillis, tradeId, rate, amount, buy);
+        }
+        candlesStorage.addTrade(currency, timeMillis, amount, rate);
     }
 
+    /**
+     * Copy of the stored trades, to be called on the pair consumer thread.
+     */
     public SortedSet<PoloniexTrade> getTrades(CurrencyPair currencyPair) {
-        return trades.getOrDefault(currencyPair, Collections.emptySortedSet());
+        TradesRing ring = trades.get(currencyPair);
+        if (ring == null) {
+            return Collections.emptySortedSet();
+        }
+        SortedSet<PoloniexTrade> currencyTrades = new TreeSet<>(TRADES_COMPARATOR);
+        TradesCursor cursor = ring.cursor();
+        while (cursor.next()) {
+            BigDecimal rate = BigDecimal.valueOf(cursor.getRate());
+            BigDecimal amount = BigDecimal.valueOf(cursor.getAmount());
+            currencyTrades.add(new PoloniexTrade(cursor.getTradeId(),
+                    ZonedDateTime.ofInstant(Instant.ofEpochMilli(cursor.getTimeMillis()), ZoneOffset.UTC),
+                    amount.toPlainString(),
+                    rate.toPlainString(),
+                    rate.multiply(amount).toPlainString(),
+                    cursor.isBuy() ? "buy" : "sell"));
+        }
+        return currencyTrades;
     }
 
     public void initCurrency(CurrencyPair currency) {
-        trades.computeIfAbsent(currency, s -> new ConcurrentSkipListSet<>(TRADES_COMPARATOR));
+        trades.computeIfAbsent(currency, s -> new TradesRing(MAX_AGE));
     }
 
-    public void addTradesHistory(CurrencyPair currency, List<PoloniexHistoryTrade> items) {
-        Set<PoloniexTrade> currencyTrades = trades.get(currency);
-        currencyTrades.addAll(items.stream()
-                .map(PoloniexTrade::new)
-                .collect(Collectors.toList()));
-        candlesStorage.addTradesHistory(currency, currencyTrades);
+    /**
+     * Starts logging the trades received aside until {@link #finishHistoryRebuild}, to be called on the pair
+     * consumer thread.
+     *
+     * @return copy of the stored trades, to build the candles with
+     */
+    public TradesLog startHistoryRebuild(CurrencyPair currency) {
+        initCurrency(currency);
+        sideLogs.put(currency, new TradesLog());
+        return TradesLog.of(trades.get(currency).cursor());
     }
 
-    public BigDecimal getLastTrade(CurrencyPair currencyPair) {
-        String lastTrade = trades.getOrDefault(currencyPair, new TreeSet<>()).last().getRate();
-        return new BigDecimal(lastTrade);
+    /**
+     * History trades within the trades ring window of the last one, may be run by any thread.
+     */
+    public static TradesLog getRecentTrades(TradesCursor history) {
+        TradesRing ring = new TradesRing(MAX_AGE);
+        while (history.next()) {
+            ring.add(history.getTimeMillis(), history.getTradeId(), history.getRate(), history.getAmount(), history.isBuy());
+        }
+        return TradesLog.of(ring.cursor());
     }
 
-    @Scheduled(fixedRate = 600000)
-    public void cleanTrades() {
-        candlesStorage.getCurrencies().forEach(currencyPair -> {
-            log.info("Cleaning {} stale trades.", currencyPair);
-            ZonedDateTime minTime = DateTimeUtils.now().minus(MAX_AGE).truncatedTo(ChronoUnit.MINUTES);
-            SortedSet<PoloniexTrade> currencyTrades = getTrades(currencyPair);
-            SortedSet<PoloniexTrade> staleTrades = currencyTrades.stream()
-                    .filter(t -> t.getTradeTime().compareTo(minTime) < 0)
-                    .collect(Collectors.toCollection(() -> new TreeSet<>(TradesStorage.TRADES_COMPARATOR)));
+    /**
+     * Installs the candles built from the history and the trades copied at the rebuild start, then applies the trades
+     * logged aside meanwhile and keeps the recent history. To be called on the pair consumer thread.
+     *
+     * @param history recent history trades, see {@link #getRecentTrades}
+     */
+    public void finishHistoryRebuild(CurrencyPair currency, TradesCursor history, List<CandlesBuffer> candles) {
+        TradesLog sideLog = sideLogs.remove(currency);
+        TradesRing ring = trades.get(currency);
+        long lastTime = Long.MIN_VALUE;
+        long lastTradeId = Long.MIN_VALUE;
+        double lastRate = Double.NaN;
+        while (history.next()) {
+            ring.add(history.getTimeMillis(), history.getTradeId(), history.getRate(), history.getAmount(), history.isBuy());
+            lastTime = history.getTimeMillis();
+            lastTradeId = Math.max(lastTradeId, history.getTradeId());
+            lastRate = history.getRate();
+        }
+        // Trades logged aside may also be in the history loaded meanwhile
+        candlesStorage.installCandles(currency, candles, (sideLog != null ? sideLog : new TradesLog()).cursorAfter(lastTradeId));
+        if (!Double.isNaN(lastRate)) {
+            marketDataStorage.onHistoryTrade(currency, lastTime, MarketSnapshot.scale(lastRate));
+        }
+    }
 
-            int staleElementsCount = staleTrades.size();
-            log.info("Found {} trades older than {}.", staleElementsCount, minTime);
-            if (staleElementsCount > 0) {
-                currencyTrades.removeAll(staleTrades);
-            }
-        });
+    /**
+     * Stops logging the trades aside when the rebuild failed, the live candles are kept.
+     */
+    public void cancelHistoryRebuild(CurrencyPair currency) {
+        sideLogs.remove(currency);
     }
 }
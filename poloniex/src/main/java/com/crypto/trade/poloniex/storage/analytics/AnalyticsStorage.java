@@ -3,19 +3,22 @@ package com.crypto.trade.poloniex.storage.analytics;
 import com.crypto.trade.poloniex.config.properties.PoloniexProperties;
 import com.crypto.trade.poloniex.services.analytics.CurrencyPair;
 import com.crypto.trade.poloniex.services.analytics.TimeFrame;
+import com.crypto.trade.poloniex.services.analytics.indicators.StreamingIndicator;
 import com.crypto.trade.poloniex.storage.CandlesStorage;
 import eu.verdelhan.ta4j.Decimal;
 import eu.verdelhan.ta4j.Indicator;
-import eu.verdelhan.ta4j.Tick;
-import eu.verdelhan.ta4j.indicators.RecursiveCachedIndicator;
+import eu.verdelhan.ta4j.TimeSeries;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import javax.annotation.PostConstruct;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.EnumMap;
-import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.BiFunction;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 public class AnalyticsStorage {
 
@@ -25,10 +28,29 @@ public class AnalyticsStorage {
     private CandlesStorage candlesStorage;
 
     private Map<CurrencyPair, Map<TimeFrame, IndicatorsStorage>> cache = new EnumMap<>(CurrencyPair.class);
+    private BiFunction<CurrencyPair, TimeFrame, TimeSeries> candlesSource;
+
+    public AnalyticsStorage() {
+    }
+
+    /**
+     * Indicators built on the given candles instead of the {@link CandlesStorage} ones, e.g. for a backtest.
+     */
+    public AnalyticsStorage(Collection<CurrencyPair> currencies, BiFunction<CurrencyPair, TimeFrame, TimeSeries> candlesSource) {
+        this.candlesSource = candlesSource;
+        initCache(currencies);
+    }
 
     @PostConstruct
     public void postConstruct() {
-        properties.getCurrencies().forEach(currencyPair -> {
+        candlesSource = (currencyPair, timeFrame) -> candlesStorage.getTimeFrameStorage(currencyPair, timeFrame)
+                .getCandles()
+                .getTimeSeries();
+        initCache(properties.getCurrencies());
+    }
+
+    private void initCache(Collection<CurrencyPair> currencies) {
+        currencies.forEach(currencyPair -> {
             for (TimeFrame timeFrame : TimeFrame.values()) {
                 cache.compute(currencyPair, (key, value) -> {
                     Map<TimeFrame, IndicatorsStorage> indicators = Optional.ofNullable(value)
@@ -44,17 +66,33 @@ public class AnalyticsStorage {
                                                          TimeFrame timeFrame,
                                                          IndicatorType type) {
         IndicatorsStorage storage = cache.get(currencyPair).get(timeFrame);
-        List<Tick> candles = candlesStorage.getData1(currencyPair).get(timeFrame).getCandles();
+        TimeSeries candles = candlesSource.apply(currencyPair, timeFrame);
         Supplier<T> factory = () -> IndicatorFactory.createIndicator(type, candles, storage);
         return storage.getIndicator(type, factory);
     }
 
-    public void cacheIndex(int index) {
-        cache.values()
-                .stream()
-                .flatMap(timeFrames -> timeFrames.values().stream())
-                .flatMap(indicatorStorage -> indicatorStorage.getIndicators().values().stream())
-                .filter(indicator -> indicator instanceof RecursiveCachedIndicator)
-                .forEach(indicator -> indicator.getValue(index));
+    /**
+     * Commits the closed candle to the streaming indicators of the time frame.
+     */
+    public void cacheIndex(CurrencyPair currencyPair, TimeFrame timeFrame, int index) {
+        getStreamingIndicators(currencyPair, timeFrame).forEach(indicator -> indicator.getValue(index));
+    }
+
+    /**
+     * Drops the streaming indicators values committed from the changed closed candle on.
+     */
+    public void invalidateIndicators(CurrencyPair currencyPair, TimeFrame timeFrame, int index) {
+        getStreamingIndicators(currencyPair, timeFrame).forEach(indicator -> indicator.invalidate(index));
+    }
+
+    public void resetIndicators(CurrencyPair currencyPair, TimeFrame timeFrame) {
+        getStreamingIndicators(currencyPair, timeFrame).forEach(StreamingIndicator::reset);
+    }
+
+    private Stream<StreamingIndicator> getStreamingIndicators(CurrencyPair currencyPair, TimeFrame timeFrame) {
+        IndicatorsStorage storage = cache.getOrDefault(currencyPair, Collections.emptyMap()).get(timeFrame);
+        return storage == null ? Stream.empty() : storage.getIndicators().values().stream()
+                .filter(indicator -> indicator instanceof StreamingIndicator)
+                .map(indicator -> (StreamingIndicator) indicator);
     }
 }
@@ -1,15 +1,11 @@
 package com.crypto.trade.poloniex.storage.analytics;
 
-import com.crypto.trade.poloniex.services.analytics.indicators.CachedDoubleEMAIndicator;
-import com.crypto.trade.poloniex.services.analytics.indicators.CachedTripleEMAIndicator;
-import eu.verdelhan.ta4j.*;
-import eu.verdelhan.ta4j.indicators.EMAIndicator;
-import eu.verdelhan.ta4j.indicators.RSIIndicator;
-import eu.verdelhan.ta4j.indicators.StochasticOscillatorDIndicator;
-import eu.verdelhan.ta4j.indicators.StochasticOscillatorKIndicator;
+import com.crypto.trade.poloniex.services.analytics.indicators.*;
+import eu.verdelhan.ta4j.Decimal;
+import eu.verdelhan.ta4j.Indicator;
+import eu.verdelhan.ta4j.TimeSeries;
 import eu.verdelhan.ta4j.indicators.helpers.ClosePriceIndicator;
 
-import java.util.List;
 import java.util.function.Supplier;
 
 import static com.crypto.trade.poloniex.storage.analytics.IndicatorType.*;
@@ -17,36 +13,33 @@ import static com.crypto.trade.poloniex.storage.analytics.IndicatorType.*;
 public class IndicatorFactory {
 
     @SuppressWarnings("unchecked")
-    public static <T extends Indicator<Decimal>> T createIndicator(IndicatorType indicatorType, List<Tick> candles, IndicatorsStorage storage) {
-        TimeSeries timeSeries = new BaseTimeSeries(candles);
+    public static <T extends Indicator<Decimal>> T createIndicator(IndicatorType indicatorType, TimeSeries candles, IndicatorsStorage storage) {
         switch (indicatorType) {
             case CLOSED_PRICE:
-                return (T) new ClosePriceIndicator(timeSeries);
+                return (T) new StreamingClosePriceIndicator(candles);
             case RSI14:
-                return (T) new RSIIndicator(getClosePriceIndicator(candles, storage), 14);
+                return (T) new StreamingRSIIndicator(getClosePriceIndicator(candles, storage), 14);
             case STOCHK14:
-                return (T) new StochasticOscillatorKIndicator(timeSeries, 14);
+                return (T) new StreamingStochasticKIndicator(candles, 14);
             case STOCHD3:
-                return (T) new StochasticOscillatorDIndicator(storage.getIndicator(STOCHK14, createSupplier(STOCHK14, candles, storage)));
+                return (T) new StreamingStochasticDIndicator(storage.getIndicator(STOCHK14, createSupplier(STOCHK14, candles, storage)));
             case EMA5:
-                return (T) new EMAIndicator(getClosePriceIndicator(candles, storage), 5);
+                return (T) new StreamingEMAIndicator(getClosePriceIndicator(candles, storage), 5);
             case EMA90:
-                return (T) new EMAIndicator(getClosePriceIndicator(candles, storage), 90);
+                return (T) new StreamingEMAIndicator(getClosePriceIndicator(candles, storage), 90);
             case EMA100:
-                return (T) new EMAIndicator(getClosePriceIndicator(candles, storage), 100);
+                return (T) new StreamingEMAIndicator(getClosePriceIndicator(candles, storage), 100);
             case EMA540:
-                return (T) new EMAIndicator(getClosePriceIndicator(candles, storage), 540);
+                return (T) new StreamingEMAIndicator(getClosePriceIndicator(candles, storage), 540);
             case EMA_EMA90:
-                return (T) new EMAIndicator(storage.getIndicator(EMA90, createSupplier(EMA90, candles, storage)), 90);
+                return (T) new StreamingEMAIndicator(storage.getIndicator(EMA90, createSupplier(EMA90, candles, storage)), 90);
             case DMA90:
-                return (T) new CachedDoubleEMAIndicator(getClosePriceIndicator(candles, storage),
-                        storage.getIndicator(EMA90, createSupplier(EMA90, candles, storage)),
+                return (T) new CachedDoubleEMAIndicator(storage.getIndicator(EMA90, createSupplier(EMA90, candles, storage)),
                         storage.getIndicator(EMA_EMA90, createSupplier(EMA_EMA90, candles, storage)));
             case EMA_EMA_EMA90:
-                return (T) new EMAIndicator(storage.getIndicator(EMA_EMA90, createSupplier(EMA_EMA90, candles, storage)), 90);
+                return (T) new StreamingEMAIndicator(storage.getIndicator(EMA_EMA90, createSupplier(EMA_EMA90, candles, storage)), 90);
             case TMA90:
-                return (T) new CachedTripleEMAIndicator(getClosePriceIndicator(candles, storage),
-                        storage.getIndicator(EMA90, createSupplier(EMA90, candles, storage)),
+                return (T) new CachedTripleEMAIndicator(storage.getIndicator(EMA90, createSupplier(EMA90, candles, storage)),
                         storage.getIndicator(EMA_EMA90, createSupplier(EMA_EMA90, candles, storage)),
                         storage.getIndicator(EMA_EMA_EMA90, createSupplier(EMA_EMA_EMA90, candles, storage)));
             default:
@@ -54,11 +47,11 @@ public class IndicatorFactory {
         }
     }
 
-    public static <T> Supplier<T> createSupplier(IndicatorType type, List<Tick> candles, IndicatorsStorage storage) {
+    public static <T> Supplier<T> createSupplier(IndicatorType type, TimeSeries candles, IndicatorsStorage storage) {
         return () -> IndicatorFactory.createIndicator(type, candles, storage);
     }
 
-    private static ClosePriceIndicator getClosePriceIndicator(List<Tick> candles, IndicatorsStorage storage) {
+    private static ClosePriceIndicator getClosePriceIndicator(TimeSeries candles, IndicatorsStorage storage) {
         return storage.getIndicator(CLOSED_PRICE,
                 () -> IndicatorFactory.createIndicator(CLOSED_PRICE, candles, storage));
     }
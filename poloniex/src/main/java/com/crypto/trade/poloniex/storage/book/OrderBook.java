@@ -0,0 +1,119 @@
+package com.crypto.trade.poloniex.storage.book;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Order book of a currency pair built from the channel snapshot and its incremental updates, prices and amounts
+ * are scaled longs. Updated by the ws thread, queried by the order pricing. A sequence gap leaves the book out of
+ * sync until the next snapshot, which {@link com.crypto.trade.poloniex.services.ws.WsOrderBooks} loads from the
+ * public API while buffering the updates.
+ */
+@Slf4j
+public class OrderBook {
+
+    private final StampedLock lock = new StampedLock();
+    private final OrderBookSide bids = new OrderBookSide(true);
+    private final OrderBookSide asks = new OrderBookSide(false);
+    private long sequence = -1;
+    private boolean synced;
+
+    public void onSnapshot(long snapshotSequence) {
+        long stamp = lock.writeLock();
+        try {
+            bids.clear();
+            asks.clear();
+            sequence = snapshotSequence;
+            synced = true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @return true when the best bid or ask price has changed
+     */
+    public boolean onUpdate(long updateSequence, boolean bid, long price, long amount) {
+        long stamp = lock.writeLock();
+        try {
+            if (synced && updateSequence != sequence && updateSequence != sequence + 1) {
+                log.warn("Order book sequence gap {} - {}, waiting for a new snapshot", sequence, updateSequence);
+                synced = false;
+            }
+            sequence = updateSequence;
+            return (bid ? bids : asks).update(price, amount);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public boolean isSynced() {
+        long stamp = lock.readLock();
+        try {
+            return synced;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @return best bid price or 0 without bids
+     */
+    public long getBestBid() {
+        long stamp = lock.readLock();
+        try {
+            return bids.getBestPrice();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @return best ask price or 0 without asks
+     */
+    public long getBestAsk() {
+        long stamp = lock.readLock();
+        try {
+            return asks.getBestPrice();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @return amount of the best price levels of the side
+     */
+    public long getDepth(boolean bid, int levels) {
+        long stamp = lock.readLock();
+        try {
+            return (bid ? bids : asks).getDepth(levels);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @return average price of filling the amount against the side, NaN when the side is not deep enough
+     */
+    public double getVwap(boolean bid, long amount) {
+        long stamp = lock.readLock();
+        try {
+            return (bid ? bids : asks).getVwap(amount);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @return limit price filling the whole amount against the side, 0 when the side is not deep enough
+     */
+    public long getLimitPrice(boolean bid, long amount) {
+        long stamp = lock.readLock();
+        try {
+            return (bid ? bids : asks).getLimitPrice(amount);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+}
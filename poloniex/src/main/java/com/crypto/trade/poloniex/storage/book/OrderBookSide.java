@@ -0,0 +1,109 @@
+package com.crypto.trade.poloniex.storage.book;
+
+import java.util.Arrays;
+
+/**
+ * Price levels of one order book side in primitive arrays. Levels are sorted so that the best price is the last one,
+ * since most updates touch the top of the book and then shift only a few levels.
+ */
+class OrderBookSide {
+
+    private static final int INITIAL_SIZE = 256;
+
+    private final boolean bid;
+    // Bid prices ascending, ask prices negated so that the lowest ask comes last as well
+    private long[] keys = new long[INITIAL_SIZE];
+    private long[] amounts = new long[INITIAL_SIZE];
+    private int size;
+
+    OrderBookSide(boolean bid) {
+        this.bid = bid;
+    }
+
+    /**
+     * @return true when the best price has changed
+     */
+    boolean update(long price, long amount) {
+        long key = bid ? price : -price;
+        int index = Arrays.binarySearch(keys, 0, size, key);
+        if (index >= 0) {
+            if (amount > 0) {
+                amounts[index] = amount;
+                return false;
+            }
+            System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+            System.arraycopy(amounts, index + 1, amounts, index, size - index - 1);
+            size--;
+            return index == size;
+        }
+        if (amount <= 0) {
+            return false;
+        }
+        int insertion = -index - 1;
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            amounts = Arrays.copyOf(amounts, size * 2);
+        }
+        System.arraycopy(keys, insertion, keys, insertion + 1, size - insertion);
+        System.arraycopy(amounts, insertion, amounts, insertion + 1, size - insertion);
+        keys[insertion] = key;
+        amounts[insertion] = amount;
+        size++;
+        return insertion == size - 1;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return best price or 0 when the side is empty
+     */
+    long getBestPrice() {
+        return size == 0 ? 0 : getPrice(size - 1);
+    }
+
+    long getDepth(int levels) {
+        long depth = 0;
+        for (int index = size - 1; index >= Math.max(0, size - levels); index--) {
+            depth += amounts[index];
+        }
+        return depth;
+    }
+
+    /**
+     * @return average price filling the amount from the top of the book, NaN when the side is not deep enough
+     */
+    double getVwap(long amount) {
+        double cost = 0;
+        long remaining = amount;
+        for (int index = size - 1; index >= 0 && remaining > 0; index--) {
+            long filled = Math.min(remaining, amounts[index]);
+            cost += (double) filled * getPrice(index);
+            remaining -= filled;
+        }
+        return remaining > 0 || amount <= 0 ? Double.NaN : cost / amount;
+    }
+
+    /**
+     * @return worst price reached filling the amount from the top of the book, 0 when the side is not deep enough
+     */
+    long getLimitPrice(long amount) {
+        long remaining = amount;
+        for (int index = size - 1; index >= 0; index--) {
+            remaining -= amounts[index];
+            if (remaining <= 0) {
+                return getPrice(index);
+            }
+        }
+        return 0;
+    }
+
+    private long getPrice(int index) {
+        return bid ? keys[index] : -keys[index];
+    }
+}
@@ -0,0 +1,46 @@
+package com.crypto.trade.poloniex.storage.book;
+
+import com.crypto.trade.poloniex.services.analytics.CurrencyPair;
+import com.crypto.trade.poloniex.storage.market.MarketDataStorage;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Order books per currency pair, every top of book change is published to the {@link MarketDataStorage}.
+ */
+public class OrderBookStorage {
+
+    @Autowired
+    private MarketDataStorage marketDataStorage;
+
+    private final ConcurrentMap<CurrencyPair, OrderBook> orderBooks = new ConcurrentHashMap<>();
+
+    public void onSnapshot(CurrencyPair currencyPair, long sequence) {
+        getOrCreate(currencyPair).onSnapshot(sequence);
+    }
+
+    /**
+     * @return false when the order book is out of sync and needs a new snapshot
+     */
+    public boolean onUpdate(CurrencyPair currencyPair, long sequence, boolean bid, long price, long amount) {
+        OrderBook orderBook = getOrCreate(currencyPair);
+        if (orderBook.onUpdate(sequence, bid, price, amount)) {
+            marketDataStorage.onQuote(currencyPair, System.currentTimeMillis(), orderBook.getBestBid(), orderBook.getBestAsk());
+        }
+        return orderBook.isSynced();
+    }
+
+    /**
+     * @return order book or null when the currency pair has no order book yet
+     */
+    public OrderBook getOrderBook(CurrencyPair currencyPair) {
+        return orderBooks.get(currencyPair);
+    }
+
+    private OrderBook getOrCreate(CurrencyPair currencyPair) {
+        OrderBook orderBook = orderBooks.get(currencyPair);
+        return orderBook != null ? orderBook : orderBooks.computeIfAbsent(currencyPair, c -> new OrderBook());
+    }
+}
@@ -0,0 +1,95 @@
+package com.crypto.trade.poloniex.storage.candles;
+
+import com.crypto.trade.poloniex.services.utils.CalculationsUtils;
+import eu.verdelhan.ta4j.Decimal;
+import eu.verdelhan.ta4j.Tick;
+import lombok.EqualsAndHashCode;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+@EqualsAndHashCode(of = {"candles", "index"})
+public class CandleTick implements Tick {
+
+    private final CandlesBuffer candles;
+    private final int index;
+
+    public CandleTick(CandlesBuffer candles, int index) {
+        this.candles = candles;
+        this.index = index;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    @Override
+    public Decimal getOpenPrice() {
+        return CalculationsUtils.toDecimal(candles.getOpen(index));
+    }
+
+    @Override
+    public Decimal getMinPrice() {
+        return CalculationsUtils.toDecimal(candles.getLow(index));
+    }
+
+    @Override
+    public Decimal getMaxPrice() {
+        return CalculationsUtils.toDecimal(candles.getHigh(index));
+    }
+
+    @Override
+    public Decimal getClosePrice() {
+        return CalculationsUtils.toDecimal(candles.getClose(index));
+    }
+
+    @Override
+    public Decimal getVolume() {
+        return CalculationsUtils.toDecimal(candles.getVolume(index));
+    }
+
+    @Override
+    public int getTrades() {
+        return candles.getTrades(index);
+    }
+
+    @Override
+    public Decimal getAmount() {
+        return CalculationsUtils.toDecimal(candles.getAmount(index));
+    }
+
+    @Override
+    public Duration getTimePeriod() {
+        return candles.getTimePeriod();
+    }
+
+    @Override
+    public ZonedDateTime getBeginTime() {
+        return ZonedDateTime.ofInstant(Instant.ofEpochMilli(candles.getBeginTime(index)), ZoneOffset.UTC);
+    }
+
+    @Override
+    public ZonedDateTime getEndTime() {
+        return ZonedDateTime.ofInstant(Instant.ofEpochMilli(candles.getEndTime(index)), ZoneOffset.UTC);
+    }
+
+    @Override
+    public boolean inPeriod(ZonedDateTime timestamp) {
+        long time = timestamp.toInstant().toEpochMilli();
+        return time >= candles.getBeginTime(index) && time < candles.getEndTime(index);
+    }
+
+    @Override
+    public void addTrade(Decimal tradeVolume, Decimal tradePrice) {
+        candles.addTrade(index, tradeVolume.toDouble(), tradePrice.toDouble());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("{end time: %1s, close price: %2$f, open price: %3$f, min price: %4$f, max price: %5$f, volume: %6$f}",
+                getEndTime().withZoneSameInstant(ZoneOffset.UTC), candles.getClose(index), candles.getOpen(index),
+                candles.getLow(index), candles.getHigh(index), candles.getVolume(index));
+    }
+}
@@ -0,0 +1,269 @@
+package com.crypto.trade.poloniex.storage.candles;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Bounded candles store kept in primitive columns. Candles are addressed by absolute index (the one ta4j
+ * indicators use), the oldest candles are evicted once the capacity is reached.
+ */
+public class CandlesBuffer {
+
+    private static final int INITIAL_SIZE = 128;
+
+    private final String name;
+    private final Duration timePeriod;
+    private final long periodMillis;
+    private final int capacity;
+    private final CandlesTimeSeries timeSeries;
+
+    private long[] endTime;
+    private double[] open;
+    private double[] high;
+    private double[] low;
+    private double[] close;
+    private double[] volume;
+    private double[] amount;
+    private int[] trades;
+    private volatile int count;
+
+    public CandlesBuffer(String name, Duration timePeriod, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Candles capacity must be strictly positive");
+        }
+        this.name = name;
+        this.timePeriod = timePeriod;
+        this.periodMillis = timePeriod.toMillis();
+        this.capacity = capacity;
+        this.timeSeries = new CandlesTimeSeries(this);
+        allocate(Math.min(INITIAL_SIZE, capacity));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Duration getTimePeriod() {
+        return timePeriod;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public CandlesTimeSeries getTimeSeries() {
+        return timeSeries;
+    }
+
+    public int getRemovedCount() {
+        return Math.max(0, count - capacity);
+    }
+
+    public int getBeginIndex() {
+        return getRemovedCount();
+    }
+
+    public int getEndIndex() {
+        return count - 1;
+    }
+
+    public int size() {
+        return count - getRemovedCount();
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public boolean contains(int index) {
+        return index >= getRemovedCount() && index < count;
+    }
+
+    public int addCandle(long endTimeMillis) {
+        return addCandle(endTimeMillis, Double.NaN, Double.NaN, Double.NaN, Double.NaN, 0, 0, 0);
+    }
+
+    public int addCandle(long endTimeMillis, double openPrice, double maxPrice, double minPrice, double closePrice,
+                         double candleVolume, double candleAmount, int tradesCount) {
+        int index = count;
+        if (index == endTime.length && endTime.length < capacity) {
+            allocate(Math.min(capacity, endTime.length * 2));
+        }
+        int slot = index % endTime.length;
+        endTime[slot] = endTimeMillis;
+        open[slot] = openPrice;
+        high[slot] = maxPrice;
+        low[slot] = minPrice;
+        close[slot] = closePrice;
+        volume[slot] = candleVolume;
+        amount[slot] = candleAmount;
+        trades[slot] = tradesCount;
+        count = index + 1;
+        return index;
+    }
+
+    public void addTrade(int index, double tradeVolume, double tradePrice) {
+        int slot = slot(index);
+        if (trades[slot] == 0) {
+            open[slot] = tradePrice;
+            high[slot] = tradePrice;
+            low[slot] = tradePrice;
+        } else {
+            high[slot] = Math.max(high[slot], tradePrice);
+            low[slot] = Math.min(low[slot], tradePrice);
+        }
+        close[slot] = tradePrice;
+        volume[slot] += tradeVolume;
+        amount[slot] += tradeVolume * tradePrice;
+        trades[slot]++;
+    }
+
+    /**
+     * Aggregates a closed candle of a shorter time frame into the candle, the same way its trades would be.
+     */
+    public void mergeCandle(int index, CandlesBuffer source, int sourceIndex) {
+        int slot = slot(index);
+        int sourceTrades = source.getTrades(sourceIndex);
+        if (sourceTrades == 0) {
+            // A flat candle only prices a candle without trades
+            if (trades[slot] == 0) {
+                double price = source.getClose(sourceIndex);
+                open[slot] = price;
+                high[slot] = price;
+                low[slot] = price;
+                close[slot] = price;
+            }
+            return;
+        }
+        if (trades[slot] == 0) {
+            open[slot] = source.getOpen(sourceIndex);
+            high[slot] = source.getHigh(sourceIndex);
+            low[slot] = source.getLow(sourceIndex);
+        } else {
+            high[slot] = Math.max(high[slot], source.getHigh(sourceIndex));
+            low[slot] = Math.min(low[slot], source.getLow(sourceIndex));
+        }
+        close[slot] = source.getClose(sourceIndex);
+        volume[slot] += source.getVolume(sourceIndex);
+        amount[slot] += source.getAmount(sourceIndex);
+        trades[slot] += sourceTrades;
+    }
+
+    /**
+     * Looks for the candle containing the time. Candles of consecutive periods are addressed by their distance to the
+     * last candle, others are binary searched.
+     *
+     * @return candle index or -1 when no candle found
+     */
+    public int findIndex(long timeMillis) {
+        int lastIndex = count - 1;
+        int firstIndex = getRemovedCount();
+        if (lastIndex < firstIndex || timeMillis >= getEndTime(lastIndex)) {
+            return -1;
+        }
+        long distance = (getEndTime(lastIndex) - 1 - timeMillis) / periodMillis;
+        if (distance <= lastIndex - firstIndex) {
+            int index = lastIndex - (int) distance;
+            if (inCandle(index, timeMillis)) {
+                return index;
+            }
+        }
+        int low = firstIndex;
+        int high = lastIndex;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (getEndTime(middle) > timeMillis) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return inCandle(low, timeMillis) ? low : -1;
+    }
+
+    private boolean inCandle(int index, long timeMillis) {
+        long candleEnd = getEndTime(index);
+        return timeMillis < candleEnd && timeMillis >= candleEnd - periodMillis;
+    }
+
+    public long getEndTime(int index) {
+        return endTime[slot(index)];
+    }
+
+    public long getBeginTime(int index) {
+        return getEndTime(index) - periodMillis;
+    }
+
+    public double getOpen(int index) {
+        return open[slot(index)];
+    }
+
+    public double getHigh(int index) {
+        return high[slot(index)];
+    }
+
+    public double getLow(int index) {
+        return low[slot(index)];
+    }
+
+    public double getClose(int index) {
+        return close[slot(index)];
+    }
+
+    public double getVolume(int index) {
+        return volume[slot(index)];
+    }
+
+    public double getAmount(int index) {
+        return amount[slot(index)];
+    }
+
+    public int getTrades(int index) {
+        return trades[slot(index)];
+    }
+
+    /**
+     * Replaces the candles with the source ones, keeping their indexes. The oldest candles beyond the capacity are
+     * evicted.
+     */
+    public void copyFrom(CandlesBuffer source) {
+        int sourceCount = source.count;
+        allocate(Math.min(capacity, Math.max(INITIAL_SIZE, sourceCount)));
+        for (int index = Math.max(source.getBeginIndex(), sourceCount - capacity); index < sourceCount; index++) {
+            int slot = index % endTime.length;
+            int sourceSlot = source.slot(index);
+            endTime[slot] = source.endTime[sourceSlot];
+            open[slot] = source.open[sourceSlot];
+            high[slot] = source.high[sourceSlot];
+            low[slot] = source.low[sourceSlot];
+            close[slot] = source.close[sourceSlot];
+            volume[slot] = source.volume[sourceSlot];
+            amount[slot] = source.amount[sourceSlot];
+            trades[slot] = source.trades[sourceSlot];
+        }
+        count = sourceCount;
+    }
+
+    public void clear() {
+        count = 0;
+    }
+
+    private int slot(int index) {
+        if (!contains(index)) {
+            throw new IndexOutOfBoundsException("Candles " + name + ": " + size() + " candles, "
+                    + getRemovedCount() + " removed, index = " + index);
+        }
+        return index % endTime.length;
+    }
+
+    private void allocate(int size) {
+        endTime = endTime == null ? new long[size] : Arrays.copyOf(endTime, size);
+        open = open == null ? new double[size] : Arrays.copyOf(open, size);
+        high = high == null ? new double[size] : Arrays.copyOf(high, size);
+        low = low == null ? new double[size] : Arrays.copyOf(low, size);
+        close = close == null ? new double[size] : Arrays.copyOf(close, size);
+        volume = volume == null ? new double[size] : Arrays.copyOf(volume, size);
+        amount = amount == null ? new double[size] : Arrays.copyOf(amount, size);
+        trades = trades == null ? new int[size] : Arrays.copyOf(trades, size);
+    }
+}
@@ -0,0 +1,169 @@
+package com.crypto.trade.poloniex.storage.candles;
+
+import com.crypto.trade.poloniex.services.analytics.TimeFrame;
+import com.crypto.trade.poloniex.services.backtest.HistoryTrades;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Builds the candles of a trades history in parallel. The trades are split into ranges aggregated on their own, then
+ * the ranges are joined in time order: the candle two ranges share is merged and periods without trades get flat
+ * candles, as the live candles do. Longer time frames are rolled up from the built candles.
+ */
+public class CandlesBuilder {
+
+    private static final int RANGE_TRADES = 1 << 16;
+
+    private final HistoryTrades trades;
+    private final ForkJoinPool pool;
+    private final int rangeTrades;
+
+    public CandlesBuilder(HistoryTrades trades, ForkJoinPool pool) {
+        this(trades, pool, RANGE_TRADES);
+    }
+
+    CandlesBuilder(HistoryTrades trades, ForkJoinPool pool, int rangeTrades) {
+        this.trades = trades;
+        this.pool = pool;
+        this.rangeTrades = rangeTrades;
+    }
+
+    /**
+     * Builds the candles of the time frames, by increasing duration and each one dividing the next. The shortest
+     * time frame candles are built from the trades, the longer ones are rolled up from them in parallel.
+     *
+     * @return candles of every time frame in the same order, none evicted
+     */
+    public List<CandlesBuffer> build(List<TimeFrame> timeFrames) {
+        CandlesBuffer candles = build(timeFrames.get(0));
+        if (candles.isEmpty()) {
+            return timeFrames.stream().map(CandlesBuilder::emptyCandles).collect(Collectors.toList());
+        }
+        // Live candles are rolled up once the shorter ones close, only the last candle is still in progress
+        long closeTime = candles.getBeginTime(candles.getEndIndex());
+        List<CandlesBuffer> rolledUp = pool.submit(() -> IntStream.range(1, timeFrames.size())
+                .parallel()
+                .mapToObj(level -> rollUp(candles, timeFrames.get(level), periodBegin(timeFrames.get(level - 1), closeTime)))
+                .collect(Collectors.toList()))
+                .join();
+        List<CandlesBuffer> cascade = new ArrayList<>(timeFrames.size());
+        cascade.add(candles);
+        cascade.addAll(rolledUp);
+        return cascade;
+    }
+
+    /**
+     * @return candles of every period from the first trade to the last one, none evicted
+     */
+    public CandlesBuffer build(TimeFrame timeFrame) {
+        if (trades.size() == 0) {
+            return emptyCandles(timeFrame);
+        }
+        List<CandlesBuffer> ranges = pool.invoke(new RangeTask(timeFrame, 0, trades.size()));
+        CandlesBuffer candles = newCandles(timeFrame, trades.getTime(0), trades.getTime(trades.size() - 1));
+        ranges.forEach(range -> append(candles, timeFrame, range, range.getEndIndex()));
+        return candles;
+    }
+
+    // Rolls up the candles ended by the last close of the next shorter time frame
+    private static CandlesBuffer rollUp(CandlesBuffer candles, TimeFrame timeFrame, long closeTime) {
+        int lastIndex = candles.getEndIndex();
+        while (lastIndex >= candles.getBeginIndex() && candles.getEndTime(lastIndex) > closeTime) {
+            lastIndex--;
+        }
+        if (lastIndex < candles.getBeginIndex()) {
+            return emptyCandles(timeFrame);
+        }
+        CandlesBuffer rolledUp = newCandles(timeFrame, candles.getBeginTime(candles.getBeginIndex()), candles.getBeginTime(lastIndex));
+        append(rolledUp, timeFrame, candles, lastIndex);
+        return rolledUp;
+    }
+
+    private CandlesBuffer aggregate(TimeFrame timeFrame, int from, int to) {
+        CandlesBuffer candles = newCandles(timeFrame, trades.getTime(from), trades.getTime(to - 1));
+        long periodMillis = timeFrame.getDurationMillis();
+        long endTime = Long.MIN_VALUE;
+        int index = -1;
+        for (int i = from; i < to; i++) {
+            long time = trades.getTime(i);
+            if (time >= endTime) {
+                long candleEnd = timeFrame.calculateEndMillis(time);
+                if (index >= 0) {
+                    double closePrice = candles.getClose(index);
+                    for (long flatEndTime = endTime + periodMillis; flatEndTime < candleEnd; flatEndTime += periodMillis) {
+                        candles.addCandle(flatEndTime, closePrice, closePrice, closePrice, closePrice, 0, 0, 0);
+                    }
+                }
+                endTime = candleEnd;
+                index = candles.addCandle(endTime);
+            }
+            candles.addTrade(index, trades.getAmount(i), trades.getRate(i));
+        }
+        return candles;
+    }
+
+    // Source candles are merged into the candle of their period, the periods in between get flat candles
+    private static void append(CandlesBuffer candles, TimeFrame timeFrame, CandlesBuffer source, int lastIndex) {
+        long periodMillis = timeFrame.getDurationMillis();
+        for (int index = source.getBeginIndex(); index <= lastIndex; index++) {
+            long endTime = timeFrame.calculateEndMillis(source.getBeginTime(index));
+            int candleIndex = candles.getEndIndex();
+            if (candles.isEmpty() || candles.getEndTime(candleIndex) != endTime) {
+                if (!candles.isEmpty()) {
+                    double closePrice = candles.getClose(candleIndex);
+                    for (long flatEndTime = candles.getEndTime(candleIndex) + periodMillis; flatEndTime < endTime; flatEndTime += periodMillis) {
+                        candles.addCandle(flatEndTime, closePrice, closePrice, closePrice, closePrice, 0, 0, 0);
+                    }
+                }
+                candleIndex = candles.addCandle(endTime);
+            }
+            candles.mergeCandle(candleIndex, source, index);
+        }
+    }
+
+    private static long periodBegin(TimeFrame timeFrame, long timeMillis) {
+        return timeFrame.getBucket(timeMillis) * timeFrame.getDurationMillis();
+    }
+
+    private static CandlesBuffer emptyCandles(TimeFrame timeFrame) {
+        return new CandlesBuffer(timeFrame.name(), timeFrame.getFrameDuration(), 1);
+    }
+
+    private static CandlesBuffer newCandles(TimeFrame timeFrame, long firstTime, long lastTime) {
+        long periods = timeFrame.getBucket(lastTime) - timeFrame.getBucket(firstTime) + 1;
+        return new CandlesBuffer(timeFrame.name(), timeFrame.getFrameDuration(), (int) Math.min(Integer.MAX_VALUE, periods));
+    }
+
+    private class RangeTask extends RecursiveTask<List<CandlesBuffer>> {
+
+        private final TimeFrame timeFrame;
+        private final int from;
+        private final int to;
+
+        private RangeTask(TimeFrame timeFrame, int from, int to) {
+            this.timeFrame = timeFrame;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<CandlesBuffer> compute() {
+            if (to - from <= rangeTrades) {
+                return Collections.singletonList(aggregate(timeFrame, from, to));
+            }
+            int middle = (from + to) >>> 1;
+            RangeTask left = new RangeTask(timeFrame, from, middle);
+            left.fork();
+            List<CandlesBuffer> right = new RangeTask(timeFrame, middle, to).compute();
+            List<CandlesBuffer> ranges = new ArrayList<>(left.join());
+            ranges.addAll(right);
+            return ranges;
+        }
+    }
+}
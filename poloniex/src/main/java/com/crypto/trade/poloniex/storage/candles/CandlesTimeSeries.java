@@ -0,0 +1,106 @@
+package com.crypto.trade.poloniex.storage.candles;
+
+import eu.verdelhan.ta4j.Tick;
+import eu.verdelhan.ta4j.TimeSeries;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * ta4j view over {@link CandlesBuffer}, evicted candles are reported as removed ticks.
+ */
+@Slf4j
+public class CandlesTimeSeries implements TimeSeries {
+
+    private final transient CandlesBuffer candles;
+
+    CandlesTimeSeries(CandlesBuffer candles) {
+        this.candles = candles;
+    }
+
+    public CandlesBuffer getCandles() {
+        return candles;
+    }
+
+    @Override
+    public String getName() {
+        return candles.getName();
+    }
+
+    @Override
+    public Tick getTick(int i) {
+        int index = i;
+        if (index < 0 || index > candles.getEndIndex()) {
+            throw new IndexOutOfBoundsException("Size of series: " + candles.size() + " ticks, "
+                    + candles.getRemovedCount() + " ticks removed, index = " + i);
+        }
+        if (index < candles.getRemovedCount()) {
+            log.trace("Time series `{}`: tick {} already removed, use {}-th instead", getName(), i, candles.getRemovedCount());
+            index = candles.getRemovedCount();
+        }
+        return new CandleTick(candles, index);
+    }
+
+    @Override
+    public int getTickCount() {
+        return candles.size();
+    }
+
+    @Override
+    public List<Tick> getTickData() {
+        return new AbstractList<Tick>() {
+            @Override
+            public Tick get(int index) {
+                return getTick(candles.getBeginIndex() + index);
+            }
+
+            @Override
+            public int size() {
+                return candles.size();
+            }
+        };
+    }
+
+    @Override
+    public int getBeginIndex() {
+        return candles.isEmpty() ? -1 : candles.getBeginIndex();
+    }
+
+    @Override
+    public int getEndIndex() {
+        return candles.getEndIndex();
+    }
+
+    /**
+     * No-op, the series is already bounded: at most the candles capacity ticks are kept whatever the maximum.
+     */
+    @Override
+    public void setMaximumTickCount(int maximumTickCount) {
+    }
+
+    @Override
+    public int getMaximumTickCount() {
+        return candles.getCapacity();
+    }
+
+    @Override
+    public int getRemovedTicksCount() {
+        return candles.getRemovedCount();
+    }
+
+    @Override
+    public void addTick(Tick tick) {
+        if (!candles.isEmpty() && tick.getEndTime().toInstant().toEpochMilli() <= candles.getEndTime(candles.getEndIndex())) {
+            throw new IllegalArgumentException("Cannot add a tick with end time <= to series end time");
+        }
+        candles.addCandle(tick.getEndTime().toInstant().toEpochMilli(),
+                tick.getOpenPrice().toDouble(),
+                tick.getMaxPrice().toDouble(),
+                tick.getMinPrice().toDouble(),
+                tick.getClosePrice().toDouble(),
+                tick.getVolume().toDouble(),
+                tick.getAmount().toDouble(),
+                tick.getTrades());
+    }
+}
@@ -0,0 +1,45 @@
+package com.crypto.trade.poloniex.storage.history;
+
+import com.crypto.trade.poloniex.dto.PoloniexHistoryTrade;
+import lombok.Data;
+
+/**
+ * Last trade stored in the local history of a currency pair, the next sync requests trades from its second on.
+ */
+@Data
+public class HistoryCheckpoint {
+
+    // Trade id as stored in the history files
+    private long lastTradeId;
+    private Long lastGlobalTradeId;
+    // Epoch seconds
+    private long lastTradeTime;
+
+    public static HistoryCheckpoint of(PoloniexHistoryTrade trade) {
+        HistoryCheckpoint checkpoint = new HistoryCheckpoint();
+        checkpoint.setLastTradeId(TradesHistoryWriter.getTradeId(trade));
+        checkpoint.setLastGlobalTradeId(trade.getGlobalTradeId());
+        checkpoint.setLastTradeTime(trade.getDate().toEpochSecond());
+        return checkpoint;
+    }
+
+    public static HistoryCheckpoint of(TradesHistoryFile file) {
+        HistoryCheckpoint checkpoint = new HistoryCheckpoint();
+        checkpoint.setLastTradeId(file.getTradeId(file.size() - 1));
+        checkpoint.setLastTradeTime(file.getTime(file.size() - 1));
+        return checkpoint;
+    }
+
+    public boolean isBefore(HistoryCheckpoint checkpoint) {
+        return lastTradeTime < checkpoint.lastTradeTime
+                || lastTradeTime == checkpoint.lastTradeTime && lastTradeId < checkpoint.lastTradeId;
+    }
+
+    /**
+     * @return true when the trade is already stored locally
+     */
+    public boolean contains(PoloniexHistoryTrade trade) {
+        long time = trade.getDate().toEpochSecond();
+        return time < lastTradeTime || time == lastTradeTime && TradesHistoryWriter.getTradeId(trade) <= lastTradeId;
+    }
+}
@@ -0,0 +1,56 @@
+package com.crypto.trade.poloniex.storage.history;
+
+import com.crypto.trade.poloniex.dto.PoloniexHistoryTrade;
+
+import java.util.List;
+
+class ListTradesCursor implements TradesCursor {
+
+    private final List<PoloniexHistoryTrade> trades;
+    private int index = -1;
+    private long timeMillis;
+    private double rate;
+    private double amount;
+
+    ListTradesCursor(List<PoloniexHistoryTrade> trades) {
+        this.trades = trades;
+    }
+
+    @Override
+    public boolean next() {
+        if (index + 1 >= trades.size()) {
+            return false;
+        }
+        PoloniexHistoryTrade trade = trades.get(++index);
+        timeMillis = trade.getDate().toInstant().toEpochMilli();
+        rate = Double.parseDouble(trade.getRate());
+        amount = Double.parseDouble(trade.getAmount());
+        return true;
+    }
+
+    @Override
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    @Override
+    public long getTradeId() {
+        PoloniexHistoryTrade trade = trades.get(index);
+        return trade.getTradeId() != null ? trade.getTradeId() : trade.getGlobalTradeId();
+    }
+
+    @Override
+    public double getRate() {
+        return rate;
+    }
+
+    @Override
+    public double getAmount() {
+        return amount;
+    }
+
+    @Override
+    public boolean isBuy() {
+        return "buy".equals(trades.get(index).getType());
+    }
+}
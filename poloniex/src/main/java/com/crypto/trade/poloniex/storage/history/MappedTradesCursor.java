@@ -0,0 +1,105 @@
+package com.crypto.trade.poloniex.storage.history;
+
+import com.crypto.trade.poloniex.services.analytics.CurrencyPair;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+/**
+ * Cursor over the daily history files of a time range. Only the file of the current day is mapped, trades are read
+ * from the mapped columns, so the heap used does not depend on the length of the range.
+ */
+public class MappedTradesCursor implements TradesCursor {
+
+    private final String directory;
+    private final CurrencyPair currencyPair;
+    private final long startTime;
+    private final long endTime;
+    private final LocalDate lastDay;
+
+    private LocalDate day;
+    private TradesHistoryFile file;
+    private int index;
+    private int endIndex;
+
+    /**
+     * @param startTime first epoch second of the range, inclusive
+     * @param endTime   last epoch second of the range, exclusive
+     */
+    public MappedTradesCursor(String directory, CurrencyPair currencyPair, long startTime, long endTime) {
+        this.directory = directory;
+        this.currencyPair = currencyPair;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.day = toDay(startTime);
+        this.lastDay = toDay(Math.max(startTime, endTime - 1));
+    }
+
+    @Override
+    public boolean next() {
+        index++;
+        while (index >= endIndex) {
+            if (!openNextFile()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public long getTimeMillis() {
+        return file.getTime(index) * 1000;
+    }
+
+    @Override
+    public long getTradeId() {
+        return file.getTradeId(index);
+    }
+
+    @Override
+    public double getRate() {
+        return file.getRate(index);
+    }
+
+    @Override
+    public double getAmount() {
+        return file.getAmount(index);
+    }
+
+    @Override
+    public boolean isBuy() {
+        return file.isBuy(index);
+    }
+
+    // Days without a history file are skipped
+    private boolean openNextFile() {
+        file = null;
+        while (file == null && !day.isAfter(lastDay)) {
+            Path path = TradesHistoryFormat.getPath(directory, currencyPair, day);
+            day = day.plusDays(1);
+            if (Files.exists(path)) {
+                try {
+                    file = TradesHistoryFile.open(path);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to map " + path, e);
+                }
+            }
+        }
+        if (file == null) {
+            index = endIndex = 0;
+            return false;
+        }
+        index = file.findIndex(startTime);
+        endIndex = file.findIndex(endTime);
+        return true;
+    }
+
+    private static LocalDate toDay(long epochSecond) {
+        return Instant.ofEpochSecond(epochSecond).atZone(ZoneOffset.UTC).toLocalDate();
+    }
+}
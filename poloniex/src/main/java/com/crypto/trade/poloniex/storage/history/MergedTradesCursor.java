@@ -0,0 +1,67 @@
+package com.crypto.trade.poloniex.storage.history;
+
+class MergedTradesCursor implements TradesCursor {
+
+    private final TradesCursor first;
+    private final TradesCursor second;
+    private boolean hasFirst;
+    private boolean hasSecond;
+    private boolean advanceFirst = true;
+    private boolean advanceSecond = true;
+    private TradesCursor current;
+
+    MergedTradesCursor(TradesCursor first, TradesCursor second) {
+        this.first = first;
+        this.second = second;
+    }
+
+    @Override
+    public boolean next() {
+        if (advanceFirst) {
+            hasFirst = first.next();
+        }
+        if (advanceSecond) {
+            hasSecond = second.next();
+        }
+        if (!hasFirst && !hasSecond) {
+            advanceFirst = false;
+            advanceSecond = false;
+            return false;
+        }
+        int comparison = !hasFirst ? 1 : !hasSecond ? -1 : compare(first, second);
+        current = comparison <= 0 ? first : second;
+        advanceFirst = comparison <= 0;
+        advanceSecond = comparison >= 0;
+        return true;
+    }
+
+    @Override
+    public long getTimeMillis() {
+        return current.getTimeMillis();
+    }
+
+    @Override
+    public long getTradeId() {
+        return current.getTradeId();
+    }
+
+    @Override
+    public double getRate() {
+        return current.getRate();
+    }
+
+    @Override
+    public double getAmount() {
+        return current.getAmount();
+    }
+
+    @Override
+    public boolean isBuy() {
+        return current.isBuy();
+    }
+
+    private static int compare(TradesCursor first, TradesCursor second) {
+        int comparison = Long.compare(first.getTimeMillis(), second.getTimeMillis());
+        return comparison != 0 ? comparison : Long.compare(first.getTradeId(), second.getTradeId());
+    }
+}
@@ -0,0 +1,45 @@
+package com.crypto.trade.poloniex.storage.history;
+
+import com.crypto.trade.poloniex.dto.PoloniexHistoryTrade;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Forward-only view over trades in time order. Getters describe the current trade and stay valid until the next
+ * call to {@link #next()}, so trades are read without creating an object per trade.
+ */
+public interface TradesCursor {
+
+    /**
+     * @return false once all the trades have been read
+     */
+    boolean next();
+
+    long getTimeMillis();
+
+    long getTradeId();
+
+    double getRate();
+
+    double getAmount();
+
+    boolean isBuy();
+
+    /**
+     * Cursor over already loaded trades, sorted by time and trade id.
+     */
+    static TradesCursor of(List<PoloniexHistoryTrade> trades) {
+        List<PoloniexHistoryTrade> sortedTrades = new ArrayList<>(trades);
+        sortedTrades.sort(Comparator.comparing(PoloniexHistoryTrade::getDate).thenComparing(PoloniexHistoryTrade::getTradeId));
+        return new ListTradesCursor(sortedTrades);
+    }
+
+    /**
+     * Merges two time ordered cursors, a trade present in both is read once.
+     */
+    static TradesCursor merge(TradesCursor first, TradesCursor second) {
+        return new MergedTradesCursor(first, second);
+    }
+}
@@ -0,0 +1,190 @@
+package com.crypto.trade.poloniex.storage.history;
+
+import com.crypto.trade.poloniex.dto.PoloniexHistoryTrade;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.crypto.trade.poloniex.storage.history.TradesHistoryFormat.*;
+
+/**
+ * Read-only memory-mapped history file. Trades are addressed by their position in the file, values are read
+ * straight from the mapped columns so the file can be shared by any number of threads.
+ */
+public class TradesHistoryFile {
+
+    private final Path path;
+    private final ByteBuffer buffer;
+    private final int[] blockOffsets;
+    private final int[] blockStarts;
+    private final long[] blockLastTimes;
+    private final int validLength;
+
+    private TradesHistoryFile(Path path, ByteBuffer buffer) {
+        this.path = path;
+        this.buffer = buffer;
+        if (buffer.limit() < FILE_HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IllegalStateException(path + " is not a trades history file");
+        }
+        if (buffer.getInt(4) != VERSION || buffer.getInt(8) != PRICE_SCALE) {
+            throw new IllegalStateException(path + " has unsupported version " + buffer.getInt(4)
+                    + " or price scale " + buffer.getInt(8));
+        }
+        List<Integer> offsets = new ArrayList<>();
+        int offset = FILE_HEADER_SIZE;
+        // A block extending past the end of the file was torn by an interrupted append
+        while (offset + BLOCK_HEADER_SIZE <= buffer.limit()
+                && (long) offset + blockSize(buffer.getInt(offset)) <= buffer.limit()) {
+            offsets.add(offset);
+            offset += blockSize(buffer.getInt(offset));
+        }
+        this.validLength = offset;
+        this.blockOffsets = offsets.stream().mapToInt(Integer::intValue).toArray();
+        this.blockStarts = new int[blockOffsets.length + 1];
+        this.blockLastTimes = new long[blockOffsets.length];
+        for (int block = 0; block < blockOffsets.length; block++) {
+            blockStarts[block + 1] = blockStarts[block] + buffer.getInt(blockOffsets[block]);
+            blockLastTimes[block] = buffer.getLong(blockOffsets[block] + 16);
+        }
+    }
+
+    public static TradesHistoryFile open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalStateException(path + " is larger than 2GB");
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(BYTE_ORDER);
+            return new TradesHistoryFile(path, buffer);
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public int size() {
+        return blockStarts[blockOffsets.length];
+    }
+
+    public int getBlocksCount() {
+        return blockOffsets.length;
+    }
+
+    public long getFirstTime() {
+        return getTime(0);
+    }
+
+    public long getLastTime() {
+        return blockLastTimes[blockLastTimes.length - 1];
+    }
+
+    /**
+     * @return position of the first trade at or after the time, {@link #size()} when all the trades are older
+     */
+    public int findIndex(long epochSecond) {
+        int block = Arrays.binarySearch(blockLastTimes, epochSecond);
+        if (block < 0) {
+            block = -block - 1;
+        } else {
+            // Several blocks may end on the same second
+            while (block > 0 && blockLastTimes[block - 1] == epochSecond) {
+                block--;
+            }
+        }
+        if (block == blockOffsets.length) {
+            return size();
+        }
+        int low = blockStarts[block];
+        int high = blockStarts[block + 1];
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (getTime(middle) < epochSecond) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    public long getTime(int index) {
+        return buffer.getLong(column(index, 0, Long.BYTES));
+    }
+
+    public long getTradeId(int index) {
+        return buffer.getLong(column(index, 1, Long.BYTES));
+    }
+
+    public long getScaledRate(int index) {
+        return buffer.getLong(column(index, 2, Long.BYTES));
+    }
+
+    public long getScaledAmount(int index) {
+        return buffer.getLong(column(index, 3, Long.BYTES));
+    }
+
+    public double getRate(int index) {
+        return toDouble(getScaledRate(index));
+    }
+
+    public double getAmount(int index) {
+        return toDouble(getScaledAmount(index));
+    }
+
+    public boolean isBuy(int index) {
+        return buffer.get(column(index, 4, 1)) == 1;
+    }
+
+    public PoloniexHistoryTrade getTrade(int index) {
+        BigDecimal rate = toBigDecimal(getScaledRate(index));
+        BigDecimal amount = toBigDecimal(getScaledAmount(index));
+        PoloniexHistoryTrade trade = new PoloniexHistoryTrade();
+        trade.setTradeId(getTradeId(index));
+        trade.setDate(ZonedDateTime.ofInstant(Instant.ofEpochSecond(getTime(index)), ZoneOffset.UTC));
+        trade.setType(isBuy(index) ? "buy" : "sell");
+        trade.setRate(rate.toPlainString());
+        trade.setAmount(amount.toPlainString());
+        trade.setTotal(rate.multiply(amount).setScale(PRICE_SCALE, BigDecimal.ROUND_HALF_UP).toPlainString());
+        return trade;
+    }
+
+    int getValidLength() {
+        return validLength;
+    }
+
+    // Columns follow each other in the block, each one count values wide
+    private int column(int index, int column, int width) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException(path + ": " + size() + " trades, index = " + index);
+        }
+        int block = blockOf(index);
+        int count = blockStarts[block + 1] - blockStarts[block];
+        return blockOffsets[block] + BLOCK_HEADER_SIZE + column * count * Long.BYTES
+                + (index - blockStarts[block]) * width;
+    }
+
+    private int blockOf(int index) {
+        if (blockOffsets.length == 1) {
+            return 0;
+        }
+        int block = Arrays.binarySearch(blockStarts, index);
+        if (block < 0) {
+            return -block - 2;
+        }
+        // Skip empty blocks starting at the same position
+        while (blockStarts[block + 1] == index) {
+            block++;
+        }
+        return block;
+    }
+}
@@ -0,0 +1,69 @@
+package com.crypto.trade.poloniex.storage.history;
+
+import com.crypto.trade.poloniex.services.analytics.CurrencyPair;
+
+import java.math.BigDecimal;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+
+/**
+ * Binary columnar layout of the daily trades history files.
+ * <pre>
+ * file header  : magic, version, price scale, reserved (4 ints)
+ * block header : trades count, reserved (2 ints), first and last trade epoch seconds (2 longs)
+ * block columns: epoch seconds, trade ids, scaled rates, scaled amounts (count longs each), buy flags (count bytes)
+ * </pre>
+ * Blocks are only appended, in time order, so the block headers are the time index of the file.
+ */
+public final class TradesHistoryFormat {
+
+    public static final String BINARY_EXTENSION = ".bin";
+    public static final String JSON_EXTENSION = ".json";
+    public static final int PRICE_SCALE = 8;
+
+    static final ByteOrder BYTE_ORDER = ByteOrder.BIG_ENDIAN;
+    static final int MAGIC = 0x50485442;
+    static final int VERSION = 1;
+    static final int FILE_HEADER_SIZE = 16;
+    static final int BLOCK_HEADER_SIZE = 24;
+    static final int TRADE_SIZE = 4 * Long.BYTES + 1;
+
+    private static final double SCALE_FACTOR = Math.pow(10, PRICE_SCALE);
+
+    public static Path getPath(String directory, CurrencyPair currencyPair, LocalDate day) {
+        return getPath(directory, currencyPair, day, BINARY_EXTENSION);
+    }
+
+    public static Path getJsonPath(String directory, CurrencyPair currencyPair, LocalDate day) {
+        return getPath(directory, currencyPair, day, JSON_EXTENSION);
+    }
+
+    public static Path getCheckpointPath(String directory, CurrencyPair currencyPair) {
+        return Paths.get(directory, currencyPair.toString(), "checkpoint.json");
+    }
+
+    static long toScaled(String value) {
+        return new BigDecimal(value).setScale(PRICE_SCALE, BigDecimal.ROUND_HALF_UP).unscaledValue().longValueExact();
+    }
+
+    static double toDouble(long scaled) {
+        return scaled / SCALE_FACTOR;
+    }
+
+    static BigDecimal toBigDecimal(long scaled) {
+        return BigDecimal.valueOf(scaled, PRICE_SCALE);
+    }
+
+    static int blockSize(int count) {
+        return BLOCK_HEADER_SIZE + count * TRADE_SIZE;
+    }
+
+    private static Path getPath(String directory, CurrencyPair currencyPair, LocalDate day, String extension) {
+        return Paths.get(directory, currencyPair.toString(), "poloniex-" + day + extension);
+    }
+
+    private TradesHistoryFormat() {
+    }
+}
@@ -0,0 +1,86 @@
+package com.crypto.trade.poloniex.storage.history;
+
+import com.crypto.trade.poloniex.dto.PoloniexHistoryTrade;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static com.crypto.trade.poloniex.storage.history.TradesHistoryFormat.*;
+
+/**
+ * Appends trades to a history file as one columnar block.
+ */
+public class TradesHistoryWriter {
+
+    private static final Comparator<PoloniexHistoryTrade> TIME_ORDER = Comparator.comparing(PoloniexHistoryTrade::getDate)
+            .thenComparing(TradesHistoryWriter::getTradeId);
+
+    /**
+     * @return number of appended trades
+     * @throws IllegalArgumentException when the trades are older than the last trade of the file
+     */
+    public static int append(Path path, List<PoloniexHistoryTrade> trades) throws IOException {
+        if (trades.isEmpty()) {
+            return 0;
+        }
+        List<PoloniexHistoryTrade> sorted = new ArrayList<>(trades);
+        sorted.sort(TIME_ORDER);
+        long firstTime = sorted.get(0).getDate().toEpochSecond();
+        long lastTime = sorted.get(sorted.size() - 1).getDate().toEpochSecond();
+
+        long validLength = FILE_HEADER_SIZE;
+        if (Files.exists(path) && Files.size(path) > 0) {
+            TradesHistoryFile file = TradesHistoryFile.open(path);
+            if (file.size() > 0 && firstTime < file.getLastTime()) {
+                throw new IllegalArgumentException("Trades from " + firstTime + " are older than the last trade of "
+                        + path + " (" + file.getLastTime() + ")");
+            }
+            validLength = file.getValidLength();
+        } else {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+        }
+
+        ByteBuffer block = ByteBuffer.allocate(blockSize(sorted.size())).order(BYTE_ORDER);
+        block.putInt(sorted.size()).putInt(0).putLong(firstTime).putLong(lastTime);
+        sorted.forEach(trade -> block.putLong(trade.getDate().toEpochSecond()));
+        sorted.forEach(trade -> block.putLong(getTradeId(trade)));
+        sorted.forEach(trade -> block.putLong(toScaled(trade.getRate())));
+        sorted.forEach(trade -> block.putLong(toScaled(trade.getAmount())));
+        sorted.forEach(trade -> block.put("buy".equals(trade.getType()) ? (byte) 1 : (byte) 0));
+        block.flip();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            if (channel.size() == 0) {
+                ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE).order(BYTE_ORDER);
+                header.putInt(MAGIC).putInt(VERSION).putInt(PRICE_SCALE).putInt(0).flip();
+                writeFully(channel, header, 0);
+            }
+            // A block torn by an interrupted append is overwritten
+            channel.truncate(validLength);
+            writeFully(channel, block, validLength);
+        }
+        return sorted.size();
+    }
+
+    // Per pair trade id, the global one when the response has no pair id
+    static long getTradeId(PoloniexHistoryTrade trade) {
+        return trade.getTradeId() != null ? trade.getTradeId() : trade.getGlobalTradeId();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long offset = position;
+        while (buffer.hasRemaining()) {
+            offset += channel.write(buffer, offset);
+        }
+    }
+
+    private TradesHistoryWriter() {
+    }
+}
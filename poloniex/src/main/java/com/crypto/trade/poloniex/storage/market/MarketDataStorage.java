@@ -0,0 +1,46 @@
+package com.crypto.trade.poloniex.storage.market;
+
+import com.crypto.trade.poloniex.services.analytics.CurrencyPair;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Pre-trade market data per currency pair. Updated by the trades ingestion, read when orders are priced.
+ */
+public class MarketDataStorage {
+
+    private final ConcurrentMap<CurrencyPair, MarketSnapshot> snapshots = new ConcurrentHashMap<>();
+
+    /**
+     * Live trade received now.
+     */
+    public void onTrade(CurrencyPair currencyPair, long timeMillis, long price) {
+        onTrade(currencyPair, timeMillis, price, System.currentTimeMillis());
+    }
+
+    /**
+     * History trade, its price is kept without making the last price fresh.
+     */
+    public void onHistoryTrade(CurrencyPair currencyPair, long timeMillis, long price) {
+        onTrade(currencyPair, timeMillis, price, Long.MIN_VALUE);
+    }
+
+    public void onTrade(CurrencyPair currencyPair, long timeMillis, long price, long receivedMillis) {
+        getSnapshot(currencyPair).onTrade(timeMillis, price, receivedMillis);
+    }
+
+    public void onQuote(CurrencyPair currencyPair, long timeMillis, long bid, long ask) {
+        getSnapshot(currencyPair).onQuote(timeMillis, bid, ask);
+    }
+
+    public MarketQuote getQuote(CurrencyPair currencyPair) {
+        MarketSnapshot snapshot = snapshots.get(currencyPair);
+        return snapshot != null ? snapshot.read() : MarketQuote.EMPTY;
+    }
+
+    private MarketSnapshot getSnapshot(CurrencyPair currencyPair) {
+        MarketSnapshot snapshot = snapshots.get(currencyPair);
+        return snapshot != null ? snapshot : snapshots.computeIfAbsent(currencyPair, c -> new MarketSnapshot());
+    }
+}
@@ -0,0 +1,49 @@
+package com.crypto.trade.poloniex.storage.market;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+/**
+ * Consistent copy of a {@link MarketSnapshot}, prices are scaled by {@link MarketSnapshot#PRICE_SCALE}.
+ */
+@Value(staticConstructor = "of")
+public class MarketQuote {
+
+    public static final MarketQuote EMPTY = of(0, Long.MIN_VALUE, Long.MIN_VALUE, 0, 0, Long.MIN_VALUE);
+
+    private long lastPrice;
+    private long lastTradeMillis;
+    private long tradeReceivedMillis;
+    private long bestBid;
+    private long bestAsk;
+    private long quoteMillis;
+
+    public boolean hasLastPrice() {
+        return lastTradeMillis != Long.MIN_VALUE;
+    }
+
+    public boolean hasQuote() {
+        return quoteMillis != Long.MIN_VALUE;
+    }
+
+    public BigDecimal getLastPriceValue() {
+        return MarketSnapshot.toPrice(lastPrice);
+    }
+
+    /**
+     * Compares local times only, the exchange trade times are neither used nor assumed in sync with the local clock.
+     *
+     * @return false without live trades or when the last price was received longer than the max age ago
+     */
+    public boolean isTradeFresh(long nowMillis, long maxAgeMillis) {
+        return hasLastPrice() && tradeReceivedMillis >= nowMillis - maxAgeMillis;
+    }
+
+    /**
+     * @return false without quotes or when the top of book has not changed for longer than the max age
+     */
+    public boolean isQuoteFresh(long nowMillis, long maxAgeMillis) {
+        return hasQuote() && quoteMillis >= nowMillis - maxAgeMillis;
+    }
+}
@@ -0,0 +1,86 @@
+package com.crypto.trade.poloniex.storage.market;
+
+import java.math.BigDecimal;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Last trade and top of book of a currency pair, prices are scaled by {@link #PRICE_SCALE}. Writers take the write
+ * lock, readers copy the fields under an optimistic stamp and only retry with the read lock when a write raced them,
+ * so reading never blocks the ingest thread.
+ */
+public class MarketSnapshot {
+
+    public static final int PRICE_SCALE = 8;
+
+    private static final double PRICE_FACTOR = 100000000d;
+
+    private final StampedLock lock = new StampedLock();
+    private long lastPrice;
+    private long lastTradeMillis = Long.MIN_VALUE;
+    // Local time the last trade was received at, not set by history trades
+    private long tradeReceivedMillis = Long.MIN_VALUE;
+    private long bestBid;
+    private long bestAsk;
+    // Local time of the last top of book change
+    private long quoteMillis = Long.MIN_VALUE;
+
+    public static long scale(double price) {
+        return Math.round(price * PRICE_FACTOR);
+    }
+
+    public static long scale(BigDecimal value) {
+        return value.movePointRight(PRICE_SCALE).longValue();
+    }
+
+    public static BigDecimal toPrice(long scaledPrice) {
+        return BigDecimal.valueOf(scaledPrice, PRICE_SCALE);
+    }
+
+    /**
+     * Trades older than the last one are ignored, so history loading does not override live prices.
+     *
+     * @param receivedMillis local time a live trade was received at, {@link Long#MIN_VALUE} for a history trade
+     */
+    public void onTrade(long timeMillis, long price, long receivedMillis) {
+        long stamp = lock.writeLock();
+        try {
+            if (timeMillis >= lastTradeMillis) {
+                // A newer history trade prices the orders without proving the feed alive
+                tradeReceivedMillis = timeMillis > lastTradeMillis ? receivedMillis : Math.max(tradeReceivedMillis, receivedMillis);
+                lastTradeMillis = timeMillis;
+                lastPrice = price;
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void onQuote(long timeMillis, long bid, long ask) {
+        long stamp = lock.writeLock();
+        try {
+            bestBid = bid;
+            bestAsk = ask;
+            quoteMillis = timeMillis;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public MarketQuote read() {
+        long stamp = lock.tryOptimisticRead();
+        MarketQuote quote = copy();
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                quote = copy();
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return quote;
+    }
+
+    private MarketQuote copy() {
+        return MarketQuote.of(lastPrice, lastTradeMillis, tradeReceivedMillis, bestBid, bestAsk, quoteMillis);
+    }
+}
@@ -1,16 +1,15 @@
 package com.crypto.trade.poloniex.storage.model;
 
+import com.crypto.trade.poloniex.config.properties.CandlesConfig;
 import com.crypto.trade.poloniex.services.analytics.TimeFrame;
-import eu.verdelhan.ta4j.Tick;
+import com.crypto.trade.poloniex.storage.candles.CandlesBuffer;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
 @Data
@@ -18,14 +17,24 @@ import java.util.stream.Collectors;
 @ToString(of = {"timeFrame", "activeStrategies"})
 public class TimeFrameStorage {
 
-    private ReentrantLock updateLock = new ReentrantLock();
     private int historyIndex;
+    // Last candle the strategies were run on, a candle is closed either by the clock or by the next period trade
+    private int tradedIndex = -1;
+    // Last candle aggregated into the next longer time frame
+    private int rolledIndex = -1;
+    // Incremented when the candles are replaced, strategy tasks queued on the previous candles indexes are dropped
+    private volatile int generation;
     private TimeFrame timeFrame;
-    private List<Tick> candles = new LinkedList<>();
+    private CandlesBuffer candles;
     private List<PoloniexStrategy> activeStrategies = new ArrayList<>();
 
     public TimeFrameStorage(TimeFrame timeFrame) {
+        this(timeFrame, CandlesConfig.DEFAULT_CAPACITY);
+    }
+
+    public TimeFrameStorage(TimeFrame timeFrame, int candlesCapacity) {
         this.timeFrame = timeFrame;
+        this.candles = new CandlesBuffer(timeFrame.name(), timeFrame.getFrameDuration(), candlesCapacity);
     }
 
     public List<PoloniexTradingRecord> getAllTradingRecords() {
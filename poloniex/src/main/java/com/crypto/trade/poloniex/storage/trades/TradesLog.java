@@ -0,0 +1,110 @@
+package com.crypto.trade.poloniex.storage.trades;
+
+import com.crypto.trade.poloniex.storage.history.TradesCursor;
+
+import java.util.Arrays;
+
+/**
+ * Append only trades in primitive columns, kept in the order they are added. Written by a single thread, read once
+ * it is no longer written.
+ */
+public class TradesLog {
+
+    private static final int INITIAL_SIZE = 256;
+
+    private long[] times = new long[INITIAL_SIZE];
+    private long[] tradeIds = new long[INITIAL_SIZE];
+    private double[] rates = new double[INITIAL_SIZE];
+    private double[] amounts = new double[INITIAL_SIZE];
+    private boolean[] buys = new boolean[INITIAL_SIZE];
+    private int count;
+
+    /**
+     * Copies the cursor trades.
+     */
+    public static TradesLog of(TradesCursor cursor) {
+        TradesLog log = new TradesLog();
+        while (cursor.next()) {
+            log.add(cursor.getTimeMillis(), cursor.getTradeId(), cursor.getRate(), cursor.getAmount(), cursor.isBuy());
+        }
+        return log;
+    }
+
+    public void add(long timeMillis, long tradeId, double rate, double amount, boolean buy) {
+        if (count == times.length) {
+            int size = count * 2;
+            times = Arrays.copyOf(times, size);
+            tradeIds = Arrays.copyOf(tradeIds, size);
+            rates = Arrays.copyOf(rates, size);
+            amounts = Arrays.copyOf(amounts, size);
+            buys = Arrays.copyOf(buys, size);
+        }
+        times[count] = timeMillis;
+        tradeIds[count] = tradeId;
+        rates[count] = rate;
+        amounts[count] = amount;
+        buys[count] = buy;
+        count++;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public TradesCursor cursor() {
+        return cursorAfter(Long.MIN_VALUE);
+    }
+
+    /**
+     * Cursor over the trades which id is greater than the given one, trade ids of a currency pair only grow.
+     */
+    public TradesCursor cursorAfter(long tradeId) {
+        return new LogCursor(tradeId);
+    }
+
+    private class LogCursor implements TradesCursor {
+
+        private final long afterTradeId;
+        private int index = -1;
+
+        private LogCursor(long afterTradeId) {
+            this.afterTradeId = afterTradeId;
+        }
+
+        @Override
+        public boolean next() {
+            while (++index < count) {
+                if (tradeIds[index] > afterTradeId) {
+                    return true;
+                }
+            }
+            index = count;
+            return false;
+        }
+
+        @Override
+        public long getTimeMillis() {
+            return times[index];
+        }
+
+        @Override
+        public long getTradeId() {
+            return tradeIds[index];
+        }
+
+        @Override
+        public double getRate() {
+            return rates[index];
+        }
+
+        @Override
+        public double getAmount() {
+            return amounts[index];
+        }
+
+        @Override
+        public boolean isBuy() {
+            return buys[index];
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.crypto.trade.poloniex.storage.trades;
+
+import com.crypto.trade.poloniex.storage.history.TradesCursor;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Recent trades of a currency pair in one segment per minute. A segment is reused once its minute falls out of the
+ * ring, so old trades expire a whole minute at a time without scanning or locking. Trades are added and read by
+ * the single pair consumer thread.
+ */
+public class TradesRing {
+
+    private static final long SEGMENT_MILLIS = 60000;
+
+    private final TradesSegment[] segments;
+    private long newestMinute = Long.MIN_VALUE;
+
+    public TradesRing(Duration maxAge) {
+        segments = new TradesSegment[(int) maxAge.toMinutes() + 1];
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new TradesSegment();
+        }
+    }
+
+    /**
+     * @return false when the trade is already stored or older than the ring
+     */
+    public boolean add(long timeMillis, long tradeId, double rate, double amount, boolean buy) {
+        long minute = Math.floorDiv(timeMillis, SEGMENT_MILLIS);
+        if (isExpired(minute)) {
+            return false;
+        }
+        TradesSegment segment = segments[(int) Math.floorMod(minute, (long) segments.length)];
+        if (segment.getMinute() != minute) {
+            segment.reset(minute);
+        }
+        if (!segment.insert(timeMillis, tradeId, rate, amount, buy)) {
+            return false;
+        }
+        newestMinute = Math.max(newestMinute, minute);
+        return true;
+    }
+
+    public int size() {
+        int size = 0;
+        for (TradesSegment segment : segments) {
+            if (!isExpired(segment.getMinute())) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Cursor over the stored trades in time order, the ring must not change while it is read.
+     */
+    public TradesCursor cursor() {
+        TradesSegment[] live = Arrays.stream(segments)
+                .filter(segment -> !isExpired(segment.getMinute()) && segment.size() > 0)
+                .sorted(Comparator.comparingLong(TradesSegment::getMinute))
+                .toArray(TradesSegment[]::new);
+        return new RingCursor(live);
+    }
+
+    private boolean isExpired(long minute) {
+        return minute == Long.MIN_VALUE || newestMinute != Long.MIN_VALUE && minute <= newestMinute - segments.length;
+    }
+
+    private static class RingCursor implements TradesCursor {
+
+        private final TradesSegment[] segments;
+        private int segmentIndex;
+        private int index = -1;
+        private TradesSegment segment;
+
+        RingCursor(TradesSegment[] segments) {
+            this.segments = segments;
+            this.segment = segments.length > 0 ? segments[0] : null;
+        }
+
+        @Override
+        public boolean next() {
+            if (segment == null) {
+                return false;
+            }
+            while (++index >= segment.size()) {
+                if (++segmentIndex >= segments.length) {
+                    segment = null;
+                    return false;
+                }
+                segment = segments[segmentIndex];
+                index = -1;
+            }
+            return true;
+        }
+
+        @Override
+        public long getTimeMillis() {
+            return segment.getTime(index);
+        }
+
+        @Override
+        public long getTradeId() {
+            return segment.getTradeId(index);
+        }
+
+        @Override
+        public double getRate() {
+            return segment.getRate(index);
+        }
+
+        @Override
+        public double getAmount() {
+            return segment.getAmount(index);
+        }
+
+        @Override
+        public boolean isBuy() {
+            return segment.isBuy(index);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.crypto.trade.poloniex.storage.trades;
+
+import java.util.Arrays;
+
+/**
+ * Trades of a single minute in primitive columns ordered by time and trade id. Arrays are kept when the segment
+ * is reused for a later minute.
+ */
+class TradesSegment {
+
+    private static final int INITIAL_SIZE = 64;
+
+    private long minute = Long.MIN_VALUE;
+    private long[] times = new long[INITIAL_SIZE];
+    private long[] tradeIds = new long[INITIAL_SIZE];
+    private double[] rates = new double[INITIAL_SIZE];
+    private double[] amounts = new double[INITIAL_SIZE];
+    private boolean[] buys = new boolean[INITIAL_SIZE];
+    private int count;
+
+    long getMinute() {
+        return minute;
+    }
+
+    int size() {
+        return count;
+    }
+
+    void reset(long newMinute) {
+        minute = newMinute;
+        count = 0;
+    }
+
+    /**
+     * @return false when the trade is already stored
+     */
+    boolean insert(long timeMillis, long tradeId, double rate, double amount, boolean buy) {
+        int position = count;
+        // Trades mostly come in order, only late ones are searched for
+        if (count > 0 && compare(count - 1, timeMillis, tradeId) >= 0) {
+            position = search(timeMillis, tradeId);
+            if (position >= 0) {
+                return false;
+            }
+            position = -position - 1;
+        }
+        if (count == times.length) {
+            grow();
+        }
+        if (position < count) {
+            int moved = count - position;
+            System.arraycopy(times, position, times, position + 1, moved);
+            System.arraycopy(tradeIds, position, tradeIds, position + 1, moved);
+            System.arraycopy(rates, position, rates, position + 1, moved);
+            System.arraycopy(amounts, position, amounts, position + 1, moved);
+            System.arraycopy(buys, position, buys, position + 1, moved);
+        }
+        times[position] = timeMillis;
+        tradeIds[position] = tradeId;
+        rates[position] = rate;
+        amounts[position] = amount;
+        buys[position] = buy;
+        count++;
+        return true;
+    }
+
+    long getTime(int index) {
+        return times[index];
+    }
+
+    long getTradeId(int index) {
+        return tradeIds[index];
+    }
+
+    double getRate(int index) {
+        return rates[index];
+    }
+
+    double getAmount(int index) {
+        return amounts[index];
+    }
+
+    boolean isBuy(int index) {
+        return buys[index];
+    }
+
+    private int search(long timeMillis, long tradeId) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int comparison = compare(middle, timeMillis, tradeId);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private int compare(int index, long timeMillis, long tradeId) {
+        int comparison = Long.compare(times[index], timeMillis);
+        return comparison != 0 ? comparison : Long.compare(tradeIds[index], tradeId);
+    }
+
+    private void grow() {
+        int size = times.length * 2;
+        times = Arrays.copyOf(times, size);
+        tradeIds = Arrays.copyOf(tradeIds, size);
+        rates = Arrays.copyOf(rates, size);
+        amounts = Arrays.copyOf(amounts, size);
+        buys = Arrays.copyOf(buys, size);
+    }
+}
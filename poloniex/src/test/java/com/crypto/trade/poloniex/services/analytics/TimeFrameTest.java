@@ -0,0 +1,38 @@
+package com.crypto.trade.poloniex.services.analytics;
+
+import org.junit.Test;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.Assert.assertEquals;
+
+public class TimeFrameTest {
+
+    @Test
+    public void endTimeIsNextPeriodBoundary() {
+        ZonedDateTime time = ZonedDateTime.of(2018, 4, 1, 13, 47, 12, 0, ZoneOffset.UTC);
+
+        assertEquals(time.withSecond(0).plusMinutes(1), TimeFrame.ONE_MINUTE.calculateEndTime(time));
+        assertEquals(time.withMinute(50).withSecond(0), TimeFrame.FIVE_MINUTES.calculateEndTime(time));
+        assertEquals(time.withMinute(0).withSecond(0).plusHours(1), TimeFrame.ONE_HOUR.calculateEndTime(time));
+        assertEquals(time.withHour(16).withMinute(0).withSecond(0), TimeFrame.FOUR_HOURS.calculateEndTime(time));
+        // A boundary belongs to the next period
+        ZonedDateTime boundary = time.withHour(12).truncatedTo(ChronoUnit.HOURS);
+        assertEquals(boundary.plusHours(2), TimeFrame.TWO_HOURS.calculateEndTime(boundary));
+    }
+
+    @Test
+    public void bucketsAreCountedFromEpoch() {
+        long millis = ZonedDateTime.of(2018, 4, 1, 13, 47, 12, 0, ZoneOffset.UTC).toInstant().toEpochMilli();
+
+        for (TimeFrame timeFrame : TimeFrame.values()) {
+            long bucket = timeFrame.getBucket(millis);
+            assertEquals(millis / timeFrame.getDurationMillis(), bucket);
+            assertEquals(timeFrame.calculateEndMillis(millis), timeFrame.getBucketEndMillis(bucket));
+            assertEquals(bucket + 1, timeFrame.getBucket(timeFrame.getBucketEndMillis(bucket)));
+        }
+        assertEquals(-1, TimeFrame.ONE_MINUTE.getBucket(-1));
+    }
+}
@@ -0,0 +1,141 @@
+package com.crypto.trade.poloniex.services.analytics.indicators;
+
+import com.crypto.trade.poloniex.storage.candles.CandlesBuffer;
+import eu.verdelhan.ta4j.Decimal;
+import eu.verdelhan.ta4j.Indicator;
+import eu.verdelhan.ta4j.TimeSeries;
+import eu.verdelhan.ta4j.indicators.EMAIndicator;
+import eu.verdelhan.ta4j.indicators.SmoothedRSIIndicator;
+import eu.verdelhan.ta4j.indicators.StochasticOscillatorDIndicator;
+import eu.verdelhan.ta4j.indicators.StochasticOscillatorKIndicator;
+import eu.verdelhan.ta4j.indicators.helpers.ClosePriceIndicator;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class StreamingIndicatorTest {
+
+    private static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+    private static final int CANDLES_COUNT = 300;
+
+    private final Random random = new Random(42);
+
+    @Test
+    public void emaMatchesTa4j() {
+        TimeSeries series = createCandles(CANDLES_COUNT).getTimeSeries();
+        ClosePriceIndicator closePrice = new StreamingClosePriceIndicator(series);
+        StreamingEMAIndicator ema = new StreamingEMAIndicator(closePrice, 90);
+        StreamingEMAIndicator emaEma = new StreamingEMAIndicator(ema, 90);
+
+        assertSameValues(new EMAIndicator(new EMAIndicator(new ClosePriceIndicator(series), 90), 90), emaEma);
+        assertSameValues(new EMAIndicator(new ClosePriceIndicator(series), 90), ema);
+        assertSameValues(new EMAIndicator(new ClosePriceIndicator(series), 1), new StreamingEMAIndicator(closePrice, 1));
+    }
+
+    @Test
+    public void rsiMatchesSmoothedTa4jRsi() {
+        TimeSeries series = createCandles(CANDLES_COUNT).getTimeSeries();
+
+        assertSameValues(new SmoothedRSIIndicator(new ClosePriceIndicator(series), 14),
+                new StreamingRSIIndicator(new StreamingClosePriceIndicator(series), 14));
+    }
+
+    @Test
+    public void stochasticMatchesTa4j() {
+        TimeSeries series = createCandles(CANDLES_COUNT).getTimeSeries();
+        StreamingStochasticKIndicator stochK = new StreamingStochasticKIndicator(series, 14);
+        StochasticOscillatorKIndicator expectedStochK = new StochasticOscillatorKIndicator(series, 14);
+
+        assertSameValues(new StochasticOscillatorDIndicator(expectedStochK), new StreamingStochasticDIndicator(stochK));
+        assertSameValues(expectedStochK, stochK);
+    }
+
+    @Test
+    public void recalculateFormingCandle() {
+        CandlesBuffer candles = createCandles(20);
+        StreamingEMAIndicator ema = new StreamingEMAIndicator(new StreamingClosePriceIndicator(candles.getTimeSeries()), 5);
+        int formingIndex = candles.getEndIndex();
+        Decimal closedValue = ema.getValue(formingIndex - 1);
+        Decimal formingValue = ema.getValue(formingIndex);
+
+        candles.addTrade(formingIndex, 1, candles.getClose(formingIndex) + 10);
+
+        assertTrue(ema.getValue(formingIndex).isGreaterThan(formingValue));
+        assertEquals(closedValue, ema.getValue(formingIndex - 1));
+
+        candles.addTrade(candles.addCandle(candles.getEndTime(formingIndex) + MINUTE), 1, 1);
+        assertSameValues(new EMAIndicator(new ClosePriceIndicator(candles.getTimeSeries()), 5), ema);
+    }
+
+    @Test
+    public void resetOnClearedCandles() {
+        CandlesBuffer candles = createCandles(50);
+        StreamingEMAIndicator ema = new StreamingEMAIndicator(new StreamingClosePriceIndicator(candles.getTimeSeries()), 10);
+        ema.getValue(candles.getEndIndex());
+
+        candles.clear();
+        addCandles(candles, 30);
+
+        assertSameValues(new EMAIndicator(new ClosePriceIndicator(candles.getTimeSeries()), 10), ema);
+    }
+
+    @Test
+    public void invalidatedOnLateTradeIntoClosedCandle() {
+        CandlesBuffer candles = createCandles(50);
+        StreamingClosePriceIndicator closePrice = new StreamingClosePriceIndicator(candles.getTimeSeries());
+        StreamingEMAIndicator ema = new StreamingEMAIndicator(closePrice, 10);
+        StreamingRSIIndicator rsi = new StreamingRSIIndicator(closePrice, 14);
+        ema.getValue(candles.getEndIndex());
+        rsi.getValue(candles.getEndIndex());
+        int lateIndex = candles.getEndIndex() - 5;
+
+        candles.addTrade(lateIndex, 1, candles.getClose(lateIndex) + 0.01);
+        Decimal staleValue = ema.getValue(lateIndex);
+        ema.invalidate(lateIndex);
+        rsi.invalidate(lateIndex);
+
+        assertTrue(ema.getValue(lateIndex).isGreaterThan(staleValue));
+        assertSameValues(new EMAIndicator(new ClosePriceIndicator(candles.getTimeSeries()), 10), ema);
+        assertSameValues(new SmoothedRSIIndicator(new ClosePriceIndicator(candles.getTimeSeries()), 14), rsi);
+    }
+
+    @Test
+    public void doubleValuesMatchDecimalValues() {
+        CandlesBuffer candles = createCandles(CANDLES_COUNT);
+        StreamingClosePriceIndicator closePrice = new StreamingClosePriceIndicator(candles.getTimeSeries());
+        StreamingEMAIndicator ema = new StreamingEMAIndicator(closePrice, 10);
+        for (int index = 0; index <= candles.getEndIndex(); index++) {
+            assertEquals(candles.getClose(index), closePrice.getDouble(index), 0);
+            assertEquals(ema.getValue(index).toDouble(), ema.getDouble(index), 0);
+        }
+        assertSame(ema, DoubleIndicator.of(ema));
+    }
+
+    private void assertSameValues(Indicator<Decimal> expected, Indicator<Decimal> actual) {
+        int endIndex = actual.getTimeSeries().getEndIndex();
+        for (int index = 0; index <= endIndex; index++) {
+            assertEquals("Index " + index, expected.getValue(index).toDouble(), actual.getValue(index).toDouble(), 1e-12);
+        }
+    }
+
+    private CandlesBuffer createCandles(int count) {
+        CandlesBuffer candles = new CandlesBuffer("test", Duration.ofMinutes(1), 1000);
+        addCandles(candles, count);
+        return candles;
+    }
+
+    private void addCandles(CandlesBuffer candles, int count) {
+        double price = 0.07;
+        for (int i = 0; i < count; i++) {
+            int index = candles.addCandle((i + 1) * MINUTE);
+            for (int trade = 0; trade < 3; trade++) {
+                price = Math.max(0.01, price + (random.nextDouble() - 0.5) * 0.002);
+                candles.addTrade(index, random.nextDouble(), price);
+            }
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.crypto.trade.poloniex.services.analytics.rules;
+
+import com.crypto.trade.poloniex.services.analytics.indicators.StreamingClosePriceIndicator;
+import com.crypto.trade.poloniex.services.analytics.indicators.StreamingEMAIndicator;
+import com.crypto.trade.poloniex.storage.candles.CandlesBuffer;
+import eu.verdelhan.ta4j.BaseTradingRecord;
+import eu.verdelhan.ta4j.Decimal;
+import eu.verdelhan.ta4j.Order;
+import eu.verdelhan.ta4j.Rule;
+import eu.verdelhan.ta4j.TradingRecord;
+import eu.verdelhan.ta4j.indicators.EMAIndicator;
+import eu.verdelhan.ta4j.indicators.helpers.ClosePriceIndicator;
+import eu.verdelhan.ta4j.trading.rules.CrossedDownIndicatorRule;
+import eu.verdelhan.ta4j.trading.rules.CrossedUpIndicatorRule;
+import eu.verdelhan.ta4j.trading.rules.OverIndicatorRule;
+import eu.verdelhan.ta4j.trading.rules.StopGainRule;
+import eu.verdelhan.ta4j.trading.rules.UnderIndicatorRule;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class DoubleRulesTest {
+
+    private static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+
+    private CandlesBuffer candles;
+    private StreamingClosePriceIndicator closePrice;
+
+    @Before
+    public void setUp() {
+        Random random = new Random(7);
+        candles = new CandlesBuffer("test", Duration.ofMinutes(1), 1000);
+        double price = 0.07;
+        for (int i = 0; i < 200; i++) {
+            price = Math.max(0.01, price + (random.nextDouble() - 0.5) * 0.004);
+            candles.addTrade(candles.addCandle((i + 1) * MINUTE), 1, price);
+        }
+        closePrice = new StreamingClosePriceIndicator(candles.getTimeSeries());
+    }
+
+    @Test
+    public void comparisonRulesMatchTa4j() {
+        StreamingEMAIndicator ema = new StreamingEMAIndicator(closePrice, 10);
+        EMAIndicator decimalEma = new EMAIndicator(new ClosePriceIndicator(candles.getTimeSeries()), 10);
+
+        assertSameResults(new OverIndicatorRule(closePrice, ema), new DoubleUpperRule(closePrice, ema), null);
+        assertSameResults(new UnderIndicatorRule(closePrice, ema), new DoubleLowerRule(closePrice, ema), null);
+        // Decimal only indicators go through the adapter
+        assertSameResults(new OverIndicatorRule(closePrice, decimalEma), new DoubleUpperRule(closePrice, decimalEma), null);
+        assertSameResults(new UnderIndicatorRule(closePrice, Decimal.valueOf(0.07)),
+                new DoubleLowerRule(closePrice, Decimal.valueOf(0.07)), null);
+    }
+
+    @Test
+    public void crossedRulesMatchTa4j() {
+        StreamingEMAIndicator ema = new StreamingEMAIndicator(closePrice, 10);
+
+        assertSameResults(new CrossedUpIndicatorRule(closePrice, ema), new CrossedUpRule(closePrice, ema), null);
+        assertSameResults(new CrossedDownIndicatorRule(closePrice, ema), new CrossedDownRule(closePrice, ema), null);
+    }
+
+    @Test
+    public void combinedRulesStayDoubleRules() {
+        StreamingEMAIndicator ema = new StreamingEMAIndicator(closePrice, 10);
+        Rule upper = new DoubleUpperRule(closePrice, ema);
+        Rule lower = new DoubleLowerRule(closePrice, ema);
+
+        assertTrue(upper.and(lower).or(upper.negation()) instanceof DoubleRule);
+        assertSameResults(new OverIndicatorRule(closePrice, ema).and(new UnderIndicatorRule(closePrice, ema)),
+                upper.and(lower), null);
+        assertSameResults(new UnderIndicatorRule(closePrice, ema).or(new OverIndicatorRule(closePrice, ema)),
+                lower.or(upper), null);
+        assertSameResults(new OverIndicatorRule(closePrice, ema).negation(), upper.negation(), null);
+    }
+
+    @Test
+    public void stopGainMatchesTa4j() {
+        TradingRecord tradingRecord = new BaseTradingRecord();
+        tradingRecord.enter(20, closePrice.getValue(20), Decimal.ONE);
+
+        assertSameResults(new StopGainRule(closePrice, Decimal.ONE),
+                new DoubleModifiedStopGainRule(closePrice, Decimal.ONE), tradingRecord);
+        assertFalse(new DoubleModifiedStopGainRule(closePrice, Decimal.ONE).isSatisfied(30, new BaseTradingRecord()));
+    }
+
+    @Test
+    public void sharedRuleUsesEachRecordEntry() {
+        TradingRecord first = new BaseTradingRecord();
+        first.enter(10, closePrice.getValue(10), Decimal.ONE);
+        TradingRecord second = new BaseTradingRecord();
+        second.enter(20, closePrice.getValue(20), Decimal.ONE);
+        Rule expected = new StopGainRule(closePrice, Decimal.ONE);
+        Rule rule = new DoubleModifiedStopGainRule(closePrice, Decimal.ONE);
+
+        for (int index = 20; index <= candles.getEndIndex(); index++) {
+            assertEquals(expected.isSatisfied(index, first), rule.isSatisfied(index, first));
+            assertEquals(expected.isSatisfied(index, second), rule.isSatisfied(index, second));
+        }
+    }
+
+    @Test
+    public void maxGainRules() {
+        int entryIndex = addCandle(1.0);
+        addCandle(1.2);
+        int index = addCandle(1.1);
+        TradingRecord buyRecord = new BaseTradingRecord(Order.OrderType.BUY);
+        buyRecord.enter(entryIndex, Decimal.ONE, Decimal.ONE);
+        TradingRecord sellRecord = new BaseTradingRecord(Order.OrderType.SELL);
+        sellRecord.enter(entryIndex, Decimal.ONE, Decimal.ONE);
+
+        // Gain dropped from 20% to 10%
+        assertTrue(new DoubleMaxGainBuyRule(closePrice, Decimal.valueOf(5)).isSatisfied(index, buyRecord));
+        assertFalse(new DoubleMaxGainBuyRule(closePrice, Decimal.valueOf(15)).isSatisfied(index, buyRecord));
+        assertTrue(new MaxGainBuyRule(closePrice, Decimal.valueOf(5)).isSatisfied(index, buyRecord));
+        assertFalse(new MaxGainBuyRule(closePrice, Decimal.valueOf(15)).isSatisfied(index, buyRecord));
+        // Price never went below the entry price
+        assertFalse(new DoubleMaxGainSellRule(closePrice, Decimal.valueOf(5)).isSatisfied(entryIndex, sellRecord));
+        assertTrue(new DoubleMaxGainSellRule(closePrice, Decimal.valueOf(5)).isSatisfied(index, sellRecord));
+    }
+
+    private int addCandle(double price) {
+        int index = candles.addCandle(candles.getEndTime(candles.getEndIndex()) + MINUTE);
+        candles.addTrade(index, 1, price);
+        return index;
+    }
+
+    private void assertSameResults(Rule expected, Rule actual, TradingRecord tradingRecord) {
+        for (int index = 0; index <= candles.getEndIndex(); index++) {
+            assertEquals("Index " + index, expected.isSatisfied(index, tradingRecord), actual.isSatisfied(index, tradingRecord));
+        }
+    }
+}
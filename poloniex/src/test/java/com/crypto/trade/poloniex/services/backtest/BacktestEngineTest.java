@@ -0,0 +1,107 @@
+package com.crypto.trade.poloniex.services.backtest;
+
+import com.crypto.trade.poloniex.config.properties.PoloniexProperties;
+import com.crypto.trade.poloniex.dto.PoloniexHistoryTrade;
+import com.crypto.trade.poloniex.services.analytics.CurrencyPair;
+import com.crypto.trade.poloniex.services.analytics.HistoryAnalyticsService;
+import com.crypto.trade.poloniex.services.analytics.TimeFrame;
+import com.crypto.trade.poloniex.services.trade.HistoryService;
+import com.crypto.trade.poloniex.services.trade.ProfitCalculator;
+import com.crypto.trade.poloniex.storage.candles.CandlesBuffer;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.math.BigDecimal;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BacktestEngineTest {
+
+    private static final ZonedDateTime START = ZonedDateTime.of(2018, 4, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    @Mock
+    private HistoryService historyService;
+    @Spy
+    private HistoryAnalyticsService analyticsService;
+    @Spy
+    private ProfitCalculator profitCalculator;
+    @Spy
+    private PoloniexProperties properties;
+
+    @InjectMocks
+    private BacktestEngine backtestEngine;
+
+    private List<PoloniexHistoryTrade> trades;
+
+    @Before
+    public void setUp() {
+        Random random = new Random(42);
+        trades = new ArrayList<>();
+        double rate = 0.07;
+        // Two days of trades, every 15 seconds
+        for (long id = 0; id < 11520; id++) {
+            rate = Math.max(0.01, rate + (random.nextDouble() - 0.5) * 0.0004);
+            trades.add(createTrade(id, START.plusSeconds(id * 15), rate, random.nextDouble()));
+        }
+        Collections.shuffle(trades, random);
+    }
+
+    @Test
+    public void buildCandles() {
+        HistoryTrades history = HistoryTrades.of(trades);
+        CandlesBuffer oneMinute = history.buildCandles(TimeFrame.ONE_MINUTE);
+        CandlesBuffer fourHours = history.buildCandles(TimeFrame.FOUR_HOURS);
+
+        assertEquals(2880, oneMinute.size());
+        assertEquals(4, oneMinute.getTrades(0));
+        assertEquals(START.plusMinutes(1).toInstant().toEpochMilli(), oneMinute.getEndTime(0));
+        assertEquals(12, fourHours.size());
+        assertEquals(history.getRate(history.size() - 1), fourHours.getClose(fourHours.getEndIndex()), 0);
+    }
+
+    @Test
+    public void parallelRunMatchesSequentialRun() {
+        properties.getBacktest().setParallelism(1);
+        List<BacktestResult> sequential = backtestEngine.run(CurrencyPair.BTC_ETH, trades);
+        properties.getBacktest().setParallelism(4);
+        List<BacktestResult> parallel = backtestEngine.run(CurrencyPair.BTC_ETH, trades);
+
+        assertEquals(TimeFrame.values().length * 19, parallel.size());
+        assertTrue(parallel.stream().anyMatch(result -> result.getTradeResult().getTradesCount() > 0));
+        for (int i = 1; i < parallel.size(); i++) {
+            assertTrue(parallel.get(i - 1).getNetProfit().compareTo(parallel.get(i).getNetProfit()) >= 0);
+        }
+        assertEquals(netProfits(sequential), netProfits(parallel));
+    }
+
+    private static List<String> netProfits(List<BacktestResult> results) {
+        List<String> netProfits = new ArrayList<>();
+        results.stream()
+                .sorted((r1, r2) -> (r1.getTimeFrame() + r1.getStrategyName()).compareTo(r2.getTimeFrame() + r2.getStrategyName()))
+                .forEach(result -> netProfits.add(result.getTimeFrame() + " " + result.getStrategyName() + " " + result.getNetProfit()));
+        return netProfits;
+    }
+
+    private static PoloniexHistoryTrade createTrade(long id, ZonedDateTime date, double rate, double amount) {
+        PoloniexHistoryTrade trade = new PoloniexHistoryTrade();
+        trade.setTradeId(id);
+        trade.setGlobalTradeId(id);
+        trade.setDate(date);
+        trade.setType(id % 2 == 0 ? "buy" : "sell");
+        trade.setRate(BigDecimal.valueOf(rate).setScale(8, BigDecimal.ROUND_HALF_UP).toPlainString());
+        trade.setAmount(BigDecimal.valueOf(amount).setScale(8, BigDecimal.ROUND_HALF_UP).toPlainString());
+        return trade;
+    }
+}
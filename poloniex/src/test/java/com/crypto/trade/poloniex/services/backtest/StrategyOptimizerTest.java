@@ -0,0 +1,166 @@
+package com.crypto.trade.poloniex.services.backtest;
+
+import com.crypto.trade.poloniex.config.properties.PoloniexProperties;
+import com.crypto.trade.poloniex.config.properties.TradeConfig;
+import com.crypto.trade.poloniex.dto.PoloniexHistoryTrade;
+import com.crypto.trade.poloniex.services.analytics.CurrencyPair;
+import com.crypto.trade.poloniex.services.analytics.HistoryAnalyticsService;
+import com.crypto.trade.poloniex.services.analytics.TimeFrame;
+import com.crypto.trade.poloniex.services.analytics.model.StrategyConfig;
+import com.crypto.trade.poloniex.services.analytics.model.StrategyRules;
+import com.crypto.trade.poloniex.services.analytics.strategies.AnalyticsHelper;
+import com.crypto.trade.poloniex.services.analytics.strategies.ShortBuyStrategyFactory;
+import com.crypto.trade.poloniex.services.trade.HistoryService;
+import com.crypto.trade.poloniex.services.trade.ProfitCalculator;
+import com.crypto.trade.poloniex.storage.analytics.AnalyticsStorage;
+import com.crypto.trade.poloniex.storage.candles.CandlesBuffer;
+import com.crypto.trade.poloniex.storage.model.PoloniexStrategy;
+import eu.verdelhan.ta4j.Decimal;
+import eu.verdelhan.ta4j.Order;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.math.BigDecimal;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static eu.verdelhan.ta4j.Order.OrderType.BUY;
+import static eu.verdelhan.ta4j.Order.OrderType.SELL;
+import static org.junit.Assert.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class StrategyOptimizerTest {
+
+    private static final ZonedDateTime START = ZonedDateTime.of(2018, 4, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    @Mock
+    private HistoryService historyService;
+    @Spy
+    private HistoryAnalyticsService analyticsService;
+    @Spy
+    private ProfitCalculator profitCalculator;
+    @Spy
+    private PoloniexProperties properties;
+
+    @InjectMocks
+    private StrategyOptimizer strategyOptimizer;
+
+    private CandlesBuffer candles;
+
+    @Before
+    public void setUp() {
+        properties.setTradeConfig(new TradeConfig());
+        Random random = new Random(7);
+        List<PoloniexHistoryTrade> trades = new ArrayList<>();
+        // Two days of trades, every 15 seconds: a daily wave with 40 minutes pullbacks against its trend every hour
+        for (long id = 0; id < 11520; id++) {
+            double phase = id * 2 * Math.PI / 5760;
+            long minute = (id / 4) % 60;
+            double pullback = 0.003 * Math.max(0, 1 - Math.abs(minute - 20) / 20.0);
+            double rate = 0.07 + 0.01 * Math.sin(phase) - Math.signum(Math.cos(phase)) * pullback
+                    + (random.nextDouble() - 0.5) * 0.0001;
+            trades.add(createTrade(id, START.plusSeconds(id * 15), rate, random.nextDouble()));
+        }
+        candles = HistoryTrades.of(trades).buildCandles(TimeFrame.ONE_MINUTE);
+    }
+
+    @Test
+    public void gridAndRandomVariants() {
+        ParameterSpace space = new ParameterSpace();
+        List<StrategyVariant> grid = space.grid(BUY);
+        List<StrategyVariant> sample = space.random(BUY, 500, 1);
+
+        assertEquals(2880, space.size());
+        assertEquals(2880, new HashSet<>(grid).size());
+        assertEquals(500, new HashSet<>(sample).size());
+        assertTrue(grid.containsAll(sample));
+        assertEquals(sample, space.random(BUY, 500, 1));
+        assertEquals(2880, space.random(SELL, 5000, 1).size());
+    }
+
+    @Test
+    public void variantsShareIndicatorArrays() {
+        IndicatorArrays indicators = new IndicatorArrays(candles);
+        new ParameterSpace().grid(BUY)
+                .forEach(variant -> strategyOptimizer.createStrategy(variant, TimeFrame.ONE_MINUTE, indicators));
+
+        properties.getTradeConfig().setOptimizerTradeVolume(BigDecimal.valueOf(0.5));
+        assertEquals(BigDecimal.valueOf(0.5), strategyOptimizer.createStrategy(new ParameterSpace().grid(SELL).get(0),
+                TimeFrame.ONE_MINUTE, indicators).getTradeVolume());
+        // Close price, RSI, %K, %D and one EMA per period
+        assertEquals(4 + 5, indicators.size());
+        assertSame(indicators.getEma(90), indicators.getEma(90));
+        assertEquals(candles.size(), indicators.getEma(90).size());
+    }
+
+    @Test
+    public void variantMatchesFactoryStrategy() {
+        ShortBuyStrategyFactory factory = new ShortBuyStrategyFactory(new AnalyticsHelper(
+                new AnalyticsStorage(EnumSet.of(CurrencyPair.BTC_ETH), (pair, timeFrame) -> candles.getTimeSeries())));
+        StrategyRules rules = StrategyRules.of(Decimal.valueOf(0.5), Decimal.ONE);
+        StrategyEvaluator evaluator = new StrategyEvaluator(analyticsService, profitCalculator);
+        IndicatorArrays indicators = new IndicatorArrays(candles);
+
+        for (Order.OrderType direction : Order.OrderType.values()) {
+            StrategyConfig config = StrategyConfig.of(TimeFrame.ONE_MINUTE, BigDecimal.valueOf(0.08), direction, 1);
+            PoloniexStrategy expected = new PoloniexStrategy("expected", config, direction == BUY
+                    ? factory.createShortBuyEma90(CurrencyPair.BTC_ETH, TimeFrame.ONE_MINUTE, rules)
+                    : factory.createShortSellEma90(CurrencyPair.BTC_ETH, TimeFrame.ONE_MINUTE, rules));
+            StrategyVariant variant = StrategyVariant.of(direction, rules, 20, 20, 90, 90);
+
+            BacktestResult expectedResult = evaluator.evaluate(expected, candles);
+            BacktestResult result = evaluator.evaluate(
+                    strategyOptimizer.createStrategy(variant, TimeFrame.ONE_MINUTE, indicators), candles);
+
+            assertTrue(expectedResult.getTradeResult().getTradesCount() > 0);
+            assertEquals(expectedResult.getTradeResult().getTradesCount(), result.getTradeResult().getTradesCount());
+            assertEquals(expectedResult.getNetProfit(), result.getNetProfit());
+        }
+    }
+
+    @Test
+    public void parallelOptimizationMatchesSequential() {
+        ParameterSpace space = new ParameterSpace();
+        space.setStopGains(Collections.singletonList(0.5));
+        space.setMaxGainCorridors(Arrays.asList(1.0, 5.0));
+        space.setRsiThresholds(Arrays.asList(20, 30));
+        space.setStochasticThresholds(Collections.singletonList(20));
+        space.setEmaPeriods(Arrays.asList(30, 90));
+        List<StrategyVariant> variants = new ArrayList<>(space.grid(BUY));
+        variants.addAll(space.grid(SELL));
+
+        properties.getBacktest().setParallelism(1);
+        List<BacktestResult> sequential = strategyOptimizer.optimize(candles, TimeFrame.ONE_MINUTE, variants);
+        properties.getBacktest().setParallelism(4);
+        List<BacktestResult> parallel = strategyOptimizer.optimize(candles, TimeFrame.ONE_MINUTE, variants);
+
+        assertEquals(variants.size(), parallel.size());
+        assertTrue(parallel.stream().anyMatch(result -> result.getTradeResult().getTradesCount() > 0));
+        for (int i = 1; i < parallel.size(); i++) {
+            assertTrue(parallel.get(i - 1).getNetProfit().compareTo(parallel.get(i).getNetProfit()) >= 0);
+        }
+        assertEquals(netProfits(sequential), netProfits(parallel));
+    }
+
+    private static Map<String, BigDecimal> netProfits(List<BacktestResult> results) {
+        return results.stream().collect(Collectors.toMap(BacktestResult::getStrategyName, BacktestResult::getNetProfit));
+    }
+
+    private static PoloniexHistoryTrade createTrade(long id, ZonedDateTime date, double rate, double amount) {
+        PoloniexHistoryTrade trade = new PoloniexHistoryTrade();
+        trade.setTradeId(id);
+        trade.setGlobalTradeId(id);
+        trade.setDate(date);
+        trade.setType(id % 2 == 0 ? "buy" : "sell");
+        trade.setRate(BigDecimal.valueOf(rate).setScale(8, BigDecimal.ROUND_HALF_UP).toPlainString());
+        trade.setAmount(BigDecimal.valueOf(amount).setScale(8, BigDecimal.ROUND_HALF_UP).toPlainString());
+        return trade;
+    }
+}
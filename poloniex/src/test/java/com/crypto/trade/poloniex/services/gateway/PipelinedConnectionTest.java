@@ -0,0 +1,107 @@
+package com.crypto.trade.poloniex.services.gateway;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.*;
+import org.junit.Test;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.Assert.*;
+
+public class PipelinedConnectionTest {
+
+    private final PipelinedConnection connection = new PipelinedConnection();
+
+    @Test
+    public void requestsSentWhileConnectingAreWrittenInOrder() throws Exception {
+        CompletableFuture<ResponseEntity<String>> first = connection.send(request("/first"), 1000);
+        CompletableFuture<ResponseEntity<String>> second = connection.send(request("/second"), 1000);
+        assertTrue(connection.isActive());
+
+        EmbeddedChannel channel = new EmbeddedChannel(connection);
+        connection.connected(channel);
+
+        assertEquals("/first", channel.<FullHttpRequest>readOutbound().uri());
+        assertEquals("/second", channel.<FullHttpRequest>readOutbound().uri());
+        channel.writeInbound(response("1"));
+        assertEquals("1", first.get().getBody());
+        assertFalse(second.isDone());
+    }
+
+    @Test
+    public void sendFailsOnClosedChannel() {
+        EmbeddedChannel channel = new EmbeddedChannel(connection);
+        connection.connected(channel);
+        channel.close();
+
+        assertFalse(connection.isActive());
+        assertTrue(connection.send(request("/"), 1000).isCompletedExceptionally());
+    }
+
+    @Test
+    public void failedConnectFailsQueuedRequests() {
+        CompletableFuture<ResponseEntity<String>> response = connection.send(request("/"), 1000);
+        connection.connectFailed(new IllegalStateException("refused"));
+
+        assertFalse(connection.isActive());
+        assertTrue(response.isCompletedExceptionally());
+    }
+
+    @Test
+    public void timeoutFailsResponse() throws InterruptedException {
+        EmbeddedChannel channel = new EmbeddedChannel(connection);
+        connection.connected(channel);
+        CompletableFuture<ResponseEntity<String>> response = connection.send(request("/"), 1);
+
+        Thread.sleep(10);
+        channel.runPendingTasks();
+
+        try {
+            response.get();
+            fail("Response should time out");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof NoResponseException);
+        }
+        assertFalse(channel.isActive());
+    }
+
+    @Test
+    public void closedConnectionLeavesWrittenRequestsUnknown() throws InterruptedException {
+        EmbeddedChannel channel = new EmbeddedChannel(connection);
+        connection.connected(channel);
+        CompletableFuture<ResponseEntity<String>> first = connection.send(request("/first"), 1000);
+        CompletableFuture<ResponseEntity<String>> second = connection.send(request("/second"), 1000);
+
+        channel.close();
+
+        try {
+            first.get();
+            fail("Response should not be received");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof NoResponseException);
+        }
+        assertTrue(second.isCompletedExceptionally());
+        // Requests not written any more fail outright
+        try {
+            connection.send(request("/third"), 1000).get();
+            fail("Request should not be written");
+        } catch (ExecutionException e) {
+            assertFalse(e.getCause() instanceof NoResponseException);
+        }
+    }
+
+    private static FullHttpRequest request(String uri) {
+        return new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, uri, Unpooled.EMPTY_BUFFER);
+    }
+
+    private static FullHttpResponse response(String body) {
+        FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK,
+                Unpooled.copiedBuffer(body, StandardCharsets.UTF_8));
+        HttpUtil.setKeepAlive(response, true);
+        return response;
+    }
+}
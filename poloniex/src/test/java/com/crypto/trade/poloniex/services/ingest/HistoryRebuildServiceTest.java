@@ -0,0 +1,100 @@
+package com.crypto.trade.poloniex.services.ingest;
+
+import com.crypto.trade.poloniex.config.properties.PoloniexProperties;
+import com.crypto.trade.poloniex.storage.CandlesStorage;
+import com.crypto.trade.poloniex.storage.TradesStorage;
+import com.crypto.trade.poloniex.storage.candles.CandlesBuffer;
+import com.crypto.trade.poloniex.storage.history.TradesCursor;
+import com.crypto.trade.poloniex.storage.trades.TradesLog;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.crypto.trade.poloniex.services.analytics.CurrencyPair.BTC_ETH;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class HistoryRebuildServiceTest {
+
+    private static final long START = 1522540800000L;
+
+    @Spy
+    private PoloniexProperties poloniexProperties;
+    @Mock
+    private TradesIngestPipeline tradesIngestPipeline;
+    @Mock
+    private TradesStorage tradesStorage;
+    @Mock
+    private CandlesStorage candlesStorage;
+
+    @InjectMocks
+    private HistoryRebuildService historyRebuildService;
+
+    @Before
+    public void setUp() {
+        historyRebuildService.start();
+        doAnswer(invocation -> {
+            ((Runnable) invocation.getArguments()[1]).run();
+            return null;
+        }).when(tradesIngestPipeline).execute(eq(BTC_ETH), any(Runnable.class));
+    }
+
+    @After
+    public void tearDown() {
+        historyRebuildService.stop();
+    }
+
+    @Test
+    public void historyIsReadOffTheWorker() {
+        // Two hours of trades, one per second
+        TradesLog history = new TradesLog();
+        for (int i = 0; i < 7200; i++) {
+            history.add(START + i * 1000L, i, 0.07, 1, true);
+        }
+        TradesLog live = new TradesLog();
+        live.add(START + 7200 * 1000L, 7200, 0.08, 1, true);
+        given(tradesStorage.startHistoryRebuild(BTC_ETH)).willReturn(live);
+        List<CandlesBuffer> candles = Collections.singletonList(new CandlesBuffer("test", Duration.ofMinutes(1), 10));
+        AtomicInteger builtTrades = new AtomicInteger();
+        given(candlesStorage.buildCandles(eq(BTC_ETH), any(TradesCursor.class), any())).will(invocation -> {
+            TradesCursor cursor = (TradesCursor) invocation.getArguments()[1];
+            while (cursor.next()) {
+                builtTrades.incrementAndGet();
+            }
+            return candles;
+        });
+        AtomicInteger opened = new AtomicInteger();
+        AtomicInteger ringTrades = new AtomicInteger();
+        doAnswer(invocation -> {
+            TradesCursor cursor = (TradesCursor) invocation.getArguments()[1];
+            while (cursor.next()) {
+                ringTrades.incrementAndGet();
+            }
+            return null;
+        }).when(tradesStorage).finishHistoryRebuild(eq(BTC_ETH), any(TradesCursor.class), eq(candles));
+
+        historyRebuildService.rebuild(BTC_ETH, () -> {
+            opened.incrementAndGet();
+            return history.cursor();
+        }).join();
+
+        assertEquals(7201, builtTrades.get());
+        assertEquals(2, opened.get());
+        // Only the last hour and the current minute are handed to the worker for its trades ring
+        assertEquals(61 * 60, ringTrades.get());
+    }
+}
@@ -0,0 +1,36 @@
+package com.crypto.trade.poloniex.services.ingest;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void percentilesAreWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getPercentileMicros(0.5));
+        for (long micros = 1; micros <= 1000; micros++) {
+            histogram.recordNanos(TimeUnit.MICROSECONDS.toNanos(micros));
+        }
+
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1000, histogram.getMaxMicros());
+        assertEquals(500, histogram.getPercentileMicros(0.5), 500 * 0.07);
+        assertEquals(990, histogram.getPercentileMicros(0.99), 990 * 0.07);
+        assertEquals(1000, histogram.getPercentileMicros(1));
+        assertTrue(histogram.getPercentileMicros(0.5) <= histogram.getPercentileMicros(0.99));
+    }
+
+    @Test
+    public void smallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.recordNanos(TimeUnit.MICROSECONDS.toNanos(3));
+        histogram.recordNanos(TimeUnit.MICROSECONDS.toNanos(7));
+
+        assertEquals(3, histogram.getPercentileMicros(0.5));
+        assertEquals(7, histogram.getPercentileMicros(0.99));
+    }
+}
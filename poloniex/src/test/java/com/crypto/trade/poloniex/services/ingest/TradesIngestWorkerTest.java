@@ -0,0 +1,80 @@
+package com.crypto.trade.poloniex.services.ingest;
+
+import com.crypto.trade.poloniex.config.properties.IngestConfig;
+import com.crypto.trade.poloniex.dto.PoloniexTrade;
+import com.crypto.trade.poloniex.services.analytics.CurrencyPair;
+import com.crypto.trade.poloniex.services.ws.WsTradeEvent;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class TradesIngestWorkerTest {
+
+    private static final int TRADES_COUNT = 100000;
+
+    @Test
+    public void consumeTradesInOrder() throws InterruptedException {
+        IngestConfig config = new IngestConfig();
+        config.setBufferSize(64);
+        List<PoloniexTrade> trades = new ArrayList<>();
+        CountDownLatch consumed = new CountDownLatch(TRADES_COUNT);
+        TradesIngestWorker worker = new TradesIngestWorker(CurrencyPair.BTC_ETH, config, event -> {
+            trades.add(event.toPoloniexTrade());
+            consumed.countDown();
+        });
+        worker.start();
+
+        WsTradeEvent event = new WsTradeEvent();
+        for (int i = 0; i < TRADES_COUNT; i++) {
+            event.setTradeId(i);
+            event.setRate(7000000L);
+            event.setAmount(i);
+            assertTrue(worker.publish(event));
+        }
+        assertTrue(consumed.await(10, TimeUnit.SECONDS));
+        worker.stop();
+
+        for (int i = 0; i < TRADES_COUNT; i++) {
+            assertEquals(i, trades.get(i).getTradeId().longValue());
+        }
+        assertEquals("0.07000000", trades.get(0).getRate());
+        assertEquals(TRADES_COUNT, worker.getConsumed());
+        assertEquals(0, worker.getOverflows());
+    }
+
+    @Test
+    public void dropOnOverflow() throws InterruptedException {
+        IngestConfig config = new IngestConfig();
+        config.setBufferSize(2);
+        config.setOverflowPolicy(OverflowPolicy.DROP);
+        TradesIngestWorker worker = new TradesIngestWorker(CurrencyPair.BTC_ETH, config, trade -> {
+        });
+
+        assertTrue(worker.publish(TradesRingBufferTest.event(0)));
+        assertTrue(worker.publish(TradesRingBufferTest.event(1)));
+        assertFalse(worker.publish(TradesRingBufferTest.event(2)));
+        assertEquals(1, worker.getOverflows());
+    }
+
+    @Test
+    public void runTasksOnWorkerThread() throws InterruptedException {
+        TradesIngestWorker worker = new TradesIngestWorker(CurrencyPair.BTC_LTC, new IngestConfig(), trade -> {
+        });
+        worker.start();
+        CountDownLatch executed = new CountDownLatch(1);
+        String[] threadName = new String[1];
+        worker.execute(() -> {
+            threadName[0] = Thread.currentThread().getName();
+            executed.countDown();
+        });
+
+        assertTrue(executed.await(5, TimeUnit.SECONDS));
+        worker.stop();
+        assertEquals("trades-ingest-BTC_LTC", threadName[0]);
+    }
+}
@@ -0,0 +1,69 @@
+package com.crypto.trade.poloniex.services.ingest;
+
+import com.crypto.trade.poloniex.services.ws.WsTradeEvent;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TradesRingBufferTest {
+
+    @Test
+    public void roundSizeToPowerOfTwo() {
+        assertEquals(8, new TradesRingBuffer(5).getSize());
+        assertEquals(16, new TradesRingBuffer(16).getSize());
+    }
+
+    @Test
+    public void rejectWhenFull() {
+        TradesRingBuffer buffer = new TradesRingBuffer(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(event(i)));
+        }
+        assertFalse(buffer.offer(event(4)));
+        assertEquals(4, buffer.getBacklog());
+
+        List<Long> tradeIds = new ArrayList<>();
+        assertEquals(2, buffer.drain(new WsTradeEvent(), event -> {
+            assertEquals(1000 + event.getTradeId(), event.getReceivedNanos());
+            tradeIds.add(event.getTradeId());
+        }, 2));
+        assertTrue(buffer.offer(event(4)));
+        assertTrue(buffer.offer(event(5)));
+        assertEquals(4, buffer.drain(new WsTradeEvent(), event -> tradeIds.add(event.getTradeId()), 10));
+
+        assertEquals(6, tradeIds.size());
+        for (int i = 0; i < 6; i++) {
+            assertEquals(i, tradeIds.get(i).longValue());
+        }
+        assertEquals(0, buffer.getBacklog());
+    }
+
+    @Test
+    public void skipFailedTrade() {
+        TradesRingBuffer buffer = new TradesRingBuffer(4);
+        buffer.offer(event(0));
+        buffer.offer(event(1));
+        try {
+            buffer.drain(new WsTradeEvent(), event -> {
+                throw new IllegalStateException();
+            }, 10);
+            fail();
+        } catch (IllegalStateException ex) {
+            assertEquals(1, buffer.getConsumed());
+        }
+    }
+
+    static WsTradeEvent event(long tradeId) {
+        WsTradeEvent event = new WsTradeEvent();
+        event.setTradeId(tradeId);
+        event.setRate(7000000L);
+        event.setAmount(100000000L + tradeId);
+        event.setEpochSeconds(1500000000L + tradeId);
+        event.setBuy(tradeId % 2 == 0);
+        event.setReceivedNanos(1000 + tradeId);
+        return event;
+    }
+}
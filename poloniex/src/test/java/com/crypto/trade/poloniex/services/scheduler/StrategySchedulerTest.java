@@ -0,0 +1,94 @@
+package com.crypto.trade.poloniex.services.scheduler;
+
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.boot.actuate.metrics.Metric;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static com.crypto.trade.poloniex.services.analytics.CurrencyPair.BTC_ETH;
+import static com.crypto.trade.poloniex.services.analytics.CurrencyPair.BTC_LTC;
+import static com.crypto.trade.poloniex.services.analytics.TimeFrame.FIVE_MINUTES;
+import static com.crypto.trade.poloniex.services.analytics.TimeFrame.ONE_MINUTE;
+import static org.junit.Assert.*;
+
+public class StrategySchedulerTest {
+
+    private final StrategyScheduler scheduler = new StrategyScheduler(ExecutorBackend.FIXED.create(4));
+
+    @After
+    public void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void seriesTasksRunInOrderOneAtATime() throws InterruptedException {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(200);
+        for (int i = 0; i < 200; i++) {
+            int task = i;
+            scheduler.submit(BTC_ETH, ONE_MINUTE, () -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                order.add(task);
+                running.decrementAndGet();
+                done.countDown();
+            });
+        }
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(1, maxRunning.get());
+        for (int i = 0; i < 200; i++) {
+            assertEquals(i, order.get(i).intValue());
+        }
+    }
+
+    @Test
+    public void seriesRunInParallel() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(3);
+        CountDownLatch release = new CountDownLatch(1);
+        Runnable blocking = () -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        scheduler.submit(BTC_ETH, ONE_MINUTE, blocking);
+        scheduler.submit(BTC_ETH, FIVE_MINUTES, blocking);
+        scheduler.submit(BTC_LTC, ONE_MINUTE, blocking);
+        scheduler.submit(BTC_ETH, ONE_MINUTE, blocking);
+
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertEquals(1, scheduler.getQueueDepth(BTC_ETH, ONE_MINUTE));
+        Map<String, Number> metrics = scheduler.metrics().stream()
+                .collect(Collectors.toMap(Metric::getName, Metric::getValue));
+        release.countDown();
+
+        assertEquals(1, metrics.get("strategy.BTC_ETH.minute-1.queue"));
+        assertEquals(0, metrics.get("strategy.BTC_LTC.minute-1.queue"));
+        assertEquals(21, metrics.size());
+    }
+
+    @Test
+    public void rejectedTasksAreDroppedAndCounted() {
+        scheduler.shutdown();
+        scheduler.submit(BTC_ETH, ONE_MINUTE, () -> fail("Task run after shutdown"));
+        scheduler.submit(BTC_ETH, ONE_MINUTE, () -> fail("Task run after shutdown"));
+
+        assertEquals(0, scheduler.getQueueDepth(BTC_ETH, ONE_MINUTE));
+        Map<String, Number> metrics = scheduler.metrics().stream()
+                .collect(Collectors.toMap(Metric::getName, Metric::getValue));
+        assertEquals(2L, metrics.get("strategy.BTC_ETH.minute-1.rejected"));
+        assertEquals(0L, metrics.get("strategy.BTC_ETH.minute-1.executed"));
+    }
+}
@@ -0,0 +1,75 @@
+package com.crypto.trade.poloniex.services.scheduler;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TimingWheelTest {
+
+    private static final long START = 1522540800000L;
+
+    @Test
+    public void tasksRunAtTheirDeadlineOnEveryLevel() {
+        TimingWheel timingWheel = new TimingWheel(100, START);
+        List<Long> deadlines = Arrays.asList(START + 50, START + 6_500, START + TimeUnit.MINUTES.toMillis(10),
+                START + TimeUnit.HOURS.toMillis(4), START + TimeUnit.DAYS.toMillis(30));
+        List<Long> runTimes = new ArrayList<>();
+        long[] now = {START};
+        deadlines.forEach(deadline -> timingWheel.schedule(deadline, () -> runTimes.add(now[0])));
+
+        long end = START + TimeUnit.DAYS.toMillis(31);
+        for (; now[0] <= end; now[0] += 100) {
+            timingWheel.advance(now[0]);
+        }
+
+        assertEquals(deadlines.size(), runTimes.size());
+        for (int i = 0; i < deadlines.size(); i++) {
+            long lateMillis = runTimes.get(i) - deadlines.get(i);
+            assertTrue("Task " + i + " late by " + lateMillis, lateMillis >= 0 && lateMillis < 100);
+        }
+        assertEquals(0, timingWheel.size());
+    }
+
+    @Test
+    public void rescheduledTaskRunsOncePerPeriod() {
+        TimingWheel timingWheel = new TimingWheel(100, START);
+        List<Long> runs = new ArrayList<>();
+        long period = TimeUnit.MINUTES.toMillis(1);
+        Runnable[] task = new Runnable[1];
+        long[] deadline = {START + period};
+        task[0] = () -> {
+            runs.add(deadline[0]);
+            deadline[0] += period;
+            timingWheel.schedule(deadline[0], task[0]);
+        };
+        timingWheel.schedule(deadline[0], task[0]);
+
+        // A late clock thread runs the missed deadlines in one turn
+        timingWheel.advance(START + TimeUnit.MINUTES.toMillis(30) + 10);
+        for (long now = START + TimeUnit.MINUTES.toMillis(30); now <= START + TimeUnit.HOURS.toMillis(2); now += 100) {
+            timingWheel.advance(now);
+        }
+
+        assertEquals(120, runs.size());
+        for (int i = 0; i < runs.size(); i++) {
+            assertEquals(START + (i + 1) * period, (long) runs.get(i));
+        }
+        assertEquals(1, timingWheel.size());
+    }
+
+    @Test
+    public void pastDeadlineRunsOnNextAdvance() {
+        TimingWheel timingWheel = new TimingWheel(100, START);
+        List<String> runs = new ArrayList<>();
+        timingWheel.schedule(START - 1000, () -> runs.add("past"));
+
+        assertEquals(1, timingWheel.advance(START));
+        assertEquals(Arrays.asList("past"), runs);
+    }
+}
@@ -0,0 +1,154 @@
+package com.crypto.trade.poloniex.services.trade;
+
+import com.crypto.trade.poloniex.config.properties.ApiResources;
+import com.crypto.trade.poloniex.config.properties.PoloniexProperties;
+import com.crypto.trade.poloniex.dto.PoloniexHistoryTrade;
+import com.crypto.trade.poloniex.services.utils.SyncUtils;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Spy;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.crypto.trade.poloniex.services.analytics.CurrencyPair.BTC_ETH;
+import static org.junit.Assert.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class HistoryDownloaderTest {
+
+    private static final Instant START = ZonedDateTime.of(2018, 4, 1, 0, 0, 0, 0, ZoneOffset.UTC).toInstant();
+    private static final Instant END = START.plusSeconds(2 * 24 * 3600);
+    private static final int TRADES_INTERVAL = 10;
+    private static final int RESULT_CAP = 500;
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneOffset.UTC);
+
+    @Spy
+    private PoloniexProperties properties;
+    @Spy
+    private RestTemplate restTemplate = new RestTemplate();
+    @Spy
+    private SyncUtils syncUtils;
+
+    @InjectMocks
+    private HistoryDownloader historyDownloader;
+
+    private HttpServer server;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger cappedResponses = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    @Before
+    public void setUp() throws IOException {
+        // Stub of the public API: a trade every 10 seconds, newest first, capped and failing every 5th request
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/public", this::handle);
+        server.setExecutor(Executors.newFixedThreadPool(8));
+        server.start();
+
+        ApiResources api = new ApiResources();
+        api.setTradeHistoryUrl("http://localhost:" + server.getAddress().getPort()
+                + "/public?command=returnTradeHistory&currencyPair={currencyPair}&start={startTime}&end={endTime}");
+        properties.setApi(api);
+        properties.getDownload().setParallelism(4);
+        properties.getDownload().setRequestsPerSecond(1000);
+        properties.getDownload().setResultCap(RESULT_CAP);
+        properties.getDownload().setBaseBackoffMillis(1);
+        properties.getDownload().setMaxBackoffMillis(10);
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void downloadSplitsCappedWindowsAndRetries() {
+        List<PoloniexHistoryTrade> trades = historyDownloader.download(BTC_ETH, START, END);
+
+        assertEquals((END.getEpochSecond() - START.getEpochSecond()) / TRADES_INTERVAL, trades.size());
+        for (int i = 0; i < trades.size(); i++) {
+            long time = START.getEpochSecond() + (long) i * TRADES_INTERVAL;
+            assertEquals(time, trades.get(i).getDate().toEpochSecond());
+            assertEquals(Long.valueOf(time), trades.get(i).getGlobalTradeId());
+        }
+        assertTrue(cappedResponses.get() > 0);
+        assertTrue(requests.get() > 16 * 7);
+        assertTrue(maxInFlight.get() <= 4);
+    }
+
+    @Test
+    public void mergeKeepsOrder() {
+        List<PoloniexHistoryTrade> first = Arrays.asList(createTrade(1), createTrade(4), createTrade(5));
+        List<PoloniexHistoryTrade> second = Arrays.asList(createTrade(2), createTrade(3), createTrade(6));
+        List<PoloniexHistoryTrade> merged = new ArrayList<>();
+
+        HistoryDownloader.merge(Arrays.asList(first, Collections.emptyList(), second), merged::add);
+
+        long[] ids = merged.stream().mapToLong(PoloniexHistoryTrade::getGlobalTradeId).toArray();
+        assertArrayEquals(new long[]{1, 2, 3, 4, 5, 6}, ids);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        int request = requests.incrementAndGet();
+        int current = inFlight.incrementAndGet();
+        maxInFlight.accumulateAndGet(current, Math::max);
+        try {
+            if (request % 5 == 0) {
+                exchange.sendResponseHeaders(500, -1);
+                return;
+            }
+            Map<String, String> query = new HashMap<>();
+            for (String parameter : exchange.getRequestURI().getQuery().split("&")) {
+                String[] pair = parameter.split("=");
+                query.put(pair[0], pair[1]);
+            }
+            long start = Long.parseLong(query.get("start"));
+            long end = Long.parseLong(query.get("end"));
+            long first = (start + TRADES_INTERVAL - 1) / TRADES_INTERVAL * TRADES_INTERVAL;
+            StringJoiner json = new StringJoiner(",", "[", "]");
+            int count = 0;
+            for (long time = end / TRADES_INTERVAL * TRADES_INTERVAL; time >= first && count < RESULT_CAP; time -= TRADES_INTERVAL, count++) {
+                json.add("{\"globalTradeID\":" + time + ",\"tradeID\":" + time + ",\"date\":\"" + DATE_FORMAT.format(Instant.ofEpochSecond(time))
+                        + "\",\"type\":\"buy\",\"rate\":\"0.07\",\"amount\":\"1.0\",\"total\":\"0.07\"}");
+            }
+            if (count == RESULT_CAP) {
+                cappedResponses.incrementAndGet();
+            }
+            byte[] body = json.toString().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(body);
+            }
+        } finally {
+            inFlight.decrementAndGet();
+            exchange.close();
+        }
+    }
+
+    private static PoloniexHistoryTrade createTrade(long id) {
+        PoloniexHistoryTrade trade = new PoloniexHistoryTrade();
+        trade.setGlobalTradeId(id);
+        trade.setTradeId(id);
+        trade.setDate(ZonedDateTime.ofInstant(START.plusSeconds(id), ZoneOffset.UTC));
+        return trade;
+    }
+}
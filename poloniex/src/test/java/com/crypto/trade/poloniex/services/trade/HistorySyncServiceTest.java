@@ -0,0 +1,161 @@
+package com.crypto.trade.poloniex.services.trade;
+
+import com.crypto.trade.poloniex.config.properties.PoloniexProperties;
+import com.crypto.trade.poloniex.dto.PoloniexHistoryTrade;
+import com.crypto.trade.poloniex.storage.history.HistoryCheckpoint;
+import com.crypto.trade.poloniex.storage.history.TradesHistoryFormat;
+import com.crypto.trade.poloniex.storage.history.TradesHistoryWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static com.crypto.trade.poloniex.services.analytics.CurrencyPair.BTC_ETH;
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verify;
+
+@RunWith(MockitoJUnitRunner.class)
+public class HistorySyncServiceTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Spy
+    private PoloniexProperties properties;
+    @Spy
+    private ObjectMapper objectMapper;
+    @Mock
+    private HistoryDownloader historyDownloader;
+
+    @InjectMocks
+    private HistorySyncService historySyncService;
+    @InjectMocks
+    private MappedTradesHistoryService historyService;
+
+    // Server side trades, two per second starting 8 hours ago
+    private final List<PoloniexHistoryTrade> serverTrades = new ArrayList<>();
+    private long start;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        properties.getHistory().setDirectory(folder.getRoot().getPath());
+        start = Instant.now().minusSeconds(8 * 3600).getEpochSecond();
+        addServerTrades(8 * 3600 - 120);
+        doAnswer(invocation -> {
+            long from = ((Instant) invocation.getArguments()[1]).getEpochSecond();
+            long to = ((Instant) invocation.getArguments()[2]).getEpochSecond();
+            Consumer<PoloniexHistoryTrade> consumer = (Consumer<PoloniexHistoryTrade>) invocation.getArguments()[3];
+            serverTrades.stream()
+                    .filter(trade -> trade.getDate().toEpochSecond() >= from && trade.getDate().toEpochSecond() < to)
+                    .forEach(consumer);
+            return null;
+        }).when(historyDownloader).download(eq(BTC_ETH), any(Instant.class), any(Instant.class), any(Consumer.class));
+    }
+
+    @Test
+    public void syncAppendsOnlyDelta() throws IOException {
+        // First sync without local history loads the warm up range
+        int warmUpTrades = historySyncService.sync(BTC_ETH);
+        assertTrue(warmUpTrades > 6 * 3600 * 2 - 300 && warmUpTrades <= 6 * 3600 * 2);
+        HistoryCheckpoint checkpoint = historySyncService.getCheckpoint(BTC_ETH);
+        assertEquals(serverTrades.get(serverTrades.size() - 1).getTradeId().longValue(), checkpoint.getLastTradeId());
+
+        // Second trade of the last synced second arrives late, then the next minute of trades
+        PoloniexHistoryTrade late = createTrade(checkpoint.getLastTradeId() + 1, checkpoint.getLastTradeTime());
+        serverTrades.add(late);
+        addServerTrades(60);
+        assertEquals(121, historySyncService.sync(BTC_ETH));
+        assertEquals(0, historySyncService.sync(BTC_ETH));
+
+        // Checkpoint is rebuilt from the files when lost
+        Files.delete(TradesHistoryFormat.getCheckpointPath(folder.getRoot().getPath(), BTC_ETH));
+        assertEquals(0, historySyncService.sync(BTC_ETH));
+
+        LocalDateTime from = LocalDateTime.ofEpochSecond(start, 0, ZoneOffset.UTC);
+        List<PoloniexHistoryTrade> stored = historyService.loadTradesHistory(BTC_ETH, from, from.plusDays(1));
+        assertEquals(warmUpTrades + 121, stored.size());
+        for (int i = 1; i < stored.size(); i++) {
+            assertEquals(stored.get(i - 1).getTradeId() + 1, stored.get(i).getTradeId().longValue());
+        }
+    }
+
+    @Test
+    public void syncResumesAfterBlockAppendedWithoutCheckpoint() throws IOException {
+        int warmUpTrades = historySyncService.sync(BTC_ETH);
+        int synced = serverTrades.size();
+        addServerTrades(60);
+        // Killed between the block append and the checkpoint save
+        PoloniexHistoryTrade lastAppended = serverTrades.get(synced + 59);
+        // The block is a part of one day file
+        LocalDate day = lastAppended.getDate().withZoneSameInstant(ZoneOffset.UTC).toLocalDate();
+        List<PoloniexHistoryTrade> block = new ArrayList<>();
+        for (PoloniexHistoryTrade trade : serverTrades.subList(synced, synced + 60)) {
+            if (trade.getDate().withZoneSameInstant(ZoneOffset.UTC).toLocalDate().equals(day)) {
+                block.add(trade);
+            }
+        }
+        TradesHistoryWriter.append(TradesHistoryFormat.getPath(folder.getRoot().getPath(), BTC_ETH, day), block);
+
+        assertEquals(lastAppended.getTradeId().longValue(), historySyncService.getCheckpoint(BTC_ETH).getLastTradeId());
+        assertEquals(120 - block.size(), historySyncService.sync(BTC_ETH));
+
+        LocalDateTime from = LocalDateTime.ofEpochSecond(start, 0, ZoneOffset.UTC);
+        List<PoloniexHistoryTrade> stored = historyService.loadTradesHistory(BTC_ETH, from, from.plusDays(1));
+        assertEquals(warmUpTrades + 120, stored.size());
+        for (int i = 1; i < stored.size(); i++) {
+            assertEquals(stored.get(i - 1).getTradeId() + 1, stored.get(i).getTradeId().longValue());
+        }
+    }
+
+    @Test
+    public void firstSyncRequestsWarmUpRange() {
+        properties.getHistory().setWarmUpHours(1);
+        historySyncService.sync(BTC_ETH);
+
+        verify(historyDownloader).download(eq(BTC_ETH), any(Instant.class), any(Instant.class), any());
+        assertEquals(historySyncService.getCheckpoint(BTC_ETH).getLastTradeTime(),
+                serverTrades.get(serverTrades.size() - 1).getDate().toEpochSecond());
+    }
+
+    private void addServerTrades(int seconds) {
+        long id = serverTrades.isEmpty() ? 1 : serverTrades.get(serverTrades.size() - 1).getTradeId() + 1;
+        long first = serverTrades.isEmpty() ? start : serverTrades.get(serverTrades.size() - 1).getDate().toEpochSecond() + 1;
+        for (long time = first; time < first + seconds; time++) {
+            serverTrades.add(createTrade(id++, time));
+            serverTrades.add(createTrade(id++, time));
+        }
+    }
+
+    private static PoloniexHistoryTrade createTrade(long id, long time) {
+        PoloniexHistoryTrade trade = new PoloniexHistoryTrade();
+        trade.setGlobalTradeId(1000000 + id);
+        trade.setTradeId(id);
+        trade.setDate(ZonedDateTime.ofInstant(Instant.ofEpochSecond(time), ZoneOffset.UTC));
+        trade.setType("buy");
+        trade.setRate("0.07");
+        trade.setAmount("1.0");
+        trade.setTotal("0.07");
+        return trade;
+    }
+}
@@ -0,0 +1,126 @@
+package com.crypto.trade.poloniex.services.trade;
+
+import com.crypto.trade.poloniex.config.properties.PoloniexProperties;
+import com.crypto.trade.poloniex.dto.PoloniexHistoryTrade;
+import com.crypto.trade.poloniex.storage.history.TradesCursor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Spy;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.crypto.trade.poloniex.services.analytics.CurrencyPair.BTC_ETH;
+import static org.junit.Assert.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class MappedTradesHistoryServiceTest {
+
+    private static final ZonedDateTime START = ZonedDateTime.of(2018, 4, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Spy
+    private PoloniexProperties properties;
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @InjectMocks
+    private HistoryFormatConverter historyFormatConverter;
+    @InjectMocks
+    private MappedTradesHistoryService historyService;
+
+    @Before
+    public void setUp() throws IOException {
+        properties.getHistory().setDirectory(folder.getRoot().getPath());
+        Path directory = Files.createDirectories(folder.getRoot().toPath().resolve(BTC_ETH.toString()));
+        // Three days of legacy JSON history, a trade every minute
+        for (int day = 0; day < 3; day++) {
+            List<PoloniexHistoryTrade> trades = new ArrayList<>();
+            for (int minute = 0; minute < 1440; minute++) {
+                long id = day * 1440 + minute;
+                trades.add(createTrade(id, START.plusMinutes(id), 0.07 + id * 0.00000001));
+            }
+            LocalDate date = START.toLocalDate().plusDays(day);
+            objectMapper.writeValue(directory.resolve("poloniex-" + date + ".json").toFile(), trades);
+        }
+    }
+
+    @Test
+    public void convertAndLoadRange() {
+        assertEquals(3, historyFormatConverter.convert(BTC_ETH));
+        assertEquals(0, historyFormatConverter.convert(BTC_ETH));
+
+        List<PoloniexHistoryTrade> trades = historyService.loadTradesHistory(BTC_ETH,
+                START.plusHours(12).toLocalDateTime(), START.plusDays(2).plusHours(6).toLocalDateTime());
+
+        assertEquals(1440 + 18 * 60, trades.size());
+        PoloniexHistoryTrade first = trades.get(0);
+        assertEquals(Long.valueOf(720), first.getTradeId());
+        assertEquals(START.plusHours(12).toEpochSecond(), first.getDate().toEpochSecond());
+        assertEquals(0, new BigDecimal("0.07000720").compareTo(new BigDecimal(first.getRate())));
+        assertEquals("buy", first.getType());
+        assertEquals(START.plusDays(2).plusHours(6).minusMinutes(1).toEpochSecond(),
+                trades.get(trades.size() - 1).getDate().toEpochSecond());
+    }
+
+    @Test
+    public void cursorReadsRangeWithoutLoadingIt() {
+        historyFormatConverter.convert(BTC_ETH);
+        LocalDateTime start = START.plusHours(12).toLocalDateTime();
+        LocalDateTime end = START.plusDays(2).plusHours(6).toLocalDateTime();
+        List<PoloniexHistoryTrade> trades = historyService.loadTradesHistory(BTC_ETH, start, end);
+
+        TradesCursor cursor = historyService.openTradesCursor(BTC_ETH, start, end);
+        for (PoloniexHistoryTrade trade : trades) {
+            assertTrue(cursor.next());
+            assertEquals(trade.getDate().toInstant().toEpochMilli(), cursor.getTimeMillis());
+            assertEquals(trade.getTradeId().longValue(), cursor.getTradeId());
+            assertEquals(Double.parseDouble(trade.getRate()), cursor.getRate(), 0);
+            assertEquals(Double.parseDouble(trade.getAmount()), cursor.getAmount(), 0);
+            assertEquals("buy".equals(trade.getType()), cursor.isBuy());
+        }
+        assertFalse(cursor.next());
+        assertFalse(cursor.next());
+        assertFalse(historyService.openTradesCursor(BTC_ETH, START.minusDays(5).toLocalDateTime(),
+                START.minusDays(1).toLocalDateTime()).next());
+    }
+
+    @Test
+    public void missingDaysAreSkipped() {
+        historyFormatConverter.convert(BTC_ETH);
+
+        assertTrue(historyService.loadTradesHistory(BTC_ETH, START.minusDays(5).toLocalDateTime(),
+                START.minusDays(1).toLocalDateTime()).isEmpty());
+        assertEquals(3 * 1440, historyService.loadTradesHistory(BTC_ETH, START.minusDays(1).toLocalDateTime(),
+                START.plusDays(4).toLocalDateTime()).size());
+    }
+
+    private static PoloniexHistoryTrade createTrade(long id, ZonedDateTime date, double rate) {
+        PoloniexHistoryTrade trade = new PoloniexHistoryTrade();
+        trade.setTradeId(id);
+        trade.setGlobalTradeId(id);
+        trade.setDate(date);
+        trade.setType(id % 2 == 0 ? "buy" : "sell");
+        trade.setRate(BigDecimal.valueOf(rate).setScale(8, BigDecimal.ROUND_HALF_UP).toPlainString());
+        trade.setAmount("0.5");
+        trade.setTotal(BigDecimal.valueOf(rate * 0.5).setScale(8, BigDecimal.ROUND_HALF_UP).toPlainString());
+        return trade;
+    }
+}
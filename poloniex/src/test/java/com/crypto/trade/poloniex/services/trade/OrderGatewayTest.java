@@ -0,0 +1,418 @@
+package com.crypto.trade.poloniex.services.trade;
+
+import com.crypto.trade.poloniex.config.properties.ApiResources;
+import com.crypto.trade.poloniex.config.properties.GatewayConfig;
+import com.crypto.trade.poloniex.config.properties.PoloniexProperties;
+import com.crypto.trade.poloniex.config.properties.TradeConfig;
+import com.crypto.trade.poloniex.services.analytics.TradingAction;
+import com.crypto.trade.poloniex.services.gateway.PipelinedHttpClient;
+import com.crypto.trade.poloniex.storage.book.OrderBook;
+import com.crypto.trade.poloniex.storage.book.OrderBookStorage;
+import com.crypto.trade.poloniex.storage.market.MarketDataStorage;
+import com.crypto.trade.poloniex.storage.model.PoloniexOrder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import eu.verdelhan.ta4j.BaseTradingRecord;
+import eu.verdelhan.ta4j.Decimal;
+import eu.verdelhan.ta4j.Order;
+import eu.verdelhan.ta4j.TradingRecord;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.http.HttpEntity;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static com.crypto.trade.poloniex.services.analytics.CurrencyPair.BTC_ETH;
+import static com.crypto.trade.poloniex.services.analytics.CurrencyPair.BTC_LTC;
+import static com.crypto.trade.poloniex.services.trade.PoloniexRequestConstants.NONCE;
+import static org.junit.Assert.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyMapOf;
+
+@RunWith(MockitoJUnitRunner.class)
+public class OrderGatewayTest {
+
+    private static final BigDecimal VOLUME = BigDecimal.valueOf(0.01);
+
+    @Spy
+    private MarketDataStorage marketDataStorage;
+    @Mock
+    private OrderBookStorage orderBookStorage;
+    @Mock
+    private PoloniexRequestHelper requestHelper;
+    @Spy
+    private PoloniexProperties poloniex;
+    @Spy
+    private ObjectMapper objectMapper;
+    private final GatewayConfig gatewayConfig = new GatewayConfig();
+    @Spy
+    private PipelinedHttpClient tradingClient = new PipelinedHttpClient(gatewayConfig);
+
+    @InjectMocks
+    private OrderGateway orderGateway;
+
+    private HttpServer server;
+    private final AtomicLong nonces = new AtomicLong();
+    private final AtomicLong orderNumbers = new AtomicLong();
+    private final List<Long> receivedNonces = Collections.synchronizedList(new ArrayList<>());
+    private final Set<String> clients = ConcurrentHashMap.newKeySet();
+    private volatile Map<String, String> lastParams;
+    private volatile boolean reject;
+    // Orders are filled or dropped without response when set
+    private volatile boolean silent;
+    private volatile boolean drop;
+    private final List<String> accountTrades = Collections.synchronizedList(new ArrayList<>());
+
+    @Before
+    public void setUp() throws IOException {
+        // Stub of the trading API, fills every order at the requested rate
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/tradingApi", this::handle);
+        server.start();
+
+        ApiResources api = new ApiResources();
+        api.setTradingApi("http://localhost:" + server.getAddress().getPort() + "/tradingApi");
+        poloniex.setApi(api);
+        poloniex.setTradeConfig(new TradeConfig());
+        marketDataStorage.onTrade(BTC_ETH, System.currentTimeMillis(), 7000000);
+        given(requestHelper.createRequest(anyMapOf(String.class, Object.class))).will(invocation -> {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> params = (Map<String, Object>) invocation.getArguments()[0];
+            params.put(NONCE, nonces.incrementAndGet());
+            return new HttpEntity<>(params.entrySet().stream()
+                    .map(e -> e.getKey() + "=" + e.getValue())
+                    .collect(Collectors.joining("&")));
+        });
+    }
+
+    @After
+    public void tearDown() {
+        tradingClient.close();
+        orderGateway.stop();
+        server.stop(0);
+    }
+
+    @Test
+    public void enterAndExitUpdateTradingRecord() {
+        TradingRecord tradingRecord = new BaseTradingRecord(Order.OrderType.BUY);
+
+        PoloniexOrder entry = orderGateway.placeOrder(BTC_ETH, tradingRecord, 10, Order.OrderType.BUY, VOLUME, true, Runnable::run).join();
+
+        assertEquals(TradingAction.ENTERED, entry.getAction());
+        assertEquals(Long.valueOf(1), entry.getOrderId());
+        assertTrue(tradingRecord.getCurrentTrade().isOpened());
+
+        marketDataStorage.onTrade(BTC_ETH, System.currentTimeMillis(), 8000000);
+        PoloniexOrder exit = orderGateway.placeOrder(BTC_ETH, tradingRecord, 11, Order.OrderType.BUY, VOLUME, true, Runnable::run).join();
+
+        assertEquals(TradingAction.EXITED, exit.getAction());
+        assertTrue(tradingRecord.getCurrentTrade().isNew());
+        assertEquals(1, tradingRecord.getTradeCount());
+    }
+
+    @Test
+    public void concurrentOrdersArePipelinedInNonceOrder() throws InterruptedException {
+        ExecutorService strategies = Executors.newFixedThreadPool(8);
+        ExecutorService callbacks = Executors.newSingleThreadExecutor();
+        List<TradingRecord> tradingRecords = new ArrayList<>();
+        List<CompletableFuture<PoloniexOrder>> orders = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch submitted = new CountDownLatch(64);
+        for (int i = 0; i < 64; i++) {
+            TradingRecord tradingRecord = new BaseTradingRecord(Order.OrderType.BUY);
+            tradingRecords.add(tradingRecord);
+            int index = i;
+            strategies.execute(() -> {
+                orders.add(orderGateway.placeOrder(BTC_ETH, tradingRecord, index, Order.OrderType.BUY, VOLUME, true, callbacks));
+                submitted.countDown();
+            });
+        }
+        assertTrue(submitted.await(10, TimeUnit.SECONDS));
+
+        CompletableFuture.allOf(orders.toArray(new CompletableFuture[0])).join();
+        callbacks.shutdown();
+        assertTrue(callbacks.awaitTermination(5, TimeUnit.SECONDS));
+        strategies.shutdown();
+
+        tradingRecords.forEach(tradingRecord -> assertTrue(tradingRecord.getCurrentTrade().isOpened()));
+        assertEquals(64, receivedNonces.size());
+        for (int i = 1; i < receivedNonces.size(); i++) {
+            assertTrue(receivedNonces.get(i) > receivedNonces.get(i - 1));
+        }
+        assertEquals(1, clients.size());
+    }
+
+    @Test
+    public void rejectedOrderLeavesTradingRecord() {
+        reject = true;
+        TradingRecord tradingRecord = new BaseTradingRecord(Order.OrderType.BUY);
+
+        CompletableFuture<PoloniexOrder> order = orderGateway.placeOrder(BTC_ETH, tradingRecord, 10, Order.OrderType.BUY, VOLUME, true, Runnable::run);
+
+        try {
+            order.join();
+            fail("Order should be rejected");
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof HttpClientErrorException);
+        }
+        assertTrue(tradingRecord.getCurrentTrade().isNew());
+        assertTrue(orderGateway.cancelOrder(new PoloniexOrder(1L, null, 10, TradingAction.ENTERED)).join().contains("error"));
+    }
+
+    @Test
+    public void realOrderIsPricedByOrderBook() {
+        OrderBook orderBook = new OrderBook();
+        orderBook.onSnapshot(1);
+        orderBook.onUpdate(1, false, 7010000, 10000000);
+        orderBook.onUpdate(1, false, 7020000, 10000000);
+        orderBook.onUpdate(1, false, 7050000, 100000000);
+        given(orderBookStorage.getOrderBook(BTC_ETH)).willReturn(orderBook);
+        marketDataStorage.onQuote(BTC_ETH, System.currentTimeMillis(), 0, 7010000);
+        TradingRecord tradingRecord = new BaseTradingRecord(Order.OrderType.BUY);
+
+        orderGateway.placeOrder(BTC_ETH, tradingRecord, 10, Order.OrderType.BUY, VOLUME, true, Runnable::run).join();
+
+        // 0.01 / 0.07 = 0.14285714 needs the second ask level
+        assertEquals(0, new BigDecimal("0.0702").compareTo(new BigDecimal(lastParams.get("rate"))));
+        assertEquals(Decimal.valueOf("0.0702"), tradingRecord.getLastEntry().getPrice());
+        // The amount is bought with the same volume at the worse rate
+        BigDecimal spent = new BigDecimal(lastParams.get("amount")).multiply(new BigDecimal("0.0702"));
+        assertTrue(spent.compareTo(VOLUME) <= 0);
+        assertTrue(spent.compareTo(new BigDecimal("0.00999")) > 0);
+    }
+
+    @Test
+    public void staleOrderBookIsNotUsedForPricing() {
+        OrderBook orderBook = new OrderBook();
+        orderBook.onSnapshot(1);
+        orderBook.onUpdate(1, false, 7020000, 100000000);
+        given(orderBookStorage.getOrderBook(BTC_ETH)).willReturn(orderBook);
+        marketDataStorage.onQuote(BTC_ETH, System.currentTimeMillis() - 121000, 0, 7020000);
+        TradingRecord tradingRecord = new BaseTradingRecord(Order.OrderType.BUY);
+
+        orderGateway.placeOrder(BTC_ETH, tradingRecord, 10, Order.OrderType.BUY, VOLUME, true, Runnable::run).join();
+
+        assertEquals(0, new BigDecimal("0.07").compareTo(new BigDecimal(lastParams.get("rate"))));
+    }
+
+    @Test
+    public void exitPricedByOrderBookKeepsMinimumProfit() {
+        TradingRecord tradingRecord = new BaseTradingRecord(Order.OrderType.BUY);
+        tradingRecord.enter(5, Decimal.valueOf("0.07"), Decimal.valueOf("0.2"));
+        marketDataStorage.onTrade(BTC_ETH, System.currentTimeMillis(), 7100000);
+        OrderBook orderBook = new OrderBook();
+        orderBook.onSnapshot(1);
+        orderBook.onUpdate(1, true, 7050000, 10000000);
+        orderBook.onUpdate(1, true, 7000000, 100000000);
+        given(orderBookStorage.getOrderBook(BTC_ETH)).willReturn(orderBook);
+        marketDataStorage.onQuote(BTC_ETH, System.currentTimeMillis(), 7050000, 0);
+
+        orderGateway.placeOrder(BTC_ETH, tradingRecord, 10, Order.OrderType.BUY, VOLUME, true, Runnable::run).join();
+
+        // Selling at the 0.07 bid needed for the whole amount would not reach the minimum profit
+        assertEquals("sell", lastParams.get("command"));
+        assertEquals(0, new BigDecimal("0.071").compareTo(new BigDecimal(lastParams.get("rate"))));
+        assertTrue(tradingRecord.getCurrentTrade().isNew());
+    }
+
+    @Test
+    public void stalePriceRejectsOrder() {
+        long receivedMillis = System.currentTimeMillis() - 121000;
+        marketDataStorage.onTrade(BTC_LTC, receivedMillis, 1500000, receivedMillis);
+        TradingRecord tradingRecord = new BaseTradingRecord(Order.OrderType.BUY);
+
+        try {
+            orderGateway.placeOrder(BTC_LTC, tradingRecord, 10, Order.OrderType.BUY, VOLUME, true, Runnable::run).join();
+            fail("Order should be rejected");
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof PoloniexOrderNotExecuted);
+        }
+        assertTrue(tradingRecord.getCurrentTrade().isNew());
+        assertTrue(receivedNonces.isEmpty());
+    }
+
+    @Test
+    public void historyTradeDoesNotMakePriceFresh() {
+        marketDataStorage.onHistoryTrade(BTC_LTC, System.currentTimeMillis(), 1500000);
+        // Order book changes do not make the last trade fresh either
+        marketDataStorage.onQuote(BTC_LTC, System.currentTimeMillis(), 1490000, 1510000);
+
+        try {
+            orderGateway.getLastTrade(BTC_LTC);
+            fail("Order should be rejected");
+        } catch (PoloniexOrderNotExecuted e) {
+            assertTrue(e.getMessage().startsWith("Stale"));
+        }
+    }
+
+    @Test
+    public void priceFreshnessUsesLocalArrivalTime() {
+        // Exchange clock two hours behind the local one
+        marketDataStorage.onTrade(BTC_LTC, System.currentTimeMillis() - 7200000, 1500000);
+
+        assertEquals(0, new BigDecimal("0.015").compareTo(orderGateway.getLastTrade(BTC_LTC)));
+    }
+
+    @Test
+    public void batchNetsBuysAgainstSells() {
+        TradingRecord exiting = new BaseTradingRecord(Order.OrderType.BUY);
+        exiting.enter(5, Decimal.valueOf("0.06"), Decimal.valueOf("0.2"));
+        List<TradingRecord> entering = Arrays.asList(new BaseTradingRecord(Order.OrderType.BUY),
+                new BaseTradingRecord(Order.OrderType.BUY), new BaseTradingRecord(Order.OrderType.BUY));
+        OrderBatch orderBatch = orderGateway.newBatch(BTC_ETH, Runnable::run);
+        List<CompletableFuture<PoloniexOrder>> orders = new ArrayList<>();
+        orders.add(orderBatch.add(exiting, 10, Order.OrderType.BUY, VOLUME, true));
+        entering.forEach(tradingRecord -> orders.add(orderBatch.add(tradingRecord, 10, Order.OrderType.BUY, VOLUME, true)));
+
+        assertEquals(1, orderBatch.submit());
+        orders.forEach(CompletableFuture::join);
+
+        // 3 * 0.01 / 0.07 bought, 0.2 minus fee sold
+        assertEquals(1, receivedNonces.size());
+        assertEquals("buy", lastParams.get("command"));
+        assertEquals(0, new BigDecimal("0.42857142").subtract(new BigDecimal("0.1995")).compareTo(new BigDecimal(lastParams.get("amount"))));
+        assertTrue(exiting.getCurrentTrade().isNew());
+        assertEquals(Decimal.valueOf("0.1995"), exiting.getLastExit().getAmount());
+        entering.forEach(tradingRecord -> assertEquals(Decimal.valueOf("0.14285714"), tradingRecord.getLastEntry().getAmount()));
+        assertEquals(Long.valueOf(1), orders.get(0).join().getOrderId());
+    }
+
+    @Test
+    public void batchCrossesEqualAmountsWithoutExchangeOrder() {
+        TradingRecord buying = new BaseTradingRecord(Order.OrderType.BUY);
+        TradingRecord selling = new BaseTradingRecord(Order.OrderType.SELL);
+        OrderBatch orderBatch = orderGateway.newBatch(BTC_ETH, Runnable::run);
+        CompletableFuture<PoloniexOrder> buy = orderBatch.add(buying, 10, Order.OrderType.BUY, VOLUME, true);
+        CompletableFuture<PoloniexOrder> sell = orderBatch.add(selling, 10, Order.OrderType.SELL, new BigDecimal("0.14285714"), true);
+
+        assertEquals(0, orderBatch.submit());
+
+        assertNull(buy.join().getOrderId());
+        assertEquals(TradingAction.ENTERED, sell.join().getAction());
+        assertTrue(buying.getCurrentTrade().isOpened());
+        assertTrue(selling.getCurrentTrade().isOpened());
+        assertTrue(receivedNonces.isEmpty());
+    }
+
+    @Test
+    public void orderFilledWithoutResponseIsReconciled() {
+        silent = true;
+        useFastReconcile();
+        TradingRecord tradingRecord = new BaseTradingRecord(Order.OrderType.BUY);
+
+        CompletableFuture<PoloniexOrder> order = orderGateway.placeOrder(BTC_ETH, tradingRecord, 10, Order.OrderType.BUY, VOLUME, true, Runnable::run);
+
+        PoloniexOrderOutcomeUnknown unknown = null;
+        try {
+            order.join();
+            fail("Order outcome should be unknown");
+        } catch (CompletionException e) {
+            unknown = (PoloniexOrderOutcomeUnknown) e.getCause();
+        }
+        // The record is not released as not placed, the exchange has filled the order
+        assertTrue(tradingRecord.getCurrentTrade().isNew());
+        assertFalse(unknown.getReconciled().isDone());
+
+        PoloniexOrder reconciled = unknown.getReconciled().join();
+
+        assertEquals(Long.valueOf(1), reconciled.getOrderId());
+        assertEquals(TradingAction.ENTERED, reconciled.getAction());
+        assertTrue(tradingRecord.getCurrentTrade().isOpened());
+        assertEquals(Decimal.valueOf("0.14285714"), tradingRecord.getLastEntry().getAmount());
+        assertEquals(1, orderNumbers.get());
+    }
+
+    @Test
+    public void orderDroppedWithoutResponseIsNotPlaced() {
+        silent = true;
+        drop = true;
+        useFastReconcile();
+        TradingRecord tradingRecord = new BaseTradingRecord(Order.OrderType.BUY);
+
+        CompletableFuture<PoloniexOrder> order = orderGateway.placeOrder(BTC_ETH, tradingRecord, 10, Order.OrderType.BUY, VOLUME, true, Runnable::run);
+
+        try {
+            order.join();
+            fail("Order outcome should be unknown");
+        } catch (CompletionException e) {
+            try {
+                ((PoloniexOrderOutcomeUnknown) e.getCause()).getReconciled().join();
+                fail("Order should not be found");
+            } catch (CompletionException reconcileException) {
+                assertTrue(reconcileException.getCause() instanceof PoloniexOrderNotExecuted);
+            }
+        }
+        assertTrue(tradingRecord.getCurrentTrade().isNew());
+    }
+
+    private void useFastReconcile() {
+        gatewayConfig.setRequestTimeoutMillis(200);
+        poloniex.getTradeConfig().setOrderReconcileDelayMillis(10);
+        poloniex.getTradeConfig().setOrderReconcileAttempts(2);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        clients.add(exchange.getRemoteAddress().toString());
+        Map<String, String> params = new HashMap<>();
+        for (String param : readBody(exchange.getRequestBody()).split("&")) {
+            String[] pair = param.split("=");
+            params.put(pair[0], pair[1]);
+        }
+        receivedNonces.add(Long.valueOf(params.get(NONCE)));
+        String command = params.get("command");
+        String response;
+        if ("returnTradeHistory".equals(command)) {
+            response = "[" + String.join(",", accountTrades) + "]";
+        } else if ("returnOpenOrders".equals(command)) {
+            response = "[]";
+        } else {
+            lastParams = params;
+            response = reject
+                    ? "{\"error\":\"Not enough BTC.\"}"
+                    : "{\"orderNumber\":" + orderNumbers.incrementAndGet() + ",\"resultingTrades\":[]}";
+            if (silent) {
+                if (!drop) {
+                    accountTrades.add("{\"globalTradeID\":1,\"tradeID\":\"1\",\"date\":\"2017-07-01 00:00:00\",\"rate\":\""
+                            + params.get("rate") + "\",\"amount\":\"" + params.get("amount") + "\",\"total\":\"0.01\",\"fee\":\"0.0025\","
+                            + "\"orderNumber\":\"" + orderNumbers.get() + "\",\"type\":\"" + command + "\",\"category\":\"exchange\"}");
+                }
+                // The order is processed by the exchange but its response is lost
+                return;
+            }
+        }
+        int status = reject ? 422 : 200;
+        byte[] body = response.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+        }
+    }
+
+    private static String readBody(InputStream input) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        for (int read = input.read(buffer); read > 0; read = input.read(buffer)) {
+            body.write(buffer, 0, read);
+        }
+        return body.toString(StandardCharsets.UTF_8.name());
+    }
+}
@@ -0,0 +1,55 @@
+package com.crypto.trade.poloniex.services.trade;
+
+import com.crypto.trade.poloniex.config.properties.PoloniexProperties;
+import com.crypto.trade.poloniex.config.properties.TradeConfig;
+import com.crypto.trade.poloniex.services.analytics.TradingAction;
+import com.crypto.trade.poloniex.storage.book.OrderBookStorage;
+import com.crypto.trade.poloniex.storage.market.MarketDataStorage;
+import com.crypto.trade.poloniex.storage.model.PoloniexOrder;
+import eu.verdelhan.ta4j.BaseTradingRecord;
+import eu.verdelhan.ta4j.Decimal;
+import eu.verdelhan.ta4j.Order;
+import eu.verdelhan.ta4j.TradingRecord;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.math.BigDecimal;
+
+import static com.crypto.trade.poloniex.services.analytics.CurrencyPair.BTC_ETH;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ReplayOrderGatewayTest {
+
+    @Spy
+    private MarketDataStorage marketDataStorage;
+    @Mock
+    private OrderBookStorage orderBookStorage;
+    @Mock
+    private PoloniexRequestHelper requestHelper;
+    @Spy
+    private PoloniexProperties poloniex;
+
+    @InjectMocks
+    private ReplayOrderGateway orderGateway;
+
+    @Test
+    public void ordersAreFilledLocally() {
+        poloniex.setTradeConfig(new TradeConfig());
+        marketDataStorage.onTrade(BTC_ETH, System.currentTimeMillis(), 7000000);
+        TradingRecord tradingRecord = new BaseTradingRecord(Order.OrderType.BUY);
+
+        PoloniexOrder order = orderGateway.placeOrder(BTC_ETH, tradingRecord, 10, Order.OrderType.BUY,
+                BigDecimal.valueOf(0.01), true, Runnable::run).join();
+
+        assertEquals(TradingAction.ENTERED, order.getAction());
+        assertEquals(Decimal.valueOf("0.07"), tradingRecord.getLastEntry().getPrice());
+        assertEquals(1, orderGateway.getOrders());
+        verifyZeroInteractions(requestHelper);
+    }
+}
@@ -0,0 +1,92 @@
+package com.crypto.trade.poloniex.services.ws;
+
+import com.crypto.trade.poloniex.config.properties.PoloniexProperties;
+import com.crypto.trade.poloniex.services.ingest.TradesIngestPipeline;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.verify;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ReplayWsConnectorTest {
+
+    private static final String[] FRAMES = {
+            "[1010]",
+            "[148,1,[[\"t\",\"1\",1,\"0.07\",\"1\",1522877119]]]",
+            "[148,2,[[\"o\",0,\"0.071\",\"0.00000000\"],[\"t\",\"2\",0,\"0.0701\",\"2\",1522877120]]]"
+    };
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Spy
+    private PoloniexProperties poloniexProperties;
+    @Mock
+    private PoloniexEndPoint poloniexEndPoint;
+    @Mock
+    private TradesIngestPipeline tradesIngestPipeline;
+
+    @InjectMocks
+    private WsFrameRecorder wsFrameRecorder;
+    @InjectMocks
+    private ReplayWsConnector replayWsConnector;
+
+    private Path file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = folder.getRoot().toPath().resolve("frames/ws-frames.bin");
+        poloniexProperties.getReplay().setRecordFile(file.toString());
+        poloniexProperties.getReplay().setFile(file.toString());
+        for (String frame : FRAMES) {
+            wsFrameRecorder.record(new StringBuilder(frame));
+        }
+        wsFrameRecorder.close();
+    }
+
+    @Test
+    public void recordedFramesAreReadInOrder() throws IOException {
+        try (WsFrameReader reader = new WsFrameReader(file)) {
+            long offset = 0;
+            for (String frame : FRAMES) {
+                assertTrue(reader.next());
+                assertEquals(frame, reader.getFrame());
+                assertTrue(reader.getOffsetMicros() >= offset);
+                offset = reader.getOffsetMicros();
+            }
+            assertFalse(reader.next());
+            assertTrue(reader.getStartMillis() <= System.currentTimeMillis());
+        }
+    }
+
+    @Test
+    public void replayPushesFramesThroughEndPoint() throws IOException {
+        ReplayReport report = replayWsConnector.replay();
+
+        InOrder order = inOrder(poloniexEndPoint);
+        for (String frame : FRAMES) {
+            order.verify(poloniexEndPoint).onMessage(frame);
+        }
+        assertEquals(FRAMES.length, report.getFrames());
+        assertTrue(report.getP50() <= report.getP99());
+        assertTrue(report.getP999() <= report.getMax());
+        assertTrue(report.getFramesPerSecond() > 0);
+        assertSame(report, replayWsConnector.getLastReport());
+        // The pipeline is mocked, no trade reaches the candles
+        assertEquals(0, report.getPipelineTrades());
+        verify(tradesIngestPipeline).setLatencies(null);
+    }
+}
@@ -0,0 +1,31 @@
+package com.crypto.trade.poloniex.services.ws;
+
+import com.crypto.trade.poloniex.services.analytics.CurrencyPair;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class WsChannelsTest {
+
+    @Test
+    public void routeSubscribedChannels() {
+        WsChannels channels = new WsChannels(Arrays.asList(CurrencyPair.BTC_ETH, CurrencyPair.BTC_LTC));
+
+        assertEquals(CurrencyPair.BTC_ETH, channels.getCurrencyPair(148));
+        assertEquals(CurrencyPair.BTC_LTC, channels.getCurrencyPair(50));
+        assertNull(channels.getCurrencyPair(CurrencyPair.BTC_XRP.getChannelId()));
+        assertNull(channels.getCurrencyPair(1010));
+        assertNull(channels.getCurrencyPair(-1));
+    }
+
+    @Test
+    public void noSubscriptions() {
+        WsChannels channels = new WsChannels(Collections.emptySet());
+
+        assertTrue(channels.getCurrencies().isEmpty());
+        assertNull(channels.getCurrencyPair(148));
+    }
+}
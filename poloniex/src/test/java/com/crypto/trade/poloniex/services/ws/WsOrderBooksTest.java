@@ -0,0 +1,132 @@
+package com.crypto.trade.poloniex.services.ws;
+
+import com.crypto.trade.poloniex.dto.PoloniexOrderBook;
+import com.crypto.trade.poloniex.services.trade.OrderBookService;
+import com.crypto.trade.poloniex.storage.book.OrderBook;
+import com.crypto.trade.poloniex.storage.book.OrderBookStorage;
+import com.crypto.trade.poloniex.storage.market.MarketDataStorage;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static com.crypto.trade.poloniex.services.analytics.CurrencyPair.BTC_ETH;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class WsOrderBooksTest {
+
+    private static final int CHANNEL = BTC_ETH.getChannelId();
+
+    @Spy
+    private WsChannels wsChannels = new WsChannels(Collections.singleton(BTC_ETH));
+    @Spy
+    private OrderBookStorage orderBookStorage;
+    @Mock
+    private MarketDataStorage marketDataStorage;
+    @Mock
+    private OrderBookService orderBookService;
+
+    @InjectMocks
+    private WsOrderBooks wsOrderBooks;
+
+    private final List<CompletableFuture<PoloniexOrderBook>> loads = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        ReflectionTestUtils.setField(orderBookStorage, "marketDataStorage", marketDataStorage);
+        when(orderBookService.loadOrderBook(BTC_ETH)).thenAnswer(invocation -> {
+            CompletableFuture<PoloniexOrderBook> load = new CompletableFuture<>();
+            loads.add(load);
+            return load;
+        });
+    }
+
+    @Test
+    public void sequenceGapLoadsSnapshotAndReplaysBufferedUpdates() {
+        syncBook();
+        wsOrderBooks.onUpdate(CHANNEL, 13, true, 6990000, 100000000);
+        wsOrderBooks.onUpdate(CHANNEL, 14, true, 6995000, 100000000);
+        wsOrderBooks.onUpdate(CHANNEL, 15, false, 7020000, 100000000);
+
+        assertFalse(orderBookStorage.getOrderBook(BTC_ETH).isSynced());
+        assertEquals(1, loads.size());
+        verify(wsChannels, never()).subscribeCommand(BTC_ETH);
+
+        loads.get(0).complete(snapshot(13));
+
+        OrderBook orderBook = orderBookStorage.getOrderBook(BTC_ETH);
+        assertTrue(orderBook.isSynced());
+        // Snapshot levels and the updates after it, the update 13 is in the snapshot already
+        assertEquals(6995000, orderBook.getBestBid());
+        assertEquals(7000000, orderBook.getBestAsk());
+        assertEquals(300000000, orderBook.getDepth(false, 3));
+
+        wsOrderBooks.onUpdate(CHANNEL, 16, true, 6998000, 100000000);
+        assertEquals(6998000, orderBook.getBestBid());
+        assertTrue(orderBook.isSynced());
+
+        // A later gap loads again
+        wsOrderBooks.onUpdate(CHANNEL, 20, true, 7000000, 100000000);
+        assertEquals(2, loads.size());
+    }
+
+    @Test
+    public void snapshotOlderThanBufferedUpdatesIsLoadedAgain() {
+        syncBook();
+        wsOrderBooks.onUpdate(CHANNEL, 13, true, 6990000, 100000000);
+        wsOrderBooks.onUpdate(CHANNEL, 14, true, 6980000, 100000000);
+
+        loads.get(0).complete(snapshot(11));
+        assertEquals(2, loads.size());
+        assertFalse(orderBookStorage.getOrderBook(BTC_ETH).isSynced());
+
+        loads.get(1).complete(snapshot(12));
+        assertTrue(orderBookStorage.getOrderBook(BTC_ETH).isSynced());
+        assertEquals(6990000, orderBookStorage.getOrderBook(BTC_ETH).getBestBid());
+    }
+
+    @Test
+    public void failedLoadIsNotRetriedImmediately() {
+        syncBook();
+        wsOrderBooks.onUpdate(CHANNEL, 13, true, 6990000, 100000000);
+        CompletableFuture<PoloniexOrderBook> load = loads.get(0);
+        load.completeExceptionally(new IllegalStateException("Unavailable"));
+
+        wsOrderBooks.onUpdate(CHANNEL, 14, true, 6980000, 100000000);
+        assertEquals(1, loads.size());
+        assertFalse(orderBookStorage.getOrderBook(BTC_ETH).isSynced());
+
+        // The channel snapshot syncs the book in the meantime
+        wsOrderBooks.onSnapshot(CHANNEL, 20);
+        wsOrderBooks.onUpdate(CHANNEL, 21, true, 7000000, 100000000);
+        assertTrue(orderBookStorage.getOrderBook(BTC_ETH).isSynced());
+        assertEquals(1, loads.size());
+    }
+
+    private void syncBook() {
+        wsOrderBooks.onSnapshot(CHANNEL, 10);
+        wsOrderBooks.onUpdate(CHANNEL, 10, true, 7000000, 100000000);
+        wsOrderBooks.onUpdate(CHANNEL, 11, false, 7010000, 100000000);
+        assertTrue(loads.isEmpty());
+    }
+
+    private static PoloniexOrderBook snapshot(long seq) {
+        PoloniexOrderBook orderBook = new PoloniexOrderBook();
+        orderBook.setSeq(seq);
+        orderBook.setAsks(Arrays.asList(Arrays.asList("0.07000000", "1.0"), Arrays.asList("0.07010000", "1.0")));
+        orderBook.setBids(Arrays.asList(Arrays.asList("0.06990000", "1.0"), Arrays.asList("0.06950000", "1.0")));
+        return orderBook;
+    }
+}
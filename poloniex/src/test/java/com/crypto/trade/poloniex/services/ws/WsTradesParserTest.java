@@ -0,0 +1,100 @@
+package com.crypto.trade.poloniex.services.ws;
+
+import com.crypto.trade.poloniex.dto.PoloniexTrade;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class WsTradesParserTest {
+
+    private final WsTradesParser parser = new WsTradesParser();
+
+    @Test
+    public void parseTrades() {
+        List<PoloniexTrade> trades = new ArrayList<>();
+        String frame = "[148,540672082,[[\"o\",1,\"0.07313000\",\"7.21110596\"],"
+                + "[\"t\",\"42706057\",1,\"0.05567134\",\"0.00181421\",1522877119],"
+                + "[\"t\",\"42706058\",0,\"0.05567000\",\"1.5\",1522877120]]]";
+
+        int count = parser.parse(frame, event -> trades.add(event.toPoloniexTrade()));
+
+        assertEquals(2, count);
+        assertEquals(42706057L, trades.get(0).getTradeId().longValue());
+        assertEquals("buy", trades.get(0).getType());
+        assertEquals("0.05567134", trades.get(0).getRate());
+        assertEquals("0.00181421", trades.get(0).getAmount());
+        assertEquals(1522877119L, trades.get(0).getTradeTime().toEpochSecond());
+        assertEquals("sell", trades.get(1).getType());
+        assertEquals(new BigDecimal("1.5"), new BigDecimal(trades.get(1).getAmount()).stripTrailingZeros());
+    }
+
+    @Test
+    public void primitiveFieldsMatchParsedStrings() {
+        List<double[]> trades = new ArrayList<>();
+        String frame = "[148,1,[[\"t\",\"1\",1,\"0.05567134\",\"0.00181421\",1522877119],[\"t\",\"2\",0,\"12.3\",\"1.5\",1522877120]]]";
+
+        parser.parse(frame, event -> trades.add(new double[]{event.getRateAsDouble(), event.getAmountAsDouble(), event.getTimeMillis()}));
+
+        assertEquals(Double.parseDouble("0.05567134"), trades.get(0)[0], 0);
+        assertEquals(Double.parseDouble("0.00181421"), trades.get(0)[1], 0);
+        assertEquals(1522877119000d, trades.get(0)[2], 0);
+        assertEquals(12.3, trades.get(1)[0], 0);
+        assertEquals(1.5, trades.get(1)[1], 0);
+    }
+
+    @Test
+    public void reuseEvent() {
+        List<WsTradeEvent> events = new ArrayList<>();
+        String frame = "[148,1,[[\"t\",\"1\",1,\"0.1\",\"1\",1],[\"t\",\"2\",1,\"0.2\",\"2\",2]]]";
+
+        parser.parse(frame, events::add);
+
+        assertSame(events.get(0), events.get(1));
+        assertEquals(148, events.get(1).getChannelId());
+        assertEquals(20000000L, events.get(1).getRate());
+    }
+
+    @Test
+    public void skipHeartbeatsAndAcknowledgements() {
+        assertEquals(0, parser.parse("[1010]", event -> fail()));
+        assertEquals(0, parser.parse("[148,1]", event -> fail()));
+        assertEquals(0, parser.parse("[148,1,[[\"i\",{\"currencyPair\":\"BTC_ETH\",\"orderBook\":[{\"0.1\":\"1\"},{}]}]]]",
+                event -> fail()));
+    }
+
+    @Test
+    public void parseOrderBook() {
+        List<String> entries = new ArrayList<>();
+        WsBookListener bookListener = new WsBookListener() {
+            @Override
+            public void onSnapshot(int channelId, long sequence) {
+                entries.add("i " + channelId + " " + sequence);
+            }
+
+            @Override
+            public void onUpdate(int channelId, long sequence, boolean bid, long rate, long amount) {
+                entries.add((bid ? "b " : "a ") + sequence + " " + rate + " " + amount);
+            }
+        };
+
+        parser.parse("[148,7,[[\"i\",{\"currencyPair\":\"BTC_ETH\",\"orderBook\":[{\"0.071\":\"1.5\",\"0.072\":\"2\"},"
+                + "{\"0.07\":\"3\"}]}]]]", event -> fail(), bookListener);
+        int count = parser.parse("[148,8,[[\"o\",0,\"0.071\",\"0.00000000\"],[\"t\",\"1\",1,\"0.071\",\"1.5\",1]]]",
+                event -> assertEquals(7100000L, event.getRate()), bookListener);
+
+        assertEquals(1, count);
+        assertEquals(Arrays.asList("i 148 7", "a 7 7100000 150000000", "a 7 7200000 200000000", "b 7 7000000 300000000",
+                "a 8 7100000 0"), entries);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectMalformedFrame() {
+        parser.parse("[148,1,[[\"t\",\"1\",1,\"0.1\"", event -> {
+        });
+    }
+}
@@ -0,0 +1,272 @@
+package com.crypto.trade.poloniex.storage;
+
+import com.crypto.trade.poloniex.config.properties.PoloniexProperties;
+import com.crypto.trade.poloniex.config.properties.TradeConfig;
+import com.crypto.trade.poloniex.dto.PoloniexHistoryTrade;
+import com.crypto.trade.poloniex.dto.PoloniexTrade;
+import com.crypto.trade.poloniex.services.analytics.AnalyticsService;
+import com.crypto.trade.poloniex.services.analytics.CurrencyPair;
+import com.crypto.trade.poloniex.services.analytics.TimeFrame;
+import com.crypto.trade.poloniex.services.analytics.model.StrategyConfig;
+import com.crypto.trade.poloniex.services.scheduler.StrategyScheduler;
+import com.crypto.trade.poloniex.services.trade.OrderBatch;
+import com.crypto.trade.poloniex.services.trade.TradingService;
+import com.crypto.trade.poloniex.storage.analytics.AnalyticsStorage;
+import com.crypto.trade.poloniex.storage.candles.CandlesBuffer;
+import com.crypto.trade.poloniex.storage.history.TradesCursor;
+import com.crypto.trade.poloniex.storage.model.PoloniexStrategy;
+import com.crypto.trade.poloniex.storage.model.TimeFrameStorage;
+import com.crypto.trade.poloniex.storage.trades.TradesLog;
+import eu.verdelhan.ta4j.Order;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.math.BigDecimal;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import static com.crypto.trade.poloniex.services.analytics.CurrencyPair.BTC_ETH;
+import static com.crypto.trade.poloniex.services.analytics.CurrencyPair.BTC_LTC;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CandlesStorageTest {
+
+    private static final ZonedDateTime START = ZonedDateTime.of(2018, 4, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    @Mock
+    private AnalyticsService realTimeAnalyticsService;
+    @Mock
+    private StrategyScheduler strategyScheduler;
+    @Mock
+    private TradingService tradingService;
+    @Mock
+    private AnalyticsStorage analyticsStorage;
+    @Spy
+    private PoloniexProperties poloniexProperties;
+
+    @InjectMocks
+    private CandlesStorage candlesStorage;
+
+    private List<PoloniexHistoryTrade> trades;
+
+    @Before
+    public void setUp() {
+        poloniexProperties.setTradeConfig(new TradeConfig());
+        List<TimeFrameStorage> timeFrames = Arrays.stream(TimeFrame.values())
+                .map(TimeFrameStorage::new)
+                .collect(Collectors.toList());
+        candlesStorage.initCurrency(BTC_ETH, timeFrames);
+        candlesStorage.initCurrency(BTC_LTC, timeFrames);
+
+        Random random = new Random(3);
+        trades = new ArrayList<>();
+        for (long id = 0; id < 5000; id++) {
+            PoloniexHistoryTrade trade = new PoloniexHistoryTrade();
+            trade.setTradeId(id);
+            trade.setDate(START.plusSeconds(id * 7 + random.nextInt(7)));
+            trade.setType(id % 2 == 0 ? "buy" : "sell");
+            trade.setRate(BigDecimal.valueOf(0.07 + random.nextDouble() * 0.001).setScale(8, BigDecimal.ROUND_HALF_UP).toPlainString());
+            trade.setAmount(BigDecimal.valueOf(random.nextDouble()).setScale(8, BigDecimal.ROUND_HALF_UP).toPlainString());
+            trades.add(trade);
+        }
+    }
+
+    @Test
+    public void initCurrencyTwiceKeepsStrategiesOnce() {
+        StrategyConfig config = StrategyConfig.of(TimeFrame.FIVE_MINUTES, BigDecimal.valueOf(0.08), Order.OrderType.BUY, 1);
+        TimeFrameStorage timeFrameStorage = new TimeFrameStorage(TimeFrame.FIVE_MINUTES);
+        timeFrameStorage.addStrategy(new PoloniexStrategy("first", config, null));
+        candlesStorage.initCurrency(BTC_ETH, Collections.singletonList(timeFrameStorage));
+        timeFrameStorage.addStrategy(new PoloniexStrategy("second", config, null));
+
+        candlesStorage.initCurrency(BTC_ETH, Collections.singletonList(timeFrameStorage));
+
+        assertEquals(Arrays.asList("first", "second"), candlesStorage.getActiveStrategies(BTC_ETH, TimeFrame.FIVE_MINUTES).stream()
+                .map(PoloniexStrategy::getName)
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    public void installedHistoryBuildsSameCandlesAsLiveTrades() {
+        trades.forEach(trade -> candlesStorage.addTrade(BTC_ETH, new PoloniexTrade(trade)));
+        installHistory(BTC_LTC, trades);
+
+        assertSameCandles(BTC_ETH, BTC_LTC);
+        for (TimeFrame timeFrame : TimeFrame.values()) {
+            verify(analyticsStorage).resetIndicators(BTC_LTC, timeFrame);
+        }
+        assertEquals(5000 * 7 / 60 + 1, candlesStorage.getTimeFrameStorage(BTC_LTC, TimeFrame.ONE_MINUTE).getCandles().size());
+    }
+
+    @Test
+    public void installedCandlesApplyTheTradesReceivedMeanwhile() {
+        installHistory(BTC_ETH, trades);
+        ForkJoinPool pool = new ForkJoinPool(2);
+        List<CandlesBuffer> builtCandles = candlesStorage.buildCandles(BTC_LTC, TradesCursor.of(trades.subList(0, 4000)), pool);
+        pool.shutdown();
+        TradesLog sideLog = new TradesLog();
+        trades.subList(4000, trades.size()).forEach(trade -> {
+            PoloniexTrade poloniexTrade = new PoloniexTrade(trade);
+            candlesStorage.addTrade(BTC_LTC, poloniexTrade);
+            sideLog.add(poloniexTrade.getTradeTime().toInstant().toEpochMilli(), trade.getTradeId(),
+                    Double.parseDouble(trade.getRate()), Double.parseDouble(trade.getAmount()), true);
+        });
+
+        candlesStorage.installCandles(BTC_LTC, builtCandles, sideLog.cursor());
+
+        assertSameCandles(BTC_ETH, BTC_LTC);
+        for (TimeFrame timeFrame : TimeFrame.values()) {
+            TimeFrameStorage expectedStorage = candlesStorage.getTimeFrameStorage(BTC_ETH, timeFrame);
+            TimeFrameStorage timeFrameStorage = candlesStorage.getTimeFrameStorage(BTC_LTC, timeFrame);
+            assertEquals(expectedStorage.getHistoryIndex(), timeFrameStorage.getHistoryIndex());
+            assertEquals(expectedStorage.getTradedIndex(), timeFrameStorage.getTradedIndex());
+        }
+    }
+
+    @Test
+    public void longerTimeFramesRollUpFromClosedCandles() {
+        installHistory(BTC_LTC, trades);
+
+        for (TimeFrame timeFrame : Arrays.asList(TimeFrame.FIVE_MINUTES, TimeFrame.ONE_HOUR)) {
+            Map<Long, List<PoloniexHistoryTrade>> periods = trades.stream()
+                    .collect(Collectors.groupingBy(trade -> timeFrame.calculateEndTime(trade.getDate()).toInstant().toEpochMilli()));
+            CandlesBuffer candles = candlesStorage.getTimeFrameStorage(BTC_LTC, timeFrame).getCandles();
+            assertEquals(periods.size(), candles.size());
+            // The last candle misses the trades of the one minute candle in progress
+            for (int index = candles.getBeginIndex(); index < candles.getEndIndex(); index++) {
+                List<PoloniexHistoryTrade> periodTrades = periods.get(candles.getEndTime(index));
+                assertEquals(periodTrades.size(), candles.getTrades(index));
+                assertEquals(Double.parseDouble(periodTrades.get(0).getRate()), candles.getOpen(index), 0);
+                assertEquals(Double.parseDouble(periodTrades.get(periodTrades.size() - 1).getRate()), candles.getClose(index), 0);
+                assertEquals(periodTrades.stream().mapToDouble(trade -> Double.parseDouble(trade.getRate())).max().getAsDouble(), candles.getHigh(index), 0);
+                assertEquals(periodTrades.stream().mapToDouble(trade -> Double.parseDouble(trade.getRate())).min().getAsDouble(), candles.getLow(index), 0);
+                assertEquals(periodTrades.stream().mapToDouble(trade -> Double.parseDouble(trade.getAmount())).sum(), candles.getVolume(index), 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void lateTradeUpdatesRolledUpCandles() {
+        installHistory(BTC_LTC, trades);
+        ZonedDateTime lateTime = START.plusMinutes(12).plusSeconds(30);
+        int[] tradesCount = new int[TimeFrame.values().length];
+        for (TimeFrame timeFrame : TimeFrame.values()) {
+            CandlesBuffer candles = candlesStorage.getTimeFrameStorage(BTC_LTC, timeFrame).getCandles();
+            tradesCount[timeFrame.ordinal()] = candles.getTrades(candles.findIndex(lateTime.toInstant().toEpochMilli()));
+        }
+
+        candlesStorage.addTrade(BTC_LTC, new PoloniexTrade(5000L, lateTime, "0.5", "0.08", "0.04", "buy"));
+
+        for (TimeFrame timeFrame : TimeFrame.values()) {
+            CandlesBuffer candles = candlesStorage.getTimeFrameStorage(BTC_LTC, timeFrame).getCandles();
+            int index = candles.findIndex(lateTime.toInstant().toEpochMilli());
+            assertEquals(timeFrame.name(), tradesCount[timeFrame.ordinal()] + 1, candles.getTrades(index));
+        }
+    }
+
+    @Test
+    public void lateTradeInvalidatesIndicatorsOfClosedCandles() {
+        installHistory(BTC_LTC, trades);
+        ZonedDateTime lateTime = START.plusMinutes(12).plusSeconds(30);
+
+        candlesStorage.addTrade(BTC_LTC, new PoloniexTrade(5000L, lateTime, "0.5", "0.08", "0.04", "buy"));
+
+        for (TimeFrame timeFrame : TimeFrame.values()) {
+            CandlesBuffer candles = candlesStorage.getTimeFrameStorage(BTC_LTC, timeFrame).getCandles();
+            int index = candles.findIndex(lateTime.toInstant().toEpochMilli());
+            verify(analyticsStorage, times(index < candles.getEndIndex() ? 1 : 0))
+                    .invalidateIndicators(BTC_LTC, timeFrame, index);
+        }
+        verify(analyticsStorage).invalidateIndicators(BTC_LTC, TimeFrame.ONE_MINUTE, 12);
+    }
+
+    @Test
+    public void strategyTasksQueuedBeforeInstallAreDropped() {
+        candlesStorage.addTrade(BTC_ETH, new PoloniexTrade(1L, START.plusSeconds(10), "0.5", "0.07", "0.035", "buy"));
+        candlesStorage.addTrade(BTC_ETH, new PoloniexTrade(2L, START.plusMinutes(1).plusSeconds(10), "0.5", "0.07", "0.035", "buy"));
+        candlesStorage.addTrade(BTC_ETH, new PoloniexTrade(3L, START.plusMinutes(2).plusSeconds(10), "0.5", "0.07", "0.035", "buy"));
+        when(tradingService.newOrderBatch(eq(BTC_ETH), any())).thenReturn(mock(OrderBatch.class));
+        ArgumentCaptor<Runnable> tasks = ArgumentCaptor.forClass(Runnable.class);
+        verify(strategyScheduler, times(2)).submit(eq(BTC_ETH), eq(TimeFrame.ONE_MINUTE), tasks.capture());
+
+        tasks.getAllValues().get(0).run();
+        verify(analyticsStorage).cacheIndex(BTC_ETH, TimeFrame.ONE_MINUTE, 0);
+
+        installHistory(BTC_ETH, trades);
+        tasks.getAllValues().get(1).run();
+        verify(analyticsStorage, never()).cacheIndex(BTC_ETH, TimeFrame.ONE_MINUTE, 1);
+    }
+
+    @Test
+    public void clockClosesEmptyPeriodsWithFlatCandles() {
+        candlesStorage.addTrade(BTC_ETH, new PoloniexTrade(1L, START.plusSeconds(10), "0.5", "0.07", "0.035", "buy"));
+        long closeTime = START.plusMinutes(3).toInstant().toEpochMilli();
+        candlesStorage.closeCandles(BTC_ETH, closeTime);
+        candlesStorage.closeCandles(BTC_ETH, closeTime);
+
+        CandlesBuffer candles = candlesStorage.getTimeFrameStorage(BTC_ETH, TimeFrame.ONE_MINUTE).getCandles();
+        assertEquals(3, candles.size());
+        assertEquals(closeTime, candles.getEndTime(2));
+        assertEquals(0, candles.getTrades(2));
+        assertEquals(0.07, candles.getOpen(2), 0);
+        assertEquals(0.07, candles.getClose(2), 0);
+        assertEquals(0, candles.getVolume(2), 0);
+        verify(strategyScheduler, times(3)).submit(eq(BTC_ETH), eq(TimeFrame.ONE_MINUTE), any(Runnable.class));
+
+        // The candle closed by the clock is not traded again by the next period trade
+        candlesStorage.addTrade(BTC_ETH, new PoloniexTrade(2L, START.plusMinutes(3).plusSeconds(5), "0.5", "0.08", "0.04", "sell"));
+        verify(strategyScheduler, times(3)).submit(eq(BTC_ETH), eq(TimeFrame.ONE_MINUTE), any(Runnable.class));
+        assertEquals(0.08, candles.getOpen(3), 0);
+
+        // Without the clock the next period trade closes the candle
+        candlesStorage.addTrade(BTC_ETH, new PoloniexTrade(3L, START.plusMinutes(5).plusSeconds(1), "0.5", "0.09", "0.045", "buy"));
+        verify(strategyScheduler, times(5)).submit(eq(BTC_ETH), eq(TimeFrame.ONE_MINUTE), any(Runnable.class));
+        assertEquals(6, candles.size());
+        assertEquals(0.08, candles.getClose(4), 0);
+        assertEquals(0, candles.getTrades(4));
+    }
+
+    private void installHistory(CurrencyPair currencyPair, List<PoloniexHistoryTrade> history) {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        List<CandlesBuffer> builtCandles;
+        try {
+            builtCandles = candlesStorage.buildCandles(currencyPair, TradesCursor.of(history), pool);
+        } finally {
+            pool.shutdown();
+        }
+        candlesStorage.installCandles(currencyPair, builtCandles, new TradesLog().cursor());
+    }
+
+    private void assertSameCandles(CurrencyPair expectedPair, CurrencyPair currencyPair) {
+        for (TimeFrame timeFrame : TimeFrame.values()) {
+            CandlesBuffer expected = candlesStorage.getTimeFrameStorage(expectedPair, timeFrame).getCandles();
+            CandlesBuffer candles = candlesStorage.getTimeFrameStorage(currencyPair, timeFrame).getCandles();
+            assertEquals(expected.size(), candles.size());
+            for (int index = expected.getBeginIndex(); index <= expected.getEndIndex(); index++) {
+                assertEquals(expected.getEndTime(index), candles.getEndTime(index));
+                assertEquals(expected.getTrades(index), candles.getTrades(index));
+                assertEquals(expected.getOpen(index), candles.getOpen(index), 0);
+                assertEquals(expected.getHigh(index), candles.getHigh(index), 0);
+                assertEquals(expected.getLow(index), candles.getLow(index), 0);
+                assertEquals(expected.getClose(index), candles.getClose(index), 0);
+                assertEquals(expected.getVolume(index), candles.getVolume(index), 1e-12);
+            }
+            TimeFrameStorage expectedStorage = candlesStorage.getTimeFrameStorage(expectedPair, timeFrame);
+            TimeFrameStorage timeFrameStorage = candlesStorage.getTimeFrameStorage(currencyPair, timeFrame);
+            assertEquals(expectedStorage.getRolledIndex(), timeFrameStorage.getRolledIndex());
+        }
+    }
+}
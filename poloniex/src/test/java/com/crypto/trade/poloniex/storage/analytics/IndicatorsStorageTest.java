@@ -1,11 +1,10 @@
 package com.crypto.trade.poloniex.storage.analytics;
 
-import eu.verdelhan.ta4j.Tick;
-import eu.verdelhan.ta4j.indicators.EMAIndicator;
+import com.crypto.trade.poloniex.services.analytics.indicators.StreamingEMAIndicator;
+import eu.verdelhan.ta4j.BaseTimeSeries;
+import eu.verdelhan.ta4j.TimeSeries;
 import org.junit.Test;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.stream.IntStream;
 
 import static junit.framework.Assert.assertEquals;
@@ -16,11 +15,11 @@ public class IndicatorsStorageTest {
     @Test
     public void indicatorCache() {
         IndicatorsStorage storage = new IndicatorsStorage();
-        List<Tick> candles = new ArrayList<>();
+        TimeSeries candles = new BaseTimeSeries();
         IndicatorType type = IndicatorType.EMA90;
 
-        EMAIndicator created = storage.getIndicator(type, IndicatorFactory.createSupplier(type, candles, storage));
-        EMAIndicator cached = storage.getIndicator(type, IndicatorFactory.createSupplier(type, candles, storage));
+        StreamingEMAIndicator created = storage.getIndicator(type, IndicatorFactory.createSupplier(type, candles, storage));
+        StreamingEMAIndicator cached = storage.getIndicator(type, IndicatorFactory.createSupplier(type, candles, storage));
 
         assertEquals(created, cached);
     }
@@ -28,7 +27,7 @@ public class IndicatorsStorageTest {
     @Test
     public void dependentIndicatorCache() {
         IndicatorsStorage storage = new IndicatorsStorage();
-        List<Tick> candles = new ArrayList<>();
+        TimeSeries candles = new BaseTimeSeries();
         IndicatorType type = IndicatorType.DMA90;
 
         IntStream.range(0, 5).forEach(index ->
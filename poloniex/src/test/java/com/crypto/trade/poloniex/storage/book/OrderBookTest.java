@@ -0,0 +1,59 @@
+package com.crypto.trade.poloniex.storage.book;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class OrderBookTest {
+
+    private final OrderBook orderBook = new OrderBook();
+
+    @Before
+    public void setUp() {
+        orderBook.onSnapshot(10);
+        // Asks come from the best one as in the channel snapshot
+        orderBook.onUpdate(10, false, 7010000, 10000000);
+        orderBook.onUpdate(10, false, 7020000, 10000000);
+        orderBook.onUpdate(10, false, 7050000, 100000000);
+        orderBook.onUpdate(10, true, 7000000, 20000000);
+        orderBook.onUpdate(10, true, 6990000, 50000000);
+    }
+
+    @Test
+    public void updatesMoveTopOfBook() {
+        assertEquals(7000000, orderBook.getBestBid());
+        assertEquals(7010000, orderBook.getBestAsk());
+
+        assertTrue(orderBook.onUpdate(11, true, 7005000, 10000000));
+        assertFalse(orderBook.onUpdate(11, true, 7005000, 30000000));
+        assertFalse(orderBook.onUpdate(11, false, 7020000, 0));
+        assertTrue(orderBook.onUpdate(12, false, 7010000, 0));
+
+        assertEquals(7005000, orderBook.getBestBid());
+        assertEquals(7050000, orderBook.getBestAsk());
+        assertEquals(50000000, orderBook.getDepth(true, 2));
+        assertEquals(100000000, orderBook.getDepth(false, 5));
+        assertTrue(orderBook.isSynced());
+    }
+
+    @Test
+    public void liquidityQueries() {
+        assertEquals(7020000, orderBook.getLimitPrice(false, 15000000));
+        assertEquals(7015000, orderBook.getVwap(false, 20000000), 0.001);
+        assertEquals(6990000, orderBook.getLimitPrice(true, 70000000));
+        assertEquals(0, orderBook.getLimitPrice(true, 70000001));
+        assertTrue(Double.isNaN(orderBook.getVwap(true, 70000001)));
+    }
+
+    @Test
+    public void sequenceGapUnsyncsBook() {
+        orderBook.onUpdate(12, true, 7005000, 10000000);
+
+        assertFalse(orderBook.isSynced());
+
+        orderBook.onSnapshot(20);
+        assertTrue(orderBook.isSynced());
+        assertEquals(0, orderBook.getBestBid());
+    }
+}
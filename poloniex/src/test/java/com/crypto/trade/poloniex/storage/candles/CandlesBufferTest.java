@@ -0,0 +1,117 @@
+package com.crypto.trade.poloniex.storage.candles;
+
+import eu.verdelhan.ta4j.Decimal;
+import eu.verdelhan.ta4j.TimeSeries;
+import eu.verdelhan.ta4j.indicators.helpers.ClosePriceIndicator;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+public class CandlesBufferTest {
+
+    private static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+
+    @Test
+    public void addTrades() {
+        CandlesBuffer candles = new CandlesBuffer("test", Duration.ofMinutes(1), 10);
+        int index = candles.addCandle(MINUTE);
+        candles.addTrade(index, 2, 0.5);
+        candles.addTrade(index, 1, 0.7);
+        candles.addTrade(index, 1, 0.4);
+
+        assertEquals(0, index);
+        assertEquals(0.5, candles.getOpen(index), 0);
+        assertEquals(0.7, candles.getHigh(index), 0);
+        assertEquals(0.4, candles.getLow(index), 0);
+        assertEquals(0.4, candles.getClose(index), 0);
+        assertEquals(4, candles.getVolume(index), 0);
+        assertEquals(2.1, candles.getAmount(index), 1e-9);
+        assertEquals(3, candles.getTrades(index));
+    }
+
+    @Test
+    public void evictOldestCandles() {
+        CandlesBuffer candles = new CandlesBuffer("test", Duration.ofMinutes(1), 200);
+        IntStream.range(0, 500).forEach(minute -> candles.addTrade(candles.addCandle((minute + 1) * MINUTE), 1, minute));
+
+        assertEquals(200, candles.size());
+        assertEquals(300, candles.getBeginIndex());
+        assertEquals(499, candles.getEndIndex());
+        assertEquals(300, candles.getClose(300), 0);
+        assertEquals(499, candles.getClose(499), 0);
+        assertFalse(candles.contains(299));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void evictedCandleAccess() {
+        CandlesBuffer candles = new CandlesBuffer("test", Duration.ofMinutes(1), 2);
+        IntStream.range(0, 3).forEach(minute -> candles.addCandle((minute + 1) * MINUTE));
+
+        candles.getClose(0);
+    }
+
+    @Test
+    public void copyFromKeepsIndexes() {
+        CandlesBuffer source = new CandlesBuffer("test", Duration.ofMinutes(1), 1000);
+        IntStream.range(0, 500).forEach(minute -> source.addTrade(source.addCandle((minute + 1) * MINUTE), 1, minute));
+        CandlesBuffer candles = new CandlesBuffer("test", Duration.ofMinutes(1), 200);
+        candles.addTrade(candles.addCandle(MINUTE), 1, 1000);
+
+        candles.copyFrom(source);
+        int index = candles.addCandle(501 * MINUTE);
+
+        assertEquals(500, index);
+        assertEquals(200, candles.size());
+        assertEquals(301, candles.getBeginIndex());
+        assertEquals(301, candles.getClose(301), 0);
+        assertEquals(500 * MINUTE, candles.getEndTime(499));
+        assertEquals(1, candles.getTrades(499));
+    }
+
+    @Test
+    public void findIndex() {
+        CandlesBuffer candles = new CandlesBuffer("test", Duration.ofMinutes(1), 10);
+        IntStream.range(0, 10).forEach(minute -> candles.addCandle((minute + 1) * MINUTE));
+
+        assertEquals(9, candles.findIndex(9 * MINUTE));
+        assertEquals(5, candles.findIndex(5 * MINUTE + 1));
+        assertEquals(2, candles.findIndex(2 * MINUTE));
+        assertEquals(0, candles.findIndex(0));
+        assertEquals(-1, candles.findIndex(-1));
+        assertEquals(-1, candles.findIndex(10 * MINUTE));
+    }
+
+    @Test
+    public void findIndexWithMissingPeriods() {
+        CandlesBuffer candles = new CandlesBuffer("test", Duration.ofMinutes(1), 4);
+        IntStream.of(1, 2, 5, 6, 9, 10).forEach(minute -> candles.addCandle(minute * MINUTE));
+
+        assertEquals(5, candles.findIndex(9 * MINUTE + 1));
+        assertEquals(4, candles.findIndex(8 * MINUTE));
+        assertEquals(3, candles.findIndex(5 * MINUTE + 1));
+        assertEquals(2, candles.findIndex(4 * MINUTE));
+        assertEquals(-1, candles.findIndex(7 * MINUTE));
+        assertEquals(-1, candles.findIndex(MINUTE));
+    }
+
+    @Test
+    public void timeSeriesView() {
+        CandlesBuffer candles = new CandlesBuffer("test", Duration.ofMinutes(1), 3);
+        IntStream.range(0, 5).forEach(minute -> candles.addTrade(candles.addCandle((minute + 1) * MINUTE), 1, minute + 0.5));
+        TimeSeries series = candles.getTimeSeries();
+        ClosePriceIndicator closePrice = new ClosePriceIndicator(series);
+
+        assertEquals(3, series.getTickCount());
+        assertEquals(2, series.getBeginIndex());
+        assertEquals(4, series.getEndIndex());
+        assertEquals(2, series.getRemovedTicksCount());
+        assertEquals(3, series.getTickData().size());
+        assertEquals(Decimal.valueOf("4.5"), closePrice.getValue(4));
+        assertEquals(Decimal.valueOf("2.5"), series.getTick(0).getClosePrice());
+        assertEquals(4 * MINUTE, series.getTick(4).getBeginTime().toInstant().toEpochMilli());
+    }
+}
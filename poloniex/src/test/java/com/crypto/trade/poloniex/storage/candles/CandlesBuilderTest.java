@@ -0,0 +1,109 @@
+package com.crypto.trade.poloniex.storage.candles;
+
+import com.crypto.trade.poloniex.dto.PoloniexHistoryTrade;
+import com.crypto.trade.poloniex.services.analytics.TimeFrame;
+import com.crypto.trade.poloniex.services.backtest.HistoryTrades;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+public class CandlesBuilderTest {
+
+    private static final ZonedDateTime START = ZonedDateTime.of(2018, 4, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+    private HistoryTrades trades;
+
+    @Before
+    public void setUp() {
+        Random random = new Random(5);
+        List<PoloniexHistoryTrade> historyTrades = new ArrayList<>();
+        ZonedDateTime time = START;
+        for (long id = 0; id < 3000; id++) {
+            // Some trades are hours apart, leaving periods without trades
+            time = time.plusSeconds(random.nextInt(50) == 0 ? TimeUnit.HOURS.toSeconds(2) : random.nextInt(20));
+            PoloniexHistoryTrade trade = new PoloniexHistoryTrade();
+            trade.setTradeId(id);
+            trade.setDate(time);
+            trade.setType("buy");
+            trade.setRate(BigDecimal.valueOf(0.07 + random.nextDouble() * 0.001).setScale(8, BigDecimal.ROUND_HALF_UP).toPlainString());
+            trade.setAmount(BigDecimal.valueOf(random.nextDouble()).setScale(8, BigDecimal.ROUND_HALF_UP).toPlainString());
+            historyTrades.add(trade);
+        }
+        trades = HistoryTrades.of(historyTrades);
+    }
+
+    @After
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void rangesAreJoinedIntoTheSameCandles() {
+        List<TimeFrame> timeFrames = Arrays.asList(TimeFrame.ONE_MINUTE, TimeFrame.FIVE_MINUTES, TimeFrame.ONE_HOUR);
+        List<CandlesBuffer> expected = new CandlesBuilder(trades, pool, trades.size()).build(timeFrames);
+        List<CandlesBuffer> cascade = new CandlesBuilder(trades, pool, 37).build(timeFrames);
+
+        for (int level = 0; level < timeFrames.size(); level++) {
+            assertCandles(expected.get(level), cascade.get(level));
+        }
+    }
+
+    @Test
+    public void candlesCoverEveryPeriod() {
+        CandlesBuffer candles = new CandlesBuilder(trades, pool, 100).build(TimeFrame.FIVE_MINUTES);
+
+        long periodMillis = TimeFrame.FIVE_MINUTES.getDurationMillis();
+        assertEquals(TimeFrame.FIVE_MINUTES.calculateEndMillis(trades.getTime(0)), candles.getEndTime(0));
+        assertEquals(TimeFrame.FIVE_MINUTES.calculateEndMillis(trades.getTime(trades.size() - 1)), candles.getEndTime(candles.getEndIndex()));
+        int tradesCount = 0;
+        for (int index = 0; index <= candles.getEndIndex(); index++) {
+            if (index > 0) {
+                assertEquals(candles.getEndTime(index - 1) + periodMillis, candles.getEndTime(index));
+                if (candles.getTrades(index) == 0) {
+                    assertEquals(candles.getClose(index - 1), candles.getOpen(index), 0);
+                }
+            }
+            tradesCount += candles.getTrades(index);
+        }
+        assertEquals(trades.size(), tradesCount);
+    }
+
+    @Test
+    public void onlyClosedCandlesAreRolledUp() {
+        List<CandlesBuffer> cascade = new CandlesBuilder(trades, pool, 100).build(Arrays.asList(TimeFrame.ONE_MINUTE, TimeFrame.ONE_HOUR));
+
+        CandlesBuffer minutes = cascade.get(0);
+        CandlesBuffer hours = cascade.get(1);
+        int rolledTrades = 0;
+        for (int index = 0; index <= hours.getEndIndex(); index++) {
+            rolledTrades += hours.getTrades(index);
+        }
+        assertEquals(trades.size() - minutes.getTrades(minutes.getEndIndex()), rolledTrades);
+    }
+
+    private static void assertCandles(CandlesBuffer expected, CandlesBuffer candles) {
+        assertEquals(expected.size(), candles.size());
+        for (int index = expected.getBeginIndex(); index <= expected.getEndIndex(); index++) {
+            assertEquals(expected.getEndTime(index), candles.getEndTime(index));
+            assertEquals(expected.getTrades(index), candles.getTrades(index));
+            assertEquals(expected.getOpen(index), candles.getOpen(index), 0);
+            assertEquals(expected.getHigh(index), candles.getHigh(index), 0);
+            assertEquals(expected.getLow(index), candles.getLow(index), 0);
+            assertEquals(expected.getClose(index), candles.getClose(index), 0);
+            assertEquals(expected.getVolume(index), candles.getVolume(index), 1e-9);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.crypto.trade.poloniex.storage.history;
+
+import com.crypto.trade.poloniex.dto.PoloniexHistoryTrade;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TradesHistoryFileTest {
+
+    private static final ZonedDateTime START = ZonedDateTime.of(2018, 4, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path path;
+
+    @Before
+    public void setUp() throws IOException {
+        path = folder.getRoot().toPath().resolve("BTC_ETH").resolve("poloniex-2018-04-01.bin");
+    }
+
+    @Test
+    public void writeAndReadTrades() throws IOException {
+        List<PoloniexHistoryTrade> trades = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            trades.add(createTrade(i, START.plusSeconds(i * 10), "0.0712345" + i % 10, "1.5", i % 3 == 0 ? "buy" : "sell"));
+        }
+        Collections.reverse(trades);
+
+        assertEquals(100, TradesHistoryWriter.append(path, trades));
+        TradesHistoryFile file = TradesHistoryFile.open(path);
+
+        assertEquals(100, file.size());
+        assertEquals(1, file.getBlocksCount());
+        assertEquals(START.toEpochSecond(), file.getFirstTime());
+        assertEquals(START.plusSeconds(990).toEpochSecond(), file.getLastTime());
+        assertEquals(7, file.getTradeId(7));
+        assertEquals(0.07123457, file.getRate(7), 0);
+        assertEquals(7123457, file.getScaledRate(7));
+        assertEquals(1.5, file.getAmount(7), 0);
+        assertTrue(file.isBuy(9));
+        assertFalse(file.isBuy(10));
+
+        PoloniexHistoryTrade trade = file.getTrade(7);
+        assertEquals(Long.valueOf(7), trade.getTradeId());
+        assertEquals(START.plusSeconds(70).toEpochSecond(), trade.getDate().toEpochSecond());
+        assertEquals("0.07123457", trade.getRate());
+        assertEquals("1.50000000", trade.getAmount());
+        assertEquals("0.10685186", trade.getTotal());
+        assertEquals("sell", trade.getType());
+    }
+
+    @Test
+    public void appendBlocksAndFindTime() throws IOException {
+        for (int block = 0; block < 3; block++) {
+            List<PoloniexHistoryTrade> trades = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                int id = block * 10 + i;
+                trades.add(createTrade(id, START.plusSeconds(id * 10), "0.07", "1", "buy"));
+            }
+            TradesHistoryWriter.append(path, trades);
+        }
+        TradesHistoryFile file = TradesHistoryFile.open(path);
+
+        assertEquals(30, file.size());
+        assertEquals(3, file.getBlocksCount());
+        assertEquals(25, file.getTradeId(25));
+        assertEquals(0, file.findIndex(START.minusSeconds(1).toEpochSecond()));
+        assertEquals(10, file.findIndex(START.plusSeconds(100).toEpochSecond()));
+        assertEquals(11, file.findIndex(START.plusSeconds(101).toEpochSecond()));
+        assertEquals(30, file.findIndex(START.plusSeconds(291).toEpochSecond()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectOlderTrades() throws IOException {
+        TradesHistoryWriter.append(path, Collections.singletonList(createTrade(2, START.plusSeconds(60), "0.07", "1", "buy")));
+        TradesHistoryWriter.append(path, Collections.singletonList(createTrade(1, START, "0.07", "1", "buy")));
+    }
+
+    @Test
+    public void ignoreAndOverwriteTornBlock() throws IOException {
+        TradesHistoryWriter.append(path, Collections.singletonList(createTrade(1, START, "0.07", "1", "buy")));
+        long validLength = Files.size(path);
+        TradesHistoryWriter.append(path, Collections.singletonList(createTrade(2, START.plusSeconds(1), "0.07", "1", "buy")));
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.setLength(validLength + 10);
+        }
+
+        assertEquals(1, TradesHistoryFile.open(path).size());
+        TradesHistoryWriter.append(path, Collections.singletonList(createTrade(3, START.plusSeconds(2), "0.07", "1", "buy")));
+        TradesHistoryFile file = TradesHistoryFile.open(path);
+        assertEquals(2, file.size());
+        assertEquals(3, file.getTradeId(1));
+    }
+
+    private static PoloniexHistoryTrade createTrade(long id, ZonedDateTime date, String rate, String amount, String type) {
+        PoloniexHistoryTrade trade = new PoloniexHistoryTrade();
+        trade.setTradeId(id);
+        trade.setGlobalTradeId(id);
+        trade.setDate(date);
+        trade.setType(type);
+        trade.setRate(rate);
+        trade.setAmount(amount);
+        return trade;
+    }
+}
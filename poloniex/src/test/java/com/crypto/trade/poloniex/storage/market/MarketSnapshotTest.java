@@ -0,0 +1,69 @@
+package com.crypto.trade.poloniex.storage.market;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+public class MarketSnapshotTest {
+
+    @Test
+    public void olderTradeDoesNotOverrideLastPrice() {
+        MarketSnapshot snapshot = new MarketSnapshot();
+        assertFalse(snapshot.read().hasLastPrice());
+
+        snapshot.onTrade(2000, MarketSnapshot.scale(0.07), 2000);
+        snapshot.onTrade(1000, MarketSnapshot.scale(0.06), 1500);
+
+        MarketQuote quote = snapshot.read();
+        assertEquals(0, new BigDecimal("0.07").compareTo(quote.getLastPriceValue()));
+        assertEquals(2000, quote.getLastTradeMillis());
+        assertTrue(quote.isTradeFresh(2500, 500));
+        assertFalse(quote.isTradeFresh(2501, 500));
+        // Trade and quote ages are separate
+        snapshot.onQuote(3000, 1, 2);
+        assertFalse(snapshot.read().isTradeFresh(3500, 500));
+        assertTrue(snapshot.read().isQuoteFresh(3500, 500));
+        assertFalse(snapshot.read().isQuoteFresh(3501, 500));
+    }
+
+    @Test
+    public void historyTradeIsNeverFresh() {
+        MarketSnapshot snapshot = new MarketSnapshot();
+        snapshot.onTrade(2000, MarketSnapshot.scale(0.07), Long.MIN_VALUE);
+        assertTrue(snapshot.read().hasLastPrice());
+        assertFalse(snapshot.read().isTradeFresh(2000, 500));
+
+        snapshot.onTrade(2000, MarketSnapshot.scale(0.07), 2100);
+        assertTrue(snapshot.read().isTradeFresh(2500, 500));
+        // A newer history trade prices the orders, its age is unknown
+        snapshot.onTrade(3000, MarketSnapshot.scale(0.08), Long.MIN_VALUE);
+        assertFalse(snapshot.read().isTradeFresh(2500, 500));
+    }
+
+    @Test
+    public void readersNeverSeeTornQuote() throws InterruptedException {
+        MarketSnapshot snapshot = new MarketSnapshot();
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread writer = new Thread(() -> {
+            for (long i = 1; running.get(); i++) {
+                snapshot.onQuote(i, i, i + 1);
+            }
+        });
+        writer.start();
+        try {
+            for (int i = 0; i < 1000000; i++) {
+                MarketQuote quote = snapshot.read();
+                if (quote.hasQuote()) {
+                    assertEquals(quote.getQuoteMillis(), quote.getBestBid());
+                    assertEquals(quote.getBestBid() + 1, quote.getBestAsk());
+                }
+            }
+        } finally {
+            running.set(false);
+            writer.join();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.crypto.trade.poloniex.storage.trades;
+
+import com.crypto.trade.poloniex.storage.history.TradesCursor;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TradesLogTest {
+
+    private static final long START = Instant.parse("2018-04-01T00:00:00Z").toEpochMilli();
+
+    @Test
+    public void copiesRingTrades() {
+        TradesRing ring = new TradesRing(Duration.ofMinutes(10));
+        ring.add(START + 2000, 2, 0.2, 1, false);
+        ring.add(START + 1000, 1, 0.1, 2, true);
+
+        TradesLog log = TradesLog.of(ring.cursor());
+        ring.add(START + 3000, 3, 0.3, 1, true);
+
+        assertEquals(2, log.size());
+        TradesCursor cursor = log.cursor();
+        assertTrue(cursor.next());
+        assertEquals(START + 1000, cursor.getTimeMillis());
+        assertEquals(0.1, cursor.getRate(), 0);
+        assertEquals(2, cursor.getAmount(), 0);
+        assertTrue(cursor.isBuy());
+        assertTrue(cursor.next());
+        assertEquals(2, cursor.getTradeId());
+        assertFalse(cursor.isBuy());
+        assertFalse(cursor.next());
+    }
+
+    @Test
+    public void cursorAfterSkipsKnownTrades() {
+        TradesLog log = new TradesLog();
+        for (long id = 1; id <= 1000; id++) {
+            log.add(START + id * 1000, id, 0.1, 1, true);
+        }
+
+        List<Long> tradeIds = new ArrayList<>();
+        TradesCursor cursor = log.cursorAfter(997);
+        while (cursor.next()) {
+            tradeIds.add(cursor.getTradeId());
+        }
+
+        assertEquals(Arrays.asList(998L, 999L, 1000L), tradeIds);
+        assertFalse(cursor.next());
+    }
+}
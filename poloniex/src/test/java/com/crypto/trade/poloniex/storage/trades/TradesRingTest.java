@@ -0,0 +1,81 @@
+package com.crypto.trade.poloniex.storage.trades;
+
+import com.crypto.trade.poloniex.dto.PoloniexHistoryTrade;
+import com.crypto.trade.poloniex.storage.history.TradesCursor;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TradesRingTest {
+
+    private static final long START = Instant.parse("2018-04-01T00:00:00Z").toEpochMilli();
+    private static final long MINUTE = 60000;
+
+    private final TradesRing ring = new TradesRing(Duration.ofMinutes(10));
+
+    @Test
+    public void keepsTradesOrderedWithoutDuplicates() {
+        assertTrue(ring.add(START + 2000, 3, 0.3, 1, true));
+        assertTrue(ring.add(START + 1000, 1, 0.1, 1, true));
+        assertTrue(ring.add(START + 1000, 2, 0.2, 1, false));
+        assertFalse(ring.add(START + 1000, 2, 0.2, 1, false));
+        assertTrue(ring.add(START + MINUTE, 4, 0.4, 1, true));
+
+        assertEquals(4, ring.size());
+        assertArrayEquals(new long[]{1, 2, 3, 4}, tradeIds(ring.cursor()));
+    }
+
+    @Test
+    public void expiresWholeMinutes() {
+        assertEquals(0, ring.size());
+        for (int minute = 0; minute < 30; minute++) {
+            ring.add(START + minute * MINUTE, minute * 2, minute, 1, true);
+            ring.add(START + minute * MINUTE + 30000, minute * 2 + 1, minute, 1, true);
+        }
+
+        // Ten minutes and the current one are kept
+        assertEquals(22, ring.size());
+        assertEquals(38, tradeIds(ring.cursor())[0]);
+        assertFalse(ring.add(START + 5 * MINUTE, 100, 5, 1, true));
+        // A late trade within the ring is kept in time order
+        assertTrue(ring.add(START + 25 * MINUTE + 1, 101, 5, 1, true));
+        long[] ids = tradeIds(ring.cursor());
+        assertEquals(101, ids[(25 - 19) * 2 + 1]);
+    }
+
+    @Test
+    public void mergesWithHistory() {
+        ring.add(START + 2 * MINUTE, 3, 0.3, 1, true);
+        ring.add(START + 3 * MINUTE, 4, 0.4, 1, true);
+        List<PoloniexHistoryTrade> history = new ArrayList<>();
+        for (long id = 1; id <= 3; id++) {
+            PoloniexHistoryTrade trade = new PoloniexHistoryTrade();
+            trade.setTradeId(id);
+            trade.setDate(ZonedDateTime.ofInstant(Instant.ofEpochMilli(START + id * MINUTE - MINUTE), ZoneOffset.UTC));
+            trade.setRate("0.1");
+            trade.setAmount("1");
+            trade.setType("buy");
+            history.add(trade);
+        }
+
+        long[] ids = tradeIds(TradesCursor.merge(TradesCursor.of(history), ring.cursor()));
+
+        assertEquals(Arrays.toString(new long[]{1, 2, 3, 4}), Arrays.toString(ids));
+    }
+
+    private static long[] tradeIds(TradesCursor cursor) {
+        List<Long> ids = new ArrayList<>();
+        while (cursor.next()) {
+            ids.add(cursor.getTradeId());
+        }
+        return ids.stream().mapToLong(Long::longValue).toArray();
+    }
+}